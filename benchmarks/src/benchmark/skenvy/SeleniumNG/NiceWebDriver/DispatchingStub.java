@@ -0,0 +1,56 @@
+package benchmark.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.net.URL;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriver;
+
+import test.skenvy.SeleniumNG.NiceWebDriver.NiceStub;
+
+/***
+ * An argumentless NiceStub whose every InvokeContsructorWithArguments
+ * returns itself, so that the UnderloadedNiceWebDriverConstructor's
+ * dispatch on its arguments is measured apart from the constructor it
+ * picks.
+ */
+public class DispatchingStub extends NiceStub {
+
+	/***
+	 * Dispatch the arguments as the NiceWebDriverFactory does
+	 * @param oArgs
+	 * @return
+	 */
+	public NiceWebDriver dispatch(Object[] oArgs) {
+		return UnderloadedNiceWebDriverConstructor(oArgs);
+	}
+
+	@Override
+	protected NiceWebDriver InvokeContsructorWithArguments(boolean localInstance) {
+		return this;
+	}
+
+	@Override
+	protected NiceWebDriver InvokeContsructorWithArguments(boolean localInstance, int waitSeconds) {
+		return this;
+	}
+
+	@Override
+	protected NiceWebDriver InvokeContsructorWithArguments(String optionArgs) {
+		return this;
+	}
+
+	@Override
+	protected NiceWebDriver InvokeContsructorWithArguments(String optionArgs, int waitSeconds) {
+		return this;
+	}
+
+	@Override
+	protected NiceWebDriver InvokeContsructorWithArguments(URL remoteAddress) {
+		return this;
+	}
+
+	@Override
+	protected NiceWebDriver InvokeContsructorWithArguments(URL remoteAddress, int waitSeconds) {
+		return this;
+	}
+
+}
@@ -0,0 +1,23 @@
+package benchmark.skenvy.SeleniumNG.NiceWebDriver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openqa.selenium.WebElement;
+
+/***
+ * clickANonNullWebElement, which is only reached through a lookup, so
+ * LookupBenchmark.lookupFound is its baseline, and sendKeys of one batch of
+ * keys to an element that was already looked up.
+ */
+public class InteractionBenchmark extends NiceWebDriverBenchmark {
+
+	@Benchmark
+	public WebElement click(StubbedSession session) {
+		return session.nwd.clickOnCSSElementIfExists("#here");
+	}
+
+	@Benchmark
+	public WebElement sendKeys(StubbedSession session) {
+		return session.nwd.sendKeysToANonNullWebElement(session.element,"benchmark");
+	}
+
+}
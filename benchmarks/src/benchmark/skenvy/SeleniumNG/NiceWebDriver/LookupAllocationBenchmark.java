@@ -0,0 +1,84 @@
+package benchmark.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.EventLog;
+import com.skenvy.SeleniumNG.NiceWebDriver.LogLevel;
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriver;
+
+import test.skenvy.SeleniumNG.NiceWebDriver.StubConfig;
+import test.skenvy.SeleniumNG.NiceWebDriver.StubWebDriver;
+
+/***
+ * What a web element lookup allocates with the EventLog at each
+ * "Logging.Level", written to /dev/null. First the lookup's messages alone:
+ * the eager "by ... String: ..." concatenation that was made on every lookup
+ * before the EventLog, and the same message as an event, which is only
+ * made if its level is enabled. Then whole lookups, by CSS selector, that
+ * succeed, where Info logs nothing and Verbose logs the lookup. The
+ * difference between the Off and Verbose lookups is the cost of the
+ * messages; the rest is the stub and the command timing. Run with the GC
+ * profiler, and read the bytes of each call from "gc.alloc.rate.norm":
+ * {@code java -jar benchmarks/target/benchmarks.jar LookupAllocation -prof gc}
+ */
+public class LookupAllocationBenchmark extends NiceWebDriverBenchmark {
+
+	/***
+	 * A session over a stub that answers at once, with the EventLog at the
+	 * level
+	 */
+	@State(Scope.Thread)
+	public static class LoggingSession {
+
+		@Param({"Off","Info","Verbose"})
+		public String loggingLevel;
+
+		public NiceWebDriver nwd;
+
+		public EventLog eventLog;
+
+		public String selectorType = "CSS Selector";
+
+		public By by = By.cssSelector("#here");
+
+		@Setup(Level.Trial)
+		public void startSession() throws IOException {
+			StubWebDriver.defaultCommandLatencyMillis = 0;
+			nwd = StubbedSession.startSession(StubConfig.write("Logging.Level",loggingLevel,"Logging.Path","/dev/null"));
+			eventLog = EventLog.forSession("benchmark");
+		}
+
+		@TearDown(Level.Trial)
+		public void quitSession() {
+			nwd.quitWebDriver();
+			EventLog.flush(10000);
+		}
+
+	}
+
+	@Benchmark
+	public String messageConcatenated(LoggingSession session) {
+		return "Succeeded in locating WebElement (on arrival) by "+session.selectorType+" String: "+session.by.toString();
+	}
+
+	@Benchmark
+	public void messageAsAnEvent(LoggingSession session) {
+		session.eventLog.log(LogLevel.Verbose,"Succeeded in locating WebElement (on arrival) by {} String: {}",session.selectorType,session.by);
+	}
+
+	@Benchmark
+	public WebElement lookupFound(LoggingSession session) {
+		return session.nwd.getWebElementByCSSIfExists("#here");
+	}
+
+}
@@ -0,0 +1,22 @@
+package benchmark.skenvy.SeleniumNG.NiceWebDriver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openqa.selenium.WebElement;
+
+/***
+ * getWebElementIfExists, through getWebElementByCSSIfExists, for an
+ * element the page has, and for one it does not.
+ */
+public class LookupBenchmark extends NiceWebDriverBenchmark {
+
+	@Benchmark
+	public WebElement lookupFound(StubbedSession session) {
+		return session.nwd.getWebElementByCSSIfExists("#here");
+	}
+
+	@Benchmark
+	public WebElement lookupMissing(StubbedSession session) {
+		return session.nwd.getWebElementByCSSIfExists("#missing");
+	}
+
+}
@@ -0,0 +1,134 @@
+package benchmark.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.DriverType;
+import com.skenvy.SeleniumNG.NiceWebDriver.EventLog;
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceScript;
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriver;
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriverFactory;
+
+import test.skenvy.SeleniumNG.NiceWebDriver.StubConfig;
+import test.skenvy.SeleniumNG.NiceWebDriver.StubWebDriverEndpoint;
+
+/***
+ * Executes a script of a few kilobytes, the size of the NiceWebDriver's own
+ * page quiescence and element arrival scripts, over a remote session
+ * against a StubWebDriverEndpoint: sending its text each time, as a plain
+ * executeScript does, and as a NiceScript, which sends its text once and
+ * then only a call to it, with the request bytes of each call as a
+ * counter. The stub does not parse the scripts, so against a real browser
+ * the NiceScript also saves the parsing of each call.
+ */
+public class NiceScriptBenchmark extends NiceWebDriverBenchmark {
+
+	/***
+	 * A remote session, on a page, and the script it executes
+	 */
+	@State(Scope.Thread)
+	public static class RemoteSession {
+
+		/***
+		 * Milliseconds the endpoint takes to answer each command
+		 */
+		@Param({"0","1"})
+		public long latencyMillis;
+
+		/***
+		 * The size of the script, in kilobytes
+		 */
+		@Param({"4"})
+		public int kiloBytes;
+
+		public StubWebDriverEndpoint endpoint;
+
+		public NiceWebDriver nwd;
+
+		public NiceScript script;
+
+		@Setup(Level.Trial)
+		public void startSession() throws IOException {
+			NiceWebDriverFactory factory = NiceWebDriverFactory.getFactory(StubConfig.write("Logging.Path","/dev/null"));
+			endpoint = new StubWebDriverEndpoint(latencyMillis);
+			nwd = factory.getNiceWebDriverRemote(DriverType.Chrome,endpoint.getRemoteAddress(),1);
+			nwd.openWebPage("http://stub.invalid/start");
+			script = NiceScript.define("benchmark.script",scriptOfSize(kiloBytes*1024));
+		}
+
+		@TearDown(Level.Trial)
+		public void quitSession() {
+			nwd.quitWebDriver();
+			endpoint.stop();
+			EventLog.flush(10000);
+		}
+
+	}
+
+	/***
+	 * The request bytes of each call of the iteration
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class RequestBytes {
+
+		private long bytesBefore;
+
+		private long calls;
+
+		public long requestBytesPerCall;
+
+		@Setup(Level.Iteration)
+		public void start(RemoteSession session) {
+			bytesBefore = session.endpoint.requestBytes.get();
+			calls = 0;
+		}
+
+		/***
+		 * Count a call, as it returns, into the request bytes of each
+		 * @param session
+		 */
+		private void count(RemoteSession session) {
+			calls++;
+			requestBytesPerCall = (session.endpoint.requestBytes.get()-bytesBefore)/calls;
+		}
+
+	}
+
+	@Benchmark
+	public Object executeScript(RemoteSession session, RequestBytes bytes) {
+		Object result = session.nwd.unwrapJavascriptExecutor().executeScript(session.script.getBody(),1,"two");
+		bytes.count(session);
+		return result;
+	}
+
+	@Benchmark
+	public Object executeNiceScript(RemoteSession session, RequestBytes bytes) {
+		Object result = session.nwd.executeNiceScript(session.script,1,"two");
+		bytes.count(session);
+		return result;
+	}
+
+	/***
+	 * A script of about the given number of characters, made of small
+	 * functions as a real script is, which returns its first argument
+	 * @param characters
+	 * @return
+	 */
+	private static String scriptOfSize(int characters) {
+		StringBuilder script = new StringBuilder("var helpers = [];");
+		for(int k = 0; script.length() < characters; k++) {
+			script.append("helpers.push(function(value) { return (value === undefined ? ").append(k).append(" : value + ").append(k).append("); });");
+		}
+		return script.append("return helpers.length > 0 ? arguments[0] : null;").toString();
+	}
+
+}
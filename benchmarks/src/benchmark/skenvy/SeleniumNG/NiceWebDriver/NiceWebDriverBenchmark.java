@@ -0,0 +1,26 @@
+package benchmark.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/***
+ * The run settings every benchmark inherits, so that two runs on the same
+ * box are comparable: the average time of a call, in microseconds, after
+ * five one second warm up iterations, over five one second iterations, in
+ * each of two forks with a fixed heap and collector. Change them for a run
+ * from the command line, such as "-f 1 -wi 2 -i 3", rather than here.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g","-Xmx1g","-XX:+UseParallelGC"})
+public abstract class NiceWebDriverBenchmark {
+
+}
@@ -0,0 +1,89 @@
+package benchmark.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriver;
+
+/***
+ * What the argumentless prototype of a DriverType does without a session:
+ * the UnderloadedNiceWebDriverConstructor's dispatch on each arrangement of
+ * arguments the NiceWebDriverFactory passes it, and AnchorQueryStringForHREF.
+ */
+public class PrototypeBenchmark extends NiceWebDriverBenchmark {
+
+	@State(Scope.Thread)
+	public static class Prototype {
+
+		/***
+		 * The types of the arguments, as the factory would pass them
+		 */
+		@Param({"Boolean","BooleanInteger","String","StringInteger","URL","URLInteger"})
+		public String arguments;
+
+		public DispatchingStub prototype;
+		public Object[] oArgs;
+
+		@Setup
+		public void makePrototype() throws MalformedURLException {
+			prototype = new DispatchingStub();
+			switch(arguments) {
+				case "Boolean":
+					oArgs = new Object[] {true};
+					break;
+				case "BooleanInteger":
+					oArgs = new Object[] {true,30};
+					break;
+				case "String":
+					oArgs = new Object[] {"--incognito"};
+					break;
+				case "StringInteger":
+					oArgs = new Object[] {"--incognito",30};
+					break;
+				case "URL":
+					oArgs = new Object[] {new URL("http://node.invalid:4444/wd/hub")};
+					break;
+				default:
+					oArgs = new Object[] {new URL("http://node.invalid:4444/wd/hub"),30};
+					break;
+			}
+		}
+
+	}
+
+	@State(Scope.Thread)
+	public static class Anchor {
+
+		public DispatchingStub prototype;
+		public String href;
+
+		@Setup
+		public void makePrototype() {
+			prototype = new DispatchingStub();
+			href = "/context/page?query=1";
+		}
+
+	}
+
+	@Benchmark
+	public NiceWebDriver underloadedConstructorDispatch(Prototype state) {
+		return state.prototype.dispatch(state.oArgs);
+	}
+
+	@Benchmark
+	public String anchorQueryStringForHREF(Anchor state) {
+		return state.prototype.AnchorQueryStringForHREF(state.href,false);
+	}
+
+	@Benchmark
+	public String anchorQueryStringForVisibleHREF(Anchor state) {
+		return state.prototype.AnchorQueryStringForHREF(state.href,true);
+	}
+
+}
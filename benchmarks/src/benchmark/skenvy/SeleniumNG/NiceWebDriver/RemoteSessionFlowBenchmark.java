@@ -0,0 +1,134 @@
+package benchmark.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.DriverType;
+import com.skenvy.SeleniumNG.NiceWebDriver.EventLog;
+import com.skenvy.SeleniumNG.NiceWebDriver.ExecutionMode;
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriverFactory;
+
+import test.skenvy.SeleniumNG.NiceWebDriver.StubConfig;
+import test.skenvy.SeleniumNG.NiceWebDriver.StubWebDriverEndpoint;
+
+/***
+ * Drives many concurrent remote sessions against a StubWebDriverEndpoint,
+ * in each ExecutionMode, and measures how long all of the flows take, with
+ * the flows that failed and the most threads alive at once while they ran
+ * as counters. Each flow opens a page, finds and clicks a link (which
+ * sleeps for the wait seconds, as every NiceWebDriver click does), and
+ * reads the current URL back. A JVM without virtual threads runs the
+ * Virtual mode on platform threads, so compare the modes on a JDK 21 or
+ * later, such as with
+ * {@code java -jar benchmarks/target/benchmarks.jar RemoteSessionFlow -p sessions=300}
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class RemoteSessionFlowBenchmark extends NiceWebDriverBenchmark {
+
+	/***
+	 * The factory, in the ExecutionMode, and the endpoint its remote
+	 * sessions are driven against
+	 */
+	@State(Scope.Benchmark)
+	public static class RemoteSessions {
+
+		@Param({"Platform","Virtual"})
+		public String executionMode;
+
+		@Param({"300"})
+		public int sessions;
+
+		@Param({"3"})
+		public int flowsPerSession;
+
+		/***
+		 * Milliseconds the endpoint takes to answer each command
+		 */
+		@Param({"50"})
+		public long latencyMillis;
+
+		public NiceWebDriverFactory factory;
+
+		public StubWebDriverEndpoint endpoint;
+
+		@Setup(Level.Trial)
+		public void startEndpoint() throws IOException {
+			factory = NiceWebDriverFactory.getFactory(StubConfig.write("SessionPool.MaxIdleSessionsPerKey",String.valueOf(sessions),"Logging.Path","/dev/null"));
+			factory.setRemoteSessionExecutionMode(ExecutionMode.valueOf(executionMode));
+			endpoint = new StubWebDriverEndpoint(latencyMillis);
+		}
+
+		@TearDown(Level.Trial)
+		public void stopEndpoint() {
+			endpoint.stop();
+			EventLog.flush(10000);
+		}
+
+	}
+
+	/***
+	 * The flows of the iteration that failed, and the most threads alive at
+	 * once while they ran
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class FlowCounters {
+
+		private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+		public long failedFlows;
+
+		public long peakThreads;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			failedFlows = 0;
+			threads.resetPeakThreadCount();
+		}
+
+	}
+
+	@Benchmark
+	public int runFlows(RemoteSessions remote, FlowCounters counters) throws IOException {
+		List<CompletableFuture<String>> flows = new ArrayList<CompletableFuture<String>>(remote.sessions*remote.flowsPerSession);
+		for(int k = 0; k < remote.sessions*remote.flowsPerSession; k++) {
+			flows.add(remote.factory.runRemoteSessionFlow(DriverType.Chrome,remote.endpoint.getRemoteAddress(),1,nwd -> {
+				nwd.openWebPage("http://stub.invalid/start");
+				nwd.clickOnCSSElementIfExists("a#go");
+				return nwd.getCurrentUrlAsString();
+			}));
+		}
+		for(CompletableFuture<String> flow : flows) {
+			try {
+				flow.join();
+			} catch (RuntimeException e) {
+				counters.failedFlows++;
+			}
+		}
+		counters.peakThreads = counters.threads.getPeakThreadCount();
+		return flows.size();
+	}
+
+}
@@ -0,0 +1,120 @@
+package benchmark.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+import com.skenvy.SeleniumNG.DomainConstants;
+import com.skenvy.SeleniumNG.NiceWebDriver.DriverType;
+import com.skenvy.SeleniumNG.NiceWebDriver.EventLog;
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriver;
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriverFactory;
+
+import test.skenvy.SeleniumNG.NiceWebDriver.NiceStub;
+import test.skenvy.SeleniumNG.NiceWebDriver.StubConfig;
+import test.skenvy.SeleniumNG.NiceWebDriver.StubWebDriver;
+
+/***
+ * A NiceWebDriver, made by the NiceWebDriverFactory, over a StubWebDriver
+ * whose every command takes "latencyMillis" to answer, with its command
+ * timing on or off. The stub's page answers the ElementArrival script at
+ * once, with the element for any selector that does not contain "missing",
+ * as a page with the element already in it would; so a lookup that fails
+ * costs the framework's fall back to findElement, and its warning, but not
+ * the wait a real page would make it sit through. The warnings are written
+ * to /dev/null, so that only their cost to the session's thread is
+ * measured.
+ */
+@State(Scope.Thread)
+public class StubbedSession {
+
+	/***
+	 * Milliseconds every command takes to answer: 0 to measure only the
+	 * framework, and 1 for about a local driver's round trip
+	 */
+	@Param({"0","1"})
+	public long latencyMillis;
+
+	/***
+	 * Whether each command is timed into the session's CommandMetrics
+	 */
+	@Param({"True","False"})
+	public String metricsEnabled;
+
+	public NiceWebDriver nwd;
+
+	/***
+	 * An element that was looked up once, to interact with directly
+	 */
+	public WebElement element;
+
+	@Setup(Level.Trial)
+	public void startSession() throws IOException {
+		StubWebDriver.defaultCommandLatencyMillis = latencyMillis;
+		nwd = startSession(StubConfig.write("Metrics.Enabled",metricsEnabled,"Logging.Path","/dev/null"));
+		element = nwd.getWebElementByCSSIfExists("#here");
+	}
+
+	/***
+	 * Start a session, with the configuration file read, on a stub page that
+	 * answers the ElementArrival script as above
+	 * @param config
+	 * @return
+	 * @throws IOException
+	 */
+	static NiceWebDriver startSession(String config) throws IOException {
+		NiceWebDriverFactory factory = NiceWebDriverFactory.getFactory(config);
+		factory.registerNiceWebDriverPrototype(DriverType.Chrome,new NiceStub());
+		new DomainConstants(config);
+		NiceWebDriver nwd = factory.getNiceWebDriver(DriverType.Chrome,"--stub",1);
+		StubWebDriver driver = (StubWebDriver) nwd.unwrapWebDriver();
+		WebElement arrived = driver.findElement(By.cssSelector("#arrived"));
+		driver.setScriptResponder((script,args) -> answerArrival(arrived,args));
+		nwd.openWebPage("http://stub.invalid/page");
+		return nwd;
+	}
+
+	/***
+	 * Answer the ElementArrival script, which is given its strategy,
+	 * selector and timeout, and nothing else
+	 * @param arrived
+	 * @param args
+	 * @return
+	 */
+	private static Object answerArrival(WebElement arrived, Object[] args) {
+		if(args == null || args.length != 3 || !(args[2] instanceof Number)) {
+			return null;
+		}
+		Map<String,Object> arrival = new HashMap<String,Object>();
+		arrival.put("path","/page");
+		if(!String.valueOf(args[1]).contains("missing")) {
+			arrival.put("element",arrived);
+			arrival.put("waitedMilliSeconds",0L);
+		}
+		return arrival;
+	}
+
+	/***
+	 * Empty the element typed into, so it does not grow for the whole trial
+	 */
+	@Setup(Level.Iteration)
+	public void clearElement() {
+		element.clear();
+	}
+
+	@TearDown(Level.Trial)
+	public void quitSession() {
+		nwd.quitWebDriver();
+		EventLog.flush(10000);
+	}
+
+}
@@ -0,0 +1,21 @@
+package benchmark.skenvy.SeleniumNG.NiceWebDriver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+/***
+ * castToUrl, which is only reached through the openPage... methods, so
+ * openWebPage of the same url is its baseline.
+ */
+public class UrlBenchmark extends NiceWebDriverBenchmark {
+
+	@Benchmark
+	public void openWebPage(StubbedSession session) {
+		session.nwd.openWebPage("https://user@stub.invalid:8443/context/page?query=1");
+	}
+
+	@Benchmark
+	public void openPageOnAuthHostPortContextRoot(StubbedSession session) {
+		session.nwd.openPageOnAuthHostPortContextRoot("https","user","stub.invalid",8443,"context","page?query=1");
+	}
+
+}
@@ -0,0 +1,46 @@
+package com.skenvy.SeleniumNG;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.CommandMetrics;
+import com.skenvy.SeleniumNG.NiceWebDriver.EventLog;
+import com.skenvy.SeleniumNG.NiceWebDriver.LogLevel;
+
+/***
+ * Reports the latencies of every command the suite's NiceWebDriver sessions
+ * sent to the EventLog as the suite finishes, grouped by DriverType and node, and saves them
+ * to "Metrics.ReportPath" if it is configured. The metrics are then cleared,
+ * so each suite reports only its own commands. Registered on the baseTest
+ * with {@code @Listeners}.
+ */
+public class CommandMetricsReporter implements ISuiteListener {
+
+	@Override
+	public void onStart(ISuite suite) {
+	}
+
+	@Override
+	public void onFinish(ISuite suite) {
+		if(!CommandMetrics.isEnabled() || CommandMetrics.getEverySession().isEmpty()) {
+			return;
+		}
+		String report = CommandMetrics.getReport();
+		CommandMetrics.clearEverySession();
+		EventLog.forSuite().report(report);
+		DomainConstants.Metrics metrics = DomainConstants.current().metrics;
+		if(metrics != null && !metrics.reportPath.equals("")) {
+			try {
+				Files.write(Paths.get(metrics.reportPath),report.getBytes(StandardCharsets.UTF_8));
+			} catch (IOException e) {
+				EventLog.forSuite().log(LogLevel.Warn,"Failed to save the command latency report to | {} | {}",metrics.reportPath,e.getMessage());
+			}
+		}
+	}
+
+}
@@ -4,10 +4,14 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Properties;
 
 import com.skenvy.SeleniumNG.NiceWebDriver.DriverType;
+import com.skenvy.SeleniumNG.NiceWebDriver.ExecutionMode;
+import com.skenvy.SeleniumNG.NiceWebDriver.LogLevel;
 
 import jdk.nashorn.internal.runtime.regexp.joni.exception.ValueException;
 
@@ -20,78 +24,203 @@ import jdk.nashorn.internal.runtime.regexp.joni.exception.ValueException;
  * encapsulate the access of some site that is intended as the primary focus of
  * the test suite that has subclassed the baseTest or invokes the
  * NiceWebDriverFactory to substantiate tests in another testing framework.
+ * Each construction reads the whole file into one immutable snapshot, and
+ * publishes it through a single volatile reference, {@link #current()}, so
+ * a test that takes the snapshot once sees every value of the same file,
+ * whatever is reloaded while it runs, without locking.
  */
 public final class DomainConstants {
 	
 ///////////////////////////////////////////////////////////////////////////////
 /*
- * Static Vars
+ * The published values
  */
 ///////////////////////////////////////////////////////////////////////////////
 	
 	/***
-	 * Stores the properties read in from the config file.
+	 * The values read from the last configuration file to load, published
+	 * together, or none before the first has
 	 */
-	private static final Properties properties = new Properties();
+	private static volatile DomainConstants published = new DomainConstants();
+	
+	/***
+	 * The values read from the last configuration file to load. Take this
+	 * once, and read every value needed from the one snapshot, rather than
+	 * calling it again for each, so that a reload between the reads can not
+	 * mix the values of two configuration files. Before any file has loaded,
+	 * every value is null, but for the empty webDriverSystemPaths and a
+	 * seleniumNodeCount of 0.
+	 * @return
+	 */
+	public static DomainConstants current() {
+		return published;
+	}
 	
 	/***
 	 * Maps a DriverExtension enum value K to the path Domain Constant required
-	 * for the System.setProperty(...,K)
+	 * for the System.setProperty(...,K). Unmodifiable.
 	 */
-	public static HashMap<DriverType,String> webDriverSystemPaths = new HashMap<DriverType,String>();
+	public final Map<DriverType,String> webDriverSystemPaths;
 	
 	/***
 	 * A collection of values needed for operating the NiceWebDriver and
 	 * baseTest for the purposes of running a scalable amount of test cases
 	 * against a web site that is hosted on the localhost
 	 */
-	public static Local local = null;
+	public final Local local;
 	
 	/***
 	 * A collection of values needed for operating the NiceWebDriver and
 	 * baseTest for the purposes of running a scalable amount of test cases
 	 * against a web site that is hosted not on the localhost
 	 */
-	public static Test test = null;
+	public final Test test;
 	
 	/***
 	 * Values used to indicate millisecond thread sleeps that should be used to
 	 * mock a running test as a "demonstration" by faking a slower speed.
 	 */
-	public static TestSleeps testSleeps = null;
+	public final TestSleeps testSleeps;
 	
 	/***
 	 * The number of SeleniumNodes that will be executing the test cases
 	 */
-	public static int seleniumNodeCount = 0;
+	public final int seleniumNodeCount;
 	
 	/***
 	 * A collection of the nodes over which the baseTest's factory method will
 	 * re-instantiate the test case for consecutive local execution or
 	 * concurrent remote execution
 	 */
-	public static SeleniumNode[] seleniumNodes = null;
+	public final SeleniumNode[] seleniumNodes;
+	
+	/***
+	 * Leases the seleniumNodes to running test class instances, treating the
+	 * nodes as a pool of capacity shared by every instance of a DriverType
+	 */
+	public final SeleniumNodeScheduler seleniumNodeScheduler;
+	
+	/***
+	 * Values used to bound the pool of warm NiceWebDriver sessions that the
+	 * NiceWebDriverFactory keeps between test classes.
+	 */
+	public final SessionPool sessionPool;
+	
+	/***
+	 * Values used to probe the health of remote SeleniumNodes, and to decide
+	 * when to stop and resume starting sessions on them.
+	 */
+	public final NodeHealth nodeHealth;
+	
+	/***
+	 * Values used to choose the threads that remote sessions are driven on.
+	 */
+	public final Execution execution;
+	
+	/***
+	 * Values used to partition the test methods of a class between several
+	 * concurrently running instances of it, and to order them by how long
+	 * they took in previous runs.
+	 */
+	public final Sharding sharding;
+	
+	/***
+	 * Values used to pace how often a NiceWebDriver polls the page while it
+	 * waits for a condition, or retries an action.
+	 */
+	public final WaitPolling waitPolling;
+	
+	/***
+	 * Values used to learn how long each locator's web elements take to
+	 * appear, and to time lookups out by it.
+	 */
+	public final LocatorTimeouts locatorTimeouts;
+	
+	/***
+	 * Values used to check the links of a page over HTTP, outside of the
+	 * browser.
+	 */
+	public final LinkValidation linkValidation;
+	
+	/***
+	 * Values used to time the commands every NiceWebDriver sends, and to
+	 * report their latencies at the end of the suite.
+	 */
+	public final Metrics metrics;
+	
+	/***
+	 * Values used to choose which events the EventLog writes, and where.
+	 */
+	public final Logging logging;
+	
+	/***
+	 * Values used to record a timeline of every session, to be opened in a
+	 * trace viewer.
+	 */
+	public final Trace trace;
 	
 ///////////////////////////////////////////////////////////////////////////////
 /*
- * Invoke the constructor to overwrite the static fields
+ * Invoke the constructor to publish a new snapshot
  */
 ///////////////////////////////////////////////////////////////////////////////
 	
+	/***
+	 * Stores the properties read in from the config file by this construction
+	 */
+	private final Properties properties = new Properties();
+	
 	/***
 	 * Construct the properties and assign the values to the dictionaries
-	 * returned by this class.
+	 * returned by this class. Every value is read and validated before this
+	 * snapshot is published in place of the last, so a config file that fails
+	 * to load leaves the previously published values in place.
 	 * @param configFilePath
 	 * @throws IOException
 	 */
 	public DomainConstants(String configFilePath) throws IOException{
 		loadPropertiesFromXMLConfigFile(configFilePath);
-		assignWebDriverSystemPaths();
+		webDriverSystemPaths = assignWebDriverSystemPaths();
 		local = assignLocal();
 		test = assignTest();
 		testSleeps = assignTestSleeps();
 		seleniumNodeCount = assignSeleniumNodeCount();
-		assignSeleniumNodes();
+		seleniumNodes = assignSeleniumNodes(seleniumNodeCount);
+		seleniumNodeScheduler = new SeleniumNodeScheduler(seleniumNodes);
+		sessionPool = assignSessionPool();
+		nodeHealth = assignNodeHealth();
+		execution = assignExecution();
+		sharding = assignSharding();
+		waitPolling = assignWaitPolling();
+		locatorTimeouts = assignLocatorTimeouts();
+		linkValidation = assignLinkValidation();
+		metrics = assignMetrics();
+		logging = assignLogging();
+		trace = assignTrace();
+		published = this;
+	}
+	
+	/***
+	 * The snapshot published before any configuration file has loaded
+	 */
+	private DomainConstants() {
+		webDriverSystemPaths = Collections.emptyMap();
+		local = null;
+		test = null;
+		testSleeps = null;
+		seleniumNodeCount = 0;
+		seleniumNodes = null;
+		seleniumNodeScheduler = null;
+		sessionPool = null;
+		nodeHealth = null;
+		execution = null;
+		sharding = null;
+		waitPolling = null;
+		locatorTimeouts = null;
+		linkValidation = null;
+		metrics = null;
+		logging = null;
+		trace = null;
 	}
 	
 ///////////////////////////////////////////////////////////////////////////////
@@ -101,7 +230,7 @@ public final class DomainConstants {
 ///////////////////////////////////////////////////////////////////////////////
 	
 	/***
-	 * Loads the configuration XML into the static properties field
+	 * Loads the configuration XML into this construction's properties field
 	 * @param configFilePath
 	 * @throws IOException
 	 */
@@ -115,10 +244,15 @@ public final class DomainConstants {
 	 * Reads the "WebDriverSystemPaths.*" values from the configuration file
 	 * @return
 	 */
-	private void assignWebDriverSystemPaths() {
+	private Map<DriverType,String> assignWebDriverSystemPaths() {
+		EnumMap<DriverType,String> paths = new EnumMap<DriverType,String>(DriverType.class);
 		for(DriverType dt : DriverType.values()) {
-			webDriverSystemPaths.put(dt,properties.getProperty(DomainConstantsProperties.webDriverSystemPathPerDriverType.get(dt)));
+			String path = properties.getProperty(DomainConstantsProperties.webDriverSystemPathPerDriverType.get(dt));
+			if(path != null) {
+				paths.put(dt,path);
+			}
 		}
+		return Collections.unmodifiableMap(paths);
 	}
 
 	/***
@@ -168,23 +302,146 @@ public final class DomainConstants {
 	/***
 	 * Read from the configuration properties and create as many instances of
 	 * SeleniumNode up to the amount specified by the SeleniumNodeCount.
-	 * Reads whether the node is local, what driver type it requires, and
-	 * the remote URL, if there is a remote URL (if not locally executed)
+	 * Reads whether the node is local, what driver type it requires, the
+	 * remote URL and status URL, if there is a remote URL (if not locally
+	 * executed), and how many sessions it may run at once
+	 * @param seleniumNodeCount
+	 * @return
 	 * @throws MalformedURLException
 	 */
-	private void assignSeleniumNodes() throws MalformedURLException {
-		seleniumNodes = new SeleniumNode[seleniumNodeCount];
+	private SeleniumNode[] assignSeleniumNodes(int seleniumNodeCount) throws MalformedURLException {
+		SeleniumNode[] seleniumNodes = new SeleniumNode[seleniumNodeCount];
 		for(int k = 1; k <= seleniumNodeCount; k++) {
 			String localNodeString = properties.getProperty(DomainConstantsProperties.SeleniumNodeLocal+k);
 			boolean localNode = (localNodeString.equalsIgnoreCase("True"));
 			String dcString = properties.getProperty(DomainConstantsProperties.SeleniumNodeDriverType+k);
 			DriverType dt = DriverType.valueOf(dcString);
 			URL nodeUrl = null;
+			URL statusUrl = null;
 			if(!localNode) {
 				nodeUrl = new URL(properties.getProperty(DomainConstantsProperties.SeleniumNodeRemoteURL+k));
+				String statusUrlString = properties.getProperty(DomainConstantsProperties.SeleniumNodeStatusURL+k);
+				if(statusUrlString != null && !statusUrlString.trim().equals("")) {
+					statusUrl = new URL(statusUrlString.trim());
+				}
 			} 
-			seleniumNodes[k-1] = new SeleniumNode(localNode, nodeUrl, dt);
+			int maxSessions = getPropertyInteger(DomainConstantsProperties.SeleniumNodeMaxSessions+k, DomainConstantsProperties.defaultSeleniumNodeMaxSessions);
+			validateIntIsGreaterThan(maxSessions,DomainConstantsProperties.SeleniumNodeMaxSessions+k,-1);
+			seleniumNodes[k-1] = new SeleniumNode(localNode, nodeUrl, dt, maxSessions, statusUrl);
 		}
+		return seleniumNodes;
+	}
+	
+	/***
+	 * Reads the "NodeHealth.*" values from the configuration file
+	 * @return
+	 */
+	private NodeHealth assignNodeHealth() {
+		int probeIntervalMilliSeconds = getPropertyInteger(DomainConstantsProperties.NodeHealthProbeIntervalMilliSeconds, DomainConstantsProperties.defaultProbeIntervalMilliSeconds);
+		int probeTimeoutMilliSeconds = getPropertyInteger(DomainConstantsProperties.NodeHealthProbeTimeoutMilliSeconds, DomainConstantsProperties.defaultProbeTimeoutMilliSeconds);
+		int failureThreshold = getPropertyInteger(DomainConstantsProperties.NodeHealthFailureThreshold, DomainConstantsProperties.defaultFailureThreshold);
+		int openMilliSeconds = getPropertyInteger(DomainConstantsProperties.NodeHealthOpenMilliSeconds, DomainConstantsProperties.defaultOpenMilliSeconds);
+		return new NodeHealth(probeIntervalMilliSeconds,probeTimeoutMilliSeconds,failureThreshold,openMilliSeconds);
+	}
+	
+	/***
+	 * Reads the "SessionPool.*" values from the configuration file
+	 * @return
+	 */
+	private SessionPool assignSessionPool() {
+		int maxIdleSessionsPerKey = getPropertyInteger(DomainConstantsProperties.SessionPoolMaxIdleSessionsPerKey, DomainConstantsProperties.defaultMaxIdleSessionsPerKey);
+		return new SessionPool(maxIdleSessionsPerKey);
+	}
+	
+	/***
+	 * Reads the "Execution.*" values from the configuration file
+	 * @return
+	 */
+	private Execution assignExecution() {
+		String remoteSessionModeString = properties.getProperty(DomainConstantsProperties.ExecutionRemoteSessionMode,DomainConstantsProperties.defaultRemoteSessionMode);
+		ExecutionMode remoteSessionMode = ExecutionMode.valueOf(remoteSessionModeString.trim());
+		return new Execution(remoteSessionMode);
+	}
+	
+	/***
+	 * Reads the "Sharding.*" values from the configuration file
+	 * @return
+	 */
+	private Sharding assignSharding() {
+		int shardsPerDriverType = getPropertyInteger(DomainConstantsProperties.ShardingShardsPerDriverType, DomainConstantsProperties.defaultShardsPerDriverType);
+		String durationHistoryPath = properties.getProperty(DomainConstantsProperties.ShardingDurationHistoryPath,DomainConstantsProperties.defaultDurationHistoryPath).trim();
+		int defaultEstimateMilliSeconds = getPropertyInteger(DomainConstantsProperties.ShardingDefaultEstimateMilliSeconds, DomainConstantsProperties.defaultDefaultEstimateMilliSeconds);
+		return new Sharding(shardsPerDriverType,durationHistoryPath,defaultEstimateMilliSeconds);
+	}
+	
+	/***
+	 * Reads the "WaitPolling.*" values from the configuration file
+	 * @return
+	 */
+	private WaitPolling assignWaitPolling() {
+		int initialMilliSeconds = getPropertyInteger(DomainConstantsProperties.WaitPollingInitialMilliSeconds, DomainConstantsProperties.defaultInitialMilliSeconds);
+		int maxMilliSeconds = getPropertyInteger(DomainConstantsProperties.WaitPollingMaxMilliSeconds, DomainConstantsProperties.defaultMaxMilliSeconds);
+		int backoffPercent = getPropertyInteger(DomainConstantsProperties.WaitPollingBackoffPercent, DomainConstantsProperties.defaultBackoffPercent);
+		int jitterPercent = getPropertyInteger(DomainConstantsProperties.WaitPollingJitterPercent, DomainConstantsProperties.defaultJitterPercent);
+		return new WaitPolling(initialMilliSeconds,maxMilliSeconds,backoffPercent,jitterPercent);
+	}
+	
+	/***
+	 * Reads the "LocatorTimeouts.*" values from the configuration file
+	 * @return
+	 */
+	private LocatorTimeouts assignLocatorTimeouts() {
+		String historyPath = properties.getProperty(DomainConstantsProperties.LocatorTimeoutsHistoryPath,DomainConstantsProperties.defaultLocatorHistoryPath).trim();
+		int minSamples = getPropertyInteger(DomainConstantsProperties.LocatorTimeoutsMinSamples, DomainConstantsProperties.defaultMinSamples);
+		int safetyPercent = getPropertyInteger(DomainConstantsProperties.LocatorTimeoutsSafetyPercent, DomainConstantsProperties.defaultSafetyPercent);
+		int minMilliSeconds = getPropertyInteger(DomainConstantsProperties.LocatorTimeoutsMinMilliSeconds, DomainConstantsProperties.defaultLocatorMinMilliSeconds);
+		int maxMilliSeconds = getPropertyInteger(DomainConstantsProperties.LocatorTimeoutsMaxMilliSeconds, DomainConstantsProperties.defaultLocatorMaxMilliSeconds);
+		return new LocatorTimeouts(historyPath,minSamples,safetyPercent,minMilliSeconds,maxMilliSeconds);
+	}
+	
+	/***
+	 * Reads the "LinkValidation.*" values from the configuration file
+	 * @return
+	 */
+	private LinkValidation assignLinkValidation() {
+		int maxRequestsPerHost = getPropertyInteger(DomainConstantsProperties.LinkValidationMaxRequestsPerHost, DomainConstantsProperties.defaultMaxRequestsPerHost);
+		int timeoutMilliSeconds = getPropertyInteger(DomainConstantsProperties.LinkValidationTimeoutMilliSeconds, DomainConstantsProperties.defaultLinkTimeoutMilliSeconds);
+		int maxRedirects = getPropertyInteger(DomainConstantsProperties.LinkValidationMaxRedirects, DomainConstantsProperties.defaultMaxRedirects);
+		return new LinkValidation(maxRequestsPerHost,timeoutMilliSeconds,maxRedirects);
+	}
+	
+	/***
+	 * Reads the "Metrics.*" values from the configuration file
+	 * @return
+	 */
+	private Metrics assignMetrics() {
+		boolean enabled = properties.getProperty(DomainConstantsProperties.MetricsEnabled,DomainConstantsProperties.defaultMetricsEnabled).trim().equalsIgnoreCase("True");
+		String reportPath = properties.getProperty(DomainConstantsProperties.MetricsReportPath,DomainConstantsProperties.defaultMetricsReportPath).trim();
+		String attributionPath = properties.getProperty(DomainConstantsProperties.MetricsAttributionPath,DomainConstantsProperties.defaultMetricsAttributionPath).trim();
+		int topIdleMethods = getPropertyInteger(DomainConstantsProperties.MetricsTopIdleMethods, DomainConstantsProperties.defaultTopIdleMethods);
+		return new Metrics(enabled,reportPath,attributionPath,topIdleMethods);
+	}
+	
+	/***
+	 * Reads the "Logging.*" values from the configuration file
+	 * @return
+	 */
+	private Logging assignLogging() {
+		String levelString = properties.getProperty(DomainConstantsProperties.LoggingLevel,DomainConstantsProperties.defaultLoggingLevel);
+		LogLevel level = LogLevel.valueOf(levelString.trim());
+		String path = properties.getProperty(DomainConstantsProperties.LoggingPath,DomainConstantsProperties.defaultLoggingPath).trim();
+		int bufferSize = getPropertyInteger(DomainConstantsProperties.LoggingBufferSize, DomainConstantsProperties.defaultLoggingBufferSize);
+		return new Logging(level,path,bufferSize);
+	}
+	
+	/***
+	 * Reads the "Trace.*" values from the configuration file
+	 * @return
+	 */
+	private Trace assignTrace() {
+		String path = properties.getProperty(DomainConstantsProperties.TracePath,DomainConstantsProperties.defaultTracePath).trim();
+		int bufferSize = getPropertyInteger(DomainConstantsProperties.TraceBufferSize, DomainConstantsProperties.defaultTraceBufferSize);
+		return new Trace(path,bufferSize);
 	}
 	
 ///////////////////////////////////////////////////////////////////////////////
@@ -224,7 +481,7 @@ public final class DomainConstants {
 		
 		/***
 		 * Constructs a Local object, accessed through the DomainConstants
-		 * static member "local"
+		 * member "local"
 		 * @param environPort
 		 * @param webContextRoot
 		 * @param waitSeconds
@@ -265,7 +522,7 @@ public final class DomainConstants {
 		
 		/***
 		 * Constructs a Test object, accessed through the DomainConstants
-		 * static member "test"
+		 * member "test"
 		 * @param environIP
 		 * @param environPort
 		 * @param webContextRoot
@@ -310,7 +567,7 @@ public final class DomainConstants {
 		
 		/***
 		 * Constructs a TestSleeps object, accessed through the DomainConstants
-		 * static member "testSleeps"
+		 * member "testSleeps"
 		 * @param milliSecondsBetweenKeyStrokes
 		 * @param milliSecondsBeforeClick
 		 * @param milliSecondsAfterClick
@@ -336,7 +593,7 @@ public final class DomainConstants {
 	 * Handles the instantiation of several concurrently remote or consecutive
 	 * local instances of subclasses of the baseTest
 	 */
-	protected static class SeleniumNode{
+	public static class SeleniumNode{
 		
 		/***
 		 * Is the SeleniumNode a local instance or a remote connection?
@@ -350,19 +607,452 @@ public final class DomainConstants {
 		 * What is the DriverType?
 		 */
 		public final DriverType dt;
+		/***
+		 * How many sessions may run on the node at once? Unbounded nodes
+		 * have Integer.MAX_VALUE
+		 */
+		public final int maxSessions;
+		/***
+		 * If the SeleniumNode is a remote connection, where is its health
+		 * probed? Null probes the nodeUrl followed by "/status"
+		 */
+		public final URL statusUrl;
 		
 		/***
 		 * Constructs a SeleniumNode to match configuration input. Is it local
 		 * or remote? If it's remote, what is the node url? In either case,
-		 * what is the DriverType?
+		 * what is the DriverType? The node can run unbounded sessions.
 		 * @param local
 		 * @param nodeUrl
 		 * @param dt
 		 */
 		public SeleniumNode(boolean local, URL nodeUrl, DriverType dt) {
+			this(local,nodeUrl,dt,0);
+		}
+		
+		/***
+		 * Constructs a SeleniumNode to match configuration input, which may
+		 * run at most maxSessions sessions at once, or unbounded sessions if
+		 * maxSessions is 0.
+		 * @param local
+		 * @param nodeUrl
+		 * @param dt
+		 * @param maxSessions
+		 */
+		public SeleniumNode(boolean local, URL nodeUrl, DriverType dt, int maxSessions) {
+			this(local,nodeUrl,dt,maxSessions,null);
+		}
+		
+		/***
+		 * Constructs a SeleniumNode to match configuration input, which may
+		 * run at most maxSessions sessions at once, or unbounded sessions if
+		 * maxSessions is 0, and whose health is probed at the statusUrl.
+		 * @param local
+		 * @param nodeUrl
+		 * @param dt
+		 * @param maxSessions
+		 * @param statusUrl
+		 */
+		public SeleniumNode(boolean local, URL nodeUrl, DriverType dt, int maxSessions, URL statusUrl) {
 			this.local = local;
 			this.nodeUrl = nodeUrl;
 			this.dt = dt;
+			this.maxSessions = (maxSessions < 1 ? Integer.MAX_VALUE : maxSessions);
+			this.statusUrl = statusUrl;
+		}
+		
+	}
+	
+	/***
+	 * Values used to probe the health of remote SeleniumNodes, and to decide
+	 * when to stop and resume starting sessions on them.
+	 */
+	public static class NodeHealth {
+		
+		/***
+		 * How many milliseconds between probes of each remote node
+		 */
+		public final int probeIntervalMilliSeconds;
+		/***
+		 * How many milliseconds a probe waits to connect, and then to read
+		 */
+		public final int probeTimeoutMilliSeconds;
+		/***
+		 * How many consecutive failed probes or session starts mark a node
+		 * as unhealthy
+		 */
+		public final int failureThreshold;
+		/***
+		 * How many milliseconds without a failure before an unhealthy node
+		 * is trusted with a trial session, if no probe has recovered it
+		 */
+		public final int openMilliSeconds;
+		
+		/***
+		 * Constructs a NodeHealth object, accessed through the
+		 * DomainConstants member "nodeHealth"
+		 * @param probeIntervalMilliSeconds
+		 * @param probeTimeoutMilliSeconds
+		 * @param failureThreshold
+		 * @param openMilliSeconds
+		 */
+		protected NodeHealth(int probeIntervalMilliSeconds, int probeTimeoutMilliSeconds, int failureThreshold, int openMilliSeconds) {
+			validateIntIsGreaterThan(probeIntervalMilliSeconds,DomainConstantsProperties.NodeHealthProbeIntervalMilliSeconds,0);
+			this.probeIntervalMilliSeconds = probeIntervalMilliSeconds;
+			validateIntIsGreaterThan(probeTimeoutMilliSeconds,DomainConstantsProperties.NodeHealthProbeTimeoutMilliSeconds,0);
+			this.probeTimeoutMilliSeconds = probeTimeoutMilliSeconds;
+			validateIntIsGreaterThan(failureThreshold,DomainConstantsProperties.NodeHealthFailureThreshold,0);
+			this.failureThreshold = failureThreshold;
+			validateIntIsGreaterThan(openMilliSeconds,DomainConstantsProperties.NodeHealthOpenMilliSeconds,0);
+			this.openMilliSeconds = openMilliSeconds;
+		}
+		
+	}
+	
+	/***
+	 * Values used to bound the pool of warm NiceWebDriver sessions that the
+	 * NiceWebDriverFactory keeps between test classes.
+	 */
+	public static class SessionPool {
+		
+		/***
+		 * How many idle sessions to keep warm for each distinct combination
+		 * of DriverType, option arguments, remote URL and wait seconds. A
+		 * value of 0 disables pooling, and every checked in session is quit.
+		 */
+		public final int maxIdleSessionsPerKey;
+		
+		/***
+		 * Constructs a SessionPool object, accessed through the
+		 * DomainConstants member "sessionPool"
+		 * @param maxIdleSessionsPerKey
+		 */
+		protected SessionPool(int maxIdleSessionsPerKey) {
+			validateIntIsGreaterThan(maxIdleSessionsPerKey,DomainConstantsProperties.SessionPoolMaxIdleSessionsPerKey,-1);
+			this.maxIdleSessionsPerKey = maxIdleSessionsPerKey;
+		}
+		
+	}
+	
+	/***
+	 * Values used to choose the threads that remote sessions are driven on.
+	 */
+	public static class Execution {
+		
+		/***
+		 * Which threads the NiceWebDriverFactory starts remote sessions and
+		 * runs remote session flows on. Virtual gives every remote session
+		 * its own virtual thread, if the JVM has them.
+		 */
+		public final ExecutionMode remoteSessionMode;
+		
+		/***
+		 * Constructs an Execution object, accessed through the
+		 * DomainConstants member "execution"
+		 * @param remoteSessionMode
+		 */
+		protected Execution(ExecutionMode remoteSessionMode) {
+			this.remoteSessionMode = remoteSessionMode;
+		}
+		
+	}
+	
+	/***
+	 * Values used to partition the test methods of a class between several
+	 * concurrently running instances of it, and to order them by how long
+	 * they took in previous runs.
+	 */
+	public static class Sharding {
+		
+		/***
+		 * How many instances of each test class the baseTest creates per
+		 * DriverType, each of which runs only its own share of the methods in
+		 * its own session. A value of 1 disables sharding, and one instance
+		 * running every method is created per SeleniumNode instead.
+		 */
+		public final int shardsPerDriverType;
+		/***
+		 * The file the duration of every test method is recorded in after
+		 * each run, and read from at the start of the next, to run the
+		 * longest methods first and balance the shards by duration. Relative
+		 * paths are relative to the working directory. An empty path
+		 * disables recording, and methods keep TestNG's order.
+		 */
+		public final String durationHistoryPath;
+		/***
+		 * How many milliseconds a method with no recorded duration is
+		 * estimated to take
+		 */
+		public final int defaultEstimateMilliSeconds;
+		
+		/***
+		 * Constructs a Sharding object, accessed through the DomainConstants
+		 * member "sharding"
+		 * @param shardsPerDriverType
+		 * @param durationHistoryPath
+		 * @param defaultEstimateMilliSeconds
+		 */
+		protected Sharding(int shardsPerDriverType, String durationHistoryPath, int defaultEstimateMilliSeconds) {
+			validateIntIsGreaterThan(shardsPerDriverType,DomainConstantsProperties.ShardingShardsPerDriverType,0);
+			this.shardsPerDriverType = shardsPerDriverType;
+			this.durationHistoryPath = durationHistoryPath;
+			validateIntIsGreaterThan(defaultEstimateMilliSeconds,DomainConstantsProperties.ShardingDefaultEstimateMilliSeconds,0);
+			this.defaultEstimateMilliSeconds = defaultEstimateMilliSeconds;
+		}
+		
+	}
+	
+	/***
+	 * Values used to pace how often a NiceWebDriver polls the page while it
+	 * waits for a condition, or retries an action.
+	 */
+	public static class WaitPolling {
+		
+		/***
+		 * How many milliseconds before the first poll after the condition
+		 * is not met, or the action fails
+		 */
+		public final int initialMilliSeconds;
+		/***
+		 * The most milliseconds between polls, however long the wait
+		 */
+		public final int maxMilliSeconds;
+		/***
+		 * The percentage each interval between polls is of the one before
+		 * it, at least 100, which polls at a fixed interval
+		 */
+		public final int backoffPercent;
+		/***
+		 * The most each interval is randomly lengthened or shortened by, as
+		 * a percentage of itself, from 0 (no jitter) to 100
+		 */
+		public final int jitterPercent;
+		
+		/***
+		 * Constructs a WaitPolling object, accessed through the
+		 * DomainConstants member "waitPolling"
+		 * @param initialMilliSeconds
+		 * @param maxMilliSeconds
+		 * @param backoffPercent
+		 * @param jitterPercent
+		 */
+		protected WaitPolling(int initialMilliSeconds, int maxMilliSeconds, int backoffPercent, int jitterPercent) {
+			validateIntIsGreaterThan(initialMilliSeconds,DomainConstantsProperties.WaitPollingInitialMilliSeconds,0);
+			this.initialMilliSeconds = initialMilliSeconds;
+			validateIntIsGreaterThan(maxMilliSeconds,DomainConstantsProperties.WaitPollingMaxMilliSeconds,initialMilliSeconds-1);
+			this.maxMilliSeconds = maxMilliSeconds;
+			validateIntIsGreaterThan(backoffPercent,DomainConstantsProperties.WaitPollingBackoffPercent,99);
+			this.backoffPercent = backoffPercent;
+			validateIntIsGreaterThan(jitterPercent,DomainConstantsProperties.WaitPollingJitterPercent,-1);
+			this.jitterPercent = jitterPercent;
+		}
+		
+	}
+	
+	/***
+	 * Values used to learn how long each locator's web elements take to
+	 * appear, and to time lookups out by it.
+	 */
+	public static class LocatorTimeouts {
+		
+		/***
+		 * The file the appearance latencies of every locator are kept in
+		 * between runs. Relative paths are relative to the working
+		 * directory. An empty path disables learning, and every lookup
+		 * waits for the NiceWebDriver's whole wait.
+		 */
+		public final String historyPath;
+		/***
+		 * How many latencies a locator needs before its own timeout is used
+		 * instead of the NiceWebDriver's wait
+		 */
+		public final int minSamples;
+		/***
+		 * The percentage of a locator's 99th percentile latency it is
+		 * given to appear
+		 */
+		public final int safetyPercent;
+		/***
+		 * The fewest milliseconds a locator is given to appear
+		 */
+		public final int minMilliSeconds;
+		/***
+		 * The most milliseconds a locator is given to appear, which may be
+		 * longer than the NiceWebDriver's wait, for elements that are slow
+		 * but reliable
+		 */
+		public final int maxMilliSeconds;
+		
+		/***
+		 * Constructs a LocatorTimeouts object, accessed through the
+		 * DomainConstants member "locatorTimeouts"
+		 * @param historyPath
+		 * @param minSamples
+		 * @param safetyPercent
+		 * @param minMilliSeconds
+		 * @param maxMilliSeconds
+		 */
+		protected LocatorTimeouts(String historyPath, int minSamples, int safetyPercent, int minMilliSeconds, int maxMilliSeconds) {
+			this.historyPath = historyPath;
+			validateIntIsGreaterThan(minSamples,DomainConstantsProperties.LocatorTimeoutsMinSamples,0);
+			this.minSamples = minSamples;
+			validateIntIsGreaterThan(safetyPercent,DomainConstantsProperties.LocatorTimeoutsSafetyPercent,99);
+			this.safetyPercent = safetyPercent;
+			validateIntIsGreaterThan(minMilliSeconds,DomainConstantsProperties.LocatorTimeoutsMinMilliSeconds,0);
+			this.minMilliSeconds = minMilliSeconds;
+			validateIntIsGreaterThan(maxMilliSeconds,DomainConstantsProperties.LocatorTimeoutsMaxMilliSeconds,minMilliSeconds-1);
+			this.maxMilliSeconds = maxMilliSeconds;
+		}
+		
+	}
+	
+	/***
+	 * Values used to check the links of a page over HTTP, outside of the
+	 * browser.
+	 */
+	public static class LinkValidation {
+		
+		/***
+		 * The most requests sent to any one host at once
+		 */
+		public final int maxRequestsPerHost;
+		/***
+		 * How many milliseconds each request may take to connect, and then
+		 * to be answered
+		 */
+		public final int timeoutMilliSeconds;
+		/***
+		 * The most redirects followed from each link, 0 to follow none
+		 */
+		public final int maxRedirects;
+		
+		/***
+		 * Constructs a LinkValidation object, accessed through the
+		 * DomainConstants member "linkValidation"
+		 * @param maxRequestsPerHost
+		 * @param timeoutMilliSeconds
+		 * @param maxRedirects
+		 */
+		protected LinkValidation(int maxRequestsPerHost, int timeoutMilliSeconds, int maxRedirects) {
+			validateIntIsGreaterThan(maxRequestsPerHost,DomainConstantsProperties.LinkValidationMaxRequestsPerHost,0);
+			this.maxRequestsPerHost = maxRequestsPerHost;
+			validateIntIsGreaterThan(timeoutMilliSeconds,DomainConstantsProperties.LinkValidationTimeoutMilliSeconds,0);
+			this.timeoutMilliSeconds = timeoutMilliSeconds;
+			validateIntIsGreaterThan(maxRedirects,DomainConstantsProperties.LinkValidationMaxRedirects,-1);
+			this.maxRedirects = maxRedirects;
+		}
+		
+	}
+	
+	/***
+	 * Values used to time the commands every NiceWebDriver sends, and to
+	 * report their latencies at the end of the suite.
+	 */
+	public static class Metrics {
+		
+		/***
+		 * Whether each NiceWebDriver times its commands and waits
+		 */
+		public final boolean enabled;
+		/***
+		 * The file the end of suite latency report is saved to, as well as
+		 * being printed, or "" to only print it
+		 */
+		public final String reportPath;
+		/***
+		 * The file the JSON report of where each test method's time went is
+		 * saved to, or "" to not save it
+		 */
+		public final String attributionPath;
+		/***
+		 * How many of the methods that spent the longest idle are listed at
+		 * the end of the suite, 0 to list none
+		 */
+		public final int topIdleMethods;
+		
+		/***
+		 * Constructs a Metrics object, accessed through the DomainConstants
+		 * member "metrics"
+		 * @param enabled
+		 * @param reportPath
+		 * @param attributionPath
+		 * @param topIdleMethods
+		 */
+		protected Metrics(boolean enabled, String reportPath, String attributionPath, int topIdleMethods) {
+			this.enabled = enabled;
+			this.reportPath = reportPath;
+			this.attributionPath = attributionPath;
+			validateIntIsGreaterThan(topIdleMethods,DomainConstantsProperties.MetricsTopIdleMethods,-1);
+			this.topIdleMethods = topIdleMethods;
+		}
+		
+	}
+	
+	/***
+	 * Values used to choose which events the EventLog writes, and where.
+	 */
+	public static class Logging {
+		
+		/***
+		 * The most detailed LogLevel written. A session whose test declares
+		 * verbose output writes its Verbose events whatever the level.
+		 */
+		public final LogLevel level;
+		/***
+		 * The file the events are appended to, or "" to write them to the
+		 * console
+		 */
+		public final String path;
+		/***
+		 * How many events can wait to be written before Info and Verbose
+		 * events are dropped, and Warn and Error events wait for room. Read
+		 * once, by the first event logged.
+		 */
+		public final int bufferSize;
+		
+		/***
+		 * Constructs a Logging object, accessed through the DomainConstants
+		 * member "logging"
+		 * @param level
+		 * @param path
+		 * @param bufferSize
+		 */
+		protected Logging(LogLevel level, String path, int bufferSize) {
+			this.level = level;
+			this.path = path;
+			validateIntIsGreaterThan(bufferSize,DomainConstantsProperties.LoggingBufferSize,0);
+			this.bufferSize = bufferSize;
+		}
+		
+	}
+	
+	/***
+	 * Values used to record a timeline of every session, to be opened in a
+	 * trace viewer.
+	 */
+	public static class Trace {
+		
+		/***
+		 * The file the timeline is streamed to, in the Chrome Trace Event
+		 * format, or "" to record no timeline
+		 */
+		public final String path;
+		/***
+		 * How many spans can wait to be written before the next is dropped.
+		 * Read once, by the first span to end.
+		 */
+		public final int bufferSize;
+		
+		/***
+		 * Constructs a Trace object, accessed through the DomainConstants
+		 * member "trace"
+		 * @param path
+		 * @param bufferSize
+		 */
+		protected Trace(String path, int bufferSize) {
+			this.path = path;
+			validateIntIsGreaterThan(bufferSize,DomainConstantsProperties.TraceBufferSize,0);
+			this.bufferSize = bufferSize;
 		}
 		
 	}
@@ -67,6 +67,90 @@ final class DomainConstantsProperties {
 	/***SeleniumNode*/
 	private final static String SeleniumNode = "SeleniumNode";
 	
+	/***NodeHealth*/
+	private final static String NodeHealth = "NodeHealth";
+	/***ProbeIntervalMilliSeconds*/
+	private final static String ProbeIntervalMilliSeconds = "ProbeIntervalMilliSeconds";
+	/***ProbeTimeoutMilliSeconds*/
+	private final static String ProbeTimeoutMilliSeconds = "ProbeTimeoutMilliSeconds";
+	/***FailureThreshold*/
+	private final static String FailureThreshold = "FailureThreshold";
+	/***OpenMilliSeconds*/
+	private final static String OpenMilliSeconds = "OpenMilliSeconds";
+	
+	/***SessionPool*/
+	private final static String SessionPool = "SessionPool";
+	/***MaxIdleSessionsPerKey*/
+	private final static String MaxIdleSessionsPerKey = "MaxIdleSessionsPerKey";
+	
+	/***Execution*/
+	private final static String Execution = "Execution";
+	/***RemoteSessionMode*/
+	private final static String RemoteSessionMode = "RemoteSessionMode";
+	
+	/***Sharding*/
+	private final static String Sharding = "Sharding";
+	/***ShardsPerDriverType*/
+	private final static String ShardsPerDriverType = "ShardsPerDriverType";
+	/***DurationHistoryPath*/
+	private final static String DurationHistoryPath = "DurationHistoryPath";
+	/***DefaultEstimateMilliSeconds*/
+	private final static String DefaultEstimateMilliSeconds = "DefaultEstimateMilliSeconds";
+	
+	/***WaitPolling*/
+	private final static String WaitPolling = "WaitPolling";
+	/***InitialMilliSeconds*/
+	private final static String InitialMilliSeconds = "InitialMilliSeconds";
+	/***MaxMilliSeconds*/
+	private final static String MaxMilliSeconds = "MaxMilliSeconds";
+	/***BackoffPercent*/
+	private final static String BackoffPercent = "BackoffPercent";
+	/***JitterPercent*/
+	private final static String JitterPercent = "JitterPercent";
+	
+	/***LocatorTimeouts*/
+	private final static String LocatorTimeouts = "LocatorTimeouts";
+	/***HistoryPath*/
+	private final static String HistoryPath = "HistoryPath";
+	/***MinSamples*/
+	private final static String MinSamples = "MinSamples";
+	/***SafetyPercent*/
+	private final static String SafetyPercent = "SafetyPercent";
+	/***MinMilliSeconds*/
+	private final static String MinMilliSeconds = "MinMilliSeconds";
+	
+	/***LinkValidation*/
+	private final static String LinkValidation = "LinkValidation";
+	/***MaxRequestsPerHost*/
+	private final static String MaxRequestsPerHost = "MaxRequestsPerHost";
+	/***TimeoutMilliSeconds*/
+	private final static String TimeoutMilliSeconds = "TimeoutMilliSeconds";
+	/***MaxRedirects*/
+	private final static String MaxRedirects = "MaxRedirects";
+	
+	/***Metrics*/
+	private final static String Metrics = "Metrics";
+	/***Enabled*/
+	private final static String Enabled = "Enabled";
+	/***ReportPath*/
+	private final static String ReportPath = "ReportPath";
+	/***AttributionPath*/
+	private final static String AttributionPath = "AttributionPath";
+	/***TopIdleMethods*/
+	private final static String TopIdleMethods = "TopIdleMethods";
+	
+	/***Logging*/
+	private final static String Logging = "Logging";
+	/***Level*/
+	private final static String Level = "Level";
+	/***Path*/
+	private final static String Path = "Path";
+	/***BufferSize*/
+	private final static String BufferSize = "BufferSize";
+	
+	/***Trace*/
+	private final static String Trace = "Trace";
+	
 ///////////////////////////////////////////////////////////////////////////////
 /*
  * Protected Final Static : Domain Constant defaults
@@ -109,6 +193,118 @@ final class DomainConstantsProperties {
 
 	/***0*/
 	protected final static int defaultSeleniumNodeCount = 0;
+	/***0 : unbounded*/
+	protected final static int defaultSeleniumNodeMaxSessions = 0;
+	
+	/*
+	 * Domain Constant defaults : Node Health
+	 */
+
+	/***2000*/
+	protected final static int defaultProbeIntervalMilliSeconds = 2000;
+	/***1000*/
+	protected final static int defaultProbeTimeoutMilliSeconds = 1000;
+	/***2*/
+	protected final static int defaultFailureThreshold = 2;
+	/***10000*/
+	protected final static int defaultOpenMilliSeconds = 10000;
+	
+	/*
+	 * Domain Constant defaults : Session Pool
+	 */
+
+	/***1*/
+	protected final static int defaultMaxIdleSessionsPerKey = 1;
+	
+	/*
+	 * Domain Constant defaults : Execution
+	 */
+
+	/***Platform*/
+	protected final static String defaultRemoteSessionMode = "Platform";
+	
+	/*
+	 * Domain Constant defaults : Sharding
+	 */
+
+	/***1*/
+	protected final static int defaultShardsPerDriverType = 1;
+	/***SeleniumNG_MethodDurations.xml*/
+	protected final static String defaultDurationHistoryPath = "SeleniumNG_MethodDurations.xml";
+	/***30000*/
+	protected final static int defaultDefaultEstimateMilliSeconds = 30000;
+	
+	/*
+	 * Domain Constant defaults : Wait Polling
+	 */
+
+	/***25*/
+	protected final static int defaultInitialMilliSeconds = 25;
+	/***500*/
+	protected final static int defaultMaxMilliSeconds = 500;
+	/***150*/
+	protected final static int defaultBackoffPercent = 150;
+	/***20*/
+	protected final static int defaultJitterPercent = 20;
+	
+	/*
+	 * Domain Constant defaults : Locator Timeouts
+	 */
+
+	/***SeleniumNG_LocatorLatencies.xml*/
+	protected final static String defaultLocatorHistoryPath = "SeleniumNG_LocatorLatencies.xml";
+	/***20*/
+	protected final static int defaultMinSamples = 20;
+	/***300*/
+	protected final static int defaultSafetyPercent = 300;
+	/***250*/
+	protected final static int defaultLocatorMinMilliSeconds = 250;
+	/***30000*/
+	protected final static int defaultLocatorMaxMilliSeconds = 30000;
+	
+	/*
+	 * Domain Constant defaults : Link Validation
+	 */
+
+	/***6*/
+	protected final static int defaultMaxRequestsPerHost = 6;
+	/***10000*/
+	protected final static int defaultLinkTimeoutMilliSeconds = 10000;
+	/***5*/
+	protected final static int defaultMaxRedirects = 5;
+	
+	/*
+	 * Domain Constant defaults : Metrics
+	 */
+
+	/***True*/
+	protected final static String defaultMetricsEnabled = "True";
+	/***"" (print the report without saving it)*/
+	protected final static String defaultMetricsReportPath = "";
+	/***SeleniumNG_TimeAttribution.json*/
+	protected final static String defaultMetricsAttributionPath = "SeleniumNG_TimeAttribution.json";
+	/***10*/
+	protected final static int defaultTopIdleMethods = 10;
+	
+	/*
+	 * Domain Constant defaults : Logging
+	 */
+
+	/***Info*/
+	protected final static String defaultLoggingLevel = "Info";
+	/***"" (write the events to the console)*/
+	protected final static String defaultLoggingPath = "";
+	/***8192*/
+	protected final static int defaultLoggingBufferSize = 8192;
+	
+	/*
+	 * Domain Constant defaults : Trace
+	 */
+
+	/***"" (record no timeline)*/
+	protected final static String defaultTracePath = "";
+	/***65536*/
+	protected final static int defaultTraceBufferSize = 65536;
 	
 ///////////////////////////////////////////////////////////////////////////////
 /*
@@ -167,5 +363,119 @@ final class DomainConstantsProperties {
 	protected final static String SeleniumNodeRemoteURL = SeleniumNode+"RemoteURL_";
 	/***SeleniumNodeDriverType_{@code<# from 1 to SeleniumNodeCount>}*/
 	protected final static String SeleniumNodeDriverType = SeleniumNode+"DriverType_";
+	/***SeleniumNodeMaxSessions_{@code<# from 1 to SeleniumNodeCount>}*/
+	protected final static String SeleniumNodeMaxSessions = SeleniumNode+"MaxSessions_";
+	/***SeleniumNodeStatusURL_{@code<# from 1 to SeleniumNodeCount>}*/
+	protected final static String SeleniumNodeStatusURL = SeleniumNode+"StatusURL_";
+	
+	/*
+	 * Config names : Node Health
+	 */
+	
+	/***NodeHealth.ProbeIntervalMilliSeconds*/
+	protected final static String NodeHealthProbeIntervalMilliSeconds = NodeHealth+"."+ProbeIntervalMilliSeconds;
+	/***NodeHealth.ProbeTimeoutMilliSeconds*/
+	protected final static String NodeHealthProbeTimeoutMilliSeconds = NodeHealth+"."+ProbeTimeoutMilliSeconds;
+	/***NodeHealth.FailureThreshold*/
+	protected final static String NodeHealthFailureThreshold = NodeHealth+"."+FailureThreshold;
+	/***NodeHealth.OpenMilliSeconds*/
+	protected final static String NodeHealthOpenMilliSeconds = NodeHealth+"."+OpenMilliSeconds;
+	
+	/*
+	 * Config names : Session Pool
+	 */
+	
+	/***SessionPool.MaxIdleSessionsPerKey*/
+	protected final static String SessionPoolMaxIdleSessionsPerKey = SessionPool+"."+MaxIdleSessionsPerKey;
+	
+	/*
+	 * Config names : Execution
+	 */
+	
+	/***Execution.RemoteSessionMode*/
+	protected final static String ExecutionRemoteSessionMode = Execution+"."+RemoteSessionMode;
+	
+	/*
+	 * Config names : Sharding
+	 */
+	
+	/***Sharding.ShardsPerDriverType*/
+	protected final static String ShardingShardsPerDriverType = Sharding+"."+ShardsPerDriverType;
+	/***Sharding.DurationHistoryPath*/
+	protected final static String ShardingDurationHistoryPath = Sharding+"."+DurationHistoryPath;
+	/***Sharding.DefaultEstimateMilliSeconds*/
+	protected final static String ShardingDefaultEstimateMilliSeconds = Sharding+"."+DefaultEstimateMilliSeconds;
+	
+	/*
+	 * Config names : Wait Polling
+	 */
+	
+	/***WaitPolling.InitialMilliSeconds*/
+	protected final static String WaitPollingInitialMilliSeconds = WaitPolling+"."+InitialMilliSeconds;
+	/***WaitPolling.MaxMilliSeconds*/
+	protected final static String WaitPollingMaxMilliSeconds = WaitPolling+"."+MaxMilliSeconds;
+	/***WaitPolling.BackoffPercent*/
+	protected final static String WaitPollingBackoffPercent = WaitPolling+"."+BackoffPercent;
+	/***WaitPolling.JitterPercent*/
+	protected final static String WaitPollingJitterPercent = WaitPolling+"."+JitterPercent;
+	
+	/*
+	 * Config names : Locator Timeouts
+	 */
+	
+	/***LocatorTimeouts.HistoryPath*/
+	protected final static String LocatorTimeoutsHistoryPath = LocatorTimeouts+"."+HistoryPath;
+	/***LocatorTimeouts.MinSamples*/
+	protected final static String LocatorTimeoutsMinSamples = LocatorTimeouts+"."+MinSamples;
+	/***LocatorTimeouts.SafetyPercent*/
+	protected final static String LocatorTimeoutsSafetyPercent = LocatorTimeouts+"."+SafetyPercent;
+	/***LocatorTimeouts.MinMilliSeconds*/
+	protected final static String LocatorTimeoutsMinMilliSeconds = LocatorTimeouts+"."+MinMilliSeconds;
+	/***LocatorTimeouts.MaxMilliSeconds*/
+	protected final static String LocatorTimeoutsMaxMilliSeconds = LocatorTimeouts+"."+MaxMilliSeconds;
+	
+	/*
+	 * Config names : Link Validation
+	 */
+	
+	/***LinkValidation.MaxRequestsPerHost*/
+	protected final static String LinkValidationMaxRequestsPerHost = LinkValidation+"."+MaxRequestsPerHost;
+	/***LinkValidation.TimeoutMilliSeconds*/
+	protected final static String LinkValidationTimeoutMilliSeconds = LinkValidation+"."+TimeoutMilliSeconds;
+	/***LinkValidation.MaxRedirects*/
+	protected final static String LinkValidationMaxRedirects = LinkValidation+"."+MaxRedirects;
+	
+	/*
+	 * Config names : Metrics
+	 */
+	
+	/***Metrics.Enabled*/
+	protected final static String MetricsEnabled = Metrics+"."+Enabled;
+	/***Metrics.ReportPath*/
+	protected final static String MetricsReportPath = Metrics+"."+ReportPath;
+	/***Metrics.AttributionPath*/
+	protected final static String MetricsAttributionPath = Metrics+"."+AttributionPath;
+	/***Metrics.TopIdleMethods*/
+	protected final static String MetricsTopIdleMethods = Metrics+"."+TopIdleMethods;
+	
+	/*
+	 * Config names : Logging
+	 */
+	
+	/***Logging.Level*/
+	protected final static String LoggingLevel = Logging+"."+Level;
+	/***Logging.Path*/
+	protected final static String LoggingPath = Logging+"."+Path;
+	/***Logging.BufferSize*/
+	protected final static String LoggingBufferSize = Logging+"."+BufferSize;
+	
+	/*
+	 * Config names : Trace
+	 */
+	
+	/***Trace.Path*/
+	protected final static String TracePath = Trace+"."+Path;
+	/***Trace.BufferSize*/
+	protected final static String TraceBufferSize = Trace+"."+BufferSize;
 	
 }
@@ -0,0 +1,58 @@
+package com.skenvy.SeleniumNG;
+
+import java.io.IOException;
+
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.EventLog;
+import com.skenvy.SeleniumNG.NiceWebDriver.LocatorLatencyHistory;
+import com.skenvy.SeleniumNG.NiceWebDriver.LogLevel;
+
+/***
+ * Saves the LocatorLatencyHistory configured by
+ * "LocatorTimeouts.HistoryPath" as each {@code <test>} finishes, so the next
+ * run can time each locator's lookups out by how long its web elements took
+ * to appear in this one. The NiceWebDriver records the latencies itself as
+ * it finds web elements. Registered on the baseTest with {@code @Listeners}.
+ */
+public class LocatorLatencyRecorder implements ITestListener {
+
+	@Override
+	public void onFinish(ITestContext context) {
+		LocatorLatencyHistory history = LocatorLatencyHistory.forDomainConstants();
+		if(history != null) {
+			try {
+				history.save();
+			} catch (IOException e) {
+				EventLog.forSuite().log(LogLevel.Warn,"Failed to save the locator latency history | {}",e.getMessage());
+			}
+		}
+	}
+
+	@Override
+	public void onTestStart(ITestResult result) {
+	}
+
+	@Override
+	public void onTestSuccess(ITestResult result) {
+	}
+
+	@Override
+	public void onTestFailure(ITestResult result) {
+	}
+
+	@Override
+	public void onTestSkipped(ITestResult result) {
+	}
+
+	@Override
+	public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
+	}
+
+	@Override
+	public void onStart(ITestContext context) {
+	}
+
+}
@@ -0,0 +1,193 @@
+package com.skenvy.SeleniumNG;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.EventLog;
+import com.skenvy.SeleniumNG.NiceWebDriver.LogLevel;
+
+/***
+ * The estimated duration of every test method, in milliseconds, keyed on its
+ * qualified name ("package.Class.method"), kept in an XML properties file
+ * between runs. An estimate is of one instance of the method, as each
+ * instance (one per node or DriverType) is sharded on its own. Durations
+ * measured during a run are summed per instance (so a method run by a data
+ * provider is estimated for all of its invocations) and averaged over the
+ * instances that ran it, and folded into the estimates when the history is
+ * saved, each new mean weighted equally with the previous estimate, so that
+ * one slow run does not dominate the ordering but a lasting change is
+ * reflected within a few runs.
+ */
+public final class MethodDurationHistory {
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * One history per file
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * The histories already read in this JVM, keyed on absolute path
+	 */
+	private static final ConcurrentHashMap<String,MethodDurationHistory> histories = new ConcurrentHashMap<String,MethodDurationHistory>();
+
+	/***
+	 * The history kept in a file, read on first use. Every caller asking for
+	 * the same file shares the same history.
+	 * @param path
+	 * @return
+	 */
+	public static MethodDurationHistory forPath(String path) {
+		String absolutePath = new File(path).getAbsolutePath();
+		return histories.computeIfAbsent(absolutePath,MethodDurationHistory::new);
+	}
+
+	/***
+	 * The history configured by "Sharding.DurationHistoryPath", or null if
+	 * the DomainConstants have not been read or the path is empty
+	 * @return
+	 */
+	public static MethodDurationHistory forDomainConstants() {
+		DomainConstants.Sharding sharding = DomainConstants.current().sharding;
+		if(sharding == null || sharding.durationHistoryPath.equals("")) {
+			return null;
+		}
+		return forPath(sharding.durationHistoryPath);
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * History state
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * The file the history is read from and saved to
+	 */
+	private final File historyFile;
+
+	/***
+	 * The estimates as of the last save, or as read from the file
+	 */
+	private final ConcurrentHashMap<String,Long> estimates = new ConcurrentHashMap<String,Long>();
+
+	/***
+	 * The durations measured since the last save, per method
+	 */
+	private final ConcurrentHashMap<String,Measured> measured = new ConcurrentHashMap<String,Measured>();
+
+	/***
+	 * The total duration of a method in this run, and the instances it was
+	 * measured on, so that the total can be made a mean per instance
+	 */
+	private static final class Measured {
+
+		private final AtomicLong totalMilliSeconds = new AtomicLong();
+
+		private final Set<Object> instances = ConcurrentHashMap.newKeySet();
+
+		private long getMeanMilliSeconds() {
+			return totalMilliSeconds.get()/Math.max(instances.size(),1);
+		}
+
+	}
+
+	/***
+	 * Read the history from a file, if it exists
+	 * @param absolutePath
+	 */
+	private MethodDurationHistory(String absolutePath) {
+		historyFile = new File(absolutePath);
+		if(historyFile.exists()) {
+			Properties properties = new Properties();
+			try(InputStream in = new FileInputStream(historyFile)) {
+				properties.loadFromXML(in);
+				for(String methodName : properties.stringPropertyNames()) {
+					estimates.put(methodName,Long.parseLong(properties.getProperty(methodName).trim()));
+				}
+			} catch (IOException | NumberFormatException e) {
+				estimates.clear();
+				EventLog.forSuite().log(LogLevel.Warn,"Failed to read the method duration history at | {} | every method will use the default estimate",absolutePath);
+			}
+		}
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Estimate, record and save
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * The estimated duration of a method, or the default estimate if it has
+	 * never been recorded
+	 * @param qualifiedMethodName
+	 * @param defaultEstimateMilliSeconds
+	 * @return milliseconds
+	 */
+	public long getEstimateMilliSeconds(String qualifiedMethodName, long defaultEstimateMilliSeconds) {
+		Long estimate = estimates.get(qualifiedMethodName);
+		return (estimate == null ? defaultEstimateMilliSeconds : estimate);
+	}
+
+	/***
+	 * Add the duration of one invocation of a method to its total for this
+	 * run, counting the instance it was invoked on
+	 * @param qualifiedMethodName
+	 * @param instance the test class instance the method was invoked on
+	 * @param milliSeconds
+	 */
+	public void record(String qualifiedMethodName, Object instance, long milliSeconds) {
+		Measured measuredOfThisRun = measured.computeIfAbsent(qualifiedMethodName,k -> new Measured());
+		measuredOfThisRun.instances.add(instance);
+		measuredOfThisRun.totalMilliSeconds.addAndGet(Math.max(milliSeconds,0));
+	}
+
+	/***
+	 * Fold the durations recorded since the last save into the estimates, and
+	 * write every estimate to the history file. The file is replaced in one
+	 * step, so a run killed while saving leaves the previous history intact.
+	 * @throws IOException
+	 */
+	public synchronized void save() throws IOException {
+		for(String methodName : measured.keySet()) {
+			Measured measuredOfThisRun = measured.remove(methodName);
+			if(measuredOfThisRun != null) {
+				long mean = measuredOfThisRun.getMeanMilliSeconds();
+				Long previous = estimates.get(methodName);
+				estimates.put(methodName,(previous == null ? mean : (previous + mean)/2));
+			}
+		}
+		Properties properties = new Properties();
+		for(Map.Entry<String,Long> entry : estimates.entrySet()) {
+			properties.setProperty(entry.getKey(),String.valueOf(entry.getValue()));
+		}
+		File directory = historyFile.getAbsoluteFile().getParentFile();
+		File partFile = File.createTempFile(historyFile.getName(),".part",directory);
+		try {
+			try(OutputStream out = new FileOutputStream(partFile)) {
+				properties.storeToXML(out,"SeleniumNG method durations in milliseconds");
+			}
+			try {
+				Files.move(partFile.toPath(),historyFile.toPath(),StandardCopyOption.REPLACE_EXISTING,StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(partFile.toPath(),historyFile.toPath(),StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(partFile.toPath());
+		}
+	}
+
+}
@@ -0,0 +1,74 @@
+package com.skenvy.SeleniumNG;
+
+import java.io.IOException;
+
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.EventLog;
+import com.skenvy.SeleniumNG.NiceWebDriver.LogLevel;
+
+/***
+ * Records how long every test method of a baseTest subclass took into the
+ * MethodDurationHistory configured by "Sharding.DurationHistoryPath", and
+ * saves the history as each {@code <test>} finishes, so the next run can
+ * order and shard the methods by duration. Registered on the baseTest with
+ * {@code @Listeners}. Skipped methods are not recorded.
+ */
+public class MethodDurationRecorder implements ITestListener {
+
+	@Override
+	public void onTestSuccess(ITestResult result) {
+		record(result);
+	}
+
+	@Override
+	public void onTestFailure(ITestResult result) {
+		record(result);
+	}
+
+	@Override
+	public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
+		record(result);
+	}
+
+	@Override
+	public void onFinish(ITestContext context) {
+		MethodDurationHistory history = MethodDurationHistory.forDomainConstants();
+		if(history != null) {
+			try {
+				history.save();
+			} catch (IOException e) {
+				EventLog.forSuite().log(LogLevel.Warn,"Failed to save the method duration history | {}",e.getMessage());
+			}
+		}
+	}
+
+	@Override
+	public void onTestStart(ITestResult result) {
+	}
+
+	@Override
+	public void onTestSkipped(ITestResult result) {
+	}
+
+	@Override
+	public void onStart(ITestContext context) {
+	}
+
+	/***
+	 * Add the duration of a finished baseTest method to the history
+	 * @param result
+	 */
+	private static void record(ITestResult result) {
+		if(!(result.getInstance() instanceof baseTest)) {
+			return;
+		}
+		MethodDurationHistory history = MethodDurationHistory.forDomainConstants();
+		if(history != null) {
+			history.record(MethodShardInterceptor.getQualifiedName(result.getMethod()),result.getInstance(),result.getEndMillis()-result.getStartMillis());
+		}
+	}
+
+}
@@ -0,0 +1,240 @@
+package com.skenvy.SeleniumNG;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.ToLongFunction;
+
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
+
+/***
+ * Lets each shard of a sharded baseTest subclass run only its own share of
+ * the class's test methods. When "Sharding.ShardsPerDriverType" is greater
+ * than 1, the baseTest's {@code @Factory} creates that many instances of the
+ * class per DriverType, and this interceptor, registered on the baseTest with
+ * {@code @Listeners}, removes every method from each instance except those
+ * assigned to its shard. Run the suite with {@code parallel="instances"} to
+ * have the shards run concurrently, each in its own session. If a
+ * MethodDurationHistory is configured, the methods are shared out by their
+ * estimated durations rather than their number, and every baseTest instance
+ * and its methods are ordered longest first, so that the longest methods are
+ * not left to run last.
+ */
+public class MethodShardInterceptor implements IMethodInterceptor {
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Interception
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * Keep every method of an instance that is not a sharded baseTest, and
+	 * only the methods assigned to the instance's shard of one that is. Then
+	 * order the baseTest methods by estimated duration, if there is a history.
+	 */
+	@Override
+	public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+		MethodDurationHistory history = MethodDurationHistory.forDomainConstants();
+		ToLongFunction<String> estimateMilliSeconds = getEstimator(history);
+		Map<Class<?>,List<ITestNGMethod>> shardedMethodsByClass = new HashMap<Class<?>,List<ITestNGMethod>>();
+		for(IMethodInstance methodInstance : methods) {
+			if(getShardedInstance(methodInstance) != null) {
+				Class<?> testClass = methodInstance.getMethod().getRealClass();
+				List<ITestNGMethod> classMethods = shardedMethodsByClass.get(testClass);
+				if(classMethods == null) {
+					classMethods = new ArrayList<ITestNGMethod>();
+					shardedMethodsByClass.put(testClass,classMethods);
+				}
+				classMethods.add(methodInstance.getMethod());
+			}
+		}
+		Map<Class<?>,Map<String,Integer>> shardsByClass = new HashMap<Class<?>,Map<String,Integer>>();
+		List<IMethodInstance> kept = new ArrayList<IMethodInstance>(methods.size());
+		for(IMethodInstance methodInstance : methods) {
+			baseTest shardedInstance = getShardedInstance(methodInstance);
+			if(shardedInstance == null) {
+				kept.add(methodInstance);
+				continue;
+			}
+			Class<?> testClass = methodInstance.getMethod().getRealClass();
+			Map<String,Integer> shards = shardsByClass.get(testClass);
+			if(shards == null) {
+				shards = assignMethodsToShards(shardedMethodsByClass.get(testClass),shardedInstance.getShardCount(),estimateMilliSeconds);
+				shardsByClass.put(testClass,shards);
+			}
+			Integer shard = shards.get(getQualifiedName(methodInstance.getMethod()));
+			if(shard != null && shard == shardedInstance.getShardIndex()) {
+				kept.add(methodInstance);
+			}
+		}
+		return (history == null ? kept : orderLongestFirst(kept,estimateMilliSeconds));
+	}
+
+	/***
+	 * Estimates a method's duration from the history, by its qualified name,
+	 * or estimates every method the same if there is no history
+	 * @param history
+	 * @return
+	 */
+	private static ToLongFunction<String> getEstimator(MethodDurationHistory history) {
+		if(history == null) {
+			return qualifiedMethodName -> 1L;
+		}
+		DomainConstants.Sharding sharding = DomainConstants.current().sharding;
+		long defaultEstimateMilliSeconds = (sharding == null ? DomainConstantsProperties.defaultDefaultEstimateMilliSeconds : sharding.defaultEstimateMilliSeconds);
+		return qualifiedMethodName -> history.getEstimateMilliSeconds(qualifiedMethodName,defaultEstimateMilliSeconds);
+	}
+
+	/***
+	 * Order the methods of baseTest instances so that the instance with the
+	 * longest estimated total runs first, and within each instance, the
+	 * longest method runs first among those of the same priority. Methods of
+	 * other instances keep their order, ahead of the baseTest methods.
+	 * @param methods
+	 * @param estimateMilliSeconds
+	 * @return
+	 */
+	private static List<IMethodInstance> orderLongestFirst(List<IMethodInstance> methods, ToLongFunction<String> estimateMilliSeconds) {
+		List<IMethodInstance> ordered = new ArrayList<IMethodInstance>(methods.size());
+		LinkedHashMap<Object,List<IMethodInstance>> methodsByInstance = new LinkedHashMap<Object,List<IMethodInstance>>();
+		for(IMethodInstance methodInstance : methods) {
+			Object instance = methodInstance.getInstance();
+			if(!(instance instanceof baseTest)) {
+				ordered.add(methodInstance);
+				continue;
+			}
+			List<IMethodInstance> instanceMethods = methodsByInstance.get(instance);
+			if(instanceMethods == null) {
+				instanceMethods = new ArrayList<IMethodInstance>();
+				methodsByInstance.put(instance,instanceMethods);
+			}
+			instanceMethods.add(methodInstance);
+		}
+		ToLongFunction<IMethodInstance> estimateOfMethod = methodInstance -> estimateMilliSeconds.applyAsLong(getQualifiedName(methodInstance.getMethod()));
+		Comparator<IMethodInstance> byPriorityThenLongestFirst = Comparator.comparingInt((IMethodInstance methodInstance) -> methodInstance.getMethod().getPriority())
+				.thenComparing(Comparator.comparingLong(estimateOfMethod).reversed());
+		List<List<IMethodInstance>> instanceGroups = new ArrayList<List<IMethodInstance>>(methodsByInstance.values());
+		for(List<IMethodInstance> instanceMethods : instanceGroups) {
+			Collections.sort(instanceMethods,byPriorityThenLongestFirst);
+		}
+		Collections.sort(instanceGroups,Comparator.comparingLong((List<IMethodInstance> instanceMethods) -> instanceMethods.stream().mapToLong(estimateOfMethod).sum()).reversed());
+		for(List<IMethodInstance> instanceMethods : instanceGroups) {
+			ordered.addAll(instanceMethods);
+		}
+		return ordered;
+	}
+
+	/***
+	 * The baseTest instance a method would run on, if it is one of several
+	 * shards, otherwise null
+	 * @param methodInstance
+	 * @return
+	 */
+	private static baseTest getShardedInstance(IMethodInstance methodInstance) {
+		Object methodsInstance = methodInstance.getInstance();
+		if(!(methodsInstance instanceof baseTest)) {
+			return null;
+		}
+		baseTest instance = (baseTest) methodsInstance;
+		return (instance.getShardCount() > 1 ? instance : null);
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Partitioning
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * Assign each distinct method of a class to one of shardCount shards,
+	 * estimating every method to take the same time
+	 * @param methods
+	 * @param shardCount
+	 * @return
+	 */
+	public static Map<String,Integer> assignMethodsToShards(List<ITestNGMethod> methods, int shardCount) {
+		return assignMethodsToShards(methods,shardCount,qualifiedMethodName -> 1L);
+	}
+
+	/***
+	 * Assign each distinct method of a class to one of shardCount shards,
+	 * keyed on the method's qualified name ("package.Class.method"). Methods
+	 * that depend on, or are depended on by, another method are kept together
+	 * on shard 0, as TestNG can not satisfy a dependency across instances.
+	 * Every other method, longest estimate first (then in name order), goes
+	 * to whichever shard has the least estimated time so far.
+	 * @param methods
+	 * @param shardCount
+	 * @param estimateMilliSeconds the estimated duration of a method, by its
+	 * qualified name
+	 * @return
+	 */
+	public static Map<String,Integer> assignMethodsToShards(List<ITestNGMethod> methods, int shardCount, ToLongFunction<String> estimateMilliSeconds) {
+		TreeMap<String,ITestNGMethod> methodsByName = new TreeMap<String,ITestNGMethod>();
+		Set<String> dependedUpon = new HashSet<String>();
+		for(ITestNGMethod method : methods) {
+			methodsByName.put(getQualifiedName(method),method);
+			for(String dependency : method.getMethodsDependedUpon()) {
+				dependedUpon.add(dependency);
+			}
+		}
+		Map<String,Integer> shards = new HashMap<String,Integer>();
+		long[] shardLoads = new long[Math.max(shardCount,1)];
+		List<String> unpinned = new ArrayList<String>();
+		for(Map.Entry<String,ITestNGMethod> entry : methodsByName.entrySet()) {
+			ITestNGMethod method = entry.getValue();
+			if(method.getMethodsDependedUpon().length > 0 || method.getGroupsDependedUpon().length > 0 || dependedUpon.contains(entry.getKey())) {
+				shards.put(entry.getKey(),0);
+				shardLoads[0] += estimateMilliSeconds.applyAsLong(entry.getKey());
+			} else {
+				unpinned.add(entry.getKey());
+			}
+		}
+		// Stable, so equal estimates stay in name order
+		Collections.sort(unpinned,Comparator.comparingLong(estimateMilliSeconds).reversed());
+		for(String methodName : unpinned) {
+			int shard = leastLoadedShard(shardLoads);
+			shards.put(methodName,shard);
+			shardLoads[shard] += estimateMilliSeconds.applyAsLong(methodName);
+		}
+		return shards;
+	}
+
+	/***
+	 * The index of the shard with the least estimated time, ties going to the
+	 * lowest index
+	 * @param shardLoads
+	 * @return
+	 */
+	private static int leastLoadedShard(long[] shardLoads) {
+		int leastLoaded = 0;
+		for(int k = 1; k < shardLoads.length; k++) {
+			if(shardLoads[k] < shardLoads[leastLoaded]) {
+				leastLoaded = k;
+			}
+		}
+		return leastLoaded;
+	}
+
+	/***
+	 * The name TestNG uses for a method in dependsOnMethods,
+	 * "package.Class.method"
+	 * @param method
+	 * @return
+	 */
+	public static String getQualifiedName(ITestNGMethod method) {
+		return method.getRealClass().getName()+"."+method.getMethodName();
+	}
+
+}
@@ -0,0 +1,219 @@
+package com.skenvy.SeleniumNG;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.CommandMetrics;
+import com.skenvy.SeleniumNG.NiceWebDriver.TimeAttribution;
+import com.skenvy.SeleniumNG.NiceWebDriver.TimeAttribution.Activity;
+
+/***
+ * Where the time of each baseTest method went: on commands, navigation,
+ * waits, sleeps, or none of them, such as the test's own logic. Each method
+ * is recorded by the baseTest as it finishes, from the TimeAttribution of
+ * its session, and every method of the suite is reported together, as JSON,
+ * and as a summary of the methods that spent the longest idle, waiting or
+ * sleeping.
+ */
+public final class MethodTimeAttribution {
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Every method's attribution
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * The methods recorded since the last report
+	 */
+	private static final Queue<MethodTimeAttribution> everyMethod = new ConcurrentLinkedQueue<MethodTimeAttribution>();
+
+	/***
+	 * Record where a finished method's time went
+	 * @param methodTimeAttribution
+	 */
+	public static void record(MethodTimeAttribution methodTimeAttribution) {
+		everyMethod.add(methodTimeAttribution);
+	}
+
+	/***
+	 * The methods recorded since the last report, in the order they finished
+	 * @return
+	 */
+	public static List<MethodTimeAttribution> getEveryMethod() {
+		return Collections.unmodifiableList(new ArrayList<MethodTimeAttribution>(everyMethod));
+	}
+
+	/***
+	 * Take every method recorded since the last report, in the order they
+	 * finished, to report them. Each method is taken from the queue as it is
+	 * added to the list, so a method recorded meanwhile is either in this
+	 * report or left for the next, and never lost or reported twice.
+	 * @return
+	 */
+	public static List<MethodTimeAttribution> drainEveryMethod() {
+		List<MethodTimeAttribution> drained = new ArrayList<MethodTimeAttribution>();
+		MethodTimeAttribution method;
+		while((method = everyMethod.poll()) != null) {
+			drained.add(method);
+		}
+		return Collections.unmodifiableList(drained);
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * One method's attribution
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	private final String method;
+	private final String status;
+	private final String sessionId;
+	private final String driverType;
+	private final String nodeUrl;
+	private final long elapsedNanoSeconds;
+	private final TimeAttribution.Totals totals;
+
+	/***
+	 * Where the time of a method run on the session of the metrics went
+	 * @param method the method's qualified name
+	 * @param status such as "SUCCESS" or "FAILURE"
+	 * @param metrics the metrics of the session, or null if it had none
+	 * @param elapsedNanoSeconds how long the method took
+	 * @param totals the time attributed to each activity while it ran
+	 */
+	public MethodTimeAttribution(String method, String status, CommandMetrics metrics, long elapsedNanoSeconds, TimeAttribution.Totals totals) {
+		this.method = method;
+		this.status = status;
+		this.sessionId = (metrics == null ? "" : metrics.getSessionId());
+		this.driverType = (metrics == null || metrics.getDriverType() == null ? "" : metrics.getDriverType().toString());
+		this.nodeUrl = (metrics == null ? "" : metrics.getNodeUrl());
+		this.elapsedNanoSeconds = elapsedNanoSeconds;
+		this.totals = totals;
+	}
+
+	public String getMethod() {
+		return method;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public long getElapsedNanoSeconds() {
+		return elapsedNanoSeconds;
+	}
+
+	/***
+	 * The time attributed to an activity
+	 * @param activity
+	 * @return
+	 */
+	public long getNanoSeconds(Activity activity) {
+		return totals.getNanoSeconds(activity);
+	}
+
+	/***
+	 * The time spent waiting or sleeping
+	 * @return
+	 */
+	public long getIdleNanoSeconds() {
+		return totals.getIdleNanoSeconds();
+	}
+
+	/***
+	 * The time not attributed to any activity, such as the test's own logic
+	 * @return
+	 */
+	public long getOtherNanoSeconds() {
+		return Math.max(elapsedNanoSeconds - totals.getAttributedNanoSeconds(),0);
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Report
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * The methods as JSON: the suite's total milliseconds on each activity,
+	 * then each method with its session, DriverType, node, status, and its
+	 * milliseconds in total, on each activity, idle, and on none of them
+	 * @param methods
+	 * @return
+	 */
+	public static String getJsonReport(Collection<MethodTimeAttribution> methods) {
+		TimeAttribution.Totals suiteTotals = TimeAttribution.Totals.none();
+		long suiteElapsed = 0;
+		for(MethodTimeAttribution method : methods) {
+			suiteTotals = suiteTotals.plus(method.totals);
+			suiteElapsed += method.elapsedNanoSeconds;
+		}
+		StringBuilder json = new StringBuilder("{\n  \"suite\": {");
+		appendMilliSeconds(json,suiteElapsed,suiteTotals,Math.max(suiteElapsed - suiteTotals.getAttributedNanoSeconds(),0));
+		json.append("},\n  \"methods\": [");
+		String separator = "\n";
+		for(MethodTimeAttribution method : methods) {
+			json.append(separator).append("    {");
+			appendString(json,"method",method.method).append(", ");
+			appendString(json,"status",method.status).append(", ");
+			appendString(json,"sessionId",method.sessionId).append(", ");
+			appendString(json,"driverType",method.driverType).append(", ");
+			appendString(json,"nodeUrl",method.nodeUrl).append(", ");
+			appendMilliSeconds(json,method.elapsedNanoSeconds,method.totals,method.getOtherNanoSeconds());
+			json.append("}");
+			separator = ",\n";
+		}
+		return json.append("\n  ]\n}\n").toString();
+	}
+
+	private static void appendMilliSeconds(StringBuilder json, long elapsedNanoSeconds, TimeAttribution.Totals totals, long otherNanoSeconds) {
+		json.append("\"totalMilliSeconds\": ").append(elapsedNanoSeconds/1000000);
+		for(Activity activity : Activity.values()) {
+			json.append(", \"").append(activity.toString().toLowerCase()).append("MilliSeconds\": ").append(totals.getNanoSeconds(activity)/1000000);
+		}
+		json.append(", \"idleMilliSeconds\": ").append(totals.getIdleNanoSeconds()/1000000);
+		json.append(", \"otherMilliSeconds\": ").append(otherNanoSeconds/1000000);
+	}
+
+	private static StringBuilder appendString(StringBuilder json, String name, String value) {
+		json.append('"').append(name).append("\": \"");
+		for(char c : value.toCharArray()) {
+			if(c == '"' || c == '\\') {
+				json.append('\\').append(c);
+			} else if(c < 0x20) {
+				json.append(String.format("\\u%04x",(int) c));
+			} else {
+				json.append(c);
+			}
+		}
+		return json.append('"');
+	}
+
+	/***
+	 * A table of the methods that spent the longest idle, waiting or
+	 * sleeping, longest first, with how the rest of their time was spent
+	 * @param methods
+	 * @param top how many methods to list
+	 * @return
+	 */
+	public static String getTopIdleSummary(Collection<MethodTimeAttribution> methods, int top) {
+		List<MethodTimeAttribution> byIdle = new ArrayList<MethodTimeAttribution>(methods);
+		byIdle.sort((a,b) -> Long.compare(b.getIdleNanoSeconds(),a.getIdleNanoSeconds()));
+		StringBuilder summary = new StringBuilder("SeleniumNG top idle time (ms)\n");
+		summary.append(String.format("  %-60s %9s %7s %9s %9s %9s %9s %9s%n","method","idle","idle %","wait","sleep","command","navigate","other"));
+		for(MethodTimeAttribution method : byIdle.subList(0,Math.min(top,byIdle.size()))) {
+			summary.append(String.format("  %-60s %9d %6.1f%% %9d %9d %9d %9d %9d%n",method.method,
+					method.getIdleNanoSeconds()/1000000,(method.elapsedNanoSeconds == 0 ? 0 : 100.0*method.getIdleNanoSeconds()/method.elapsedNanoSeconds),
+					method.getNanoSeconds(Activity.Wait)/1000000,method.getNanoSeconds(Activity.Sleep)/1000000,
+					method.getNanoSeconds(Activity.Command)/1000000,method.getNanoSeconds(Activity.Navigation)/1000000,
+					method.getOtherNanoSeconds()/1000000));
+		}
+		return summary.toString();
+	}
+
+}
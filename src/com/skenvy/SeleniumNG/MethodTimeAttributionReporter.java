@@ -0,0 +1,49 @@
+package com.skenvy.SeleniumNG;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.EventLog;
+import com.skenvy.SeleniumNG.NiceWebDriver.LogLevel;
+
+/***
+ * Saves where the time of every baseTest method of the suite went, as JSON,
+ * to "Metrics.AttributionPath" as the suite finishes, and reports the
+ * "Metrics.TopIdleMethods" methods that spent the longest waiting or
+ * sleeping to the EventLog. The methods are taken as they are reported,
+ * so each suite reports only its own. Registered on the baseTest with
+ * {@code @Listeners}.
+ */
+public class MethodTimeAttributionReporter implements ISuiteListener {
+
+	@Override
+	public void onStart(ISuite suite) {
+	}
+
+	@Override
+	public void onFinish(ISuite suite) {
+		List<MethodTimeAttribution> methods = MethodTimeAttribution.drainEveryMethod();
+		if(methods.isEmpty()) {
+			return;
+		}
+		DomainConstants.Metrics metrics = DomainConstants.current().metrics;
+		int topIdleMethods = (metrics == null ? 10 : metrics.topIdleMethods);
+		if(topIdleMethods > 0) {
+			EventLog.forSuite().report(MethodTimeAttribution.getTopIdleSummary(methods,topIdleMethods));
+		}
+		if(metrics != null && !metrics.attributionPath.equals("")) {
+			try {
+				Files.write(Paths.get(metrics.attributionPath),MethodTimeAttribution.getJsonReport(methods).getBytes(StandardCharsets.UTF_8));
+			} catch (IOException e) {
+				EventLog.forSuite().log(LogLevel.Warn,"Failed to save the method time attribution to | {} | {}",metrics.attributionPath,e.getMessage());
+			}
+		}
+	}
+
+}
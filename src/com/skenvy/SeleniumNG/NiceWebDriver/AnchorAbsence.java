@@ -0,0 +1,62 @@
+package com.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.util.Map;
+
+/***
+ * The asynchronous script a NiceWebDriver runs to confirm, in one round
+ * trip, that no element matches a CSS selector. It answers at once if one
+ * matches, and otherwise, if the selector must stay unmatched for a while,
+ * a MutationObserver watches the document for that long, and the script's
+ * callback is answered the moment one matches, or once the time is up.
+ */
+final class AnchorAbsence {
+
+	private AnchorAbsence() {}
+
+	/***
+	 * How long the page is given to go quiet before an absence is checked
+	 */
+	static final long QUIESCENCE_TIMEOUT_MILLISECONDS = 500;
+
+	/***
+	 * How long the selector must stay unmatched on a page that did not go
+	 * quiet, as what it is missing may still be on its way
+	 */
+	static final long BUSY_PAGE_STAY_ABSENT_MILLISECONDS = 1500;
+
+	/***
+	 * arguments[0] is the CSS selector and arguments[1] how many
+	 * milliseconds it must stay unmatched for. Answers a map of "present",
+	 * whether anything matched, and "path". An invalid selector throws.
+	 */
+	static final String STAYS_ABSENT_SCRIPT = ""
+			+ "var selector = arguments[0], stayAbsentMillis = arguments[1];"
+			+ "var callback = arguments[arguments.length - 1];"
+			+ "var done = function(present) { callback({ present: present, path: location.pathname }); };"
+			+ "if (document.querySelector(selector)) { done(true); return; }"
+			+ "if (!(stayAbsentMillis > 0)) { done(false); return; }"
+			+ "var finished = false, observer = null, timer = null;"
+			+ "var finish = function(present) {"
+			+ "  if (finished) { return; }"
+			+ "  finished = true; observer.disconnect(); clearTimeout(timer); done(present);"
+			+ "};"
+			+ "observer = new MutationObserver(function() { if (document.querySelector(selector)) { finish(true); } });"
+			+ "observer.observe(document, { childList: true, subtree: true, attributes: true });"
+			+ "timer = setTimeout(function() { finish(!!document.querySelector(selector)); }, stayAbsentMillis);";
+
+	static final NiceScript STAYS_ABSENT = NiceScript.defineAsync("seleniumNG.anchorAbsence",STAYS_ABSENT_SCRIPT);
+
+	/***
+	 * Whether the script's answer says the selector stayed unmatched, or
+	 * null if the page gave no answer
+	 * @param answer
+	 * @return
+	 */
+	static Boolean isAbsent(Object answer) {
+		if(!(answer instanceof Map)) {
+			return null;
+		}
+		return !Boolean.TRUE.equals(((Map<?,?>) answer).get("present"));
+	}
+
+}
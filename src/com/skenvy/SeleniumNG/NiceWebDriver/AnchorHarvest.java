@@ -0,0 +1,36 @@
+package com.skenvy.SeleniumNG.NiceWebDriver;
+
+/***
+ * The script a NiceWebDriver runs to harvest every anchor with an href on
+ * the page in one call. Each harvest is identified by the DocumentVersion
+ * token, so that asking again with the token of the last harvest answers
+ * with only the token if nothing has changed since.
+ */
+final class AnchorHarvest {
+
+	private AnchorHarvest() {}
+
+	/***
+	 * arguments[0] is the token of the last harvest, or null. Answers a map
+	 * of "token" and, unless the token is unchanged, "anchors", each a map of
+	 * "href", "url", "text", "visible", "x", "y", "width" and "height", the
+	 * url being the href resolved against the page.
+	 */
+	static final String HARVEST_SCRIPT = ""
+			+ "var knownToken = arguments[0];"
+			+ DocumentVersion.DECLARE_TOKEN
+			+ "if (token === knownToken) { return { token: token }; }"
+			+ "var anchors = [], found = document.querySelectorAll('a[href]');"
+			+ "for (var i = 0; i < found.length; i++) {"
+			+ "  var a = found[i], box = a.getBoundingClientRect(), parent = a.parentElement;"
+			+ "  anchors.push({"
+			+ "    href: a.getAttribute('href'), url: a.href, text: (a.innerText || a.textContent || '').trim(),"
+			+ "    visible: !!(parent && parent.classList && parent.classList.contains('show')),"
+			+ "    x: box.left, y: box.top, width: box.width, height: box.height"
+			+ "  });"
+			+ "}"
+			+ "return { token: token, anchors: anchors };";
+
+	static final NiceScript HARVEST = NiceScript.define("seleniumNG.anchorHarvest",HARVEST_SCRIPT);
+
+}
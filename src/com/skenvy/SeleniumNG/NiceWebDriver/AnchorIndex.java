@@ -0,0 +1,252 @@
+package com.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/***
+ * Every anchor with an href on a page, harvested by a NiceWebDriver in one
+ * script call, and indexed so that href queries are answered without
+ * asking the page again. An href is found by a substring of it, as the
+ * a[href*="..."] selector of AnchorQueryStringForHREF finds it, through an
+ * index of the three character substrings of every href, or by a prefix of
+ * it, through the hrefs in order. An anchor is visible, as the
+ * ".show > a" selector has it, when its parent has the "show" class.
+ */
+public final class AnchorIndex {
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * An anchor
+ */
+///////////////////////////////////////////////////////////////////////////////
+	
+	/***
+	 * An anchor as it was when harvested: its href attribute, the absolute
+	 * url it resolves to, its trimmed visible text, whether its parent has the "show" class, and its
+	 * bounding box in CSS pixels relative to the viewport
+	 */
+	public static final class Anchor {
+		
+		private final String href;
+		private final String url;
+		private final String text;
+		private final boolean visible;
+		private final double x;
+		private final double y;
+		private final double width;
+		private final double height;
+		
+		public Anchor(String href, String text, boolean visible, double x, double y, double width, double height) {
+			this(href,href,text,visible,x,y,width,height);
+		}
+		
+		public Anchor(String href, String url, String text, boolean visible, double x, double y, double width, double height) {
+			this.href = href;
+			this.url = url;
+			this.text = text;
+			this.visible = visible;
+			this.x = x;
+			this.y = y;
+			this.width = width;
+			this.height = height;
+		}
+		
+		public String getHref() {
+			return href;
+		}
+		
+		/***
+		 * The href resolved against the page it was harvested from
+		 * @return
+		 */
+		public String getUrl() {
+			return url;
+		}
+		
+		public String getText() {
+			return text;
+		}
+		
+		public boolean isVisible() {
+			return visible;
+		}
+		
+		public double getX() {
+			return x;
+		}
+		
+		public double getY() {
+			return y;
+		}
+		
+		public double getWidth() {
+			return width;
+		}
+		
+		public double getHeight() {
+			return height;
+		}
+		
+		@Override
+		public String toString() {
+			return "<a href=\""+href+"\">"+text+"</a>"+(visible ? " (visible)" : "");
+		}
+		
+	}
+	
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * The index
+ */
+///////////////////////////////////////////////////////////////////////////////
+	
+	private static final int GRAM_LENGTH = 3;
+	
+	/***
+	 * Identifies the page and the version of its anchors that this index
+	 * was harvested from
+	 */
+	private final String token;
+	
+	private final List<Anchor> anchors;
+	
+	/***
+	 * The positions in anchors of the anchors whose href has each three
+	 * character substring
+	 */
+	private final Map<String,BitSet> anchorsByGram = new HashMap<String,BitSet>();
+	
+	/***
+	 * The positions in anchors of the anchors with each href, in href order
+	 */
+	private final TreeMap<String,List<Integer>> anchorsByHref = new TreeMap<String,List<Integer>>();
+	
+	/***
+	 * Index the anchors harvested from a page
+	 * @param token identifies the page and the version of its anchors
+	 * @param anchors
+	 */
+	public AnchorIndex(String token, List<Anchor> anchors) {
+		this.token = token;
+		this.anchors = Collections.unmodifiableList(new ArrayList<Anchor>(anchors));
+		for(int position = 0; position < this.anchors.size(); position++) {
+			String href = this.anchors.get(position).href;
+			anchorsByHref.computeIfAbsent(href,h -> new ArrayList<Integer>()).add(position);
+			for(int start = 0; start + GRAM_LENGTH <= href.length(); start++) {
+				anchorsByGram.computeIfAbsent(href.substring(start,start+GRAM_LENGTH),g -> new BitSet()).set(position);
+			}
+		}
+	}
+	
+	String getToken() {
+		return token;
+	}
+	
+	/***
+	 * Every anchor, in document order
+	 * @return
+	 */
+	public List<Anchor> getAnchors() {
+		return anchors;
+	}
+	
+	/***
+	 * The anchors whose href contains the fragment, in document order
+	 * @param hrefFragment
+	 * @param visibleOnly
+	 * @return
+	 */
+	public List<Anchor> getAnchorsWithHrefContaining(String hrefFragment, boolean visibleOnly) {
+		List<Anchor> found = new ArrayList<Anchor>();
+		BitSet candidates = getCandidatesContaining(hrefFragment);
+		for(int position = candidates.nextSetBit(0); position >= 0; position = candidates.nextSetBit(position+1)) {
+			Anchor anchor = anchors.get(position);
+			if(anchor.href.contains(hrefFragment) && (anchor.visible || !visibleOnly)) {
+				found.add(anchor);
+			}
+		}
+		return found;
+	}
+	
+	/***
+	 * Whether any anchor's href contains the fragment
+	 * @param hrefFragment
+	 * @param visibleOnly
+	 * @return
+	 */
+	public boolean hasAnchorWithHrefContaining(String hrefFragment, boolean visibleOnly) {
+		return !getAnchorsWithHrefContaining(hrefFragment,visibleOnly).isEmpty();
+	}
+	
+	/***
+	 * The anchors whose href starts with the prefix, in href order
+	 * @param hrefPrefix
+	 * @param visibleOnly
+	 * @return
+	 */
+	public List<Anchor> getAnchorsWithHrefStartingWith(String hrefPrefix, boolean visibleOnly) {
+		List<Anchor> found = new ArrayList<Anchor>();
+		Map<String,List<Integer>> withPrefix = (hrefPrefix.isEmpty() ? anchorsByHref : anchorsByHref.subMap(hrefPrefix,true,hrefPrefix+Character.MAX_VALUE,false));
+		for(List<Integer> positions : withPrefix.values()) {
+			for(int position : positions) {
+				Anchor anchor = anchors.get(position);
+				if(anchor.visible || !visibleOnly) {
+					found.add(anchor);
+				}
+			}
+		}
+		return found;
+	}
+	
+	/***
+	 * The positions of the anchors that have every three character
+	 * substring of the fragment, which is every anchor if it is shorter
+	 * @param hrefFragment
+	 * @return
+	 */
+	private BitSet getCandidatesContaining(String hrefFragment) {
+		BitSet candidates = new BitSet(anchors.size());
+		candidates.set(0,anchors.size());
+		for(int start = 0; start + GRAM_LENGTH <= hrefFragment.length() && !candidates.isEmpty(); start++) {
+			BitSet withGram = anchorsByGram.get(hrefFragment.substring(start,start+GRAM_LENGTH));
+			if(withGram == null) {
+				return new BitSet();
+			}
+			candidates.and(withGram);
+		}
+		return candidates;
+	}
+	
+	/***
+	 * Index the answer of the harvest script, or return null if it is not
+	 * an answer of anchors
+	 * @param answer
+	 * @return
+	 */
+	static AnchorIndex fromHarvest(Map<?,?> answer) {
+		if(!(answer.get("anchors") instanceof List)) {
+			return null;
+		}
+		List<Anchor> anchors = new ArrayList<Anchor>();
+		for(Object harvested : (List<?>) answer.get("anchors")) {
+			if(harvested instanceof Map) {
+				Map<?,?> anchor = (Map<?,?>) harvested;
+				String href = String.valueOf(anchor.get("href"));
+				anchors.add(new Anchor(href,(anchor.get("url") == null ? href : String.valueOf(anchor.get("url"))),String.valueOf(anchor.get("text")),
+						Boolean.TRUE.equals(anchor.get("visible")),
+						doubleOf(anchor.get("x")),doubleOf(anchor.get("y")),doubleOf(anchor.get("width")),doubleOf(anchor.get("height"))));
+			}
+		}
+		return new AnchorIndex(String.valueOf(answer.get("token")),anchors);
+	}
+	
+	private static double doubleOf(Object number) {
+		return (number instanceof Number ? ((Number) number).doubleValue() : 0);
+	}
+	
+}
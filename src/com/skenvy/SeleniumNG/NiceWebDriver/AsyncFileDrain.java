@@ -0,0 +1,234 @@
+package com.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/***
+ * A bounded buffer of records, and the one daemon thread that takes them
+ * out in batches and writes them to a file, shared by the EventLog and the
+ * TraceTimeline so that the threads that make the records never wait on
+ * the file. Anything thrown while a batch is written is reported on the
+ * standard error stream, and the thread goes on to the next batch, so a
+ * record that can not be written never stops the records after it, nor
+ * leaves a thread waiting for room in the buffer, or for its records to be
+ * written, forever. As the JVM shuts down, the records already in the
+ * buffer are given 2 seconds to be written, and the file is closed.
+ * @param <T> the records, made into text only as they are written
+ */
+abstract class AsyncFileDrain<T> implements Runnable {
+
+	/***
+	 * What the drain writes, for its thread's name and its error messages
+	 */
+	private final String name;
+
+	/***
+	 * Whether the file is appended to, rather than replaced, when opened
+	 */
+	private final boolean append;
+
+	private final ArrayBlockingQueue<T> buffer;
+
+	/***
+	 * The records put in the buffer, and the records written from it
+	 */
+	private final AtomicLong published = new AtomicLong();
+	private long written = 0;
+
+	/***
+	 * The records dropped because the buffer was full, since they were last
+	 * taken
+	 */
+	private final AtomicLong dropped = new AtomicLong();
+
+	/***
+	 * The file being written to, and its path, or null if none is open
+	 */
+	private Writer file = null;
+	private String filePath = "";
+
+	/***
+	 * Start the drain's thread
+	 * @param name such as "EventLog"
+	 * @param capacity how many records the buffer holds
+	 * @param append whether the file is appended to, or replaced
+	 */
+	protected AsyncFileDrain(String name, int capacity, boolean append) {
+		this.name = name;
+		this.append = append;
+		buffer = new ArrayBlockingQueue<T>(capacity);
+		Thread thread = new Thread(this,"SeleniumNG-"+name);
+		thread.setDaemon(true);
+		thread.start();
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			awaitWritten(2000);
+			synchronized(this) {
+				closeFile();
+			}
+		},"SeleniumNG-"+name+"-close"));
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Publish
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * Put a record in the buffer. If the buffer is full, the record waits for
+	 * room if it must be written, and is otherwise dropped and counted.
+	 * @param record
+	 * @param waitForRoom
+	 */
+	final void offer(T record, boolean waitForRoom) {
+		if(buffer.offer(record)) {
+			published.incrementAndGet();
+			return;
+		}
+		if(waitForRoom) {
+			try {
+				buffer.put(record);
+				published.incrementAndGet();
+				return;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		dropped.incrementAndGet();
+	}
+
+	/***
+	 * How many records were dropped since this was last called
+	 * @return
+	 */
+	protected final long takeDropped() {
+		return dropped.getAndSet(0);
+	}
+
+	/***
+	 * Wait until every record published so far has been written, or until
+	 * the timeout
+	 * @param timeoutMilliSeconds
+	 * @return whether every record was written in time
+	 */
+	final synchronized boolean awaitWritten(long timeoutMilliSeconds) {
+		long target = published.get();
+		long deadline = System.nanoTime()+TimeUnit.MILLISECONDS.toNanos(timeoutMilliSeconds);
+		while(written < target) {
+			long remaining = TimeUnit.NANOSECONDS.toMillis(deadline-System.nanoTime());
+			if(remaining <= 0) {
+				return false;
+			}
+			try {
+				wait(remaining);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+		return true;
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Drain
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	@Override
+	public final void run() {
+		List<T> batch = new ArrayList<T>();
+		while(true) {
+			try {
+				batch.add(buffer.take());
+			} catch (InterruptedException e) {
+				continue;
+			}
+			buffer.drainTo(batch);
+			int count = batch.size();
+			synchronized(this) {
+				try {
+					write(batch);
+				} catch (Throwable t) {
+					System.err.println("Failed to write "+count+" records of the "+name+" | "+t);
+				} finally {
+					written += count;
+					notifyAll();
+				}
+			}
+			batch.clear();
+		}
+	}
+
+	/***
+	 * Write a batch of records, on the drain's thread
+	 * @param batch
+	 */
+	protected abstract void write(List<T> batch);
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * The file
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * The file at the path, opened if it is not, or reopened if the path
+	 * changed since it was
+	 * @param path
+	 * @return
+	 * @throws IOException
+	 */
+	protected final Writer openFile(String path) throws IOException {
+		if(file == null || !path.equals(filePath)) {
+			closeFile();
+			file = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(path,append),StandardCharsets.UTF_8));
+			filePath = path;
+			begin(file);
+		}
+		return file;
+	}
+
+	/***
+	 * End and close the file, if one is open. A file that can not be ended
+	 * is left as it is, as there is nothing left to report it to.
+	 */
+	protected final void closeFile() {
+		if(file != null) {
+			try {
+				end(file);
+				file.close();
+			} catch (IOException e) {
+				//Nothing left to write it to
+			}
+		}
+		file = null;
+		filePath = "";
+	}
+
+	/***
+	 * Write whatever a file starts with, as it is opened
+	 * @param opened
+	 * @throws IOException
+	 */
+	protected void begin(Writer opened) throws IOException {
+	}
+
+	/***
+	 * Write whatever a file ends with, before it is closed
+	 * @param closing
+	 * @throws IOException
+	 */
+	protected void end(Writer closing) throws IOException {
+	}
+
+}
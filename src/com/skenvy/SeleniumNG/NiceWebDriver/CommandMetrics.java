@@ -0,0 +1,265 @@
+package com.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.SessionId;
+
+import com.skenvy.SeleniumNG.DomainConstants;
+
+/***
+ * The latencies of the commands one NiceWebDriver session has sent, each kind
+ * of command in its own LatencyHistogram, tagged with the session's id, the
+ * address of the node it was started on, and its DriverType. Commands are
+ * named by the interface they were sent through and the method, such as
+ * "WebDriver.findElement" or "WebElement.click", along with how long each
+ * NiceScript and each NiceWait took. Every session's metrics are kept until
+ * the end of the suite, when they are reported together, grouped by
+ * DriverType and node, so that a slow run can be put down to the grid, the
+ * app or the waits.
+ */
+public final class CommandMetrics {
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Every session's metrics
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * The metrics of every session since the last report
+	 */
+	private static final Queue<CommandMetrics> everySession = new ConcurrentLinkedQueue<CommandMetrics>();
+
+	/***
+	 * Numbers the sessions whose driver has no session id
+	 */
+	private static final AtomicInteger unidentifiedSessions = new AtomicInteger();
+
+	/***
+	 * Whether sessions time their commands, as configured by
+	 * "Metrics.Enabled", or true if the DomainConstants have not been read
+	 * @return
+	 */
+	public static boolean isEnabled() {
+		DomainConstants.Metrics metrics = DomainConstants.current().metrics;
+		return (metrics == null || metrics.enabled);
+	}
+
+	/***
+	 * The metrics of every session since the last report, in the order the
+	 * sessions started
+	 * @return
+	 */
+	public static List<CommandMetrics> getEverySession() {
+		return Collections.unmodifiableList(new ArrayList<CommandMetrics>(everySession));
+	}
+
+	/***
+	 * Forget every session's metrics, such as once they have been reported.
+	 * Sessions still running keep recording into their own metrics.
+	 */
+	public static void clearEverySession() {
+		everySession.clear();
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Tags
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	private final String sessionId;
+	private final String nodeUrl;
+	private volatile DriverType driverType;
+
+	/***
+	 * The latency of each kind of command
+	 */
+	private final ConcurrentHashMap<String,LatencyHistogram> histograms = new ConcurrentHashMap<String,LatencyHistogram>();
+
+	/***
+	 * How much of the session's time has gone on commands, navigations,
+	 * waits and sleeps
+	 */
+	private final TimeAttribution timeAttribution = new TimeAttribution();
+	
+	/***
+	 * The session's track of the trace timeline
+	 */
+	private final TraceTimeline.Track track = new TraceTimeline.Track(this);
+
+	/***
+	 * Metrics of a session, kept with every other session's until the end of
+	 * the suite
+	 * @param sessionId
+	 * @param nodeUrl
+	 * @param driverType the DriverType, or null if it is not yet known
+	 */
+	public CommandMetrics(String sessionId, String nodeUrl, DriverType driverType) {
+		this.sessionId = sessionId;
+		this.nodeUrl = nodeUrl;
+		this.driverType = driverType;
+		everySession.add(this);
+	}
+
+	/***
+	 * Metrics of the session of a driver, started locally if remoteAddress
+	 * is null, and on the node at remoteAddress otherwise
+	 * @param driver
+	 * @param remoteAddress
+	 * @param local
+	 * @return
+	 */
+	static CommandMetrics forDriver(WebDriver driver, URL remoteAddress, boolean local) {
+		SessionId id = (driver instanceof RemoteWebDriver ? ((RemoteWebDriver) driver).getSessionId() : null);
+		String sessionId = (id == null ? "unidentified-"+unidentifiedSessions.incrementAndGet() : id.toString());
+		String nodeUrl = (remoteAddress != null ? remoteAddress.toExternalForm() : (local ? "local" : "default remote"));
+		return new CommandMetrics(sessionId,nodeUrl,null);
+	}
+
+	/***
+	 * The id of the session, or "unidentified-n" if its driver has none
+	 * @return
+	 */
+	public String getSessionId() {
+		return sessionId;
+	}
+
+	/***
+	 * The address of the node the session was started on, "local" for a
+	 * local driver, or "default remote" for a remote driver started on the
+	 * default address
+	 * @return
+	 */
+	public String getNodeUrl() {
+		return nodeUrl;
+	}
+
+	/***
+	 * The DriverType of the session, or null if it was not started by a
+	 * NiceWebDriverFactory
+	 * @return
+	 */
+	public DriverType getDriverType() {
+		return driverType;
+	}
+
+	void setDriverType(DriverType driverType) {
+		this.driverType = driverType;
+	}
+
+	/***
+	 * How much of the session's time has gone on commands, navigations,
+	 * waits and sleeps
+	 * @return
+	 */
+	public TimeAttribution getTimeAttribution() {
+		return timeAttribution;
+	}
+
+	/***
+	 * The session's track of the trace timeline, which its spans are added
+	 * to while "Trace.Path" is set
+	 * @return
+	 */
+	public TraceTimeline.Track getTrack() {
+		return track;
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Record and read
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * Add how long a command took, measured with System.nanoTime()
+	 * @param command
+	 * @param nanoSeconds
+	 */
+	public void record(String command, long nanoSeconds) {
+		LatencyHistogram histogram = histograms.get(command);
+		if(histogram == null) {
+			histogram = histograms.computeIfAbsent(command,c -> new LatencyHistogram());
+		}
+		histogram.recordNanoSeconds(nanoSeconds);
+	}
+
+	/***
+	 * The latencies of each kind of command this session has sent so far,
+	 * sorted by command
+	 * @return
+	 */
+	public Map<String,LatencyHistogram.Snapshot> getSnapshot() {
+		Map<String,LatencyHistogram.Snapshot> snapshot = new TreeMap<String,LatencyHistogram.Snapshot>();
+		for(Map.Entry<String,LatencyHistogram> entry : histograms.entrySet()) {
+			snapshot.put(entry.getKey(),entry.getValue().getSnapshot());
+		}
+		return snapshot;
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Report
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * The latencies of every session since the last report
+	 * @return
+	 */
+	public static String getReport() {
+		return getReport(everySession);
+	}
+
+	/***
+	 * A table of the latencies of the sessions, one per DriverType and node,
+	 * listing for each command its count, its p50, p90, p99 and max in
+	 * milliseconds, and the total seconds spent on it, longest total first
+	 * @param sessions
+	 * @return
+	 */
+	public static String getReport(Collection<CommandMetrics> sessions) {
+		Map<String,List<CommandMetrics>> groups = new TreeMap<String,List<CommandMetrics>>();
+		for(CommandMetrics session : sessions) {
+			String group = (session.driverType == null ? "Unknown" : session.driverType.toString())+" @ "+session.nodeUrl;
+			groups.computeIfAbsent(group,g -> new ArrayList<CommandMetrics>()).add(session);
+		}
+		StringBuilder report = new StringBuilder("SeleniumNG command latencies (ms)\n");
+		for(Map.Entry<String,List<CommandMetrics>> group : groups.entrySet()) {
+			Map<String,LatencyHistogram.Snapshot> summed = new LinkedHashMap<String,LatencyHistogram.Snapshot>();
+			for(CommandMetrics session : group.getValue()) {
+				for(Map.Entry<String,LatencyHistogram.Snapshot> command : session.getSnapshot().entrySet()) {
+					summed.merge(command.getKey(),command.getValue(),LatencyHistogram.Snapshot::plus);
+				}
+			}
+			List<Map.Entry<String,LatencyHistogram.Snapshot>> commands = new ArrayList<Map.Entry<String,LatencyHistogram.Snapshot>>(summed.entrySet());
+			commands.sort((a,b) -> Long.compare(b.getValue().getTotalMicroSeconds(),a.getValue().getTotalMicroSeconds()));
+			int sessionCount = group.getValue().size();
+			report.append(group.getKey()).append(", ").append(sessionCount).append(sessionCount == 1 ? " session\n" : " sessions\n");
+			report.append(String.format("  %-44s %8s %10s %10s %10s %10s %10s%n","command","count","p50","p90","p99","max","total s"));
+			for(Map.Entry<String,LatencyHistogram.Snapshot> command : commands) {
+				LatencyHistogram.Snapshot latencies = command.getValue();
+				report.append(String.format("  %-44s %8d %10.1f %10.1f %10.1f %10.1f %10.2f%n",command.getKey(),latencies.getCount(),
+						latencies.getPercentileMicroSeconds(50)/1000.0,latencies.getPercentileMicroSeconds(90)/1000.0,
+						latencies.getPercentileMicroSeconds(99)/1000.0,latencies.getMaxMicroSeconds()/1000.0,
+						latencies.getTotalMicroSeconds()/1000000.0));
+			}
+		}
+		return report.toString();
+	}
+
+}
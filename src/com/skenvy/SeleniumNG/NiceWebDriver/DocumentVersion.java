@@ -0,0 +1,45 @@
+package com.skenvy.SeleniumNG.NiceWebDriver;
+
+/***
+ * The script statements that identify the version of the page's document,
+ * shared by every script whose answer is only worth sending again when the
+ * page has changed. The first script to run on a document starts a
+ * MutationObserver that counts the document's changes, along with the
+ * events after which a form field's value or an element's style can change
+ * without changing the document: input and change, focus and blur, mouse
+ * over and out, the end of a transition or animation, a load, and a resize
+ * of the window. The version is identified by a token of the document, that
+ * count, and a hash of every form field's value, checked state and
+ * selection, which catches those a script sets. A navigation loses the
+ * count along with the window, so its token never matches one from before.
+ * <p>
+ * A style that changes while nothing is counted, such as one part way
+ * through a transition or animation, or one that depends on the time, does
+ * not change the token.
+ */
+final class DocumentVersion {
+
+	private DocumentVersion() {}
+
+	/***
+	 * Declares "token", identifying the document and its version
+	 */
+	static final String DECLARE_TOKEN = ""
+			+ "var versionState = window.__seleniumNGDocumentVersion;"
+			+ "if (!versionState) {"
+			+ "  versionState = window.__seleniumNGDocumentVersion = { document: Date.now() + '-' + Math.random(), version: 0 };"
+			+ "  var changed = function() { versionState.version++; };"
+			+ "  new MutationObserver(changed).observe(document, { childList: true, subtree: true, attributes: true, characterData: true });"
+			+ "  ['input', 'change', 'focus', 'blur', 'mouseover', 'mouseout', 'transitionend', 'animationend', 'load'].forEach(function(type) {"
+			+ "    document.addEventListener(type, changed, true);"
+			+ "  });"
+			+ "  window.addEventListener('resize', changed);"
+			+ "}"
+			+ "var fieldState = 0, fields = document.querySelectorAll('input, textarea, select');"
+			+ "for (var f = 0; f < fields.length; f++) {"
+			+ "  var state = fields[f].value + (fields[f].checked ? '+' : '-') + fields[f].selectedIndex;"
+			+ "  for (var s = 0; s < state.length; s++) { fieldState = (fieldState * 31 + state.charCodeAt(s)) | 0; }"
+			+ "}"
+			+ "var token = versionState.document + ':' + versionState.version + ':' + fieldState;";
+
+}
@@ -0,0 +1,56 @@
+package com.skenvy.SeleniumNG.NiceWebDriver;
+
+/***
+ * The script a NiceWebDriver runs to capture the whole of the page's DOM in
+ * one call, for a DomSnapshot to be queried without asking the page again.
+ * Each element is captured with its attributes, whether it is displayed,
+ * the current value of a form field, its namespace if it is not HTML, and
+ * its children in order, with text nodes as strings. Each capture is identified by the DocumentVersion
+ * token, so that asking again with the token of the last capture answers
+ * with only the token if nothing has changed since.
+ */
+final class DomCapture {
+
+	private DomCapture() {}
+
+	/***
+	 * arguments[0] is the token of the last capture, or null. Answers a map
+	 * of "token" and, unless the token is unchanged, "root", the document
+	 * element, and "quirks", whether the page is in quirks mode. Each element
+	 * is a map of "t", its tag name, "v", whether it is displayed, and, where
+	 * it has any, "n", its namespace if it is not HTML's, "a", its
+	 * attributes, "p", the value, checked and selected properties of a form
+	 * field, and "c", its child elements and text. An element is displayed when it has a box, and
+	 * neither it nor an ancestor is transparent, and it is not hidden; an
+	 * option is displayed when its select is.
+	 */
+	static final String CAPTURE_SCRIPT = ""
+			+ "var knownToken = arguments[0];"
+			+ DocumentVersion.DECLARE_TOKEN
+			+ "if (token === knownToken) { return { token: token }; }"
+			+ "var capture = function(e, transparent, parentDisplayed) {"
+			+ "  var style = getComputedStyle(e), faded = transparent || style.opacity === '0';"
+			+ "  var tag = e.localName, node = { t: tag };"
+			+ "  if (e.namespaceURI !== 'http://www.w3.org/1999/xhtml') { node.n = e.namespaceURI; }"
+			+ "  node.v = (tag === 'option' || tag === 'optgroup') ? parentDisplayed"
+			+ "      : (!faded && style.visibility !== 'hidden' && e.getClientRects().length > 0);"
+			+ "  if (e.attributes.length) {"
+			+ "    node.a = {};"
+			+ "    for (var i = 0; i < e.attributes.length; i++) { node.a[e.attributes[i].name] = e.attributes[i].value; }"
+			+ "  }"
+			+ "  if (tag === 'input' || tag === 'textarea' || tag === 'select' || tag === 'option') {"
+			+ "    node.p = { value: e.value, checked: !!e.checked, selected: !!e.selected };"
+			+ "  }"
+			+ "  var children = [];"
+			+ "  for (var c = e.firstChild; c; c = c.nextSibling) {"
+			+ "    if (c.nodeType === 1) { children.push(capture(c, faded, node.v)); }"
+			+ "    else if ((c.nodeType === 3 || c.nodeType === 4) && c.nodeValue) { children.push(c.nodeValue); }"
+			+ "  }"
+			+ "  if (children.length) { node.c = children; }"
+			+ "  return node;"
+			+ "};"
+			+ "return { token: token, root: capture(document.documentElement, false, true), quirks: document.compatMode === 'BackCompat' };";
+
+	static final NiceScript CAPTURE = NiceScript.define("seleniumNG.domCapture",CAPTURE_SCRIPT);
+
+}
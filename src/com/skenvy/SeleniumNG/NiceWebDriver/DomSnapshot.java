@@ -0,0 +1,544 @@
+package com.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.openqa.selenium.By;
+
+/***
+ * The whole of a page's DOM, captured by a NiceWebDriver in one script call,
+ * and indexed so that CSS selectors and XPaths are answered in the JVM
+ * without asking the page again. Elements are indexed by tag name, id and
+ * class, and a CSS selector only matches the candidates of its most
+ * specific part against the rest of it; XPaths are evaluated by the JDK's
+ * XPath engine. Only the queries the snapshot answers as the page would are
+ * answered; any other throws an UnsupportedOperationException, so that it
+ * can be asked of the page instead.
+ * <p>
+ * A snapshot is only as current as its capture: the NiceWebDriver captures
+ * it again only once the DocumentVersion token says the page has changed.
+ * Whether an element is displayed, and so its displayed text, is as the
+ * page's styles were at the capture. A change of style that neither changes
+ * the document nor is told by one of the events the token counts, such as
+ * a transition or animation still running, or a style that depends on the
+ * time, is only seen once something else changes, so anything that depends
+ * on those should be read from the driver.
+ */
+public final class DomSnapshot {
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * An element
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * An element as it was when captured
+	 */
+	public static final class Element {
+
+		private final String tagName;
+		private final Map<String,String> attributes;
+		private final Map<String,Object> properties;
+		private final boolean displayed;
+		private final Element parent;
+
+		/***
+		 * The namespace of an element that is not HTML, such as SVG, or null
+		 */
+		private final String namespace;
+
+		/***
+		 * The child elements and text, in order
+		 */
+		private final List<Object> content = new ArrayList<Object>();
+
+		private final List<Element> children = new ArrayList<Element>();
+
+		/***
+		 * The position of the element in document order, or -1 for the
+		 * document itself
+		 */
+		private int position = -1;
+
+		/***
+		 * The position of the element among its parent's child elements
+		 */
+		private int childPosition = 0;
+
+		/***
+		 * The position in document order of the element's last descendant,
+		 * or its own if it has none
+		 */
+		private int lastDescendantPosition = -1;
+
+		Element(String tagName, Map<String,String> attributes, Map<String,Object> properties, boolean displayed, Element parent, String namespace) {
+			this.tagName = tagName;
+			this.attributes = attributes;
+			this.properties = properties;
+			this.displayed = displayed;
+			this.parent = parent;
+			this.namespace = namespace;
+		}
+
+		/***
+		 * The lower case tag name, as WebElement.getTagName()
+		 * @return
+		 */
+		public String getTagName() {
+			return tagName;
+		}
+
+		/***
+		 * The value of the attribute, or of the value, checked or selected
+		 * property of a form field, as WebElement.getAttribute(...) gives it,
+		 * "true" or null for a checked or selected property, or null if the
+		 * element has no such attribute
+		 * @param name
+		 * @return
+		 */
+		public String getAttribute(String name) {
+			String lowerCaseName = name.toLowerCase(Locale.ROOT);
+			if(properties.containsKey(lowerCaseName)) {
+				Object property = properties.get(lowerCaseName);
+				if(property instanceof Boolean) {
+					return (Boolean.TRUE.equals(property) ? "true" : null);
+				}
+				return String.valueOf(property);
+			}
+			return attributes.get(lowerCaseName);
+		}
+
+		/***
+		 * Every attribute, as written in the page
+		 * @return
+		 */
+		public Map<String,String> getAttributes() {
+			return Collections.unmodifiableMap(attributes);
+		}
+
+		/***
+		 * Whether the element has a box, and neither it nor an ancestor is
+		 * transparent, and it is not hidden
+		 * @return
+		 */
+		public boolean isDisplayed() {
+			return displayed;
+		}
+
+		/***
+		 * The displayed text of the element and its descendants, with each
+		 * run of whitespace, including the breaks between blocks, as one
+		 * space, and without leading or trailing whitespace
+		 * @return
+		 */
+		public String getText() {
+			StringBuilder text = new StringBuilder();
+			appendDisplayedText(text);
+			return normaliseWhitespace(text);
+		}
+
+		private void appendDisplayedText(StringBuilder text) {
+			if(NON_RENDERED_TAGS.contains(tagName)) {
+				return;
+			}
+			for(Object child : content) {
+				if(child instanceof Element) {
+					Element childElement = (Element) child;
+					boolean inline = INLINE_TAGS.contains(childElement.tagName);
+					if(!inline) {
+						text.append(' ');
+					}
+					childElement.appendDisplayedText(text);
+					if(!inline) {
+						text.append(' ');
+					}
+				} else if(displayed) {
+					text.append((String) child);
+				}
+			}
+		}
+
+		/***
+		 * All of the text of the element and its descendants, displayed or
+		 * not, as the DOM's textContent
+		 * @return
+		 */
+		public String getTextContent() {
+			StringBuilder text = new StringBuilder();
+			appendTextContent(text);
+			return text.toString();
+		}
+
+		private void appendTextContent(StringBuilder text) {
+			for(Object child : content) {
+				if(child instanceof Element) {
+					((Element) child).appendTextContent(text);
+				} else {
+					text.append((String) child);
+				}
+			}
+		}
+
+		/***
+		 * The parent element, or null for the document element
+		 * @return
+		 */
+		public Element getParent() {
+			return (parent == null || parent.isDocument() ? null : parent);
+		}
+
+		/***
+		 * The child elements, in order
+		 * @return
+		 */
+		public List<Element> getChildren() {
+			return Collections.unmodifiableList(children);
+		}
+
+		Element getParentNode() {
+			return parent;
+		}
+
+		List<Object> getContent() {
+			return content;
+		}
+
+		int getPosition() {
+			return position;
+		}
+
+		int getChildPosition() {
+			return childPosition;
+		}
+
+		int getLastDescendantPosition() {
+			return lastDescendantPosition;
+		}
+
+		boolean isDocument() {
+			return position < 0;
+		}
+
+		String getRawAttribute(String name) {
+			return attributes.get(name);
+		}
+
+		String getNamespace() {
+			return namespace;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder tag = new StringBuilder("<").append(tagName);
+			for(Map.Entry<String,String> attribute : attributes.entrySet()) {
+				tag.append(' ').append(attribute.getKey()).append("=\"").append(attribute.getValue()).append('"');
+			}
+			return tag.append('>').toString();
+		}
+
+	}
+
+	/***
+	 * The elements whose text is not displayed
+	 */
+	private static final Set<String> NON_RENDERED_TAGS = new HashSet<String>(Arrays.asList(
+			"head","script","style","noscript","template"));
+
+	/***
+	 * The elements whose text runs on from the text around them, rather than
+	 * being broken from it, as a block's is
+	 */
+	private static final Set<String> INLINE_TAGS = new HashSet<String>(Arrays.asList(
+			"a","abbr","b","bdi","bdo","cite","code","data","dfn","em","font","i","img","input","kbd","label",
+			"mark","q","s","samp","select","small","span","strong","sub","sup","textarea","time","u","var","wbr"));
+
+	private static final Pattern WHITESPACE = Pattern.compile("[\\s\\u00A0]+");
+
+	/***
+	 * The text with each run of whitespace as one space, trimmed
+	 * @param text
+	 * @return
+	 */
+	static String normaliseWhitespace(CharSequence text) {
+		return WHITESPACE.matcher(text).replaceAll(" ").trim();
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * The snapshot
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * Identifies the page and the version of its document that this
+	 * snapshot was captured from
+	 */
+	private final String token;
+
+	/***
+	 * The document, whose only child is the document element
+	 */
+	private final Element document;
+
+	/***
+	 * Every element, in document order
+	 */
+	private final List<Element> elements = new ArrayList<Element>();
+
+	private final Map<String,List<Element>> elementsByTag = new HashMap<String,List<Element>>();
+	private final Map<String,List<Element>> elementsById = new HashMap<String,List<Element>>();
+	private final Map<String,List<Element>> elementsByClass = new HashMap<String,List<Element>>();
+
+	/***
+	 * Whether the page is in quirks mode, in which it matches ids and
+	 * classes whatever their case
+	 */
+	private final boolean quirksMode;
+
+	/***
+	 * The capture copied for XPath, made when first asked for
+	 */
+	private SnapshotXPath.Copy xpathCopy = null;
+	private boolean xpathCopied = false;
+
+	/***
+	 * Index a captured document
+	 * @param token identifies the page and the version of its document
+	 * @param root the document element, as captured
+	 * @param quirksMode whether the page is in quirks mode
+	 */
+	DomSnapshot(String token, Map<?,?> root, boolean quirksMode) {
+		this.token = token;
+		this.quirksMode = quirksMode;
+		this.document = new Element("#document",Collections.<String,String>emptyMap(),Collections.<String,Object>emptyMap(),true,null,null);
+		if(root != null) {
+			addCaptured(root,document);
+		}
+		document.lastDescendantPosition = elements.size()-1;
+	}
+
+	/***
+	 * Add a captured element, and its descendants, to the index. Each
+	 * element is added before its children, which puts them all in
+	 * document order.
+	 * @param captured
+	 * @param parent
+	 */
+	private void addCaptured(Map<?,?> captured, Element parent) {
+		Map<String,String> attributes = new LinkedHashMap<String,String>();
+		if(captured.get("a") instanceof Map) {
+			for(Map.Entry<?,?> attribute : ((Map<?,?>) captured.get("a")).entrySet()) {
+				attributes.put(String.valueOf(attribute.getKey()).toLowerCase(Locale.ROOT),String.valueOf(attribute.getValue()));
+			}
+		}
+		Map<String,Object> properties = new HashMap<String,Object>();
+		if(captured.get("p") instanceof Map) {
+			for(Map.Entry<?,?> property : ((Map<?,?>) captured.get("p")).entrySet()) {
+				properties.put(String.valueOf(property.getKey()),property.getValue());
+			}
+		}
+		String namespace = (captured.get("n") == null ? null : String.valueOf(captured.get("n")));
+		Element element = new Element(String.valueOf(captured.get("t")).toLowerCase(Locale.ROOT),attributes,properties,Boolean.TRUE.equals(captured.get("v")),parent,namespace);
+		element.position = elements.size();
+		element.childPosition = parent.children.size();
+		parent.children.add(element);
+		parent.content.add(element);
+		elements.add(element);
+		elementsByTag.computeIfAbsent(element.tagName,t -> new ArrayList<Element>()).add(element);
+		if(attributes.get("id") != null) {
+			elementsById.computeIfAbsent(attributes.get("id"),i -> new ArrayList<Element>()).add(element);
+		}
+		if(attributes.get("class") != null) {
+			for(String className : WHITESPACE.split(attributes.get("class").trim())) {
+				if(!className.isEmpty()) {
+					elementsByClass.computeIfAbsent(className,c -> new ArrayList<Element>()).add(element);
+				}
+			}
+		}
+		if(captured.get("c") instanceof List) {
+			for(Object child : (List<?>) captured.get("c")) {
+				if(child instanceof Map) {
+					addCaptured((Map<?,?>) child,element);
+				} else if(child != null) {
+					element.content.add(String.valueOf(child));
+				}
+			}
+		}
+		element.lastDescendantPosition = elements.size()-1;
+	}
+
+	/***
+	 * Index the answer of the capture script, or return null if it is not
+	 * an answer with a document
+	 * @param answer
+	 * @return
+	 */
+	static DomSnapshot fromCapture(Map<?,?> answer) {
+		if(!(answer.get("root") instanceof Map)) {
+			return null;
+		}
+		return new DomSnapshot(String.valueOf(answer.get("token")),(Map<?,?>) answer.get("root"),Boolean.TRUE.equals(answer.get("quirks")));
+	}
+
+	String getToken() {
+		return token;
+	}
+
+	Element getDocument() {
+		return document;
+	}
+
+	/***
+	 * Every element, in document order
+	 * @return
+	 */
+	public List<Element> getElements() {
+		return Collections.unmodifiableList(elements);
+	}
+
+	List<Element> getElementsByTag(String tagName) {
+		return elementsByTag.getOrDefault(tagName,Collections.<Element>emptyList());
+	}
+
+	List<Element> getElementsWithId(String id) {
+		return elementsById.getOrDefault(id,Collections.<Element>emptyList());
+	}
+
+	List<Element> getElementsWithClass(String className) {
+		return elementsByClass.getOrDefault(className,Collections.<Element>emptyList());
+	}
+
+	/***
+	 * The capture copied for XPath, or null if it can not be
+	 * @return
+	 */
+	synchronized SnapshotXPath.Copy getXPathCopy() {
+		if(!xpathCopied) {
+			xpathCopy = SnapshotXPath.copy(this);
+			xpathCopied = true;
+		}
+		return xpathCopy;
+	}
+
+	/***
+	 * Throw if the page is in quirks mode, where it would match ids and
+	 * classes that the snapshot would not
+	 * @param query
+	 */
+	private void requireNoQuirks(String query) {
+		if(quirksMode) {
+			throw new UnsupportedOperationException("The page is in quirks mode, where ids and classes match whatever their case | "+query);
+		}
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Query
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * The elements the CSS selector matches, in document order
+	 * @param cssSelector
+	 * @return
+	 * @throws UnsupportedOperationException if the selector uses anything
+	 * that is not understood, or the page is in quirks mode
+	 */
+	public List<Element> findByCss(String cssSelector) {
+		requireNoQuirks(cssSelector);
+		return SnapshotCss.select(this,cssSelector);
+	}
+
+	/***
+	 * The elements the XPath selects, in document order
+	 * @param xpath
+	 * @return
+	 * @throws UnsupportedOperationException if the XPath can not be answered
+	 * as the page would answer it, or selects anything other than elements
+	 */
+	public List<Element> findByXPath(String xpath) {
+		return SnapshotXPath.select(this,xpath);
+	}
+
+	/***
+	 * The elements with the id, in document order
+	 * @param id
+	 * @return
+	 * @throws UnsupportedOperationException if the page is in quirks mode
+	 */
+	public List<Element> findById(String id) {
+		requireNoQuirks(id);
+		return Collections.unmodifiableList(getElementsWithId(id));
+	}
+
+	/***
+	 * The anchors whose displayed text is the link text, as By.linkText
+	 * @param linkText
+	 * @return
+	 */
+	public List<Element> findByLinkText(String linkText) {
+		List<Element> found = new ArrayList<Element>();
+		for(Element anchor : getElementsByTag("a")) {
+			if(anchor.getText().equals(normaliseWhitespace(linkText))) {
+				found.add(anchor);
+			}
+		}
+		return found;
+	}
+
+	/***
+	 * The anchors whose displayed text contains the link text, as
+	 * By.partialLinkText
+	 * @param linkText
+	 * @return
+	 */
+	public List<Element> findByPartialLinkText(String linkText) {
+		List<Element> found = new ArrayList<Element>();
+		for(Element anchor : getElementsByTag("a")) {
+			if(anchor.getText().contains(normaliseWhitespace(linkText))) {
+				found.add(anchor);
+			}
+		}
+		return found;
+	}
+
+	/***
+	 * The elements the locator finds, for a By made by one of By's static
+	 * factories
+	 * @param by
+	 * @return
+	 * @throws UnsupportedOperationException if it is any other By, or its
+	 * query is not understood
+	 */
+	public List<Element> find(By by) {
+		String byString = String.valueOf(by);
+		int separator = byString.indexOf(": ");
+		if(!byString.startsWith("By.") || separator < 0) {
+			throw new UnsupportedOperationException("A snapshot can not be queried with | "+byString);
+		}
+		String how = byString.substring(3,separator);
+		String what = byString.substring(separator+2);
+		switch(how) {
+			case "id": return findById(what);
+			case "cssSelector": return findByCss(what);
+			case "xpath": return findByXPath(what);
+			case "linkText": return findByLinkText(what);
+			case "partialLinkText": return findByPartialLinkText(what);
+			case "className": return findByCss("."+SnapshotCss.escapeIdentifier(what));
+			case "tagName": return Collections.unmodifiableList(getElementsByTag(what.toLowerCase(Locale.ROOT)));
+			case "name": return findByCss("*[name=\""+what.replace("\\","\\\\").replace("\"","\\\"")+"\"]");
+			default: throw new UnsupportedOperationException("A snapshot can not be queried with | "+byString);
+		}
+	}
+
+}
@@ -0,0 +1,79 @@
+package com.skenvy.SeleniumNG.NiceWebDriver;
+
+/***
+ * The asynchronous script a NiceWebDriver runs to find a web element, in
+ * one round trip, whether it is on the page already or arrives later. If no
+ * element matches when the script starts, a MutationObserver watches the
+ * document, and the script's callback is answered with the element the
+ * moment one matches, or with null once the timeout has passed, along with
+ * the path of the page and how long the element took to appear. Only the
+ * first page the script starts on is watched, so a navigation while it
+ * waits fails the script, and the NiceWebDriver falls back to polling.
+ */
+final class ElementArrival {
+
+	private ElementArrival() {}
+
+	/***
+	 * Find by CSS selector, as document.querySelector
+	 */
+	static final String CSS = "css";
+
+	/***
+	 * Find by XPath, the first element node of document.evaluate
+	 */
+	static final String XPATH = "xpath";
+
+	/***
+	 * Find the first anchor whose trimmed visible text is the selector
+	 */
+	static final String LINK_TEXT = "linkText";
+
+	/***
+	 * Find by id, as document.getElementById
+	 */
+	static final String ID = "id";
+
+	/***
+	 * How many milliseconds more than the lookup's own timeout the driver's
+	 * script timeout is set to, so the script always answers first
+	 */
+	static final long SCRIPT_TIMEOUT_MARGIN_MILLISECONDS = 1000;
+
+	/***
+	 * arguments[0] is one of the strategies above, arguments[1] the selector
+	 * and arguments[2] how many milliseconds to watch for. Answers a map of
+	 * "element", "path" and "waitedMilliSeconds". An invalid selector throws
+	 * on the first lookup, before anything is watched.
+	 */
+	static final String WAIT_FOR_ELEMENT_SCRIPT = ""
+			+ "var strategy = arguments[0], selector = arguments[1], timeoutMillis = arguments[2];"
+			+ "var callback = arguments[arguments.length - 1], start = Date.now();"
+			+ "var done = function(element) { callback({ element: element, path: location.pathname, waitedMilliSeconds: Date.now() - start }); };"
+			+ "var find = function() {"
+			+ "  if (strategy === '" + ID + "') { return document.getElementById(selector); }"
+			+ "  if (strategy === '" + CSS + "') { return document.querySelector(selector); }"
+			+ "  if (strategy === '" + XPATH + "') {"
+			+ "    var node = document.evaluate(selector, document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;"
+			+ "    return (node && node.nodeType === 1 ? node : null);"
+			+ "  }"
+			+ "  var anchors = document.getElementsByTagName('a');"
+			+ "  for (var i = 0; i < anchors.length; i++) {"
+			+ "    if ((anchors[i].innerText || anchors[i].textContent || '').trim() === selector) { return anchors[i]; }"
+			+ "  }"
+			+ "  return null;"
+			+ "};"
+			+ "var found = find();"
+			+ "if (found) { done(found); return; }"
+			+ "var finished = false, observer = null, timer = null;"
+			+ "var finish = function(element) {"
+			+ "  if (finished) { return; }"
+			+ "  finished = true; observer.disconnect(); clearTimeout(timer); done(element);"
+			+ "};"
+			+ "observer = new MutationObserver(function() { var element = find(); if (element) { finish(element); } });"
+			+ "observer.observe(document, { childList: true, subtree: true, attributes: true, characterData: strategy === '" + LINK_TEXT + "' });"
+			+ "timer = setTimeout(function() { finish(find()); }, timeoutMillis);";
+
+	static final NiceScript WAIT_FOR_ELEMENT = NiceScript.defineAsync("seleniumNG.elementArrival",WAIT_FOR_ELEMENT_SCRIPT);
+
+}
@@ -0,0 +1,411 @@
+package com.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.util.List;
+
+import com.skenvy.SeleniumNG.DomainConstants;
+
+/***
+ * Structured events, each tagged with the session and the test it happened
+ * in, written by one background thread so that parallel sessions never wait
+ * on the console or a file for each other. An event is gated on its LogLevel
+ * before anything is made of it: a disabled event is a comparison and
+ * nothing else, and allocates nothing, so long as its arguments are passed
+ * as they are rather than concatenated into the message. An enabled event
+ * is put in a bounded ring buffer, as its template and arguments, and only
+ * formatted once the background thread takes it out, replacing each "{}" of
+ * the template with the next argument. The arguments must not change after
+ * they are logged. If the buffer is full, Info and Verbose events are
+ * dropped and counted, while Warn and Error events wait for room. An
+ * event that fails to be formatted or written is reported on the standard
+ * error stream, and the events after it are still written.
+ * Events are written to "Logging.Path", or to the console if it is "", one
+ * line of space separated name=value fields each, such as
+ * {@code time=2026-01-02T03:04:05.678Z level=Verbose session=1a2b test=com.Example.checksTheHeader thread=main message="Succeeded in locating WebElement (on arrival) by CSS Selector String: By.cssSelector: #header"}
+ */
+public final class EventLog {
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * The logs of the suite and of each session
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * The log of events that do not belong to one session
+	 */
+	private static final EventLog suite = new EventLog("");
+
+	/***
+	 * The log of events that do not belong to one session, such as those of
+	 * the factory, its pool and the end of suite reports
+	 * @return
+	 */
+	public static EventLog forSuite() {
+		return suite;
+	}
+
+	/***
+	 * A log of the events of one session
+	 * @param sessionId
+	 * @return
+	 */
+	public static EventLog forSession(String sessionId) {
+		return new EventLog(sessionId);
+	}
+
+	/***
+	 * The configured "Logging.Level", or Info if the DomainConstants have
+	 * not been read
+	 * @return
+	 */
+	public static LogLevel getLevel() {
+		DomainConstants.Logging logging = DomainConstants.current().logging;
+		return (logging == null ? LogLevel.Info : logging.level);
+	}
+
+	private final String sessionId;
+
+	/***
+	 * The qualified name of the test method running on the session, or ""
+	 */
+	private volatile String testId = "";
+
+	/***
+	 * Whether the session writes its Verbose events whatever the level
+	 */
+	private volatile boolean verbose = false;
+
+	private EventLog(String sessionId) {
+		this.sessionId = sessionId;
+	}
+
+	public String getSessionId() {
+		return sessionId;
+	}
+
+	public String getTestId() {
+		return testId;
+	}
+
+	/***
+	 * Tag the events that follow with the test method now running, or ""
+	 * once it has finished
+	 * @param testId
+	 */
+	public void setTestId(String testId) {
+		this.testId = (testId == null ? "" : testId);
+	}
+
+	/***
+	 * Have this log write its Verbose events even if "Logging.Level" is
+	 * lower, as a test that declares verbose output does
+	 * @param verbose
+	 */
+	public void setVerbose(boolean verbose) {
+		this.verbose = verbose;
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Log
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * Whether events of the level are written. Check this before building
+	 * any argument of an event that would allocate, such as a boxed number.
+	 * @param level
+	 * @return
+	 */
+	public boolean isEnabled(LogLevel level) {
+		if(level == LogLevel.Off) {
+			return false;
+		}
+		return (level.compareTo(getLevel()) <= 0 || (level == LogLevel.Verbose && verbose));
+	}
+
+	public void log(LogLevel level, String message) {
+		if(isEnabled(level)) {
+			publish(new Event(level,sessionId,testId,message,0,null,null,null));
+		}
+	}
+
+	public void log(LogLevel level, String template, Object arg) {
+		if(isEnabled(level)) {
+			publish(new Event(level,sessionId,testId,template,1,arg,null,null));
+		}
+	}
+
+	/***
+	 * Log an event with a number, which is only boxed if the event is
+	 * enabled
+	 * @param level
+	 * @param template
+	 * @param arg
+	 */
+	public void log(LogLevel level, String template, long arg) {
+		if(isEnabled(level)) {
+			publish(new Event(level,sessionId,testId,template,1,arg,null,null));
+		}
+	}
+
+	public void log(LogLevel level, String template, Object arg1, Object arg2) {
+		if(isEnabled(level)) {
+			publish(new Event(level,sessionId,testId,template,2,arg1,arg2,null));
+		}
+	}
+
+	public void log(LogLevel level, String template, Object arg1, Object arg2, Object arg3) {
+		if(isEnabled(level)) {
+			publish(new Event(level,sessionId,testId,template,3,arg1,arg2,arg3));
+		}
+	}
+
+	/***
+	 * Write a report, such as those of the end of the suite, as an Info
+	 * event for each of its lines, whatever the level. The lines wait for
+	 * room in the buffer rather than being dropped, and are written in order
+	 * with every other event.
+	 * @param report
+	 */
+	public void report(String report) {
+		for(String line : report.split("\r?\n")) {
+			publish(new Event(LogLevel.Info,sessionId,testId,line,0,null,null,null,true));
+		}
+	}
+
+	/***
+	 * Wait until every event logged so far, by any log, has been written, or
+	 * until the timeout, such as before a report is printed or the suite
+	 * waits on the console
+	 * @param timeoutMilliSeconds
+	 * @return whether every event was written in time
+	 */
+	public static boolean flush(long timeoutMilliSeconds) {
+		Drain running = drain;
+		return (running == null || running.awaitWritten(timeoutMilliSeconds));
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Events
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * An event as it was logged, formatted only as it is written
+	 */
+	private static final class Event {
+
+		private final long epochMilliSeconds = System.currentTimeMillis();
+		private final String thread = Thread.currentThread().getName();
+		private final LogLevel level;
+		private final String sessionId;
+		private final String testId;
+		private final String template;
+		private final int argCount;
+		private final Object arg1;
+		private final Object arg2;
+		private final Object arg3;
+
+		/***
+		 * Whether the event waits for room in a full buffer, rather than
+		 * being dropped
+		 */
+		private final boolean waitsForRoom;
+
+		private Event(LogLevel level, String sessionId, String testId, String template, int argCount, Object arg1, Object arg2, Object arg3) {
+			this(level,sessionId,testId,template,argCount,arg1,arg2,arg3,level.compareTo(LogLevel.Warn) <= 0);
+		}
+
+		private Event(LogLevel level, String sessionId, String testId, String template, int argCount, Object arg1, Object arg2, Object arg3, boolean waitsForRoom) {
+			this.waitsForRoom = waitsForRoom;
+			this.level = level;
+			this.sessionId = sessionId;
+			this.testId = testId;
+			this.template = template;
+			this.argCount = argCount;
+			this.arg1 = arg1;
+			this.arg2 = arg2;
+			this.arg3 = arg3;
+		}
+
+		/***
+		 * The event as one line of name=value fields
+		 * @return
+		 */
+		private String format() {
+			StringBuilder line = new StringBuilder(128);
+			line.append("time=").append(Instant.ofEpochMilli(epochMilliSeconds));
+			line.append(" level=").append(level);
+			appendField(line,"session",sessionId);
+			appendField(line,"test",testId);
+			appendField(line,"thread",thread);
+			appendField(line,"message",getMessage());
+			return line.toString();
+		}
+
+		/***
+		 * The template with each "{}" replaced by the next argument
+		 * @return
+		 */
+		private String getMessage() {
+			if(argCount == 0) {
+				return template;
+			}
+			StringBuilder message = new StringBuilder(template.length()+32);
+			int from = 0;
+			for(int k = 0; k < argCount; k++) {
+				int placeholder = template.indexOf("{}",from);
+				if(placeholder < 0) {
+					break;
+				}
+				message.append(template,from,placeholder).append(k == 0 ? arg1 : (k == 1 ? arg2 : arg3));
+				from = placeholder+2;
+			}
+			return message.append(template,from,template.length()).toString();
+		}
+
+		/***
+		 * Append " name=value", quoting the value if it is empty or has a
+		 * space, quote, equals sign or control character in it
+		 * @param line
+		 * @param name
+		 * @param value
+		 */
+		private static void appendField(StringBuilder line, String name, String value) {
+			line.append(' ').append(name).append('=');
+			boolean quoted = value.isEmpty();
+			for(int k = 0; k < value.length() && !quoted; k++) {
+				char c = value.charAt(k);
+				quoted = (c <= ' ' || c == '"' || c == '=');
+			}
+			if(!quoted) {
+				line.append(value);
+				return;
+			}
+			line.append('"');
+			for(int k = 0; k < value.length(); k++) {
+				char c = value.charAt(k);
+				if(c == '"' || c == '\\') {
+					line.append('\\').append(c);
+				} else if(c == '\n') {
+					line.append("\\n");
+				} else if(c == '\r') {
+					line.append("\\r");
+				} else if(c == '\t') {
+					line.append("\\t");
+				} else {
+					line.append(c);
+				}
+			}
+			line.append('"');
+		}
+
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * The ring buffer and its drain
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * The drain, started by the first event to be published
+	 */
+	private static volatile Drain drain = null;
+
+	private static final Object drainLock = new Object();
+
+	/***
+	 * Put the event in the buffer, waiting for room if it is a Warn or
+	 * Error, and dropping it otherwise
+	 * @param event
+	 */
+	private static void publish(Event event) {
+		Drain running = drain;
+		if(running == null) {
+			synchronized(drainLock) {
+				running = drain;
+				if(running == null) {
+					DomainConstants.Logging logging = DomainConstants.current().logging;
+					running = new Drain(logging == null ? 8192 : logging.bufferSize);
+					drain = running;
+				}
+			}
+		}
+		running.offer(event);
+	}
+
+	/***
+	 * The bounded buffer of events, and the one thread that writes them
+	 */
+	private static final class Drain extends AsyncFileDrain<Event> {
+
+		private Drain(int capacity) {
+			super("EventLog",capacity,true);
+		}
+
+		private void offer(Event event) {
+			offer(event,event.waitsForRoom);
+		}
+
+		/***
+		 * Write a batch of events to "Logging.Path", or to the console, after
+		 * a note of how many events were dropped, if any were
+		 * @param batch
+		 */
+		@Override
+		protected void write(List<Event> batch) {
+			long droppedEvents = takeDropped();
+			if(droppedEvents > 0) {
+				batch.add(0,new Event(LogLevel.Warn,"","","Dropped {} events, the buffer of \"Logging.BufferSize\" events was full",1,droppedEvents,null,null));
+			}
+			DomainConstants.Logging logging = DomainConstants.current().logging;
+			String path = (logging == null ? "" : logging.path);
+			if(!path.isEmpty()) {
+				try {
+					Writer writer = openFile(path);
+					for(Event event : batch) {
+						String line = formatOrReport(event);
+						if(line != null) {
+							writer.write(line);
+							writer.write(System.lineSeparator());
+						}
+					}
+					writer.flush();
+					return;
+				} catch (IOException e) {
+					System.err.println("Failed to write the event log to | "+path+" | "+e.getMessage());
+					closeFile();
+				}
+			}
+			for(Event event : batch) {
+				String line = formatOrReport(event);
+				if(line != null) {
+					(event.level.compareTo(LogLevel.Warn) <= 0 ? System.err : System.out).println(line);
+				}
+			}
+		}
+
+		/***
+		 * The event formatted, or null, after reporting it on the standard
+		 * error stream, if an argument's toString() throws
+		 * @param event
+		 * @return
+		 */
+		private static String formatOrReport(Event event) {
+			try {
+				return event.format();
+			} catch (RuntimeException e) {
+				System.err.println("Failed to format an event of the event log | "+event.template+" | "+e);
+				return null;
+			}
+		}
+
+	}
+
+}
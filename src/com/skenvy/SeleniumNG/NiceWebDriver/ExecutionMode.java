@@ -0,0 +1,12 @@
+package com.skenvy.SeleniumNG.NiceWebDriver;
+
+/***
+ * An enum to define which threads the NiceWebDriverFactory runs remote
+ * session startups and remote session flows on
+ */
+public enum ExecutionMode {
+
+	Platform, //One pooled platform thread per blocked session
+	Virtual   //One virtual thread per session, on a JVM that has them (21+)
+	
+}
@@ -0,0 +1,222 @@
+package com.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/***
+ * A histogram of latencies in microseconds that many threads can record into
+ * without locking. Each power of two is split into 32 equal buckets, so that
+ * every latency, from a microsecond to several days, is known to within about
+ * 3%, in a fixed 10 kB, however many latencies are recorded. Percentiles are
+ * read from a Snapshot, which is a copy of the counts at one moment.
+ */
+public final class LatencyHistogram {
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Histogram buckets
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * How many bits of each latency below its highest set bit are kept
+	 */
+	private static final int SUB_BUCKET_BITS = 5;
+
+	/***
+	 * How many equal buckets each power of two is split into
+	 */
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	/***
+	 * The highest power of two held, 2^41 microseconds being about 25 days
+	 */
+	private static final int MAX_MAGNITUDE = 41;
+
+	/***
+	 * Latencies under SUB_BUCKETS have a bucket each, and every power of two
+	 * from SUB_BUCKETS up to 2^MAX_MAGNITUDE is split into SUB_BUCKETS buckets
+	 */
+	static final int BUCKETS = (MAX_MAGNITUDE - SUB_BUCKET_BITS + 2)*SUB_BUCKETS;
+
+	/***
+	 * The bucket a latency falls in
+	 * @param microSeconds
+	 * @return
+	 */
+	static int bucketOf(long microSeconds) {
+		if(microSeconds < SUB_BUCKETS) {
+			return (int) Math.max(microSeconds,0);
+		}
+		int magnitude = 63 - Long.numberOfLeadingZeros(microSeconds);
+		if(magnitude > MAX_MAGNITUDE) {
+			return BUCKETS-1;
+		}
+		int shift = magnitude - SUB_BUCKET_BITS;
+		return (shift+1)*SUB_BUCKETS + (int) ((microSeconds >>> shift) & (SUB_BUCKETS-1));
+	}
+
+	/***
+	 * The largest latency a bucket holds
+	 * @param bucket
+	 * @return
+	 */
+	static long upperBoundOf(int bucket) {
+		if(bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int shift = bucket/SUB_BUCKETS - 1;
+		long lowerBound = ((long) (SUB_BUCKETS + bucket%SUB_BUCKETS)) << shift;
+		return lowerBound + (1L << shift) - 1;
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Record
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong totalMicroSeconds = new AtomicLong();
+	private final AtomicLong maxMicroSeconds = new AtomicLong();
+
+	/***
+	 * Add a latency
+	 * @param microSeconds
+	 */
+	public void record(long microSeconds) {
+		long latency = Math.max(microSeconds,0);
+		counts.incrementAndGet(bucketOf(latency));
+		totalMicroSeconds.addAndGet(latency);
+		count.incrementAndGet();
+		long max = maxMicroSeconds.get();
+		while(latency > max && !maxMicroSeconds.compareAndSet(max,latency)) {
+			max = maxMicroSeconds.get();
+		}
+	}
+
+	/***
+	 * Add a latency measured with System.nanoTime()
+	 * @param nanoSeconds
+	 */
+	public void recordNanoSeconds(long nanoSeconds) {
+		record(nanoSeconds/1000);
+	}
+
+	/***
+	 * Copy the counts as they are now. Latencies recorded while the copy is
+	 * being made may be missing from some of its totals.
+	 * @return
+	 */
+	public Snapshot getSnapshot() {
+		long[] copied = new long[BUCKETS];
+		long copiedCount = 0;
+		for(int bucket = 0; bucket < BUCKETS; bucket++) {
+			copied[bucket] = counts.get(bucket);
+			copiedCount += copied[bucket];
+		}
+		return new Snapshot(copied,copiedCount,totalMicroSeconds.get(),maxMicroSeconds.get());
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Snapshot
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * The counts of a LatencyHistogram at one moment, or the sum of several
+	 */
+	public static final class Snapshot {
+
+		private final long[] counts;
+		private final long count;
+		private final long totalMicroSeconds;
+		private final long maxMicroSeconds;
+
+		private Snapshot(long[] counts, long count, long totalMicroSeconds, long maxMicroSeconds) {
+			this.counts = counts;
+			this.count = count;
+			this.totalMicroSeconds = totalMicroSeconds;
+			this.maxMicroSeconds = maxMicroSeconds;
+		}
+
+		/***
+		 * A snapshot of no latencies, to sum others into
+		 * @return
+		 */
+		public static Snapshot empty() {
+			return new Snapshot(new long[BUCKETS],0,0,0);
+		}
+
+		/***
+		 * The latencies of this snapshot and another together
+		 * @param other
+		 * @return
+		 */
+		public Snapshot plus(Snapshot other) {
+			long[] summed = new long[BUCKETS];
+			for(int bucket = 0; bucket < BUCKETS; bucket++) {
+				summed[bucket] = counts[bucket] + other.counts[bucket];
+			}
+			return new Snapshot(summed,count+other.count,totalMicroSeconds+other.totalMicroSeconds,Math.max(maxMicroSeconds,other.maxMicroSeconds));
+		}
+
+		/***
+		 * How many latencies were recorded
+		 * @return
+		 */
+		public long getCount() {
+			return count;
+		}
+
+		/***
+		 * The sum of every latency
+		 * @return
+		 */
+		public long getTotalMicroSeconds() {
+			return totalMicroSeconds;
+		}
+
+		/***
+		 * The longest latency, exactly
+		 * @return
+		 */
+		public long getMaxMicroSeconds() {
+			return maxMicroSeconds;
+		}
+
+		/***
+		 * The mean latency, or 0 if none were recorded
+		 * @return
+		 */
+		public double getMeanMicroSeconds() {
+			return (count == 0 ? 0 : ((double) totalMicroSeconds)/count);
+		}
+
+		/***
+		 * The latency that the given percentage of latencies are at or
+		 * under, rounded up to its bucket's upper bound but never past the
+		 * longest latency, or 0 if none were recorded
+		 * @param percent
+		 * @return microseconds
+		 */
+		public long getPercentileMicroSeconds(double percent) {
+			if(count == 0) {
+				return 0;
+			}
+			long rank = Math.max((long) Math.ceil(count*percent/100.0),1);
+			long seen = 0;
+			for(int bucket = 0; bucket < BUCKETS; bucket++) {
+				seen += counts[bucket];
+				if(seen >= rank) {
+					return Math.min(upperBoundOf(bucket),maxMicroSeconds);
+				}
+			}
+			return maxMicroSeconds;
+		}
+
+	}
+
+}
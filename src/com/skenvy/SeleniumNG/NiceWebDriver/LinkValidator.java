@@ -0,0 +1,367 @@
+package com.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+import org.openqa.selenium.Cookie;
+
+import com.skenvy.SeleniumNG.DomainConstants;
+
+/***
+ * Checks links over HTTP, outside of the browser, many at once. Each link is
+ * requested with HEAD, or with GET if the server does not allow HEAD, with
+ * the browser session's cookies for its host, following redirects up to a
+ * limit, and without ever sending more than a limited number of requests to
+ * any one host at once. The result of each link is kept, so a link found on
+ * many pages is only checked once for the same cookies. Requests are made
+ * on virtual threads where the JVM has them, and otherwise on a cached pool
+ * of daemon threads, reusing the JVM's pooled keep-alive connections.
+ * Only http and https links can be checked; links that need the browser,
+ * such as "javascript:" links, are left for the browser to click.
+ */
+public final class LinkValidator implements AutoCloseable {
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * The status of a link
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * What checking a link found: the HTTP status of the last response, after
+	 * following any redirects, or -1 if no response was received, in which
+	 * case the error says why
+	 */
+	public static final class LinkStatus {
+
+		private final String url;
+		private final String finalUrl;
+		private final int status;
+		private final int redirects;
+		private final String method;
+		private final String error;
+
+		LinkStatus(String url, String finalUrl, int status, int redirects, String method, String error) {
+			this.url = url;
+			this.finalUrl = finalUrl;
+			this.status = status;
+			this.redirects = redirects;
+			this.method = method;
+			this.error = error;
+		}
+
+		public String getUrl() {
+			return url;
+		}
+
+		/***
+		 * The url the last response came from, after redirects
+		 * @return
+		 */
+		public String getFinalUrl() {
+			return finalUrl;
+		}
+
+		public int getStatus() {
+			return status;
+		}
+
+		public int getRedirects() {
+			return redirects;
+		}
+
+		/***
+		 * HEAD, or GET if the server did not allow HEAD
+		 * @return
+		 */
+		public String getMethod() {
+			return method;
+		}
+
+		public String getError() {
+			return error;
+		}
+
+		/***
+		 * Whether the link gave no response, a 4xx or 5xx status, or
+		 * redirected more times than allowed
+		 * @return
+		 */
+		public boolean isBroken() {
+			return (status < 200 || status >= 400 || error != null);
+		}
+
+		@Override
+		public String toString() {
+			return url+" | "+(status < 0 ? error : method+" "+status+(redirects > 0 ? " after "+redirects+" redirects to "+finalUrl : "")+(error == null ? "" : " | "+error));
+		}
+
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Validator state
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	private final int maxRequestsPerHost;
+	private final int timeoutMilliSeconds;
+	private final int maxRedirects;
+	private final ExecutorService executor;
+
+	/***
+	 * The permits to request each host, keyed on "host:port"
+	 */
+	private final ConcurrentHashMap<String,Semaphore> hostPermits = new ConcurrentHashMap<String,Semaphore>();
+
+	/***
+	 * The check of each link, keyed on its url and the cookies it was sent
+	 */
+	private final ConcurrentHashMap<String,CompletableFuture<LinkStatus>> checkedLinks = new ConcurrentHashMap<String,CompletableFuture<LinkStatus>>();
+
+	/***
+	 * A validator configured by "LinkValidation.*", or with its defaults if
+	 * the DomainConstants have not been read
+	 * @return
+	 */
+	public static LinkValidator forDomainConstants() {
+		DomainConstants.LinkValidation linkValidation = DomainConstants.current().linkValidation;
+		if(linkValidation == null) {
+			return new LinkValidator(6,10000,5);
+		}
+		return new LinkValidator(linkValidation.maxRequestsPerHost,linkValidation.timeoutMilliSeconds,linkValidation.maxRedirects);
+	}
+
+	/***
+	 * A validator that sends at most maxRequestsPerHost requests to a host at
+	 * once, gives each request timeoutMilliSeconds to connect and then to be
+	 * answered, and follows at most maxRedirects redirects from a link
+	 * @param maxRequestsPerHost
+	 * @param timeoutMilliSeconds
+	 * @param maxRedirects
+	 */
+	public LinkValidator(int maxRequestsPerHost, int timeoutMilliSeconds, int maxRedirects) {
+		this.maxRequestsPerHost = Math.max(maxRequestsPerHost,1);
+		this.timeoutMilliSeconds = Math.max(timeoutMilliSeconds,1);
+		this.maxRedirects = Math.max(maxRedirects,0);
+		this.executor = SessionThreads.newExecutor(ExecutionMode.Virtual,"SeleniumNG-LinkValidator-");
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Validate
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * Whether a url can be checked over HTTP, rather than needing the browser
+	 * @param url
+	 * @return
+	 */
+	public static boolean isHttpLink(String url) {
+		if(url == null) {
+			return false;
+		}
+		String lowerCaseUrl = url.trim().toLowerCase(Locale.ROOT);
+		return (lowerCaseUrl.startsWith("http://") || lowerCaseUrl.startsWith("https://"));
+	}
+
+	/***
+	 * Check a link, with whichever of the cookies the browser would send it,
+	 * or return the check already made of it with the same cookies
+	 * @param url an absolute http or https url
+	 * @param cookies
+	 * @return
+	 */
+	public CompletableFuture<LinkStatus> validate(String url, Collection<Cookie> cookies) {
+		String urlWithoutFragment = stripFragment(url.trim());
+		String cookieHeader;
+		try {
+			cookieHeader = getCookieHeader(new URL(urlWithoutFragment),cookies);
+		} catch (MalformedURLException e) {
+			return CompletableFuture.completedFuture(new LinkStatus(url,url,-1,0,"HEAD","Malformed url: "+e.getMessage()));
+		}
+		return checkedLinks.computeIfAbsent(urlWithoutFragment+"\n"+cookieHeader,key -> CompletableFuture.supplyAsync(() -> check(urlWithoutFragment,cookies),executor));
+	}
+
+	/***
+	 * Check every link at once, and wait for them all
+	 * @param urls absolute http or https urls
+	 * @param cookies
+	 * @return the status of every link, in the order given
+	 */
+	public Map<String,LinkStatus> validateAll(Collection<String> urls, Collection<Cookie> cookies) {
+		Map<String,CompletableFuture<LinkStatus>> checks = new LinkedHashMap<String,CompletableFuture<LinkStatus>>();
+		for(String url : urls) {
+			checks.putIfAbsent(url,validate(url,cookies));
+		}
+		Map<String,LinkStatus> statuses = new LinkedHashMap<String,LinkStatus>();
+		for(Map.Entry<String,CompletableFuture<LinkStatus>> check : checks.entrySet()) {
+			statuses.put(check.getKey(),check.getValue().join());
+		}
+		return statuses;
+	}
+
+	/***
+	 * The broken links of a validateAll(...)
+	 * @param statuses
+	 * @return
+	 */
+	public static List<LinkStatus> getBrokenLinks(Map<String,LinkStatus> statuses) {
+		List<LinkStatus> broken = new ArrayList<LinkStatus>();
+		for(LinkStatus status : statuses.values()) {
+			if(status.isBroken()) {
+				broken.add(status);
+			}
+		}
+		return Collections.unmodifiableList(broken);
+	}
+
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Request
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * Request the link, and each url it redirects to, with HEAD, falling back
+	 * to GET where HEAD is not allowed
+	 * @param url
+	 * @param cookies
+	 * @return
+	 */
+	private LinkStatus check(String url, Collection<Cookie> cookies) {
+		String currentUrl = url;
+		String method = "HEAD";
+		for(int redirects = 0; ; redirects++) {
+			int status;
+			String location;
+			try {
+				URL target = new URL(currentUrl);
+				String[] answer = request(target,"HEAD",cookies);
+				status = Integer.parseInt(answer[0]);
+				if(status == HttpURLConnection.HTTP_BAD_METHOD || status == HttpURLConnection.HTTP_NOT_IMPLEMENTED) {
+					method = "GET";
+					answer = request(target,"GET",cookies);
+					status = Integer.parseInt(answer[0]);
+				}
+				location = answer[1];
+				if(isRedirect(status) && location != null) {
+					if(redirects >= maxRedirects) {
+						return new LinkStatus(url,currentUrl,status,redirects,method,"Redirected more than "+maxRedirects+" times");
+					}
+					currentUrl = stripFragment(new URL(target,location).toString());
+					continue;
+				}
+			} catch (IOException | RuntimeException e) {
+				return new LinkStatus(url,currentUrl,-1,redirects,method,e.getClass().getSimpleName()+": "+e.getMessage());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return new LinkStatus(url,currentUrl,-1,redirects,method,"Interrupted");
+			}
+			return new LinkStatus(url,currentUrl,status,redirects,method,null);
+		}
+	}
+
+	/***
+	 * Send one request, holding one of its host's permits while it is sent
+	 * @param target
+	 * @param method
+	 * @param cookies
+	 * @return the status and the Location header
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	private String[] request(URL target, String method, Collection<Cookie> cookies) throws IOException, InterruptedException {
+		Semaphore permits = hostPermits.computeIfAbsent(target.getHost().toLowerCase(Locale.ROOT)+":"+getPort(target),host -> new Semaphore(maxRequestsPerHost));
+		permits.acquire();
+		try {
+			HttpURLConnection connection = (HttpURLConnection) target.openConnection();
+			connection.setRequestMethod(method);
+			connection.setInstanceFollowRedirects(false);
+			connection.setConnectTimeout(timeoutMilliSeconds);
+			connection.setReadTimeout(timeoutMilliSeconds);
+			connection.setRequestProperty("Accept","*/*");
+			String cookieHeader = getCookieHeader(target,cookies);
+			if(!cookieHeader.isEmpty()) {
+				connection.setRequestProperty("Cookie",cookieHeader);
+			}
+			int status = connection.getResponseCode();
+			String location = connection.getHeaderField("Location");
+			//Closing the body, rather than disconnecting, returns the connection to the keep-alive pool
+			InputStream body = (status >= 400 ? connection.getErrorStream() : connection.getInputStream());
+			if(body != null) {
+				body.close();
+			}
+			return new String[] {String.valueOf(status),location};
+		} finally {
+			permits.release();
+		}
+	}
+
+	private static boolean isRedirect(int status) {
+		return (status == 301 || status == 302 || status == 303 || status == 307 || status == 308);
+	}
+
+	private static int getPort(URL url) {
+		return (url.getPort() < 0 ? url.getDefaultPort() : url.getPort());
+	}
+
+	private static String stripFragment(String url) {
+		int fragment = url.indexOf('#');
+		return (fragment < 0 ? url : url.substring(0,fragment));
+	}
+
+	/***
+	 * The Cookie header the browser would send to the url: every cookie whose
+	 * domain and path match it, and which is not secure unless it is https
+	 * @param url
+	 * @param cookies
+	 * @return
+	 */
+	static String getCookieHeader(URL url, Collection<Cookie> cookies) {
+		if(cookies == null) {
+			return "";
+		}
+		String host = url.getHost().toLowerCase(Locale.ROOT);
+		String path = (url.getPath().isEmpty() ? "/" : url.getPath());
+		StringBuilder header = new StringBuilder();
+		for(Cookie cookie : cookies) {
+			String domain = (cookie.getDomain() == null ? host : cookie.getDomain().toLowerCase(Locale.ROOT));
+			if(domain.startsWith(".")) {
+				domain = domain.substring(1);
+			}
+			String cookiePath = (cookie.getPath() == null ? "/" : cookie.getPath());
+			boolean domainMatches = (host.equals(domain) || host.endsWith("."+domain));
+			boolean pathMatches = (path.equals(cookiePath) || (path.startsWith(cookiePath) && (cookiePath.endsWith("/") || path.charAt(cookiePath.length()) == '/')));
+			boolean schemeMatches = (!cookie.isSecure() || url.getProtocol().equalsIgnoreCase("https"));
+			if(domainMatches && pathMatches && schemeMatches) {
+				if(header.length() > 0) {
+					header.append("; ");
+				}
+				header.append(cookie.getName()).append('=').append(cookie.getValue());
+			}
+		}
+		return header.toString();
+	}
+
+}
@@ -0,0 +1,313 @@
+package com.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.skenvy.SeleniumNG.DomainConstants;
+
+/***
+ * How long the web elements of each locator have taken to appear, kept in an
+ * XML properties file between runs, and the lookup timeout derived from it.
+ * A locator is keyed on the path of the page it was looked up on and its By
+ * string. Each locator's latencies are kept as a histogram of exponentially
+ * wider buckets, each 20% wider than the one before, so that a percentile is
+ * known to within 20% whatever the number of samples. When a histogram grows
+ * past MAX_SAMPLES, every count is halved as it is saved, so the timeouts
+ * follow lasting changes in a page rather than its whole history. A lookup
+ * that timed out is kept as a sample at the timeout it was given, as all
+ * that is known is that its element took at least that long, so a locator
+ * whose elements are missed has its timeout raised rather than kept short.
+ */
+public final class LocatorLatencyHistory {
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * One history per file
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * The histories already read in this JVM, keyed on absolute path
+	 */
+	private static final ConcurrentHashMap<String,LocatorLatencyHistory> histories = new ConcurrentHashMap<String,LocatorLatencyHistory>();
+
+	/***
+	 * The history kept in a file, read on first use. Every caller asking for
+	 * the same file shares the same history.
+	 * @param path
+	 * @return
+	 */
+	public static LocatorLatencyHistory forPath(String path) {
+		String absolutePath = new File(path).getAbsolutePath();
+		return histories.computeIfAbsent(absolutePath,LocatorLatencyHistory::new);
+	}
+
+	/***
+	 * The history configured by "LocatorTimeouts.HistoryPath", or null if
+	 * the DomainConstants have not been read or the path is empty
+	 * @return
+	 */
+	public static LocatorLatencyHistory forDomainConstants() {
+		DomainConstants.LocatorTimeouts locatorTimeouts = DomainConstants.current().locatorTimeouts;
+		if(locatorTimeouts == null || locatorTimeouts.historyPath.equals("")) {
+			return null;
+		}
+		return forPath(locatorTimeouts.historyPath);
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Histogram buckets
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * How much wider each bucket is than the one before
+	 */
+	private static final double BUCKET_GROWTH = 1.2;
+
+	/***
+	 * Enough buckets for latencies of up to about 20 minutes
+	 */
+	private static final int BUCKETS = 80;
+
+	/***
+	 * The samples a histogram keeps before its counts are halved
+	 */
+	static final long MAX_SAMPLES = 1000;
+
+	/***
+	 * The bucket a latency falls in, bucket 0 holding 0 and 1 ms
+	 * @param milliSeconds
+	 * @return
+	 */
+	static int bucketOf(long milliSeconds) {
+		if(milliSeconds <= 1) {
+			return 0;
+		}
+		return (int) Math.min(Math.ceil(Math.log(milliSeconds)/Math.log(BUCKET_GROWTH)),BUCKETS-1);
+	}
+
+	/***
+	 * The largest latency a bucket holds
+	 * @param bucket
+	 * @return
+	 */
+	static long upperBoundOf(int bucket) {
+		return (bucket == 0 ? 1 : (long) Math.floor(Math.pow(BUCKET_GROWTH,bucket)));
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * History state
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * The file the history is read from and saved to
+	 */
+	private final File historyFile;
+
+	/***
+	 * The counts of each locator's buckets, each array guarded by itself
+	 */
+	private final ConcurrentHashMap<String,long[]> histograms = new ConcurrentHashMap<String,long[]>();
+
+	/***
+	 * Read the history from a file, if it exists
+	 * @param absolutePath
+	 */
+	private LocatorLatencyHistory(String absolutePath) {
+		historyFile = new File(absolutePath);
+		if(historyFile.exists()) {
+			Properties properties = new Properties();
+			try(InputStream in = new FileInputStream(historyFile)) {
+				properties.loadFromXML(in);
+				for(String locatorKey : properties.stringPropertyNames()) {
+					histograms.put(locatorKey,parseHistogram(properties.getProperty(locatorKey)));
+				}
+			} catch (IOException | RuntimeException e) {
+				histograms.clear();
+				EventLog.forSuite().log(LogLevel.Warn,"Failed to read the locator latency history at | {} | every locator will use the default timeout",absolutePath);
+			}
+		}
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Record, estimate and save
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * Add how long a locator's web element took to appear
+	 * @param locatorKey
+	 * @param milliSeconds
+	 */
+	public void record(String locatorKey, long milliSeconds) {
+		long[] histogram = histograms.computeIfAbsent(locatorKey,k -> new long[BUCKETS]);
+		synchronized(histogram) {
+			histogram[bucketOf(Math.max(milliSeconds,0))]++;
+		}
+	}
+
+	/***
+	 * Add a lookup of a locator that timed out, as a latency of the timeout
+	 * it was given, which its web element took at least as long as
+	 * @param locatorKey
+	 * @param timeoutMilliSeconds
+	 */
+	public void recordTimeout(String locatorKey, long timeoutMilliSeconds) {
+		record(locatorKey,timeoutMilliSeconds);
+	}
+
+	/***
+	 * How many latencies of a locator are held, timeouts included
+	 * @param locatorKey
+	 * @return
+	 */
+	public long getSampleCount(String locatorKey) {
+		long[] histogram = histograms.get(locatorKey);
+		if(histogram == null) {
+			return 0;
+		}
+		long samples = 0;
+		synchronized(histogram) {
+			for(long count : histogram) {
+				samples += count;
+			}
+		}
+		return samples;
+	}
+
+	/***
+	 * The latency that the given percentage of a locator's latencies are at
+	 * or under, rounded up to its bucket's upper bound, or -1 if none are held
+	 * @param locatorKey
+	 * @param percent
+	 * @return milliseconds
+	 */
+	public long getPercentileMilliSeconds(String locatorKey, double percent) {
+		long[] histogram = histograms.get(locatorKey);
+		if(histogram == null) {
+			return -1;
+		}
+		synchronized(histogram) {
+			long samples = 0;
+			for(long count : histogram) {
+				samples += count;
+			}
+			if(samples == 0) {
+				return -1;
+			}
+			long rank = (long) Math.ceil(samples*percent/100.0);
+			long seen = 0;
+			for(int bucket = 0; bucket < BUCKETS; bucket++) {
+				seen += histogram[bucket];
+				if(seen >= rank && histogram[bucket] > 0) {
+					return upperBoundOf(bucket);
+				}
+			}
+			return upperBoundOf(BUCKETS-1);
+		}
+	}
+
+	/***
+	 * How long to wait for a locator's web element: its 99th percentile
+	 * latency scaled by safetyPercent/100 and clamped to the minimum and
+	 * maximum, or the default timeout while it has fewer than minSamples
+	 * @param locatorKey
+	 * @param defaultTimeoutMilliSeconds
+	 * @param minSamples
+	 * @param safetyPercent
+	 * @param minMilliSeconds
+	 * @param maxMilliSeconds
+	 * @return milliseconds
+	 */
+	public long getTimeoutMilliSeconds(String locatorKey, long defaultTimeoutMilliSeconds, long minSamples, long safetyPercent, long minMilliSeconds, long maxMilliSeconds) {
+		if(getSampleCount(locatorKey) < minSamples) {
+			return defaultTimeoutMilliSeconds;
+		}
+		long p99 = getPercentileMilliSeconds(locatorKey,99);
+		return Math.min(Math.max(p99*safetyPercent/100,minMilliSeconds),maxMilliSeconds);
+	}
+
+	/***
+	 * Write every histogram to the history file, halving the counts of any
+	 * that hold more than MAX_SAMPLES. The file is replaced in one step, so a
+	 * run killed while saving leaves the previous history intact.
+	 * @throws IOException
+	 */
+	public synchronized void save() throws IOException {
+		Properties properties = new Properties();
+		for(Map.Entry<String,long[]> entry : histograms.entrySet()) {
+			long[] histogram = entry.getValue();
+			synchronized(histogram) {
+				long samples = 0;
+				for(long count : histogram) {
+					samples += count;
+				}
+				if(samples > MAX_SAMPLES) {
+					for(int bucket = 0; bucket < BUCKETS; bucket++) {
+						histogram[bucket] = (histogram[bucket]+1)/2;
+					}
+				}
+				properties.setProperty(entry.getKey(),formatHistogram(histogram));
+			}
+		}
+		File directory = historyFile.getAbsoluteFile().getParentFile();
+		File partFile = File.createTempFile(historyFile.getName(),".part",directory);
+		try {
+			try(OutputStream out = new FileOutputStream(partFile)) {
+				properties.storeToXML(out,"SeleniumNG locator latencies, bucket:count, bucket b holding up to 1.2^b milliseconds");
+			}
+			try {
+				Files.move(partFile.toPath(),historyFile.toPath(),StandardCopyOption.REPLACE_EXISTING,StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(partFile.toPath(),historyFile.toPath(),StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(partFile.toPath());
+		}
+	}
+
+	/***
+	 * "bucket:count" of every bucket with a count, comma separated
+	 * @param histogram
+	 * @return
+	 */
+	private static String formatHistogram(long[] histogram) {
+		StringBuilder formatted = new StringBuilder();
+		for(int bucket = 0; bucket < BUCKETS; bucket++) {
+			if(histogram[bucket] > 0) {
+				if(formatted.length() > 0) {
+					formatted.append(',');
+				}
+				formatted.append(bucket).append(':').append(histogram[bucket]);
+			}
+		}
+		return formatted.toString();
+	}
+
+	private static long[] parseHistogram(String formatted) {
+		long[] histogram = new long[BUCKETS];
+		for(String bucketCount : formatted.split(",")) {
+			if(!bucketCount.trim().equals("")) {
+				String[] parts = bucketCount.trim().split(":");
+				histogram[Math.min(Integer.parseInt(parts[0]),BUCKETS-1)] += Long.parseLong(parts[1]);
+			}
+		}
+		return histogram;
+	}
+
+}
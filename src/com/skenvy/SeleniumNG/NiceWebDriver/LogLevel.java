@@ -0,0 +1,15 @@
+package com.skenvy.SeleniumNG.NiceWebDriver;
+
+/***
+ * An enum to define which events the EventLog writes; each level writes its
+ * own events and those of every level before it
+ */
+public enum LogLevel {
+
+	Off,     //Write no events at all
+	Error,   //Failures that will fail the test, or leave a session unusable
+	Warn,    //Failures that were recovered from, and unexpected page states
+	Info,    //What each test is checking, as it checks it
+	Verbose  //Every lookup, wait and fallback, as the NiceWebDriver makes it
+
+}
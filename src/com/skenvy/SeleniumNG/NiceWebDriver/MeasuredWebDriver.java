@@ -0,0 +1,337 @@
+package com.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.WrapsElement;
+
+/***
+ * Decorates a WebDriver so that every command sent through it is timed into
+ * a CommandMetrics. The decorator implements every public interface of the
+ * driver, such as JavascriptExecutor and TakesScreenshot, and decorates what
+ * its commands return in turn, so that the commands of its web elements,
+ * options, navigation and target locator are timed too. Decorated web
+ * elements implement WrapsElement, and are unwrapped again wherever they are
+ * handed back to the driver, such as in the arguments of a script.
+ */
+final class MeasuredWebDriver implements InvocationHandler {
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Decorate
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * The methods that only return another view of the driver, without
+	 * sending a command, and so are not timed
+	 */
+	private static final Set<String> VIEWS = new HashSet<String>(Arrays.asList("manage","switchTo","navigate","window","timeouts","logs","ime"));
+
+	/***
+	 * The commands whose time is attributed to navigation
+	 */
+	private static final Set<String> NAVIGATIONS = new HashSet<String>(Arrays.asList("WebDriver.get","Navigation.to","Navigation.back","Navigation.forward","Navigation.refresh"));
+
+	/***
+	 * The interfaces each class of decorated object is decorated with
+	 */
+	private static final ConcurrentHashMap<Class<?>,Class<?>[]> interfacesOfClass = new ConcurrentHashMap<Class<?>,Class<?>[]>();
+
+	/***
+	 * The driver decorated to time its commands into the metrics, or the
+	 * driver itself if "Metrics.Enabled" is false
+	 * @param driver
+	 * @param metrics
+	 * @return
+	 */
+	static WebDriver measure(WebDriver driver, CommandMetrics metrics) {
+		if(driver == null || !CommandMetrics.isEnabled()) {
+			return driver;
+		}
+		MeasuredWebDriver handler = new MeasuredWebDriver(driver,"WebDriver",metrics,null);
+		handler.measuredDriver = (WebDriver) Proxy.newProxyInstance(driver.getClass().getClassLoader(),getInterfaces(driver.getClass(),WrapsDriver.class),handler);
+		return handler.measuredDriver;
+	}
+
+	/***
+	 * Every public interface the class implements, and the extra one
+	 * @param decoratedClass
+	 * @param extraInterface
+	 * @return
+	 */
+	private static Class<?>[] getInterfaces(Class<?> decoratedClass, Class<?> extraInterface) {
+		return interfacesOfClass.computeIfAbsent(decoratedClass,c -> {
+			Set<Class<?>> interfaces = new LinkedHashSet<Class<?>>();
+			for(Class<?> ancestor = c; ancestor != null; ancestor = ancestor.getSuperclass()) {
+				for(Class<?> implemented : ancestor.getInterfaces()) {
+					if(Modifier.isPublic(implemented.getModifiers())) {
+						interfaces.add(implemented);
+					}
+				}
+			}
+			interfaces.add(extraInterface);
+			return interfaces.toArray(new Class<?>[interfaces.size()]);
+		});
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Decorated object state
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * The object commands are sent to
+	 */
+	private final Object target;
+
+	/***
+	 * The name commands are recorded under, before the method name
+	 */
+	private final String kind;
+
+	private final CommandMetrics metrics;
+
+	/***
+	 * The decorated driver, returned in place of the driver by commands
+	 * that answer with it, such as switchTo().window(...)
+	 */
+	private WebDriver measuredDriver;
+
+	private MeasuredWebDriver(Object target, String kind, CommandMetrics metrics, WebDriver measuredDriver) {
+		this.target = target;
+		this.kind = kind;
+		this.metrics = metrics;
+		this.measuredDriver = measuredDriver;
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Time each command
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		String name = method.getName();
+		if(method.getDeclaringClass() == Object.class) {
+			if(name.equals("equals")) {
+				return target.equals(unwrap(args[0]));
+			}
+			return method.invoke(target,args);
+		}
+		if(method.getDeclaringClass() == WrapsElement.class || (method.getDeclaringClass() == WrapsDriver.class && target == unwrap(measuredDriver))) {
+			return target;
+		}
+		Object[] unwrappedArgs = (args == null ? null : (Object[]) unwrap(args));
+		if(VIEWS.contains(name)) {
+			return decorate(send(method,unwrappedArgs),method.getReturnType());
+		}
+		String command = kind+"."+name;
+		long start = System.nanoTime();
+		try {
+			return decorate(send(method,unwrappedArgs),method.getReturnType());
+		} finally {
+			long elapsed = System.nanoTime()-start;
+			TimeAttribution.Activity activity = getActivity(command);
+			metrics.record(command,elapsed);
+			metrics.getTimeAttribution().add(activity,elapsed);
+			metrics.getTrack().span(getCategory(activity),command,start,elapsed,null,null);
+		}
+	}
+
+	/***
+	 * The activity a command's time is attributed to. Asynchronous scripts
+	 * are only used to wait in the page, so their time is waiting.
+	 * @param command
+	 * @return
+	 */
+	private static TimeAttribution.Activity getActivity(String command) {
+		if(NAVIGATIONS.contains(command)) {
+			return TimeAttribution.Activity.Navigation;
+		}
+		if(command.endsWith(".executeAsyncScript")) {
+			return TimeAttribution.Activity.Wait;
+		}
+		return TimeAttribution.Activity.Command;
+	}
+
+	/***
+	 * The category of a command's span in the trace timeline
+	 * @param activity
+	 * @return
+	 */
+	private static String getCategory(TimeAttribution.Activity activity) {
+		switch(activity) {
+			case Navigation:
+				return "navigation";
+			case Wait:
+				return "wait";
+			default:
+				return "command";
+		}
+	}
+
+	/***
+	 * Send the command to the target, throwing whatever it throws
+	 * @param method
+	 * @param args
+	 * @return
+	 * @throws Throwable
+	 */
+	private Object send(Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target,args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Wrap and unwrap
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * The value with the driver replaced by the decorated driver, and every
+	 * web element, including those in lists and maps, decorated, as well as
+	 * any other Selenium interface the command was declared to return
+	 * @param value
+	 * @param declaredType
+	 * @return
+	 */
+	private Object decorate(Object value, Class<?> declaredType) {
+		if(value == null || Proxy.isProxyClass(value.getClass())) {
+			return value;
+		}
+		if(value == unwrap(measuredDriver)) {
+			return measuredDriver;
+		}
+		if(value instanceof WebElement) {
+			return Proxy.newProxyInstance(value.getClass().getClassLoader(),getInterfaces(value.getClass(),WrapsElement.class),new MeasuredWebDriver(value,"WebElement",metrics,measuredDriver));
+		}
+		if(value instanceof List || value instanceof Map) {
+			return (containsWebElements(value) ? decorateWebElementsIn(value) : value);
+		}
+		if(declaredType.isInterface() && declaredType.isInstance(value) && declaredType.getName().startsWith("org.openqa.selenium.")) {
+			return Proxy.newProxyInstance(value.getClass().getClassLoader(),new Class<?>[] {declaredType},new MeasuredWebDriver(value,declaredType.getSimpleName(),metrics,measuredDriver));
+		}
+		return value;
+	}
+
+	private static boolean containsWebElements(Object value) {
+		if(value instanceof WebElement) {
+			return true;
+		}
+		if(value instanceof List) {
+			for(Object item : (List<?>) value) {
+				if(containsWebElements(item)) {
+					return true;
+				}
+			}
+		} else if(value instanceof Map) {
+			for(Object item : ((Map<?,?>) value).values()) {
+				if(containsWebElements(item)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private Object decorateWebElementsIn(Object value) {
+		if(value instanceof List) {
+			List<Object> decorated = new ArrayList<Object>();
+			for(Object item : (List<?>) value) {
+				decorated.add(decorateWebElementsIn(item));
+			}
+			return decorated;
+		}
+		if(value instanceof Map) {
+			Map<Object,Object> decorated = new LinkedHashMap<Object,Object>();
+			for(Map.Entry<?,?> entry : ((Map<?,?>) value).entrySet()) {
+				decorated.put(entry.getKey(),decorateWebElementsIn(entry.getValue()));
+			}
+			return decorated;
+		}
+		return (value instanceof WebElement ? decorate(value,WebElement.class) : value);
+	}
+
+	/***
+	 * The value with every decorated object, including those in arrays,
+	 * lists and maps, replaced by the object it decorates. Arrays, lists and
+	 * maps are only copied if they hold a decorated object.
+	 * @param value
+	 * @return
+	 */
+	private static Object unwrap(Object value) {
+		if(value == null) {
+			return null;
+		}
+		if(Proxy.isProxyClass(value.getClass())) {
+			InvocationHandler handler = Proxy.getInvocationHandler(value);
+			return (handler instanceof MeasuredWebDriver ? ((MeasuredWebDriver) handler).target : value);
+		}
+		if(value instanceof Object[]) {
+			Object[] array = (Object[]) value;
+			Object[] unwrapped = null;
+			for(int k = 0; k < array.length; k++) {
+				Object item = unwrap(array[k]);
+				if(item != array[k] && unwrapped == null) {
+					unwrapped = array.clone();
+				}
+				if(unwrapped != null) {
+					unwrapped[k] = item;
+				}
+			}
+			return (unwrapped == null ? array : unwrapped);
+		}
+		if(value instanceof List) {
+			List<?> list = (List<?>) value;
+			List<Object> unwrapped = null;
+			for(int k = 0; k < list.size(); k++) {
+				Object item = unwrap(list.get(k));
+				if(item != list.get(k) && unwrapped == null) {
+					unwrapped = new ArrayList<Object>(list);
+				}
+				if(unwrapped != null) {
+					unwrapped.set(k,item);
+				}
+			}
+			return (unwrapped == null ? list : unwrapped);
+		}
+		if(value instanceof Map) {
+			Map<?,?> map = (Map<?,?>) value;
+			Map<Object,Object> unwrapped = null;
+			for(Map.Entry<?,?> entry : map.entrySet()) {
+				Object item = unwrap(entry.getValue());
+				if(item != entry.getValue() && unwrapped == null) {
+					unwrapped = new LinkedHashMap<Object,Object>(map);
+				}
+				if(unwrapped != null) {
+					unwrapped.put(entry.getKey(),item);
+				}
+			}
+			return (unwrapped == null ? map : unwrapped);
+		}
+		return value;
+	}
+
+}
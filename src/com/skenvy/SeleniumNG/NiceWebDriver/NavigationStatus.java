@@ -0,0 +1,61 @@
+package com.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.util.Map;
+
+/***
+ * The script a NiceWebDriver runs to learn the HTTP status the current
+ * document was served with, answered in a few bytes rather than by reading
+ * back the page's source. The status is the navigation entry's
+ * responseStatus, of the Navigation Timing API. Browsers too old to report
+ * it, and documents whose status is hidden from them, report 0, and then
+ * the page's own markup is searched, in the page, for an error page's
+ * "HTTP Status nnn" heading, as Tomcat writes.
+ */
+final class NavigationStatus {
+
+	private NavigationStatus() {}
+
+	/***
+	 * The status of a page whose status could not be learnt
+	 */
+	static final int UNKNOWN = 0;
+
+	/***
+	 * Answers a map of "status", the navigation's responseStatus or 0, and
+	 * "textStatus", the status of an "HTTP Status nnn" heading in the markup,
+	 * or 0, which is only searched for when the status is 0.
+	 */
+	static final String READ_STATUS_SCRIPT = ""
+			+ "var status = 0, textStatus = 0;"
+			+ "try {"
+			+ "  var entries = (window.performance && performance.getEntriesByType ? performance.getEntriesByType('navigation') : []);"
+			+ "  if (entries.length > 0 && typeof entries[0].responseStatus === 'number') { status = entries[0].responseStatus; }"
+			+ "} catch (e) {}"
+			+ "if (!(status > 0) && document.documentElement) {"
+			+ "  var heading = /HTTP Status (\\d{3})/.exec(document.documentElement.outerHTML);"
+			+ "  if (heading) { textStatus = parseInt(heading[1], 10); }"
+			+ "}"
+			+ "return { status: status, textStatus: textStatus };";
+
+	static final NiceScript READ_STATUS = NiceScript.define("seleniumNG.navigationStatus",READ_STATUS_SCRIPT);
+
+	/***
+	 * The status the script answered, from the navigation if it was known,
+	 * otherwise from the markup, or UNKNOWN
+	 * @param answer
+	 * @return
+	 */
+	static int statusOf(Object answer) {
+		if(!(answer instanceof Map)) {
+			return UNKNOWN;
+		}
+		Map<?,?> answerMap = (Map<?,?>) answer;
+		int status = intOf(answerMap.get("status"));
+		return (status > 0 ? status : intOf(answerMap.get("textStatus")));
+	}
+
+	private static int intOf(Object number) {
+		return (number instanceof Number ? ((Number) number).intValue() : UNKNOWN);
+	}
+
+}
@@ -0,0 +1,166 @@
+package com.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/***
+ * A named script for a NiceWebDriver to execute, defined once, and given
+ * its values as arguments rather than having them written into its text.
+ * The first time a NiceWebDriver executes a NiceScript on a page, the
+ * script is installed in the page as a function, and every execution
+ * after that on the same page sends only a short call to that function and
+ * the arguments, so the browser is not sent, nor has to parse, the whole
+ * script again. A page that has navigated away answers the short call by
+ * saying the function is gone, and the script is installed again.
+ * Every NiceScript is kept in a registry, by name, so that the same name
+ * always means the same script.
+ */
+public final class NiceScript {
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * The registry
+ */
+///////////////////////////////////////////////////////////////////////////////
+	
+	private static final ConcurrentHashMap<String,NiceScript> registry = new ConcurrentHashMap<String,NiceScript>();
+	
+	private static final Pattern VALID_NAME = Pattern.compile("[A-Za-z0-9_.\\-]+");
+	
+	/***
+	 * Define a script that returns its result, which refers to its values
+	 * as arguments[0], arguments[1], ...
+	 * @param name
+	 * @param body
+	 * @return the script, or the script already defined with the same name
+	 * and body
+	 * @throws IllegalArgumentException if the name is not made of letters,
+	 * digits, '_', '.' and '-', or a different script has the name
+	 */
+	public static NiceScript define(String name, String body) {
+		return register(new NiceScript(name,body,false));
+	}
+	
+	/***
+	 * Define an asynchronous script, which answers its result by calling
+	 * the callback given as its last argument
+	 * @param name
+	 * @param body
+	 * @return the script, or the script already defined with the same name
+	 * and body
+	 * @throws IllegalArgumentException if the name is not made of letters,
+	 * digits, '_', '.' and '-', or a different script has the name
+	 */
+	public static NiceScript defineAsync(String name, String body) {
+		return register(new NiceScript(name,body,true));
+	}
+	
+	/***
+	 * The script defined with the name, or null if there is none
+	 * @param name
+	 * @return
+	 */
+	public static NiceScript named(String name) {
+		return registry.get(name);
+	}
+	
+	private static NiceScript register(NiceScript script) {
+		NiceScript registered = registry.putIfAbsent(script.name,script);
+		if(registered == null) {
+			return script;
+		}
+		if(registered.async != script.async || !registered.body.equals(script.body)) {
+			throw new IllegalArgumentException("A different script is already defined as | "+script.name);
+		}
+		return registered;
+	}
+	
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * The script
+ */
+///////////////////////////////////////////////////////////////////////////////
+	
+	/***
+	 * The key of the map a page answers with when the script's function is
+	 * not installed in it
+	 */
+	static final String NOT_INSTALLED_KEY = "__seleniumNGScriptNotInstalled";
+	
+	private final String name;
+	private final String body;
+	private final boolean async;
+	
+	/***
+	 * Installs the body as a function in the page, and calls it
+	 */
+	private final String installingScript;
+	
+	/***
+	 * Calls the function installed in the page
+	 */
+	private final String installedScript;
+	
+	private NiceScript(String name, String body, boolean async) {
+		if(name == null || !VALID_NAME.matcher(name).matches()) {
+			throw new IllegalArgumentException("A script's name must be letters, digits, '_', '.' and '-' | "+name);
+		}
+		this.name = name;
+		this.body = body;
+		this.async = async;
+		String function = "window.__seleniumNGScripts['"+name+"']";
+		this.installingScript = ""
+				+ "window.__seleniumNGScripts = window.__seleniumNGScripts || {};"
+				+ function+" = function() {\n"+body+"\n};"
+				+ "return "+function+".apply(this, arguments);";
+		String notInstalled = "{ "+NOT_INSTALLED_KEY+": true }";
+		this.installedScript = ""
+				+ "if (!window.__seleniumNGScripts || !"+function+") { "
+				+ (async ? "arguments[arguments.length - 1]("+notInstalled+"); return; }" : "return "+notInstalled+"; }")
+				+ "return "+function+".apply(this, arguments);";
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public String getBody() {
+		return body;
+	}
+	
+	public boolean isAsync() {
+		return async;
+	}
+	
+	/***
+	 * The script that installs this one's function in the page and calls it
+	 * @return
+	 */
+	String getInstallingScript() {
+		return installingScript;
+	}
+	
+	/***
+	 * The script that calls this one's function, already installed
+	 * @return
+	 */
+	String getInstalledScript() {
+		return installedScript;
+	}
+	
+	/***
+	 * Whether a page answered that this script's function is not installed
+	 * @param result
+	 * @return
+	 */
+	static boolean isNotInstalled(Object result) {
+		return (result instanceof Map && Boolean.TRUE.equals(((Map<?,?>) result).get(NOT_INSTALLED_KEY)));
+	}
+	
+	@Override
+	public String toString() {
+		return "NiceScript "+name;
+	}
+	
+}
@@ -0,0 +1,396 @@
+package com.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+import org.openqa.selenium.InvalidArgumentException;
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.support.ui.FluentWait;
+import org.openqa.selenium.support.ui.Sleeper;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import com.skenvy.SeleniumNG.DomainConstants;
+
+/***
+ * The wait engine of a NiceWebDriver. A WebDriverWait whose timeout is kept
+ * in milliseconds, and which polls its condition first after a short
+ * interval, then backs off exponentially up to a maximum interval, with each
+ * interval jittered so that many sessions waiting on the same grid do not
+ * poll in lockstep. A condition that is met quickly is noticed within a few
+ * tens of milliseconds rather than the 500 ms of a plain WebDriverWait, while
+ * a long wait costs no more round trips than one. As well as waiting until a
+ * condition is met, it can retry an action until it stops failing, which
+ * replaces sleeping for a fixed time before trying the action again.
+ */
+public class NiceWait extends WebDriverWait {
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Wait state
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	private final WebDriver driver;
+	private final Clock clock;
+	private final Sleeper sleeper;
+
+	/***
+	 * The timeout this wait was constructed with, restored by resetTimeout()
+	 */
+	private final long constructedTimeoutMilliSeconds;
+
+	/***
+	 * How many milliseconds until() waits for its condition
+	 */
+	private volatile long timeoutMilliSeconds;
+
+	/***
+	 * How many milliseconds before the first poll after the condition is not
+	 * met
+	 */
+	private volatile long initialPollMilliSeconds;
+
+	private final long maxPollMilliSeconds;
+	private final int backoffPercent;
+	private final int jitterPercent;
+
+	/***
+	 * The exceptions until() treats as the condition not being met yet.
+	 * Not initialised in its declaration, as the WebDriverWait constructor
+	 * adds NotFoundException to it before this class's initialisers run.
+	 */
+	private Set<Class<? extends Throwable>> ignoredExceptions;
+
+	/***
+	 * The metrics each wait and retry is timed into, if any
+	 */
+	private volatile CommandMetrics commandMetrics = null;
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Constructors
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * A wait on the driver of timeoutMilliSeconds, polling as configured by
+	 * "WaitPolling.*", or every 500 ms, as a plain WebDriverWait does, if the
+	 * DomainConstants have not been read
+	 * @param driver
+	 * @param timeoutMilliSeconds
+	 */
+	public NiceWait(WebDriver driver, long timeoutMilliSeconds) {
+		this(driver,timeoutMilliSeconds,DomainConstants.current().waitPolling);
+	}
+
+	private NiceWait(WebDriver driver, long timeoutMilliSeconds, DomainConstants.WaitPolling waitPolling) {
+		this(driver,timeoutMilliSeconds,
+				(waitPolling == null ? 500 : waitPolling.initialMilliSeconds),
+				(waitPolling == null ? 500 : waitPolling.maxMilliSeconds),
+				(waitPolling == null ? 100 : waitPolling.backoffPercent),
+				(waitPolling == null ? 0 : waitPolling.jitterPercent),
+				Clock.systemUTC(),Sleeper.SYSTEM_SLEEPER);
+	}
+
+	/***
+	 * A wait on the driver of timeoutMilliSeconds, polling first after
+	 * initialPollMilliSeconds, then after each interval multiplied by
+	 * backoffPercent/100, up to maxPollMilliSeconds, each interval jittered
+	 * up or down by as much as jitterPercent of itself
+	 * @param driver
+	 * @param timeoutMilliSeconds
+	 * @param initialPollMilliSeconds
+	 * @param maxPollMilliSeconds
+	 * @param backoffPercent
+	 * @param jitterPercent
+	 * @param clock
+	 * @param sleeper
+	 */
+	public NiceWait(WebDriver driver, long timeoutMilliSeconds, long initialPollMilliSeconds, long maxPollMilliSeconds, int backoffPercent, int jitterPercent, Clock clock, Sleeper sleeper) {
+		super(driver,clock,sleeper,(timeoutMilliSeconds+999)/1000,initialPollMilliSeconds);
+		this.driver = driver;
+		this.clock = clock;
+		this.sleeper = sleeper;
+		this.constructedTimeoutMilliSeconds = Math.max(timeoutMilliSeconds,0);
+		this.timeoutMilliSeconds = this.constructedTimeoutMilliSeconds;
+		this.initialPollMilliSeconds = Math.max(initialPollMilliSeconds,1);
+		this.maxPollMilliSeconds = Math.max(maxPollMilliSeconds,this.initialPollMilliSeconds);
+		this.backoffPercent = Math.max(backoffPercent,100);
+		this.jitterPercent = Math.min(Math.max(jitterPercent,0),100);
+		withTimeout(Duration.ofMillis(this.timeoutMilliSeconds));
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Timeout
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * How many milliseconds until() waits for its condition
+	 * @return
+	 */
+	public long getTimeoutMilliSeconds() {
+		return timeoutMilliSeconds;
+	}
+
+	/***
+	 * Set how many milliseconds until() waits for its condition
+	 * @param timeoutMilliSeconds
+	 * @return
+	 */
+	public NiceWait setTimeoutMilliSeconds(long timeoutMilliSeconds) {
+		withTimeout(Duration.ofMillis(Math.max(timeoutMilliSeconds,0)));
+		return this;
+	}
+
+	/***
+	 * Whether the timeout has been changed from the one this wait was
+	 * constructed with
+	 * @return
+	 */
+	public boolean isTimeoutOverridden() {
+		return timeoutMilliSeconds != constructedTimeoutMilliSeconds;
+	}
+
+	/***
+	 * Restore the timeout this wait was constructed with
+	 * @return
+	 */
+	public NiceWait resetTimeout() {
+		return setTimeoutMilliSeconds(constructedTimeoutMilliSeconds);
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Keep the FluentWait setters in step with this wait
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	@Override
+	public FluentWait<WebDriver> withTimeout(Duration timeout) {
+		timeoutMilliSeconds = timeout.toMillis();
+		return super.withTimeout(timeout);
+	}
+
+	@Override
+	public FluentWait<WebDriver> pollingEvery(Duration interval) {
+		initialPollMilliSeconds = Math.max(interval.toMillis(),1);
+		return super.pollingEvery(interval);
+	}
+
+	@Override
+	public FluentWait<WebDriver> ignoring(Class<? extends Throwable> exceptionType) {
+		getIgnoredExceptions().add(exceptionType);
+		return super.ignoring(exceptionType);
+	}
+
+	@Override
+	public <K extends Throwable> FluentWait<WebDriver> ignoreAll(Collection<Class<? extends K>> types) {
+		getIgnoredExceptions().addAll(types);
+		return super.ignoreAll(types);
+	}
+
+	private Set<Class<? extends Throwable>> getIgnoredExceptions() {
+		if(ignoredExceptions == null) {
+			ignoredExceptions = new CopyOnWriteArraySet<Class<? extends Throwable>>();
+			ignoredExceptions.add(NotFoundException.class);
+		}
+		return ignoredExceptions;
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Wait and retry
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * Time every later wait and retry into the metrics, as "NiceWait.until"
+	 * or "NiceWait.retryUntilSucceeds", or as "NiceWait.until (timed out)" or
+	 * "NiceWait.retryUntilSucceeds (timed out)" if the timeout expired first,
+	 * or with the simple name of the exception that ended it, such as
+	 * "NiceWait.retryUntilSucceeds (StaleElementReferenceException)", and
+	 * add each to the session's track of the trace timeline
+	 * @param commandMetrics the metrics, or null to stop timing
+	 * @return
+	 */
+	public NiceWait measuredBy(CommandMetrics commandMetrics) {
+		this.commandMetrics = commandMetrics;
+		return this;
+	}
+
+	/***
+	 * Repeatedly apply the condition until it returns neither null nor false,
+	 * backing off between attempts, and return what it returned. Exceptions
+	 * of an ignored type count as the condition not being met yet.
+	 * @throws TimeoutException if the timeout expires first
+	 */
+	@Override
+	public <V> V until(Function<? super WebDriver, V> isTrue) {
+		return poll(isTrue,false,timeoutMilliSeconds);
+	}
+
+	/***
+	 * As until(isTrue), but waiting timeoutMilliSeconds rather than this
+	 * wait's timeout, for a wait with its own shorter budget
+	 * @param isTrue
+	 * @param timeoutMilliSeconds
+	 * @return
+	 * @throws TimeoutException if the timeout expires first
+	 */
+	public <V> V until(Function<? super WebDriver, V> isTrue, long timeoutMilliSeconds) {
+		return poll(isTrue,false,Math.max(timeoutMilliSeconds,0));
+	}
+
+	/***
+	 * Repeatedly attempt the action until it completes without throwing a
+	 * WebDriverException, backing off between attempts, and return what it
+	 * returned, for actions such as a click that fail while the page is still
+	 * settling. An ended session is not retried, nor are failures that
+	 * another attempt can not fix: a stale element, an invalid argument, or
+	 * a script that threw.
+	 * @param action
+	 * @return
+	 * @throws WebDriverException the last failure of the action, if the
+	 * timeout expires before it succeeds
+	 */
+	public <V> V retryUntilSucceeds(Function<? super WebDriver, V> action) {
+		return poll(action,true,timeoutMilliSeconds);
+	}
+
+	/***
+	 * As retryUntilSucceeds(action), but retrying for timeoutMilliSeconds
+	 * rather than this wait's timeout, for a retry whose budget was partly
+	 * spent before it started. The action is attempted at least once.
+	 * @param action
+	 * @param timeoutMilliSeconds
+	 * @return
+	 * @throws WebDriverException the last failure of the action, if the
+	 * timeout expires before it succeeds
+	 */
+	public <V> V retryUntilSucceeds(Function<? super WebDriver, V> action, long timeoutMilliSeconds) {
+		return poll(action,true,Math.max(timeoutMilliSeconds,0));
+	}
+
+	/***
+	 * Whether retryUntilSucceeds would try an action again after it failed
+	 * with the exception, rather than failing fast
+	 * @param e
+	 * @return
+	 */
+	boolean isRetryableFailureOfAnAction(RuntimeException e) {
+		return isRetryable(e,true);
+	}
+
+	private <V> V poll(Function<? super WebDriver, V> attempt, boolean retryingAnAction, long timeoutMilliSeconds) {
+		CommandMetrics metrics = commandMetrics;
+		if(metrics == null) {
+			return pollUntilTimeout(attempt,retryingAnAction,timeoutMilliSeconds);
+		}
+		String command = (retryingAnAction ? "NiceWait.retryUntilSucceeds" : "NiceWait.until");
+		long attributedBefore = metrics.getTimeAttribution().getAttributedNanoSeconds();
+		long startNanoSeconds = System.nanoTime();
+		String outcome = command+" (timed out)";
+		try {
+			V value = pollUntilTimeout(attempt,retryingAnAction,timeoutMilliSeconds);
+			outcome = command;
+			return value;
+		} catch (TimeoutException e) {
+			throw e;
+		} catch (RuntimeException e) {
+			// A retryable failure only escapes a retry once the timeout has expired
+			if(!retryingAnAction || !isRetryable(e,true)) {
+				outcome = command+" ("+e.getClass().getSimpleName()+")";
+			}
+			throw e;
+		} finally {
+			long elapsed = System.nanoTime()-startNanoSeconds;
+			metrics.record(outcome,elapsed);
+			metrics.getTimeAttribution().addExclusively(TimeAttribution.Activity.Wait,elapsed,attributedBefore);
+			metrics.getTrack().span("wait",outcome,startNanoSeconds,elapsed,null,null);
+		}
+	}
+
+	private <V> V pollUntilTimeout(Function<? super WebDriver, V> attempt, boolean retryingAnAction, long timeoutMilliSeconds) {
+		long start = clock.millis();
+		long deadline = start + timeoutMilliSeconds;
+		long pollMilliSeconds = initialPollMilliSeconds;
+		RuntimeException lastException = null;
+		while(true) {
+			try {
+				V value = attempt.apply(driver);
+				if(retryingAnAction || (value != null && !Boolean.FALSE.equals(value))) {
+					return value;
+				}
+				lastException = null;
+			} catch (RuntimeException e) {
+				if(!isRetryable(e,retryingAnAction)) {
+					throw e;
+				}
+				lastException = e;
+			}
+			long remaining = deadline - clock.millis();
+			if(remaining <= 0) {
+				if(retryingAnAction) {
+					throw lastException;
+				}
+				throw new TimeoutException("Expected condition failed: waiting for "+attempt+" (tried for "+(clock.millis()-start)+" ms, polling from every "+initialPollMilliSeconds+" ms)",lastException);
+			}
+			try {
+				sleeper.sleep(Duration.ofMillis(Math.min(jitter(pollMilliSeconds),remaining)));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new WebDriverException(e);
+			}
+			pollMilliSeconds = Math.min(Math.max(pollMilliSeconds*backoffPercent/100,pollMilliSeconds),maxPollMilliSeconds);
+		}
+	}
+
+	/***
+	 * Whether a failed attempt should be tried again
+	 * @param e
+	 * @param retryingAnAction
+	 * @return
+	 */
+	private boolean isRetryable(RuntimeException e, boolean retryingAnAction) {
+		if(retryingAnAction) {
+			return (e instanceof WebDriverException && !(e instanceof NoSuchSessionException)
+					&& !(e instanceof StaleElementReferenceException)
+					&& !(e instanceof InvalidArgumentException)
+					&& !(e instanceof JavascriptException));
+		}
+		for(Class<? extends Throwable> ignored : getIgnoredExceptions()) {
+			if(ignored.isInstance(e)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/***
+	 * The interval moved up or down by a random amount of at most
+	 * jitterPercent of itself, and at least 1 ms
+	 * @param pollMilliSeconds
+	 * @return
+	 */
+	private long jitter(long pollMilliSeconds) {
+		long spread = pollMilliSeconds*jitterPercent/100;
+		if(spread == 0) {
+			return pollMilliSeconds;
+		}
+		return Math.max(pollMilliSeconds - spread + ThreadLocalRandom.current().nextLong(2*spread+1),1);
+	}
+
+}
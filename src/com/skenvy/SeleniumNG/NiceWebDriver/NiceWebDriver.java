@@ -2,11 +2,10 @@ package com.skenvy.SeleniumNG.NiceWebDriver;
 
 import org.openqa.selenium.By;
 import org.openqa.selenium.Capabilities;
-import org.openqa.selenium.ElementNotInteractableException;
-import org.openqa.selenium.ElementNotVisibleException;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.MutableCapabilities;
 import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.NoSuchSessionException;
 import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebDriverException;
@@ -22,6 +21,16 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.UnknownHostException;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /***
  * An abstract class to encapsulate the notions of a Selenium WebDriver coupled
@@ -40,13 +49,30 @@ public abstract class NiceWebDriver {
 	/***
 	 * Instance of WebDriver, instantiated as a ChromeDriver
 	 */
+	private final WebDriver unmeasuredWebDriver;
+	
+	/***
+	 * The latencies of the commands sent to this session
+	 */
+	private final CommandMetrics commandMetrics;
+	
+	/***
+	 * The events of this session, tagged with its session id and the test
+	 * running on it
+	 */
+	private final EventLog eventLog;
+	
+	/***
+	 * The WebDriver, decorated to time every command sent through it into
+	 * the commandMetrics, unless "Metrics.Enabled" is false
+	 */
 	private final WebDriver webDriver;
 	
 	/***
-	 * Instance of the WebDriverWait, instantiated as a waiter on 
+	 * Instance of the NiceWait, instantiated as a waiter on 
 	 * this class's WebDriver
 	 */
-	private final WebDriverWait wait;
+	private final NiceWait wait;
 	
 	/***
 	 * Instance of the JavascriptExecutor, instantiated as an executor 
@@ -60,9 +86,45 @@ public abstract class NiceWebDriver {
 	private String localIP = null;
 	
 	/***
-	 * Determines whether or not verbose messages will be printed
+	 * The origins (protocol://authority) opened through openWebPage, which
+	 * must have their cookies and storage cleared before the session can be
+	 * reused by the NiceWebDriverFactory's session pool
+	 */
+	private final Set<String> openedOrigins = new LinkedHashSet<String>();
+	
+	/***
+	 * The script timeout last set on the WebDriver, long enough for an
+	 * element lookup to wait for the element to arrive, or 0 if none has
+	 * been set yet
+	 */
+	private long scriptTimeoutMilliSeconds = 0;
+	
+	/***
+	 * The path of the page last opened, or last looked up on, which locator
+	 * latencies are keyed on without a round trip to ask for it
+	 */
+	private String currentPagePath = "";
+	
+	/***
+	 * The names of the NiceScripts installed in the page, as far as this
+	 * NiceWebDriver knows, which are executed by calling their function
+	 */
+	private final Set<String> installedScriptNames = new HashSet<String>();
+	
+	/***
+	 * The anchors of the page as last harvested, or null
+	 */
+	private AnchorIndex anchorIndex = null;
+	
+	/***
+	 * The page's DOM as last captured, or null
+	 */
+	private DomSnapshot domSnapshot = null;
+	
+	/***
+	 * Checks the page's links over HTTP, made on first use
 	 */
-	private boolean verboseMode = false;
+	private LinkValidator linkValidator = null;
 	
 ///////////////////////////////////////////////////////////////////////////////
 /*
@@ -77,6 +139,9 @@ public abstract class NiceWebDriver {
 	 * cannot be static! Contains only null properties
 	 */
 	protected NiceWebDriver() {
+		this.unmeasuredWebDriver = null;
+		this.commandMetrics = null;
+		this.eventLog = EventLog.forSuite();
 		this.webDriver = null;
 		this.wait = null;
 		this.jsExecutor = null;
@@ -90,11 +155,14 @@ public abstract class NiceWebDriver {
 	 */
 	protected NiceWebDriver(boolean localInstance){
 		if(localInstance) {
-			this.webDriver = getDriver();
+			this.unmeasuredWebDriver = getDriver();
 		} else {
-			this.webDriver = new RemoteWebDriver(getRemoteCapability());
+			this.unmeasuredWebDriver = new RemoteWebDriver(getRemoteCapability());
 		}
-		this.wait = getWaiter(DomainConstants.local.waitSeconds);
+		this.commandMetrics = CommandMetrics.forDriver(this.unmeasuredWebDriver,null,localInstance);
+		this.eventLog = EventLog.forSession(this.commandMetrics.getSessionId());
+		this.webDriver = MeasuredWebDriver.measure(this.unmeasuredWebDriver,this.commandMetrics);
+		this.wait = getWaiter(DomainConstants.current().local.waitSeconds);
 		this.jsExecutor = getJSExecutor();
 	}
 	
@@ -106,10 +174,13 @@ public abstract class NiceWebDriver {
 	 */
 	protected NiceWebDriver(boolean localInstance, int waitSeconds){
 		if(localInstance) {
-			this.webDriver = getDriver();
+			this.unmeasuredWebDriver = getDriver();
 		} else {
-			this.webDriver = new RemoteWebDriver(getRemoteCapability());
+			this.unmeasuredWebDriver = new RemoteWebDriver(getRemoteCapability());
 		}
+		this.commandMetrics = CommandMetrics.forDriver(this.unmeasuredWebDriver,null,localInstance);
+		this.eventLog = EventLog.forSession(this.commandMetrics.getSessionId());
+		this.webDriver = MeasuredWebDriver.measure(this.unmeasuredWebDriver,this.commandMetrics);
 		this.wait = getWaiter(waitSeconds);
 		this.jsExecutor = getJSExecutor();
 	}
@@ -121,8 +192,11 @@ public abstract class NiceWebDriver {
 	 */
 	protected NiceWebDriver(String optionArgs){
 		MutableCapabilities mutableCapabilities = makeBrowserOptions(optionArgs);
-		this.webDriver = getDriver(mutableCapabilities);
-		this.wait = getWaiter(DomainConstants.local.waitSeconds);
+		this.unmeasuredWebDriver = getDriver(mutableCapabilities);
+		this.commandMetrics = CommandMetrics.forDriver(this.unmeasuredWebDriver,null,true);
+		this.eventLog = EventLog.forSession(this.commandMetrics.getSessionId());
+		this.webDriver = MeasuredWebDriver.measure(this.unmeasuredWebDriver,this.commandMetrics);
+		this.wait = getWaiter(DomainConstants.current().local.waitSeconds);
 		this.jsExecutor = getJSExecutor();
 	}
 	
@@ -131,8 +205,11 @@ public abstract class NiceWebDriver {
 	 * @param remoteAddress
 	 */
 	protected NiceWebDriver(URL remoteAddress){
-		this.webDriver = new RemoteWebDriver(remoteAddress,getRemoteCapability());
-		this.wait = getWaiter(DomainConstants.local.waitSeconds);
+		this.unmeasuredWebDriver = new RemoteWebDriver(remoteAddress,getRemoteCapability());
+		this.commandMetrics = CommandMetrics.forDriver(this.unmeasuredWebDriver,remoteAddress,false);
+		this.eventLog = EventLog.forSession(this.commandMetrics.getSessionId());
+		this.webDriver = MeasuredWebDriver.measure(this.unmeasuredWebDriver,this.commandMetrics);
+		this.wait = getWaiter(DomainConstants.current().local.waitSeconds);
 		this.jsExecutor = getJSExecutor();
 	}
 	
@@ -145,7 +222,10 @@ public abstract class NiceWebDriver {
 	 */
 	protected NiceWebDriver(String optionArgs, int waitSeconds){
 		MutableCapabilities mutableCapabilities = makeBrowserOptions(optionArgs);
-		this.webDriver = getDriver(mutableCapabilities);
+		this.unmeasuredWebDriver = getDriver(mutableCapabilities);
+		this.commandMetrics = CommandMetrics.forDriver(this.unmeasuredWebDriver,null,true);
+		this.eventLog = EventLog.forSession(this.commandMetrics.getSessionId());
+		this.webDriver = MeasuredWebDriver.measure(this.unmeasuredWebDriver,this.commandMetrics);
 		this.wait = getWaiter(waitSeconds);
 		this.jsExecutor = getJSExecutor();
 	}
@@ -157,7 +237,10 @@ public abstract class NiceWebDriver {
 	 * @param waitSeconds
 	 */
 	protected NiceWebDriver(URL remoteAddress, int waitSeconds){
-		this.webDriver = new RemoteWebDriver(remoteAddress,getRemoteCapability());
+		this.unmeasuredWebDriver = new RemoteWebDriver(remoteAddress,getRemoteCapability());
+		this.commandMetrics = CommandMetrics.forDriver(this.unmeasuredWebDriver,remoteAddress,false);
+		this.eventLog = EventLog.forSession(this.commandMetrics.getSessionId());
+		this.webDriver = MeasuredWebDriver.measure(this.unmeasuredWebDriver,this.commandMetrics);
 		this.wait = getWaiter(waitSeconds);
 		this.jsExecutor = getJSExecutor();
 	}
@@ -307,18 +390,20 @@ public abstract class NiceWebDriver {
 	 * @return
 	 */
 	public NiceWebDriver getThisWithVerbositySetTo(boolean verboseMode) {
-		this.verboseMode = verboseMode;
+		this.eventLog.setVerbose(verboseMode);
 		return this;
 	}
 	
 	/***
-	 * Writes a verbose message to sysout
-	 * @param message
+	 * Gets the current instance of the NiceWebDriver after adjusting how
+	 * long it waits for web elements, in milliseconds. The wait it was
+	 * constructed with is restored when the session is sanitised for reuse.
+	 * @param waitMilliSeconds
+	 * @return
 	 */
-	private void writeVerboseMessageToSysOut(String message) {
-		if(this.verboseMode) {
-			System.out.println(message);
-		}
+	public NiceWebDriver getThisWithWaitTimeoutSetTo(long waitMilliSeconds) {
+		this.wait.setTimeoutMilliSeconds(waitMilliSeconds);
+		return this;
 	}
 	
 ///////////////////////////////////////////////////////////////////////////////
@@ -329,11 +414,12 @@ public abstract class NiceWebDriver {
 ///////////////////////////////////////////////////////////////////////////////
 	
 	/***
-	 * Get the underlying WebDriver
+	 * Get the underlying WebDriver. Commands sent directly to it are not
+	 * timed into the CommandMetrics.
 	 * @return
 	 */
 	public WebDriver unwrapWebDriver() {
-		return webDriver;
+		return unmeasuredWebDriver;
 	}
 
 	/***
@@ -345,11 +431,54 @@ public abstract class NiceWebDriver {
 	}
 
 	/***
-	 * Get the underlying JavascriptExecutor
+	 * Get the underlying WebDriverWait as the NiceWait it is, to wait with
+	 * millisecond timeouts, or retry actions until they succeed
+	 * @return
+	 */
+	public NiceWait unwrapNiceWait() {
+		return wait;
+	}
+
+	/***
+	 * Get the underlying JavascriptExecutor. Scripts executed directly by it
+	 * are not timed into the CommandMetrics.
 	 * @return
 	 */
 	public JavascriptExecutor unwrapJavascriptExecutor() {
-		return jsExecutor;
+		return (JavascriptExecutor) unmeasuredWebDriver;
+	}
+	
+	/***
+	 * Get the latencies of the commands, scripts and waits this session has
+	 * sent, tagged with its session id, node and DriverType
+	 * @return
+	 */
+	public CommandMetrics getCommandMetrics() {
+		return commandMetrics;
+	}
+	
+	/***
+	 * Get the log of this session's events, which the test running on it
+	 * tags its events with
+	 * @return
+	 */
+	public EventLog getEventLog() {
+		return eventLog;
+	}
+	
+	/***
+	 * Add a span that started at startNanoSeconds, from System.nanoTime(),
+	 * and ends now, to the session's track of the trace timeline
+	 * @param category
+	 * @param name
+	 * @param startNanoSeconds
+	 * @param argName the name of the span's argument, or null for none
+	 * @param argValue
+	 */
+	private void traceSpan(String category, String name, long startNanoSeconds, String argName, Object argValue) {
+		if(commandMetrics != null) {
+			commandMetrics.getTrack().span(category,name,startNanoSeconds,argName,argValue);
+		}
 	}
 	
 ///////////////////////////////////////////////////////////////////////////////
@@ -367,13 +496,93 @@ public abstract class NiceWebDriver {
 		this.webDriver.close();
 	}
 	
+	/***
+	 * Quit the web driver, closing every window and ending the session
+	 */
+	public void quitWebDriver() {
+		if(linkValidator != null) {
+			linkValidator.close();
+			linkValidator = null;
+		}
+		this.webDriver.quit();
+	}
+	
+	/***
+	 * Check that the session can still be driven, such as before reusing a
+	 * pooled session that may have been ended by the browser or a grid
+	 * node's session timeout
+	 * @return
+	 */
+	public boolean isSessionAlive() {
+		try {
+			this.webDriver.getWindowHandle();
+			return true;
+		} catch (WebDriverException e) {
+			return false;
+		}
+	}
+	
+	/***
+	 * Return the session to the state of a freshly started incognito browser
+	 * so that it can be reused by another test class. Closes every window but
+	 * one, then clears the cookies, local storage and session storage of every
+	 * origin this NiceWebDriver has opened, and finally parks the remaining
+	 * window on "about:blank". WebDriver can only clear the cookies of the
+	 * origin currently loaded, so any origin other than the current one is
+	 * revisited once to clear it. The LinkValidator, whose results are kept
+	 * by url and the cookies sent, is closed, and the next test class gets a
+	 * new one.
+	 * @throws WebDriverException if the session can not be sanitised, in which
+	 * case it must not be reused
+	 */
+	public void sanitiseSession() throws WebDriverException {
+		Set<String> windowHandles = this.webDriver.getWindowHandles();
+		String retainedHandle = this.webDriver.getWindowHandle();
+		for(String windowHandle : windowHandles) {
+			if(!windowHandle.equals(retainedHandle)) {
+				this.webDriver.switchTo().window(windowHandle);
+				clearStorageOfTheCurrentOrigin();
+				this.webDriver.close();
+			}
+		}
+		this.webDriver.switchTo().window(retainedHandle);
+		String currentOrigin = getOriginOfUrl(getCurrentUrlAsString());
+		clearStorageOfTheCurrentOrigin();
+		for(String origin : openedOrigins) {
+			if(!origin.equals(currentOrigin)) {
+				this.webDriver.get(origin);
+				clearStorageOfTheCurrentOrigin();
+			}
+		}
+		openedOrigins.clear();
+		this.wait.resetTimeout();
+		this.webDriver.get("about:blank");
+		currentPagePath = "";
+		installedScriptNames.clear();
+		domSnapshot = null;
+		if(linkValidator != null) {
+			linkValidator.close();
+			linkValidator = null;
+		}
+		eventLog.log(LogLevel.Verbose,"Sanitised the session for reuse");
+	}
+	
+	/***
+	 * Delete the cookies visible to, and the web storage of, the origin that
+	 * is currently loaded in the focused window
+	 */
+	private void clearStorageOfTheCurrentOrigin() {
+		this.webDriver.manage().deleteAllCookies();
+		executeNiceScript(CLEAR_WEB_STORAGE);
+	}
+	
 	
 	/***
 	 * Check whether the web driver is a remote instance or not.
 	 * @return
 	 */
 	public boolean isRunningRemotely() {
-		return (webDriver instanceof RemoteWebDriver);
+		return (unmeasuredWebDriver instanceof RemoteWebDriver);
 	}
 	
 	/*
@@ -381,12 +590,12 @@ public abstract class NiceWebDriver {
 	 */
 	
 	/***
-	 * Simplify the constructor call to instantiate the WebDriverWait
+	 * Simplify the constructor call to instantiate the NiceWait
 	 * @param seconds
 	 * @return
 	 */
-	private WebDriverWait getWaiter(int seconds) {
-		return new WebDriverWait(this.webDriver,seconds);
+	private NiceWait getWaiter(int seconds) {
+		return new NiceWait(this.webDriver,seconds*1000L).measuredBy(CommandMetrics.isEnabled() ? this.commandMetrics : null);
 	}
 	
 	/***
@@ -425,13 +634,334 @@ public abstract class NiceWebDriver {
 	 */
 	public boolean AnchorExistsWithHREF(String href, boolean visibleOnly) {
 		if(visibleOnly) {
-			System.out.println("Confirming that there exists the VISIBLE ONLY href: "+href);
+			eventLog.log(LogLevel.Info,"Confirming that there exists the VISIBLE ONLY href: {}",href);
 		} else {
-			System.out.println("Confirming that there exists the VISIBLE OR INVISIBLE href: "+href);
+			eventLog.log(LogLevel.Info,"Confirming that there exists the VISIBLE OR INVISIBLE href: {}",href);
+		}
+		AnchorIndex index = getAnchorIndex();
+		if(index != null && index.hasAnchorWithHrefContaining(href,visibleOnly)) {
+			eventLog.log(LogLevel.Verbose,"Found the href in the page's anchors | {}",href);
+			return true;
 		}
 		return (getWebElementByAnchorWithHrefIfExists(href,visibleOnly) != null);
 	}
 	
+	/***
+	 * Confirm that there is no visible or invisible "a" with href on the
+	 * current page, without waiting for one to turn up. The page is given
+	 * half a second to go quiet, and then checked once, against its anchors
+	 * as last harvested if the page has not changed since. A page that does
+	 * not go quiet is instead watched for the href for a second and a half.
+	 * @param href
+	 * @param visibleOnly
+	 * @return
+	 */
+	public boolean AnchorIsAbsentWithHREF(String href, boolean visibleOnly) {
+		return AnchorIsAbsentWithHREF(href,visibleOnly,0);
+	}
+	
+	/***
+	 * Confirm that there is no visible or invisible "a" with href on the
+	 * current page, and that none turns up for stayAbsentMilliSeconds. The
+	 * page is given half a second to go quiet, and then asked to watch for
+	 * one in a single round trip, which ends as soon as one appears. A page
+	 * that does not go quiet is watched for at least a second and a half, as
+	 * the href may still be on its way.
+	 * @param href
+	 * @param visibleOnly
+	 * @param stayAbsentMilliSeconds
+	 * @return
+	 */
+	public boolean AnchorIsAbsentWithHREF(String href, boolean visibleOnly, long stayAbsentMilliSeconds) {
+		if(visibleOnly) {
+			eventLog.log(LogLevel.Info,"Confirming that there is no VISIBLE href: {}",href);
+		} else {
+			eventLog.log(LogLevel.Info,"Confirming that there is no VISIBLE OR INVISIBLE href: {}",href);
+		}
+		if(!waitForPageQuiescent(PageQuiescence.DEFAULT_QUIET_MILLISECONDS,Math.min(AnchorAbsence.QUIESCENCE_TIMEOUT_MILLISECONDS,this.wait.getTimeoutMilliSeconds()))) {
+			eventLog.log(LogLevel.Verbose,"The page did not go quiet, so it is watched for the href rather than checked once | {}",href);
+			stayAbsentMilliSeconds = Math.max(stayAbsentMilliSeconds,AnchorAbsence.BUSY_PAGE_STAY_ABSENT_MILLISECONDS);
+		}
+		if(stayAbsentMilliSeconds <= 0) {
+			AnchorIndex index = getAnchorIndex();
+			if(index != null) {
+				boolean absent = !index.hasAnchorWithHrefContaining(href,visibleOnly);
+				if(absent) {
+					eventLog.log(LogLevel.Verbose,"Confirmed the absence of the href from the page's anchors | {}",href);
+				} else {
+					eventLog.log(LogLevel.Warn,"Found the href that should be absent in the page's anchors | {}",href);
+				}
+				return absent;
+			}
+		}
+		return isCSSElementAbsent(AnchorQueryStringForHREF(href,visibleOnly),stayAbsentMilliSeconds);
+	}
+	
+	/***
+	 * Whether no element matches the CSS selector, nor does for
+	 * stayAbsentMilliSeconds after. If the page's script can not be run, the
+	 * driver's own locator is used instead.
+	 * @param cssSelector
+	 * @param stayAbsentMilliSeconds
+	 * @return
+	 */
+	private boolean isCSSElementAbsent(String cssSelector, long stayAbsentMilliSeconds) {
+		Boolean absent = null;
+		try {
+			ensureScriptTimeoutAllows(stayAbsentMilliSeconds);
+			Object answer = executeNiceScript(AnchorAbsence.STAYS_ABSENT,cssSelector,stayAbsentMilliSeconds);
+			if(answer instanceof Map && ((Map<?,?>) answer).get("path") instanceof String) {
+				currentPagePath = (String) ((Map<?,?>) answer).get("path");
+			}
+			absent = AnchorAbsence.isAbsent(answer);
+		} catch (NoSuchSessionException e) {
+			throw e;
+		} catch (WebDriverException e) {
+			//Fall through to the driver's own locator
+		}
+		if(absent == null) {
+			eventLog.log(LogLevel.Verbose,"Failed to ask the page for the WebElement, checking with the driver instead by CSS Selector String: {}",cssSelector);
+			absent = isAbsentByDriver(By.cssSelector(cssSelector),stayAbsentMilliSeconds);
+		}
+		if(absent) {
+			eventLog.log(LogLevel.Verbose,"Confirmed the absence of WebElement by CSS Selector String: {}",cssSelector);
+		} else {
+			eventLog.log(LogLevel.Warn,"Found the WebElement that should be absent by CSS Selector String: {}",cssSelector);
+		}
+		return absent;
+	}
+	
+	/***
+	 * Whether the driver finds no element by "BY", checking until
+	 * stayAbsentMilliSeconds have passed, or only once if that is 0
+	 * @param by
+	 * @param stayAbsentMilliSeconds
+	 * @return
+	 */
+	private boolean isAbsentByDriver(By by, long stayAbsentMilliSeconds) {
+		try {
+			new NiceWait(this.webDriver,stayAbsentMilliSeconds).until(driver -> !driver.findElements(by).isEmpty());
+			return false;
+		} catch (TimeoutException e) {
+			return true;
+		}
+	}
+	
+	/***
+	 * Every anchor with an href on the current page, harvested in one script
+	 * call, and indexed for href queries. If the page has not changed since
+	 * the last harvest, the page answers only that, and the last harvest is
+	 * returned.
+	 * @return the anchors, or null if the page's script can not be run
+	 */
+	public AnchorIndex getAnchorIndex() {
+		AnchorIndex lastIndex = anchorIndex;
+		Object answer;
+		try {
+			answer = executeNiceScript(AnchorHarvest.HARVEST,(lastIndex == null ? null : lastIndex.getToken()));
+		} catch (NoSuchSessionException e) {
+			throw e;
+		} catch (WebDriverException e) {
+			eventLog.log(LogLevel.Verbose,"Failed to harvest the page's anchors");
+			return null;
+		}
+		if(!(answer instanceof Map)) {
+			return null;
+		}
+		Map<?,?> answerMap = (Map<?,?>) answer;
+		if(lastIndex != null && lastIndex.getToken().equals(answerMap.get("token")) && answerMap.get("anchors") == null) {
+			return lastIndex;
+		}
+		AnchorIndex harvestedIndex = AnchorIndex.fromHarvest(answerMap);
+		if(harvestedIndex != null) {
+			eventLog.log(LogLevel.Verbose,"Harvested the page's {} anchors",harvestedIndex.getAnchors().size());
+		}
+		anchorIndex = harvestedIndex;
+		return harvestedIndex;
+	}
+	
+	/***
+	 * The validator this NiceWebDriver checks links with, configured by
+	 * "LinkValidation.*", whose results are kept for the whole session
+	 * @return
+	 */
+	public LinkValidator getLinkValidator() {
+		if(linkValidator == null) {
+			linkValidator = LinkValidator.forDomainConstants();
+		}
+		return linkValidator;
+	}
+	
+	/***
+	 * Check every http and https link on the current page over HTTP, at
+	 * once, with the session's cookies, rather than by clicking each one.
+	 * Links that need the browser, such as "javascript:" links, are not
+	 * checked, and are left to be clicked.
+	 * @return the status of each link's url, or null if the page's anchors
+	 * can not be harvested
+	 */
+	public Map<String,LinkValidator.LinkStatus> validateLinksOnThePage() {
+		AnchorIndex index = getAnchorIndex();
+		if(index == null) {
+			return null;
+		}
+		Set<String> urls = new LinkedHashSet<String>();
+		for(AnchorIndex.Anchor anchor : index.getAnchors()) {
+			if(LinkValidator.isHttpLink(anchor.getUrl())) {
+				urls.add(anchor.getUrl());
+			}
+		}
+		eventLog.log(LogLevel.Verbose,"Validating the page's {} http links",urls.size());
+		return getLinkValidator().validateAll(urls,this.webDriver.manage().getCookies());
+	}
+	
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Execute NiceScripts
+ */
+///////////////////////////////////////////////////////////////////////////////
+	
+	private static final NiceScript SCROLL_INTO_VIEW = NiceScript.define("seleniumNG.scrollIntoView","arguments[0].scrollIntoView(true);");
+	private static final NiceScript SET_SCROLL_TOP = NiceScript.define("seleniumNG.setScrollTop","arguments[0].scrollTop = arguments[1];");
+	private static final NiceScript SET_VALUE_ON_INSTANCE_OF_A_CLASS = NiceScript.define("seleniumNG.setValueOnInstanceOfAClass","arguments[0][arguments[1]].setValue(arguments[2]);");
+	private static final NiceScript CLEAR_WEB_STORAGE = NiceScript.define("seleniumNG.clearWebStorage","try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}");
+	
+	/***
+	 * Execute a NiceScript with its arguments, asynchronously if it is
+	 * asynchronous. Only the first execution on each page sends the whole
+	 * script, which installs it in the page; after that only a call to it
+	 * is sent, unless the page has since navigated away.
+	 * @param script
+	 * @param args
+	 * @return what the script returned
+	 */
+	public Object executeNiceScript(NiceScript script, Object... args) {
+		if(installedScriptNames.contains(script.getName())) {
+			Object result = executeScriptText(script,script.getInstalledScript(),args);
+			if(!NiceScript.isNotInstalled(result)) {
+				return result;
+			}
+			//A new page, without any of the scripts installed in the last
+			eventLog.log(LogLevel.Verbose,"Reinstalling {} in a new page",script);
+			installedScriptNames.clear();
+		}
+		Object result = executeScriptText(script,script.getInstallingScript(),args);
+		installedScriptNames.add(script.getName());
+		return result;
+	}
+	
+	private Object executeScriptText(NiceScript script, String scriptText, Object[] args) {
+		long start = System.nanoTime();
+		try {
+			if(script.isAsync()) {
+				return this.jsExecutor.executeAsyncScript(scriptText,args);
+			}
+			return this.jsExecutor.executeScript(scriptText,args);
+		} finally {
+			if(CommandMetrics.isEnabled()) {
+				this.commandMetrics.record("NiceScript "+script.getName(),System.nanoTime()-start);
+			}
+		}
+	}
+	
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Wait for the page to go quiet
+ */
+///////////////////////////////////////////////////////////////////////////////
+	
+	/***
+	 * Instrument a page the NiceWebDriver has just opened to count its
+	 * requests and timers, so that those it starts before it is first
+	 * checked for quiescence are counted
+	 */
+	private void instrumentPageForQuiescence() {
+		try {
+			executeNiceScript(PageQuiescence.INSTRUMENT_AND_CHECK,PageQuiescence.DEFAULT_QUIET_MILLISECONDS);
+		} catch (NoSuchSessionException e) {
+			throw e;
+		} catch (WebDriverException e) {
+			//The page will be instrumented on its first check instead
+			eventLog.log(LogLevel.Verbose,"Failed to instrument the page for quiescence | {}",e.getMessage());
+		}
+	}
+	
+	/***
+	 * Wait until the page is quiescent: loaded, with no fetch or XHR
+	 * requests or short timers pending, any Angular or AngularJS app stable,
+	 * and the main thread idle, with nothing started or settled for the
+	 * last 50 ms. The page is instrumented to count its requests and timers
+	 * as soon as it is opened, or on the first check after a navigation the
+	 * NiceWebDriver did not make. Waits at most 2 seconds, or the wait's
+	 * timeout if that is shorter.
+	 * @return whether the page became quiescent before the wait ran out
+	 */
+	public boolean waitForPageQuiescent() {
+		return waitForPageQuiescent(PageQuiescence.DEFAULT_QUIET_MILLISECONDS);
+	}
+	
+	/***
+	 * Wait until the page is quiescent, with nothing started or settled for
+	 * the last quietMilliSeconds, for at most 2 seconds, or the wait's
+	 * timeout if that is shorter
+	 * @param quietMilliSeconds
+	 * @return whether the page became quiescent before the wait ran out
+	 */
+	public boolean waitForPageQuiescent(long quietMilliSeconds) {
+		return waitForPageQuiescent(quietMilliSeconds,Math.min(PageQuiescence.DEFAULT_TIMEOUT_MILLISECONDS,this.wait.getTimeoutMilliSeconds()));
+	}
+	
+	/***
+	 * Wait until the page is quiescent, with nothing started or settled for
+	 * the last quietMilliSeconds, for at most timeoutMilliSeconds
+	 * @param quietMilliSeconds
+	 * @param timeoutMilliSeconds
+	 * @return whether the page became quiescent before the wait ran out
+	 */
+	public boolean waitForPageQuiescent(long quietMilliSeconds, long timeoutMilliSeconds) {
+		AtomicReference<Object> lastState = new AtomicReference<Object>();
+		try {
+			this.wait.until(driver -> {
+				try {
+					lastState.set(executeNiceScript(PageQuiescence.INSTRUMENT_AND_CHECK,quietMilliSeconds));
+				} catch (NoSuchSessionException e) {
+					throw e;
+				} catch (WebDriverException e) {
+					//The page may be between documents
+					return false;
+				}
+				return PageQuiescence.isQuiescent(lastState.get());
+			},timeoutMilliSeconds);
+			eventLog.log(LogLevel.Verbose,"The page is quiescent");
+			return true;
+		} catch (TimeoutException e) {
+			if(eventLog.isEnabled(LogLevel.Verbose)) {
+				eventLog.log(LogLevel.Verbose,"The page did not become quiescent | {}",PageQuiescence.describe(lastState.get()));
+			}
+			return false;
+		}
+	}
+	
+	/***
+	 * Retry an action that failed once, after waiting for the page to go
+	 * quiet, all within the wait's timeout: the time spent waiting for the
+	 * page is taken out of the time the action is retried for, and the
+	 * action is attempted at least once more. A failure that another attempt
+	 * can not fix, such as a stale element, is rethrown at once.
+	 * @param firstFailure
+	 * @param action
+	 * @return what the action returned
+	 */
+	private <V> V retryOnceThePageIsQuiescent(WebDriverException firstFailure, Function<? super WebDriver, V> action) {
+		if(!this.wait.isRetryableFailureOfAnAction(firstFailure)) {
+			throw firstFailure;
+		}
+		long start = System.nanoTime();
+		long timeoutMilliSeconds = this.wait.getTimeoutMilliSeconds();
+		waitForPageQuiescent();
+		return this.wait.retryUntilSucceeds(action,timeoutMilliSeconds-TimeUnit.NANOSECONDS.toMillis(System.nanoTime()-start));
+	}
+	
 ///////////////////////////////////////////////////////////////////////////////
 /*
  * Check the current page open in the WebDriver and handle error codes
@@ -454,8 +984,7 @@ public abstract class NiceWebDriver {
 		try {
 			return new URI(getCurrentUrlAsString());
 		} catch (URISyntaxException e) {
-			System.err.println("Failed to obtain the default authority of the current webdriver's open URL");
-			e.printStackTrace();
+			eventLog.log(LogLevel.Error,"Failed to obtain the default authority of the current webdriver's open URL | {}",e);
 			return null;
 		}
 	}
@@ -467,18 +996,69 @@ public abstract class NiceWebDriver {
 	 */
 	public boolean confirmCurrentPageIs(String expectedSubroot) {
 		String subroot = getCurrentUrlAsURI().getPath();
-		writeVerboseMessageToSysOut(subroot+" || "+expectedSubroot);
+		eventLog.log(LogLevel.Verbose,"{} || {}",subroot,expectedSubroot);
 		return (subroot.equals(expectedSubroot));
 	}
 
 	/***
-	 * Checks the page for HTTP 404 Status message
-	 * TODO Is this relevant to all pages?
-	 * TODO Maybe find a more appropriate way of checking for a range of errors
+	 * The HTTP status the current page was served with, read from the
+	 * browser's Navigation Timing, or from an "HTTP Status nnn" error page
+	 * heading if the browser does not report it
+	 * @return the status, or 0 if it could not be learnt
+	 */
+	public int getWebPageHttpStatus() {
+		try {
+			int status = NavigationStatus.statusOf(executeNiceScript(NavigationStatus.READ_STATUS));
+			if(eventLog.isEnabled(LogLevel.Verbose)) {
+				eventLog.log(LogLevel.Verbose,"The page's HTTP status is | {}",(status == NavigationStatus.UNKNOWN ? "unknown" : Integer.toString(status)));
+			}
+			return status;
+		} catch (NoSuchSessionException e) {
+			throw e;
+		} catch (WebDriverException e) {
+			eventLog.log(LogLevel.Verbose,"Failed to read the page's HTTP status, searching its source instead");
+			return getWebPageHttpStatusFromPageSource();
+		}
+	}
+	
+	/***
+	 * The status of an "HTTP Status nnn" error page heading in the page's
+	 * source, or 0 if it has none. Reads back the whole page.
+	 * @return
+	 */
+	private int getWebPageHttpStatusFromPageSource() {
+		Matcher heading = HTTP_STATUS_HEADING.matcher(this.webDriver.getPageSource());
+		return (heading.find() ? Integer.parseInt(heading.group(1)) : NavigationStatus.UNKNOWN);
+	}
+	
+	private static final Pattern HTTP_STATUS_HEADING = Pattern.compile("HTTP Status (\\d{3})");
+	
+	/***
+	 * Checks whether the page was served with an HTTP status from lowest to
+	 * highest, inclusive
+	 * @param lowest
+	 * @param highest
+	 * @return
+	 */
+	public boolean isWebPageHttpStatusBetween(int lowest, int highest) {
+		int status = getWebPageHttpStatus();
+		return (status >= lowest && status <= highest);
+	}
+	
+	/***
+	 * Checks whether the page was served with a 4xx or 5xx HTTP status
+	 * @return
+	 */
+	public boolean isWebPageAnHttpError() {
+		return isWebPageHttpStatusBetween(400,599);
+	}
+	
+	/***
+	 * Checks whether the page was served with the HTTP status 404
 	 * @return
 	 */
 	public boolean isWebPage404() {
-		return this.webDriver.getPageSource().contains("HTTP Status 404");
+		return isWebPageHttpStatusBetween(404,404);
 	}
 	
 ///////////////////////////////////////////////////////////////////////////////
@@ -495,7 +1075,53 @@ public abstract class NiceWebDriver {
 	 * @param url
 	 */
 	public void openWebPage(String url) {
-		this.webDriver.get(url);
+		String origin = getOriginOfUrl(url);
+		if(origin != null) {
+			openedOrigins.add(origin);
+		}
+		long start = System.nanoTime();
+		try {
+			this.webDriver.get(url);
+			currentPagePath = getPathOfUrl(url);
+			installedScriptNames.clear();
+			domSnapshot = null;
+			instrumentPageForQuiescence();
+		} finally {
+			traceSpan("navigation","openWebPage",start,"url",url);
+		}
+	}
+	
+	/***
+	 * Get the "protocol://authority/" origin of an url, or null if the url
+	 * has no authority to hold cookies or storage against (such as
+	 * "about:blank" or "data:" urls)
+	 * @param url
+	 * @return
+	 */
+	private String getOriginOfUrl(String url) {
+		try {
+			URI uri = new URI(url);
+			if(uri.getScheme() == null || uri.getRawAuthority() == null) {
+				return null;
+			}
+			return uri.getScheme()+"://"+uri.getRawAuthority()+"/";
+		} catch (URISyntaxException e) {
+			return null;
+		}
+	}
+	
+	/***
+	 * Get the path of an url, or "" if it has none or can not be parsed
+	 * @param url
+	 * @return
+	 */
+	private String getPathOfUrl(String url) {
+		try {
+			String path = new URI(url).getRawPath();
+			return (path == null ? "" : path);
+		} catch (URISyntaxException e) {
+			return "";
+		}
 	}
 	
 	/***
@@ -660,7 +1286,7 @@ public abstract class NiceWebDriver {
 	 * @throws UnknownHostException
 	 */
 	public void openLocalHTTPWebPageWithSubroot(String contextRoot, String subrootQuery) throws UnknownHostException {
-		this.openHTTPOnHostPortContextRoot(this.getLocalIP(),DomainConstants.local.environPort,contextRoot,subrootQuery);
+		this.openHTTPOnHostPortContextRoot(this.getLocalIP(),DomainConstants.current().local.environPort,contextRoot,subrootQuery);
 	}
 	
 	/***
@@ -686,7 +1312,7 @@ public abstract class NiceWebDriver {
 	 * @throws UnknownHostException
 	 */
 	public void openLocalHTTPDefaultWebContextRootWithSubroot(String subrootQuery) throws UnknownHostException {
-		this.openLocalHTTPWebPageWithSubroot(DomainConstants.local.webContextRoot,subrootQuery);
+		this.openLocalHTTPWebPageWithSubroot(DomainConstants.current().local.webContextRoot,subrootQuery);
 	}
 	
 	/***
@@ -711,7 +1337,8 @@ public abstract class NiceWebDriver {
 	 * @param subrootQuery
 	 */
 	public void openTestDefaultWithHTTPAndSubroot(String subrootQuery) {
-		this.openHTTPOnHostPortContextRoot(DomainConstants.test.environIP,DomainConstants.test.environPort,DomainConstants.test.webContextRoot,subrootQuery);
+		DomainConstants.Test test = DomainConstants.current().test;
+		this.openHTTPOnHostPortContextRoot(test.environIP,test.environPort,test.webContextRoot,subrootQuery);
 	}
 	
 	/***
@@ -721,7 +1348,8 @@ public abstract class NiceWebDriver {
 	 * @param subrootQuery
 	 */
 	public void openTestDefaultWithHTTPSAndSubroot(String subrootQuery) {
-		this.openHTTPSOnHostPortContextRoot(DomainConstants.test.environIP,DomainConstants.test.environPort,DomainConstants.test.webContextRoot,subrootQuery);
+		DomainConstants.Test test = DomainConstants.current().test;
+		this.openHTTPSOnHostPortContextRoot(test.environIP,test.environPort,test.webContextRoot,subrootQuery);
 	}
 	
 	/***
@@ -749,57 +1377,171 @@ public abstract class NiceWebDriver {
 	//<When clicking>: org.openqa.selenium.ElementNotVisibleException: element not interactable
 	//<When typing>:   org.openqa.selenium.ElementNotInteractableException: element not interactable
 	
+	/***
+	 * Returns a WebElement by using "BY", if it exists, after waiting for it
+	 * to arrive. The page is asked to find the element itself, and to answer
+	 * the moment it appears, in a single round trip, rather than the page
+	 * being polled for it. If the page's script can not be run, or the page
+	 * navigates while waiting, the page is polled instead. How long it waits
+	 * is learnt from how long the locator's elements have taken to appear
+	 * on the same page before, when "LocatorTimeouts.HistoryPath" is set.
+	 * Each lookup is a span of the session's trace timeline.
+	 * @param by
+	 * @param selectorType
+	 * @param arrivalStrategy the ElementArrival strategy equivalent to "BY"
+	 * @param selector
+	 * @return
+	 */
+	private WebElement getWebElementIfExists(By by, String selectorType, String arrivalStrategy, String selector) {
+		long start = System.nanoTime();
+		WebElement we = null;
+		try {
+			we = locateWebElementIfExists(by,selectorType,arrivalStrategy,selector);
+			return we;
+		} finally {
+			traceSpan("lookup",(we == null ? "lookup (not found)" : "lookup"),start,"by",by);
+		}
+	}
+	
+	private WebElement locateWebElementIfExists(By by, String selectorType, String arrivalStrategy, String selector) {
+		WebElement arrived;
+		try {
+			arrived = waitForWebElementToArrive(by,arrivalStrategy,selector);
+		} catch (NoSuchSessionException e) {
+			throw e;
+		} catch (WebDriverException e) {
+			eventLog.log(LogLevel.Verbose,"Failed to wait for the WebElement to arrive, polling for it instead by {} String: {}",selectorType,by);
+			return getWebElementByPollingIfExists(by,selectorType);
+		}
+		if(arrived != null) {
+			eventLog.log(LogLevel.Verbose,"Succeeded in locating WebElement (on arrival) by {} String: {}",selectorType,by);
+			return arrived;
+		}
+		//The driver's own locator has the final say, in case it and the page's script disagree
+		try {
+			WebElement we = this.webDriver.findElement(by);
+			eventLog.log(LogLevel.Verbose,"Succeeded in locating WebElement (after it did not arrive) by {} String: {}",selectorType,by);
+			return we;
+		} catch (NoSuchElementException e) {
+			eventLog.log(LogLevel.Warn,"Failed to locate WebElement (it did not arrive before the wait ran out) by {} String: {}",selectorType,by);
+			return null;
+		}
+	}
+	
+	/***
+	 * Wait for the page to find a WebElement by one of the ElementArrival
+	 * strategies, for as long as its locator is given to appear, and record
+	 * how long it took, or that it timed out. The locator is keyed on the
+	 * page it was looked up from, for both its timeout and what is recorded,
+	 * even if the page answers from another path. Without a history, the key
+	 * is never made, so a lookup does not build a string from its By.
+	 * @param by
+	 * @param arrivalStrategy
+	 * @param selector
+	 * @return the WebElement, or null if it did not arrive in time
+	 */
+	private WebElement waitForWebElementToArrive(By by, String arrivalStrategy, String selector) {
+		LocatorLatencyHistory history = LocatorLatencyHistory.forDomainConstants();
+		String locatorKey = (history == null ? null : getLocatorKey(currentPagePath,by));
+		long timeoutMilliSeconds = getLocatorTimeoutMilliSeconds(history,locatorKey);
+		ensureScriptTimeoutAllows(timeoutMilliSeconds);
+		Object arrival = executeNiceScript(ElementArrival.WAIT_FOR_ELEMENT,arrivalStrategy,selector,timeoutMilliSeconds);
+		if(!(arrival instanceof Map)) {
+			return null;
+		}
+		Map<?,?> arrivalMap = (Map<?,?>) arrival;
+		if(arrivalMap.get("path") instanceof String) {
+			currentPagePath = (String) arrivalMap.get("path");
+		}
+		if(!(arrivalMap.get("element") instanceof WebElement)) {
+			if(history != null) {
+				history.recordTimeout(locatorKey,timeoutMilliSeconds);
+			}
+			return null;
+		}
+		if(history != null && arrivalMap.get("waitedMilliSeconds") instanceof Number) {
+			history.record(locatorKey,((Number) arrivalMap.get("waitedMilliSeconds")).longValue());
+		}
+		return (WebElement) arrivalMap.get("element");
+	}
+	
+	/***
+	 * Raise the driver's script timeout, if it is not already high enough,
+	 * so that an asynchronous script that waits for as long as given answers
+	 * before the driver gives up on it
+	 * @param scriptWaitMilliSeconds
+	 */
+	private void ensureScriptTimeoutAllows(long scriptWaitMilliSeconds) {
+		long requiredScriptTimeout = scriptWaitMilliSeconds + ElementArrival.SCRIPT_TIMEOUT_MARGIN_MILLISECONDS;
+		if(scriptTimeoutMilliSeconds < requiredScriptTimeout) {
+			this.webDriver.manage().timeouts().setScriptTimeout(requiredScriptTimeout,TimeUnit.MILLISECONDS);
+			scriptTimeoutMilliSeconds = requiredScriptTimeout;
+		}
+	}
+	
+	/***
+	 * How long a locator is given to appear. The NiceWait's timeout, unless
+	 * there is a history with enough of the locator's latencies, and the
+	 * timeout has not been set with getThisWithWaitTimeoutSetTo(...)
+	 * @param history
+	 * @param locatorKey null if there is no history
+	 * @return milliseconds
+	 */
+	private long getLocatorTimeoutMilliSeconds(LocatorLatencyHistory history, String locatorKey) {
+		long waitTimeoutMilliSeconds = this.wait.getTimeoutMilliSeconds();
+		DomainConstants.LocatorTimeouts locatorTimeouts = DomainConstants.current().locatorTimeouts;
+		if(history == null || locatorTimeouts == null || this.wait.isTimeoutOverridden()) {
+			return waitTimeoutMilliSeconds;
+		}
+		long timeoutMilliSeconds = history.getTimeoutMilliSeconds(locatorKey,waitTimeoutMilliSeconds,locatorTimeouts.minSamples,locatorTimeouts.safetyPercent,locatorTimeouts.minMilliSeconds,locatorTimeouts.maxMilliSeconds);
+		if(eventLog.isEnabled(LogLevel.Verbose)) {
+			eventLog.log(LogLevel.Verbose,"Waiting up to {} ms for | {}",timeoutMilliSeconds,locatorKey);
+		}
+		return timeoutMilliSeconds;
+	}
+	
+	/***
+	 * The key a locator's latencies are kept under, the path of the page it
+	 * is looked up on and its By string
+	 * @param pagePath
+	 * @param by
+	 * @return
+	 */
+	private static String getLocatorKey(String pagePath, By by) {
+		return pagePath+" "+by;
+	}
+	
 	/***
 	 * Returns a WebElement by using "BY", if it exists, 
-	 * after waiting for its presence
-	 * @param cssSelectorQuery
+	 * after polling for its presence
+	 * @param by
+	 * @param selectorType
 	 * @return
 	 */
-	private WebElement getWebElementIfExists(By by, String selectorType) {
-		String byString = "by "+selectorType+" String: "+by.toString();
+	private WebElement getWebElementByPollingIfExists(By by, String selectorType) {
 		try {
 			WebElement we = this.webDriver.findElement(by);
-			writeVerboseMessageToSysOut("Succeeded in locating WebElement (first attempt) "+byString);
+			eventLog.log(LogLevel.Verbose,"Succeeded in locating WebElement (first attempt) by {} String: {}",selectorType,by);
 			return we;
 		} catch (NoSuchElementException e) {
-			writeVerboseMessageToSysOut("Failed to locate WebElement (first attempt) "+byString);
+			eventLog.log(LogLevel.Verbose,"Failed to locate WebElement (first attempt) by {} String: {}",selectorType,by);
 			try{
 				this.wait.until(ExpectedConditions.presenceOfElementLocated(by));
 				try {
 					WebElement we = this.webDriver.findElement(by);
-					writeVerboseMessageToSysOut("Succeeded in locating WebElement (second attempt) "+byString);
+					eventLog.log(LogLevel.Verbose,"Succeeded in locating WebElement (second attempt) by {} String: {}",selectorType,by);
 					return we;
 				} catch (NoSuchElementException e2) {
-					writeVerboseMessageToSysOut("Failed to locate WebElement (second attempt : after a successful wait_until!) "+byString);
+					eventLog.log(LogLevel.Verbose,"Failed to locate WebElement (second attempt : after a successful wait_until!) by {} String: {}",selectorType,by);
 					return null;
 				}
 			} catch (TimeoutException te) {
-				System.err.println("Failed to locate WebElement (second attempt : failed the wait_until) "+byString);
+				eventLog.log(LogLevel.Warn,"Failed to locate WebElement (second attempt : failed the wait_until) by {} String: {}",selectorType,by);
 				return null;
 			}
 		}
 	}
 	
-	/***
-	 * Returns the WebElement parsed if it is viewable (for .click()).
-	 * @param we
-	 * @return
-	 */
-	private WebElement handleElementNotVisibleException(WebElement we) {
-		//<When clicking>: org.openqa.selenium.ElementNotVisibleException: element not interactable
-		return this.wait.until(ExpectedConditions.visibilityOf(we));
-	}
-	
-	/***
-	 * Returns the WebElement parsed if it is clickable (for .sendKeys()).
-	 * @param we
-	 * @return
-	 */
-	private WebElement handleElementNotInteractableException(WebElement we) {
-		//<When typing>: org.openqa.selenium.ElementNotInteractableException: element not interactable
-		return this.wait.until(ExpectedConditions.elementToBeClickable(we));
-	}
-	
 ///////////////////////////////////////////////////////////////////////////////
 /*
  * Get Element | By!
@@ -812,7 +1554,7 @@ public abstract class NiceWebDriver {
 	 * @return
 	 */
 	public WebElement getWebElementByCSSIfExists(String cssSelector) {
-		return getWebElementIfExists(By.cssSelector(cssSelector),"CSS Selector");
+		return getWebElementIfExists(By.cssSelector(cssSelector),"CSS Selector",ElementArrival.CSS,cssSelector);
 	}
 
 	/***
@@ -821,7 +1563,7 @@ public abstract class NiceWebDriver {
 	 * @return
 	 */
 	public WebElement getWebElementByXPathIfExists(String xpath) {
-		return getWebElementIfExists(By.xpath(xpath),"XPath");
+		return getWebElementIfExists(By.xpath(xpath),"XPath",ElementArrival.XPATH,xpath);
 	}
 
 	/***
@@ -830,7 +1572,7 @@ public abstract class NiceWebDriver {
 	 * @return
 	 */
 	public WebElement getWebElementByLinkTextIfExists(String linkText) {
-		return getWebElementIfExists(By.linkText(linkText),"Link Text");
+		return getWebElementIfExists(By.linkText(linkText),"Link Text",ElementArrival.LINK_TEXT,linkText);
 	}
 
 	/***
@@ -839,7 +1581,7 @@ public abstract class NiceWebDriver {
 	 * @return
 	 */
 	public WebElement getWebElementByIdIfExists(String id) {
-		return getWebElementIfExists(By.id(id),"ID");
+		return getWebElementIfExists(By.id(id),"ID",ElementArrival.ID,id);
 	}
 
 	/***
@@ -852,6 +1594,177 @@ public abstract class NiceWebDriver {
 		return getWebElementByCSSIfExists(AnchorQueryStringForHREF(href, visibleOnly));
 	}
 	
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Read the page from a DOM snapshot
+ */
+///////////////////////////////////////////////////////////////////////////////
+	
+	/***
+	 * The whole of the current page's DOM, captured in one script call, to
+	 * be queried with CSS selectors and XPaths without asking the page again.
+	 * If the page has not changed since the last capture, the page answers
+	 * only that, and the last capture is returned.
+	 * @return the snapshot, or null if the page's script can not be run
+	 */
+	public DomSnapshot getDomSnapshot() {
+		DomSnapshot lastSnapshot = domSnapshot;
+		Object answer;
+		try {
+			answer = executeNiceScript(DomCapture.CAPTURE,(lastSnapshot == null ? null : lastSnapshot.getToken()));
+		} catch (NoSuchSessionException e) {
+			throw e;
+		} catch (WebDriverException e) {
+			eventLog.log(LogLevel.Verbose,"Failed to capture the page's DOM");
+			return null;
+		}
+		if(!(answer instanceof Map)) {
+			return null;
+		}
+		Map<?,?> answerMap = (Map<?,?>) answer;
+		if(lastSnapshot != null && lastSnapshot.getToken().equals(answerMap.get("token")) && answerMap.get("root") == null) {
+			return lastSnapshot;
+		}
+		DomSnapshot capturedSnapshot = DomSnapshot.fromCapture(answerMap);
+		if(capturedSnapshot != null) {
+			eventLog.log(LogLevel.Verbose,"Captured the page's {} elements",capturedSnapshot.getElements().size());
+		}
+		domSnapshot = capturedSnapshot;
+		return capturedSnapshot;
+	}
+	
+	/***
+	 * The elements a locator finds in the page's snapshot
+	 * @param by
+	 * @return the elements, or null if there is no snapshot, or it can not
+	 * answer the locator
+	 */
+	private List<DomSnapshot.Element> findInTheSnapshot(By by) {
+		DomSnapshot snapshot = getDomSnapshot();
+		if(snapshot == null) {
+			return null;
+		}
+		try {
+			return snapshot.find(by);
+		} catch (UnsupportedOperationException e) {
+			eventLog.log(LogLevel.Verbose,"Asking the page instead of its snapshot | {}",e.getMessage());
+			return null;
+		}
+	}
+	
+	/***
+	 * The first element a locator finds in the page's snapshot, or null if
+	 * it finds none, or the snapshot can not answer it
+	 * @param by
+	 * @return
+	 */
+	private DomSnapshot.Element getSnapshotElementIfExists(By by) {
+		List<DomSnapshot.Element> found = findInTheSnapshot(by);
+		return (found == null || found.isEmpty() ? null : found.get(0));
+	}
+	
+	/***
+	 * How many elements a locator finds on the page right now, without
+	 * waiting for any to arrive, counted in the page's snapshot
+	 * @param by
+	 * @return
+	 */
+	public int countElements(By by) {
+		List<DomSnapshot.Element> found = findInTheSnapshot(by);
+		if(found != null) {
+			return found.size();
+		}
+		return this.webDriver.findElements(by).size();
+	}
+	
+	/***
+	 * How many elements the CSS Selector matches on the page right now
+	 * @param cssSelector
+	 * @return
+	 */
+	public int countCSSElements(String cssSelector) {
+		return countElements(By.cssSelector(cssSelector));
+	}
+	
+	/***
+	 * How many elements the XPath selects on the page right now
+	 * @param xpath
+	 * @return
+	 */
+	public int countXPathElements(String xpath) {
+		return countElements(By.xpath(xpath));
+	}
+	
+	/***
+	 * The displayed text of the web element, with each run of whitespace as
+	 * one space, read from the page's snapshot if it is there, and otherwise
+	 * after waiting for it to arrive
+	 * @param cssSelector
+	 * @return the text, or null if it does not exist
+	 */
+	public String getTextOfCSSElementIfExists(String cssSelector) {
+		DomSnapshot.Element element = getSnapshotElementIfExists(By.cssSelector(cssSelector));
+		if(element != null) {
+			return element.getText();
+		}
+		return getTextOfAWebElement(getWebElementByCSSIfExists(cssSelector));
+	}
+	
+	/***
+	 * The displayed text of the web element, with each run of whitespace as
+	 * one space, read from the page's snapshot if it is there, and otherwise
+	 * after waiting for it to arrive
+	 * @param xpath
+	 * @return the text, or null if it does not exist
+	 */
+	public String getTextOfXPathElementIfExists(String xpath) {
+		DomSnapshot.Element element = getSnapshotElementIfExists(By.xpath(xpath));
+		if(element != null) {
+			return element.getText();
+		}
+		return getTextOfAWebElement(getWebElementByXPathIfExists(xpath));
+	}
+	
+	private static String getTextOfAWebElement(WebElement we) {
+		return (we == null ? null : DomSnapshot.normaliseWhitespace(we.getText()));
+	}
+	
+	/***
+	 * The attribute of the web element, as WebElement.getAttribute(...)
+	 * gives it, read from the page's snapshot if it is there, and otherwise
+	 * after waiting for it to arrive
+	 * @param cssSelector
+	 * @param attribute
+	 * @return the attribute, or null if the web element or its attribute
+	 * does not exist
+	 */
+	public String getAttributeOfCSSElementIfExists(String cssSelector, String attribute) {
+		DomSnapshot.Element element = getSnapshotElementIfExists(By.cssSelector(cssSelector));
+		if(element != null) {
+			return element.getAttribute(attribute);
+		}
+		WebElement we = getWebElementByCSSIfExists(cssSelector);
+		return (we == null ? null : we.getAttribute(attribute));
+	}
+	
+	/***
+	 * The attribute of the web element, as WebElement.getAttribute(...)
+	 * gives it, read from the page's snapshot if it is there, and otherwise
+	 * after waiting for it to arrive
+	 * @param xpath
+	 * @param attribute
+	 * @return the attribute, or null if the web element or its attribute
+	 * does not exist
+	 */
+	public String getAttributeOfXPathElementIfExists(String xpath, String attribute) {
+		DomSnapshot.Element element = getSnapshotElementIfExists(By.xpath(xpath));
+		if(element != null) {
+			return element.getAttribute(attribute);
+		}
+		WebElement we = getWebElementByXPathIfExists(xpath);
+		return (we == null ? null : we.getAttribute(attribute));
+	}
+	
 ///////////////////////////////////////////////////////////////////////////////
 /*
  * Click on a web element
@@ -865,37 +1778,22 @@ public abstract class NiceWebDriver {
 	 */
 	private WebElement clickANonNullWebElement(WebElement we){
 		if(we != null) {
+			long start = System.nanoTime();
 			try {
 				we.click();
-			} catch(ElementNotVisibleException e1) {
-				//Make sure we wait until it is visible!
-				try {
-					handleElementNotVisibleException(we).click();
-				} catch (WebDriverException e2) {
-					/* The page might still be dynamically loading despite the
-					 * element already being "viewable." The only option now
-					 * is a "Thread.sleep(); Eww. Call the sleep, then try the
-					 * handler again, with no try catch protection, anything
-					 * after this is a genuine error. Was the page Angular7? */
-					try {
-						Thread.sleep(DomainConstants.local.waitSeconds*1000);
-					} catch (InterruptedException e) {
-						e.printStackTrace();
-					}
-					handleElementNotVisibleException(we).click();
-				}
-			} catch (WebDriverException e2) {
+			} catch (WebDriverException e) {
 				/* The page might still be dynamically loading despite the
-				 * element already being "present." The only option now
-				 * is a "Thread.sleep(); Eww. Call the sleep, then try the
-				 * handler again, with no try catch protection, anything
-				 * after this is a genuine error. Was the page Angular7? */
-				try {
-					Thread.sleep(DomainConstants.local.waitSeconds*1000);
-				} catch (InterruptedException e) {
-					e.printStackTrace();
-				}
-				handleElementNotVisibleException(we).click();
+				 * element already being "present", or the element might not
+				 * be visible yet. Wait for the page to go quiet, then retry
+				 * the click, backing off, until it succeeds; if it is still
+				 * failing when the wait runs out, its failure is a genuine
+				 * error. */
+				retryOnceThePageIsQuiescent(e,driver -> {
+					we.click();
+					return we;
+				});
+			} finally {
+				traceSpan("click","click",start,null,null);
 			}
 		}
 		return we;
@@ -960,37 +1858,68 @@ public abstract class NiceWebDriver {
 	 */
 	public WebElement sendKeysToANonNullWebElement(WebElement we, CharSequence...  keyStrokes) {
 		if(we != null) {
+			long start = System.nanoTime();
 			try {
 				we.sendKeys(keyStrokes);
-			} catch(ElementNotInteractableException e1) {
-				try {
-					handleElementNotInteractableException(we).sendKeys(keyStrokes);
-				} catch (WebDriverException e2) {
-					/* The page might still be dynamically loading despite the
-					 * element already being "clickable." The only option now
-					 * is a "Thread.sleep(); Eww. Call the sleep, then try the
-					 * handler again, with no try catch protection, anything
-					 * after this is a genuine error. Was the page Angular7? */
-					try {
-						Thread.sleep(DomainConstants.local.waitSeconds*1000);
-					} catch (InterruptedException e) {
-						e.printStackTrace();
-					}
-					handleElementNotInteractableException(we).sendKeys(keyStrokes);
-				}
-			} catch (WebDriverException e2) {
+			} catch (WebDriverException e) {
 				/* The page might still be dynamically loading despite the
-				 * element already being "present." The only option now
-				 * is a "Thread.sleep(); Eww. Call the sleep, then try the
-				 * handler again, with no try catch protection, anything
-				 * after this is a genuine error. Was the page Angular7? */
+				 * element already being "present", or the element might not
+				 * be interactable yet. Wait for the page to go quiet, then
+				 * retry the keys, backing off, until they are accepted; if
+				 * they are still refused when the wait runs out, the failure
+				 * is a genuine error. */
+				retryOnceThePageIsQuiescent(e,driver -> {
+					we.sendKeys(keyStrokes);
+					return we;
+				});
+			} finally {
+				if(TraceTimeline.isEnabled()) {
+					traceSpan("keys","sendKeys",start,"characters",countCharacters(keyStrokes));
+				}
+			}
+		}
+		return we;
+	}
+	
+	private static long countCharacters(CharSequence... keyStrokes) {
+		long characters = 0;
+		for(CharSequence keyStroke : keyStrokes) {
+			characters += (keyStroke == null ? 0 : keyStroke.length());
+		}
+		return characters;
+	}
+	
+	/***
+	 * Enters text into a WebElement, if it is not null, by appending it to
+	 * the value of the text field in a single script call, and firing the
+	 * input and change events, rather than typing it key by key. Much faster
+	 * for long text, but no key events are fired, so it should only be used
+	 * where the page does not listen for them. If the WebElement is not a
+	 * text field, or the text has special keys, the keys are sent instead.
+	 * @param we
+	 * @param text
+	 * @return
+	 */
+	public WebElement setValueOfANonNullWebElement(WebElement we, CharSequence text) {
+		if(we != null) {
+			if(ValueEntry.isPlainText(text)) {
+				long start = System.nanoTime();
 				try {
-					Thread.sleep(DomainConstants.local.waitSeconds*1000);
-				} catch (InterruptedException e) {
-					e.printStackTrace();
+					if(Boolean.TRUE.equals(executeNiceScript(ValueEntry.APPEND_VALUE,we,text.toString()))) {
+						eventLog.log(LogLevel.Verbose,"Entered {} characters by value",text.length());
+						if(TraceTimeline.isEnabled()) {
+							traceSpan("keys","setValue",start,"characters",text.length());
+						}
+						return we;
+					}
+				} catch (NoSuchSessionException e) {
+					throw e;
+				} catch (WebDriverException e) {
+					//Fall through to sending the keys
 				}
-				handleElementNotInteractableException(we).sendKeys(keyStrokes);
 			}
+			eventLog.log(LogLevel.Verbose,"Failed to enter {} characters by value, sending them as keys instead",text.length());
+			sendKeysToANonNullWebElement(we,text);
 		}
 		return we;
 	}
@@ -1053,7 +1982,7 @@ public abstract class NiceWebDriver {
 	 * @return
 	 */
 	public WebElement scrollThePageIntoViewOfAWebElement(WebElement we) {
-		jsExecutor.executeScript("arguments[0].scrollIntoView(true);", we);
+		executeNiceScript(SCROLL_INTO_VIEW,we);
 		return we;
 	}
 	
@@ -1066,34 +1995,13 @@ public abstract class NiceWebDriver {
 		if(we != null) {
 			try {
 				scrollThePageIntoViewOfAWebElement(we);
-			} catch(ElementNotVisibleException e1) {
-				try {
-					scrollThePageIntoViewOfAWebElement(handleElementNotVisibleException(we));
-				} catch (WebDriverException e2) {
-					/* The page might still be dynamically loading despite the
-					 * element already being "clickable." The only option now
-					 * is a "Thread.sleep(); Eww. Call the sleep, then try the
-					 * handler again, with no try catch protection, anything
-					 * after this is a genuine error. Was the page Angular7? */
-					try {
-						Thread.sleep(DomainConstants.local.waitSeconds*1000);
-					} catch (InterruptedException e) {
-						e.printStackTrace();
-					}
-					scrollThePageIntoViewOfAWebElement(handleElementNotVisibleException(we));
-				}
-			} catch (WebDriverException e2) {
+			} catch (WebDriverException e) {
 				/* The page might still be dynamically loading despite the
-				 * element already being "present." The only option now
-				 * is a "Thread.sleep(); Eww. Call the sleep, then try the
-				 * handler again, with no try catch protection, anything
-				 * after this is a genuine error. Was the page Angular7? */
-				try {
-					Thread.sleep(DomainConstants.local.waitSeconds*1000);
-				} catch (InterruptedException e) {
-					e.printStackTrace();
-				}
-				scrollThePageIntoViewOfAWebElement(handleElementNotVisibleException(we));
+				 * element already being "present". Wait for the page to go
+				 * quiet, then retry the scroll, backing off, until it
+				 * succeeds; if it is still failing when the wait runs out,
+				 * its failure is a genuine error. */
+				retryOnceThePageIsQuiescent(e,driver -> scrollThePageIntoViewOfAWebElement(we));
 			}
 		}
 		return we;
@@ -1161,13 +2069,18 @@ public abstract class NiceWebDriver {
 	 */
 	public WebElement setValueOnInstanceOfAClass(String className, int nthInstance, String valueToSet) {
 		WebElement classInstance = webDriver.findElements(By.cssSelector("."+className)).get(nthInstance);
-		jsExecutor.executeScript("arguments[0]."+className+".setValue(\"" + valueToSet + "\");", classInstance);
+		executeNiceScript(SET_VALUE_ON_INSTANCE_OF_A_CLASS,classInstance,className,valueToSet);
 		return classInstance;
 	}
 	
 	/***
 	 * Scrolls into view of a WebElement found by XPath, then scrolls inside of
-	 * that WebElement, until a WebElement it contains is also visible.
+	 * that WebElement, until a WebElement it contains is also visible. The
+	 * page does the scrolling itself, in a single round trip, jumping
+	 * straight to the WebElement if it is already in the page, or scrolling
+	 * down scrollSpeed pixels at a time until a virtualised or infinitely
+	 * scrolling list renders it, for as long as the wait. If the page's
+	 * script can not be run, the scrolling is done stepwise from here.
 	 * @param containingElementXPath
 	 * @param internalElementXPath
 	 * @param scrollSpeed
@@ -1175,15 +2088,62 @@ public abstract class NiceWebDriver {
 	 */
 	public WebElement scrollInsideOfAnXPathWebElementFromTopToBottomUntilAnotherXPathBecomesVisible(String containingElementXPath, String internalElementXPath, int scrollSpeed) {
 		WebElement containingElement = scrollThePageIntoViewOfAnXPathElementIfExists(containingElementXPath);
+		if(containingElement == null) {
+			return null;
+		}
+		long timeoutMilliSeconds = this.wait.getTimeoutMilliSeconds();
+		try {
+			ensureScriptTimeoutAllows(timeoutMilliSeconds);
+			Object answer = executeNiceScript(ScrollReveal.SCROLL_UNTIL_REVEALED,containingElement,internalElementXPath,scrollSpeed,timeoutMilliSeconds);
+			if(answer instanceof Map) {
+				Map<?,?> answerMap = (Map<?,?>) answer;
+				Object internalElement = answerMap.get("element");
+				if(Boolean.TRUE.equals(answerMap.get("revealed"))) {
+					eventLog.log(LogLevel.Verbose,"Revealed WebElement by XPath String: {} | after {} steps, at scrollTop {}",internalElementXPath,answerMap.get("steps"),answerMap.get("scrollTop"));
+				} else {
+					eventLog.log(LogLevel.Warn,"Failed to reveal WebElement by XPath String: {} | after {} steps, at scrollTop {}",internalElementXPath,answerMap.get("steps"),answerMap.get("scrollTop"));
+				}
+				return (internalElement instanceof WebElement ? (WebElement) internalElement : null);
+			}
+		} catch (NoSuchSessionException e) {
+			throw e;
+		} catch (WebDriverException e) {
+			//Fall through to scrolling stepwise
+		}
+		eventLog.log(LogLevel.Verbose,"Failed to scroll inside the WebElement from the page, scrolling stepwise instead by XPath String: {}",containingElementXPath);
+		return scrollStepwiseInsideOfAWebElementUntilAnXPathBecomesVisible(containingElement,internalElementXPath,scrollSpeed);
+	}
+	
+	/***
+	 * Scrolls into view of a WebElement found by XPath, then scrolls inside of
+	 * that WebElement, scrollSpeed pixels at a time from here, looking for the
+	 * WebElement it contains after every step, until it is also visible or the
+	 * scroll has gone as far as the containing WebElement's height. Several
+	 * round trips a step; prefer the single round trip of
+	 * scrollInsideOfAnXPathWebElementFromTopToBottomUntilAnotherXPathBecomesVisible
+	 * @param containingElementXPath
+	 * @param internalElementXPath
+	 * @param scrollSpeed
+	 * @return
+	 */
+	public WebElement scrollStepwiseInsideOfAnXPathWebElementFromTopToBottomUntilAnotherXPathBecomesVisible(String containingElementXPath, String internalElementXPath, int scrollSpeed) {
+		WebElement containingElement = scrollThePageIntoViewOfAnXPathElementIfExists(containingElementXPath);
+		if(containingElement == null) {
+			return null;
+		}
+		return scrollStepwiseInsideOfAWebElementUntilAnXPathBecomesVisible(containingElement,internalElementXPath,scrollSpeed);
+	}
+	
+	private WebElement scrollStepwiseInsideOfAWebElementUntilAnXPathBecomesVisible(WebElement containingElement, String internalElementXPath, int scrollSpeed) {
 		WebElement internalElement = getWebElementByXPathIfExists(internalElementXPath);
 		int scroller = 0;
 		int maxScroll = containingElement.getSize().height;
-		while(!internalElement.isDisplayed()){
+		while(internalElement == null || !internalElement.isDisplayed()){
 			if(scroller > maxScroll){
 				break;
 			} else {
 				internalElement = getWebElementByXPathIfExists(internalElementXPath);
-				jsExecutor.executeScript("arguments[0].scrollTop=arguments[1]",containingElement,scroller);
+				executeNiceScript(SET_SCROLL_TOP,containingElement,scroller);
 				scroller+=scrollSpeed;
 			}
 		}
@@ -4,10 +4,19 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.URL;
-import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.remote.DesiredCapabilities;
 
 import com.skenvy.SeleniumNG.DomainConstants;
@@ -29,28 +38,39 @@ public class NiceWebDriverFactory {
 ///////////////////////////////////////////////////////////////////////////////
 	
 	/***
-	 * Keeps track of the list of drivers that have already 
-	 * been set, through creation by this factory
+	 * Keeps track of the set of drivers that have already been set, through
+	 * creation by this factory. Concurrent, as drivers are registered by
+	 * whichever test thread first asks for them.
 	 */
-	private static ArrayList<DriverType> driversSet;
+	private static final Set<DriverType> driversSet = ConcurrentHashMap.newKeySet();
 	
 	/***
-	 * The internal instance of a singleton (private static this)
+	 * The internal instance of a singleton (private static this). Volatile so
+	 * that a thread which sees the instance also sees it fully constructed.
 	 */
-	private static NiceWebDriverFactory instance = null;
+	private static volatile NiceWebDriverFactory instance = null;
+	
+	/***
+	 * Held only while the singleton is first being constructed, so that
+	 * concurrent first calls to getFactory construct it exactly once. Once
+	 * the instance is published, getFactory never takes this lock.
+	 */
+	private static final Object instanceLock = new Object();
 	
 	/***
 	 * Instantiate the NiceWebDriverFactory singleton
 	 * @throws IOException 
 	 */
 	private NiceWebDriverFactory(String configFilePath){
-		driversSet = new ArrayList<DriverType>();
 		try {
 			domainConstants = new DomainConstants(configFilePath);
 		} catch (IOException e) {
 			domainConstants = null;
 			e.printStackTrace();
 		}
+		sessionPool = makeSessionPool();
+		nodeHealthMonitor = makeNodeHealthMonitor();
+		setRemoteSessionExecutionMode(domainConstants == null || domainConstants.execution == null ? ExecutionMode.Platform : domainConstants.execution.remoteSessionMode);
 	}
 	
 	/***
@@ -58,8 +78,10 @@ public class NiceWebDriverFactory {
 	 * @throws IOException 
 	 */
 	private NiceWebDriverFactory(DomainConstants domainConstantsIn){
-		driversSet = new ArrayList<DriverType>();
 		domainConstants = domainConstantsIn;
+		sessionPool = makeSessionPool();
+		nodeHealthMonitor = makeNodeHealthMonitor();
+		setRemoteSessionExecutionMode(domainConstants == null || domainConstants.execution == null ? ExecutionMode.Platform : domainConstants.execution.remoteSessionMode);
 	}
 	
 	/***
@@ -69,10 +91,17 @@ public class NiceWebDriverFactory {
 	 * @throws IOException 
 	 */
 	public static NiceWebDriverFactory getFactory(String configFilePath){
-		if(instance == null) {
-			instance = new NiceWebDriverFactory(configFilePath);
+		NiceWebDriverFactory factory = instance;
+		if(factory == null) {
+			synchronized(instanceLock) {
+				factory = instance;
+				if(factory == null) {
+					factory = new NiceWebDriverFactory(configFilePath);
+					instance = factory;
+				}
+			}
 		}
-		return instance;
+		return factory;
 	}
 	
 	/***
@@ -81,10 +110,17 @@ public class NiceWebDriverFactory {
 	 * @throws IOException 
 	 */
 	public static NiceWebDriverFactory getFactory(DomainConstants domainConstants){
-		if(instance == null) {
-			instance = new NiceWebDriverFactory(domainConstants);
+		NiceWebDriverFactory factory = instance;
+		if(factory == null) {
+			synchronized(instanceLock) {
+				factory = instance;
+				if(factory == null) {
+					factory = new NiceWebDriverFactory(domainConstants);
+					instance = factory;
+				}
+			}
 		}
-		return instance;
+		return factory;
 	}
 	
 	/***
@@ -93,10 +129,11 @@ public class NiceWebDriverFactory {
 	 * @throws FileNotFoundException 
 	 */
 	public static NiceWebDriverFactory getFactory() throws FileNotFoundException {
-		if(instance == null) {
+		NiceWebDriverFactory factory = instance;
+		if(factory == null) {
 			throw new FileNotFoundException("Before you can call the parameterless getFactory, you must call it once with path to the configuration file, or a reference to a staticly fielded DomainConstants");
 		}
-		return instance;
+		return factory;
 	}
 	
 ///////////////////////////////////////////////////////////////////////////////
@@ -111,7 +148,7 @@ public class NiceWebDriverFactory {
 	 * for nullity checking, to confirm that the class's constructor has been
 	 * called, thus appropriately assigning values to the static fields.
 	 */
-	private static DomainConstants domainConstants;
+	private static volatile DomainConstants domainConstants;
 	
 	/***
 	 * Get the DomainConstants field associated with the
@@ -132,7 +169,7 @@ public class NiceWebDriverFactory {
 	 * Determines whether the factory or instantiated NiceWebDriver's will
 	 * print verbose messages
 	 */
-	private static boolean outputIsVerbose = false;
+	private static volatile boolean outputIsVerbose = false;
 
 	/***
 	 * Get the verbosity
@@ -236,6 +273,315 @@ public class NiceWebDriverFactory {
 		return getNiceWebDriverInstanceForRemote(driverType,remoteAddress,waitSeconds);
 	}
 	
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Define the factory methods | Pooled sessions
+ */
+///////////////////////////////////////////////////////////////////////////////
+	
+	/***
+	 * The pool of warm sessions handed out by the checkout methods
+	 */
+	private final NiceWebDriverPool sessionPool;
+	
+	/***
+	 * Make the session pool, bounded by the "SessionPool.*" configuration if
+	 * the DomainConstants were read, otherwise a pool that keeps nothing
+	 * @return NiceWebDriverPool
+	 */
+	private NiceWebDriverPool makeSessionPool() {
+		if(domainConstants != null && domainConstants.sessionPool != null) {
+			return new NiceWebDriverPool(domainConstants.sessionPool.maxIdleSessionsPerKey);
+		} else {
+			return new NiceWebDriverPool(0);
+		}
+	}
+	
+	/***
+	 * Checks out a warm local NiceWebDriver of a specific DriverType, with
+	 * browser options specified by a string of option arguments, and a non
+	 * default number of seconds to wait for the presence of web elements,
+	 * only starting a new browser if the pool has no idle session for the
+	 * same arguments. Return it with checkinNiceWebDriver instead of closing.
+	 * @param driverType
+	 * @param optionArgs
+	 * @param waitSeconds
+	 * @return NiceWebDriver
+	 * @throws FileNotFoundException
+	 */
+	public NiceWebDriver checkoutNiceWebDriver(DriverType driverType, String optionArgs, int waitSeconds) throws FileNotFoundException {
+		setSystemPropertyWebDriver(driverType);
+		return checkoutFromSessionPool(NiceWebDriverPool.SessionKey.forLocal(driverType,optionArgs,waitSeconds),() -> getNiceWebDriverInstanceForDriver(driverType,optionArgs,waitSeconds));
+	}
+	
+	/***
+	 * Checks out a warm remote NiceWebDriver of a specific DriverType, with a
+	 * remote address specified by an URL, and a non default number of
+	 * seconds to wait for the presence of web elements, only starting a new
+	 * session if the pool has no idle session for the same arguments. Return
+	 * it with checkinNiceWebDriver instead of closing.
+	 * @param driverType
+	 * @param remoteAddress
+	 * @param waitSeconds
+	 * @return NiceWebDriver
+	 * @throws FileNotFoundException
+	 */
+	public NiceWebDriver checkoutNiceWebDriverRemote(DriverType driverType, URL remoteAddress, int waitSeconds) throws FileNotFoundException {
+		setSystemPropertyWebDriver(driverType);
+		return checkoutFromSessionPool(NiceWebDriverPool.SessionKey.forRemote(driverType,remoteAddress,waitSeconds),() -> getNiceWebDriverInstanceForRemote(driverType,remoteAddress,waitSeconds));
+	}
+	
+	/***
+	 * Returns a NiceWebDriver obtained from a checkout method to the pool.
+	 * The session's cookies and storage are cleared and its extra windows are
+	 * closed before it can be checked out again. If the pool is already full
+	 * for the session's arguments, or the session was not checked out of the
+	 * pool, it is quit instead.
+	 * @param nwd
+	 */
+	public void checkinNiceWebDriver(NiceWebDriver nwd) {
+		if(nwd != null) {
+			sessionPool.checkin(nwd);
+		}
+	}
+	
+	/***
+	 * Checks a session for the key out of the pool, applying the factory's
+	 * verbosity to it
+	 * @param key
+	 * @param constructor
+	 * @return NiceWebDriver
+	 */
+	private NiceWebDriver checkoutFromSessionPool(NiceWebDriverPool.SessionKey key, Supplier<NiceWebDriver> constructor) {
+		NiceWebDriver nwd = sessionPool.checkout(key,constructor);
+		return (nwd == null ? null : nwd.getThisWithVerbositySetTo(outputIsVerbose));
+	}
+	
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Define the factory methods | Asynchronous startup
+ */
+///////////////////////////////////////////////////////////////////////////////
+	
+	/***
+	 * Runs the local browser startups requested through the asynchronous
+	 * factory methods. Threads are daemons so an abandoned startup never
+	 * holds the JVM open.
+	 */
+	private static final ExecutorService startupExecutor = SessionThreads.newExecutor(ExecutionMode.Platform,"NiceWebDriverFactory-startup-");
+	
+	/***
+	 * Starts a local NiceWebDriver of a specific DriverType, with browser
+	 * options specified by a string of option arguments, and a non default
+	 * number of seconds to wait for the presence of web elements, without
+	 * blocking the calling thread on the browser's startup. The driver's
+	 * system path is set (and so FileNotFoundException thrown) synchronously.
+	 * @param driverType
+	 * @param optionArgs
+	 * @param waitSeconds
+	 * @return CompletableFuture of the NiceWebDriver
+	 * @throws FileNotFoundException
+	 */
+	public CompletableFuture<NiceWebDriver> getNiceWebDriverAsync(DriverType driverType, String optionArgs, int waitSeconds) throws FileNotFoundException {
+		setSystemPropertyWebDriver(driverType);
+		return CompletableFuture.supplyAsync(() -> getNiceWebDriverInstanceForDriver(driverType,optionArgs,waitSeconds),startupExecutor);
+	}
+	
+	/***
+	 * Starts a remote NiceWebDriver of a specific DriverType, with a remote
+	 * address specified by an URL, and a non default number of seconds to
+	 * wait for the presence of web elements, without blocking the calling
+	 * thread on the session's creation.
+	 * @param driverType
+	 * @param remoteAddress
+	 * @param waitSeconds
+	 * @return CompletableFuture of the NiceWebDriver
+	 * @throws FileNotFoundException
+	 */
+	public CompletableFuture<NiceWebDriver> getNiceWebDriverRemoteAsync(DriverType driverType, URL remoteAddress, int waitSeconds) throws FileNotFoundException {
+		setSystemPropertyWebDriver(driverType);
+		return CompletableFuture.supplyAsync(() -> getNiceWebDriverInstanceForRemote(driverType,remoteAddress,waitSeconds),remoteSessions);
+	}
+	
+	/***
+	 * The asynchronous equivalent of checkoutNiceWebDriver, which only starts
+	 * a browser in the background if the pool has no idle session.
+	 * @param driverType
+	 * @param optionArgs
+	 * @param waitSeconds
+	 * @return CompletableFuture of the NiceWebDriver
+	 * @throws FileNotFoundException
+	 */
+	public CompletableFuture<NiceWebDriver> checkoutNiceWebDriverAsync(DriverType driverType, String optionArgs, int waitSeconds) throws FileNotFoundException {
+		setSystemPropertyWebDriver(driverType);
+		NiceWebDriverPool.SessionKey key = NiceWebDriverPool.SessionKey.forLocal(driverType,optionArgs,waitSeconds);
+		return CompletableFuture.supplyAsync(() -> checkoutFromSessionPool(key,() -> getNiceWebDriverInstanceForDriver(driverType,optionArgs,waitSeconds)),startupExecutor);
+	}
+	
+	/***
+	 * The asynchronous equivalent of checkoutNiceWebDriverRemote, which only
+	 * starts a session in the background if the pool has no idle session.
+	 * @param driverType
+	 * @param remoteAddress
+	 * @param waitSeconds
+	 * @return CompletableFuture of the NiceWebDriver
+	 * @throws FileNotFoundException
+	 */
+	public CompletableFuture<NiceWebDriver> checkoutNiceWebDriverRemoteAsync(DriverType driverType, URL remoteAddress, int waitSeconds) throws FileNotFoundException {
+		setSystemPropertyWebDriver(driverType);
+		NiceWebDriverPool.SessionKey key = NiceWebDriverPool.SessionKey.forRemote(driverType,remoteAddress,waitSeconds);
+		return CompletableFuture.supplyAsync(() -> checkoutFromSessionPool(key,() -> getNiceWebDriverInstanceForRemote(driverType,remoteAddress,waitSeconds)),remoteSessions);
+	}
+	
+	/***
+	 * Start local sessions of a specific DriverType, option arguments and
+	 * wait seconds in the background, straight into the session pool, until
+	 * the pool holds (or is starting) the requested number of sessions, or
+	 * as many as it keeps idle, whichever is fewer. Later checkouts with the
+	 * same arguments then skip the browser's cold start.
+	 * @param driverType
+	 * @param optionArgs
+	 * @param waitSeconds
+	 * @param sessions
+	 * @return CompletableFuture that completes when the pool is warm
+	 * @throws FileNotFoundException
+	 */
+	public CompletableFuture<Void> warmNiceWebDriverPool(DriverType driverType, String optionArgs, int waitSeconds, int sessions) throws FileNotFoundException {
+		setSystemPropertyWebDriver(driverType);
+		return sessionPool.warm(NiceWebDriverPool.SessionKey.forLocal(driverType,optionArgs,waitSeconds),sessions,() -> getNiceWebDriverInstanceForDriver(driverType,optionArgs,waitSeconds),startupExecutor);
+	}
+	
+	/***
+	 * The remote equivalent of warmNiceWebDriverPool
+	 * @param driverType
+	 * @param remoteAddress
+	 * @param waitSeconds
+	 * @param sessions
+	 * @return CompletableFuture that completes when the pool is warm
+	 * @throws FileNotFoundException
+	 */
+	public CompletableFuture<Void> warmNiceWebDriverPoolRemote(DriverType driverType, URL remoteAddress, int waitSeconds, int sessions) throws FileNotFoundException {
+		setSystemPropertyWebDriver(driverType);
+		return sessionPool.warm(NiceWebDriverPool.SessionKey.forRemote(driverType,remoteAddress,waitSeconds),sessions,() -> getNiceWebDriverInstanceForRemote(driverType,remoteAddress,waitSeconds),remoteSessions);
+	}
+	
+	/***
+	 * Wait for an asynchronously started NiceWebDriver, rethrowing whatever
+	 * the startup threw (such as a WebDriverException) rather than the
+	 * CompletionException that wraps it.
+	 * @param startup
+	 * @return NiceWebDriver
+	 */
+	public static NiceWebDriver joinNiceWebDriver(CompletableFuture<NiceWebDriver> startup) {
+		try {
+			return startup.join();
+		} catch (CompletionException e) {
+			if(e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			} else if(e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw e;
+		}
+	}
+	
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Define the factory methods | Remote session flows
+ */
+///////////////////////////////////////////////////////////////////////////////
+	
+	/***
+	 * Runs the remote session startups and remote session flows, on threads
+	 * chosen by the remote session ExecutionMode
+	 */
+	private volatile ExecutorService remoteSessionExecutor = startupExecutor;
+	
+	/***
+	 * The ExecutionMode remoteSessionExecutor was made for
+	 */
+	private volatile ExecutionMode remoteSessionMode = ExecutionMode.Platform;
+	
+	/***
+	 * Hands each remote session task to the current remoteSessionExecutor,
+	 * or, if the ExecutionMode changed and shut that executor down between
+	 * reading it and handing it the task, to the one that replaced it
+	 */
+	private final Executor remoteSessions = task -> {
+		while(true) {
+			ExecutorService executor = remoteSessionExecutor;
+			try {
+				executor.execute(task);
+				return;
+			} catch (RejectedExecutionException e) {
+				if(executor == remoteSessionExecutor) {
+					throw e;
+				}
+			}
+		}
+	};
+	
+	/***
+	 * Get the ExecutionMode of remote session startups and flows
+	 * @return
+	 */
+	public ExecutionMode getRemoteSessionExecutionMode() {
+		return remoteSessionMode;
+	}
+	
+	/***
+	 * Sets which threads later remote session startups and flows run on,
+	 * which is first set by "Execution.RemoteSessionMode". In Virtual mode,
+	 * every remote session startup and flow gets its own virtual thread, if
+	 * the JVM has them, so that driving hundreds of remote sessions does not
+	 * take hundreds of platform threads. The new executor is put in place
+	 * before the previous one is shut down, which lets the startups and
+	 * flows already handed to it finish on the threads they started on;
+	 * one handed to it as it shuts down runs on the new executor instead.
+	 * @param executionMode
+	 */
+	public synchronized void setRemoteSessionExecutionMode(ExecutionMode executionMode) {
+		if(executionMode == remoteSessionMode && remoteSessionExecutor != null) {
+			return;
+		}
+		ExecutorService previous = remoteSessionExecutor;
+		remoteSessionExecutor = (executionMode == ExecutionMode.Platform ? startupExecutor : SessionThreads.newExecutor(executionMode,"NiceWebDriverFactory-remote-"));
+		remoteSessionMode = executionMode;
+		if(previous != startupExecutor) {
+			previous.shutdown();
+		}
+	}
+	
+	/***
+	 * Checks out a remote NiceWebDriver and runs a flow against it, such as
+	 * the steps of a test, on a thread of the remote session ExecutionMode,
+	 * checking the session back in when the flow ends, however it ends. The
+	 * flow's blocking round trips, waits for web elements and sleeps between
+	 * actions then hold a virtual thread rather than a platform thread, when
+	 * the mode is Virtual.
+	 * @param driverType
+	 * @param remoteAddress
+	 * @param waitSeconds
+	 * @param flow
+	 * @return CompletableFuture of the flow's result
+	 * @throws FileNotFoundException
+	 */
+	public <T> CompletableFuture<T> runRemoteSessionFlow(DriverType driverType, URL remoteAddress, int waitSeconds, Function<NiceWebDriver,T> flow) throws FileNotFoundException {
+		setSystemPropertyWebDriver(driverType);
+		NiceWebDriverPool.SessionKey key = NiceWebDriverPool.SessionKey.forRemote(driverType,remoteAddress,waitSeconds);
+		return CompletableFuture.supplyAsync(() -> {
+			NiceWebDriver nwd = checkoutFromSessionPool(key,() -> getNiceWebDriverInstanceForRemote(driverType,remoteAddress,waitSeconds));
+			if(nwd == null) {
+				throw new WebDriverException("The driver extensions "+driverType.toString()+" is currently not implemented");
+			}
+			try {
+				return flow.apply(nwd);
+			} finally {
+				checkinNiceWebDriver(nwd);
+			}
+		},remoteSessions);
+	}
+	
 ///////////////////////////////////////////////////////////////////////////////
 /*
  * Define the factory methods | Internal Switch Cases | Local
@@ -289,6 +635,9 @@ public class NiceWebDriverFactory {
 	 */
 	private NiceWebDriver getNiceWebDriverInstanceForRemote(DriverType driverType, URL remoteAddress, int waitSeconds) {
 		Object[] oArgs = getUnderloadedConstructorArrayForRemote(remoteAddress,waitSeconds);
+		if(remoteAddress != null) {
+			return getNiceWebDriverInstanceThroughBreaker(driverType,remoteAddress,oArgs);
+		}
 		return getNiceWebDriverInstance(driverType,oArgs);
 	}
 
@@ -310,12 +659,116 @@ public class NiceWebDriverFactory {
 		return oArgs;
 	}
 	
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Define the factory methods | Remote node health
+ */
+///////////////////////////////////////////////////////////////////////////////
+	
+	/***
+	 * Probes the remote nodes sessions are started on, so that sessions are
+	 * refused at once on a node that is down, rather than each one waiting
+	 * for the HTTP timeout
+	 */
+	private final RemoteNodeHealthMonitor nodeHealthMonitor;
+	
+	/***
+	 * Make the node health monitor, configured by the "NodeHealth.*"
+	 * configuration if the DomainConstants were read, otherwise by defaults
+	 * @return RemoteNodeHealthMonitor
+	 */
+	private RemoteNodeHealthMonitor makeNodeHealthMonitor() {
+		if(domainConstants != null && domainConstants.nodeHealth != null) {
+			DomainConstants.NodeHealth nodeHealth = domainConstants.nodeHealth;
+			return new RemoteNodeHealthMonitor(nodeHealth.probeIntervalMilliSeconds,nodeHealth.probeTimeoutMilliSeconds,nodeHealth.failureThreshold,nodeHealth.openMilliSeconds);
+		} else {
+			return new RemoteNodeHealthMonitor(2000,1000,2,10000);
+		}
+	}
+	
+	/***
+	 * Begin probing the health of a remote node at a status endpoint, or at
+	 * the node URL followed by "/status" if statusUrl is null. Every remote
+	 * address a session is started on is monitored at its default status
+	 * endpoint anyway, so this is only needed to probe a node before its
+	 * first session, or at a different endpoint.
+	 * @param nodeUrl
+	 * @param statusUrl
+	 */
+	public void monitorRemoteNode(URL nodeUrl, URL statusUrl) {
+		if(nodeUrl != null) {
+			nodeHealthMonitor.monitor(nodeUrl,statusUrl);
+		}
+	}
+	
+	/***
+	 * Is the remote node believed to be able to start sessions? Nodes that
+	 * are not monitored are assumed to be healthy.
+	 * @param nodeUrl
+	 * @return
+	 */
+	public boolean isRemoteNodeHealthy(URL nodeUrl) {
+		return (nodeUrl == null || nodeHealthMonitor.isHealthy(nodeUrl));
+	}
+	
+	/***
+	 * Start a remote session through the node's circuit breaker. If the node
+	 * is known to be down, a WebDriverException is thrown without contacting
+	 * it; otherwise the outcome of starting it is recorded on its breaker, so
+	 * that a node which answers its health checks, but fails to start
+	 * sessions for any reason, still trips it, and a failed trial of a half
+	 * open breaker opens it again.
+	 * @param driverType
+	 * @param remoteAddress
+	 * @param oArgs
+	 * @return NiceWebDriver
+	 */
+	private NiceWebDriver getNiceWebDriverInstanceThroughBreaker(DriverType driverType, URL remoteAddress, Object[] oArgs) {
+		nodeHealthMonitor.monitor(remoteAddress);
+		if(!nodeHealthMonitor.allowSession(remoteAddress)) {
+			throw new WebDriverException("The remote node at "+remoteAddress+" is failing its health checks, so no session was started on it");
+		}
+		NiceWebDriver nwd = null;
+		try {
+			nwd = getNiceWebDriverInstance(driverType,oArgs);
+			return nwd;
+		} finally {
+			if(nwd == null) {
+				nodeHealthMonitor.recordFailure(remoteAddress);
+			} else {
+				nodeHealthMonitor.recordSuccess(remoteAddress);
+			}
+		}
+	}
+	
 ///////////////////////////////////////////////////////////////////////////////
 /*
  * Define the factory methods | Internal Switch Cases | Both
  */
 ///////////////////////////////////////////////////////////////////////////////
 
+	/***
+	 * Argumentless NiceWebDriver instances registered to be used in place of
+	 * the built in subclass for a DriverType
+	 */
+	private final ConcurrentHashMap<DriverType,NiceWebDriver> registeredPrototypes = new ConcurrentHashMap<DriverType,NiceWebDriver>();
+	
+	/***
+	 * Register an argumentless instance of a NiceWebDriver subclass, whose
+	 * UnderloadedNiceWebDriverConstructor will be used to make every
+	 * NiceWebDriver of the DriverType, in place of the built in subclass.
+	 * The driver's system path must still be configured and exist. This is
+	 * the hook through which the tests put a stub in place of a browser; as
+	 * the factory is a singleton, the prototype is used by every caller of
+	 * the factory from then on, so it is meant for a JVM that only runs
+	 * against the stub.
+	 * @param driverType
+	 * @param prototype
+	 */
+	public void registerNiceWebDriverPrototype(DriverType driverType, NiceWebDriver prototype) {
+		registeredPrototypes.put(driverType,prototype);
+	}
+	
 	/***
 	 * Handles the switch case of handing the Object[] to the method
 	 * UnderloadedNiceChromeDriverConstructor, switching on the driver type
@@ -324,9 +777,13 @@ public class NiceWebDriverFactory {
 	 * @return NiceWebDriver
 	 */
 	private NiceWebDriver getNiceWebDriverInstance(DriverType driverType, Object[] oArgs){
+		NiceWebDriver prototype = registeredPrototypes.get(driverType);
+		if(prototype != null) {
+			return tagWithDriverType(prototype.UnderloadedNiceWebDriverConstructor(oArgs),driverType);
+		}
 		switch(driverType) {
 			case Chrome:
-				return new NiceChrome().UnderloadedNiceWebDriverConstructor(oArgs).getThisWithVerbositySetTo(outputIsVerbose);
+				return tagWithDriverType(new NiceChrome().UnderloadedNiceWebDriverConstructor(oArgs),driverType);
 			case Firefox:
 				return null; //TODO: Make Firefox subclass
 			case IE:
@@ -350,6 +807,23 @@ public class NiceWebDriverFactory {
 		}
 	}
 	
+	/***
+	 * Tag the latencies of a new NiceWebDriver's commands with its DriverType,
+	 * and set its verbosity; or return null if no NiceWebDriver was made
+	 * @param nwd
+	 * @param driverType
+	 * @return NiceWebDriver
+	 */
+	private static NiceWebDriver tagWithDriverType(NiceWebDriver nwd, DriverType driverType) {
+		if(nwd == null) {
+			return null;
+		}
+		if(nwd.getCommandMetrics() != null) {
+			nwd.getCommandMetrics().setDriverType(driverType);
+		}
+		return nwd.getThisWithVerbositySetTo(outputIsVerbose);
+	}
+	
 	/***
 	 * Maps a DriverType enum value K to the DesiredCapabilities required to
 	 * make a RemoteWebDriver
@@ -385,7 +859,7 @@ public class NiceWebDriverFactory {
 	 */
 	private void setSystemPropertyWebDriver(DriverType driverType) throws FileNotFoundException, NullPointerException {
 		if(domainConstants != null) {
-			String driverPath = DomainConstants.webDriverSystemPaths.get(driverType);
+			String driverPath = DomainConstants.current().webDriverSystemPaths.get(driverType);
 			setSystemPropertyWebDriver(driverType, driverPath);
 		} else {
 			throw new NullPointerException("The NiceWebDriverFactory has been accessed in a way that did not satisfactorially assign value to the static fields of the DomainConstants class");
@@ -403,6 +877,7 @@ public class NiceWebDriverFactory {
 	 */
 	private void setSystemPropertyWebDriver(DriverType driverType, String driverPath) throws FileNotFoundException, NullPointerException {
 		if(webDriverSystemProperties.get(driverType) != null) {
+			// Two threads may both set the property, but to the same path
 			if(!driversSet.contains(driverType)) {
 				if((new File(driverPath)).exists()) {
 					System.setProperty(webDriverSystemProperties.get(driverType),driverPath);
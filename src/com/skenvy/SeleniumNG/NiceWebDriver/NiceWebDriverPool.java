@@ -0,0 +1,312 @@
+package com.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.openqa.selenium.WebDriverException;
+
+/***
+ * A bounded pool of warm NiceWebDriver sessions, owned by the
+ * NiceWebDriverFactory. Sessions are keyed on everything that was used to
+ * construct them (DriverType, option arguments, local or remote, the remote
+ * URL, and the wait seconds), so a session checked out of the pool is
+ * indistinguishable from one freshly made by the factory, other than having
+ * skipped the browser's cold start. Sessions are sanitised as they are
+ * checked back in, and any that fail to sanitise are quit rather than pooled.
+ * The factory's own pool is only reached through its checkout, checkin and
+ * warm methods; a pool constructed on its own is independent of it, which is
+ * how the pool is tested.
+ */
+public final class NiceWebDriverPool {
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Pool state
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * The sanitised sessions waiting to be checked out, per key. The most
+	 * recently checked in session is at the head of each deque.
+	 */
+	private final ConcurrentHashMap<SessionKey,Deque<NiceWebDriver>> idleSessions = new ConcurrentHashMap<SessionKey,Deque<NiceWebDriver>>();
+
+	/***
+	 * The sessions currently checked out, mapped to the key they belong to.
+	 * NiceWebDriver does not override equals, so this is keyed on identity.
+	 */
+	private final ConcurrentHashMap<NiceWebDriver,SessionKey> leasedSessions = new ConcurrentHashMap<NiceWebDriver,SessionKey>();
+
+	/***
+	 * How many sessions are being started by warm, per key
+	 */
+	private final ConcurrentHashMap<SessionKey,AtomicInteger> warmingSessions = new ConcurrentHashMap<SessionKey,AtomicInteger>();
+
+	/***
+	 * The startups of warm that have not finished yet, per key, each removed
+	 * as it finishes, so one that failed fails no later warm up of its key
+	 */
+	private final ConcurrentHashMap<SessionKey,Set<CompletableFuture<Void>>> warmups = new ConcurrentHashMap<SessionKey,Set<CompletableFuture<Void>>>();
+
+	/***
+	 * How many idle sessions to keep per key, beyond which checked in
+	 * sessions are quit
+	 */
+	private final int maxIdleSessionsPerKey;
+
+	/***
+	 * Construct a pool that keeps at most maxIdleSessionsPerKey sessions warm
+	 * for each key, and that quits every idle session when the JVM exits.
+	 * @param maxIdleSessionsPerKey
+	 */
+	public NiceWebDriverPool(int maxIdleSessionsPerKey) {
+		this.maxIdleSessionsPerKey = maxIdleSessionsPerKey;
+		Runtime.getRuntime().addShutdownHook(new Thread(this::quitAllIdleSessions,"NiceWebDriverPool-shutdown"));
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Checkout and checkin
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * Take a warm session for the key out of the pool, or if there is none
+	 * (or none that is still alive), make a new one with the constructor.
+	 * @param key
+	 * @param constructor
+	 * @return NiceWebDriver, or null if the constructor returns null
+	 */
+	public NiceWebDriver checkout(SessionKey key, Supplier<NiceWebDriver> constructor) {
+		Deque<NiceWebDriver> idle = idleSessions.get(key);
+		NiceWebDriver nwd = null;
+		while(idle != null && nwd == null) {
+			nwd = idle.pollFirst();
+			if(nwd == null) {
+				break;
+			} else if(!nwd.isSessionAlive()) {
+				quitQuietly(nwd);
+				nwd = null;
+			}
+		}
+		if(nwd == null) {
+			nwd = constructor.get();
+			if(nwd == null) {
+				return null;
+			}
+		}
+		leasedSessions.put(nwd,key);
+		return nwd;
+	}
+
+	/***
+	 * Return a session to the pool. The session is sanitised, and kept if
+	 * there is room for it under its key, otherwise it is quit. Sessions that
+	 * did not come from this pool, or fail to sanitise, are quit.
+	 * @param nwd
+	 */
+	public void checkin(NiceWebDriver nwd) {
+		SessionKey key = leasedSessions.remove(nwd);
+		if(key == null || maxIdleSessionsPerKey < 1) {
+			quitQuietly(nwd);
+			return;
+		}
+		try {
+			nwd.sanitiseSession();
+		} catch (WebDriverException e) {
+			nwd.getEventLog().log(LogLevel.Warn,"Failed to sanitise a pooled session, it will be quit instead of reused | {}",e.getMessage());
+			quitQuietly(nwd);
+			return;
+		}
+		offerIdle(key,nwd);
+	}
+
+	/***
+	 * Start sessions for the key on the executor until the sessions that are
+	 * idle or already being started reach the target, bounded by the
+	 * maximum idle sessions per key, and put them straight into the pool.
+	 * @param key
+	 * @param target
+	 * @param constructor
+	 * @param executor
+	 * @return CompletableFuture that completes when the startups of this
+	 * call, and those of the key still running when it was made, have
+	 * finished, exceptionally if any of them failed
+	 * @throws RejectedExecutionException if the executor refuses a startup,
+	 * which gives back its place among those being started
+	 */
+	public CompletableFuture<Void> warm(SessionKey key, int target, Supplier<NiceWebDriver> constructor, Executor executor) {
+		int cap = Math.min(target,maxIdleSessionsPerKey);
+		Deque<NiceWebDriver> idle = idleSessions.computeIfAbsent(key,k -> new ConcurrentLinkedDeque<NiceWebDriver>());
+		AtomicInteger warming = warmingSessions.computeIfAbsent(key,k -> new AtomicInteger());
+		Set<CompletableFuture<Void>> running = warmups.computeIfAbsent(key,k -> ConcurrentHashMap.<CompletableFuture<Void>>newKeySet());
+		List<CompletableFuture<Void>> startups = new ArrayList<CompletableFuture<Void>>(running);
+		int warmingCount;
+		// Bounded by the cap too, as a startup that fails at once frees its place
+		for(int started = 0; started < cap && (warmingCount = warming.get()) + idle.size() < cap;) {
+			if(warming.compareAndSet(warmingCount,warmingCount+1)) {
+				started++;
+				CompletableFuture<Void> startup;
+				try {
+					startup = CompletableFuture.runAsync(() -> {
+						try {
+							NiceWebDriver nwd = constructor.get();
+							if(nwd != null) {
+								offerIdle(key,nwd);
+							}
+						} finally {
+							warming.decrementAndGet();
+						}
+					},executor);
+				} catch (RejectedExecutionException e) {
+					warming.decrementAndGet();
+					throw e;
+				}
+				running.add(startup);
+				startup.whenComplete((ignored,failure) -> running.remove(startup));
+				startups.add(startup);
+			}
+		}
+		return CompletableFuture.allOf(startups.toArray(new CompletableFuture<?>[startups.size()]));
+	}
+
+	/***
+	 * Put a sanitised or fresh session into the pool for its key, quitting
+	 * the least recently used sessions beyond the maximum idle sessions
+	 * @param key
+	 * @param nwd
+	 */
+	private void offerIdle(SessionKey key, NiceWebDriver nwd) {
+		Deque<NiceWebDriver> idle = idleSessions.computeIfAbsent(key,k -> new ConcurrentLinkedDeque<NiceWebDriver>());
+		idle.offerFirst(nwd);
+		while(idle.size() > maxIdleSessionsPerKey) {
+			NiceWebDriver surplus = idle.pollLast();
+			if(surplus != null) {
+				quitQuietly(surplus);
+			}
+		}
+	}
+
+	/***
+	 * Quit every session that is waiting in the pool. Sessions that are
+	 * checked out are left alone.
+	 */
+	public void quitAllIdleSessions() {
+		for(Deque<NiceWebDriver> idle : idleSessions.values()) {
+			NiceWebDriver nwd;
+			while((nwd = idle.pollFirst()) != null) {
+				quitQuietly(nwd);
+			}
+		}
+	}
+
+	/***
+	 * Quit a session, ignoring a failure to do so, as a session that can not
+	 * be quit is already unusable.
+	 * @param nwd
+	 */
+	private static void quitQuietly(NiceWebDriver nwd) {
+		try {
+			nwd.quitWebDriver();
+		} catch (WebDriverException e) {
+			nwd.getEventLog().log(LogLevel.Warn,"Failed to quit a pooled session: {}",e.getMessage());
+		}
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Keys
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * Identifies which sessions are interchangeable with each other.
+	 */
+	public static final class SessionKey {
+
+		/***
+		 * What is the DriverType?
+		 */
+		private final DriverType driverType;
+		/***
+		 * Was the session made locally?
+		 */
+		private final boolean local;
+		/***
+		 * The browser option arguments of a local session, or the external
+		 * form of the remote URL of a remote session (URL.equals resolves
+		 * hosts, so the URL itself is not used as part of the key)
+		 */
+		private final String target;
+		/***
+		 * How many seconds the session waits for the presence of web elements
+		 */
+		private final int waitSeconds;
+
+		private SessionKey(DriverType driverType, boolean local, String target, int waitSeconds) {
+			this.driverType = driverType;
+			this.local = local;
+			this.target = (target == null ? "" : target);
+			this.waitSeconds = waitSeconds;
+		}
+
+		/***
+		 * The key of a local session
+		 * @param driverType
+		 * @param optionArgs
+		 * @param waitSeconds
+		 * @return
+		 */
+		public static SessionKey forLocal(DriverType driverType, String optionArgs, int waitSeconds) {
+			return new SessionKey(driverType,true,optionArgs,waitSeconds);
+		}
+
+		/***
+		 * The key of a remote session
+		 * @param driverType
+		 * @param remoteAddress
+		 * @param waitSeconds
+		 * @return
+		 */
+		public static SessionKey forRemote(DriverType driverType, URL remoteAddress, int waitSeconds) {
+			return new SessionKey(driverType,false,(remoteAddress == null ? null : remoteAddress.toExternalForm()),waitSeconds);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if(this == o) {
+				return true;
+			}
+			if(!(o instanceof SessionKey)) {
+				return false;
+			}
+			SessionKey other = (SessionKey) o;
+			return (driverType == other.driverType && local == other.local && waitSeconds == other.waitSeconds && target.equals(other.target));
+		}
+
+		@Override
+		public int hashCode() {
+			int hash = driverType.hashCode();
+			hash = 31*hash + (local ? 1 : 0);
+			hash = 31*hash + target.hashCode();
+			return 31*hash + waitSeconds;
+		}
+
+		@Override
+		public String toString() {
+			return driverType+(local ? " local " : " remote ")+"\""+target+"\" "+waitSeconds+"s";
+		}
+
+	}
+
+}
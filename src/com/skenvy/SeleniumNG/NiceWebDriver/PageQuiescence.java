@@ -0,0 +1,136 @@
+package com.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.util.Map;
+
+/***
+ * The script a NiceWebDriver runs to decide whether the page has gone
+ * quiet, and the reading of its result. The NiceWebDriver runs it as soon
+ * as it has opened a page, and its first run on each document instruments
+ * the page, wrapping fetch, XMLHttpRequest.send and short setTimeouts to
+ * count what is still in flight. A timer set from within a counted timer's
+ * callback is not counted, so that a timer that re-arms itself, as polling
+ * and animation loops do, does not keep the page from ever being quiet.
+ * Every run reports:
+ * the document's readyState; the requests and short timers pending; how
+ * long since any of them last started or settled; whether every Angular
+ * testability (or the AngularJS $http service) is stable; and whether the
+ * main thread has been idle since the last run, which is when React and
+ * most other frameworks have finished rendering. Requests already in
+ * flight when the page is first instrumented are not counted.
+ */
+final class PageQuiescence {
+
+	private PageQuiescence() {}
+
+	/***
+	 * Timers longer than this many milliseconds are treated as polling or
+	 * deferred work, rather than part of the page settling
+	 */
+	static final int SHORT_TIMER_MILLISECONDS = 1000;
+
+	/***
+	 * How many milliseconds the page must have started or settled nothing
+	 * for, by default, to be quiescent
+	 */
+	static final long DEFAULT_QUIET_MILLISECONDS = 50;
+
+	/***
+	 * How many milliseconds, by default, to wait for the page to go quiet,
+	 * if the NiceWebDriver's wait is longer
+	 */
+	static final long DEFAULT_TIMEOUT_MILLISECONDS = 2000;
+
+	/***
+	 * Instruments the page if it is not yet, and returns its state as a map.
+	 * arguments[0] is how many milliseconds the page must have been quiet.
+	 */
+	static final String INSTRUMENT_AND_CHECK_SCRIPT = ""
+			+ "var w = window, quietMillis = arguments[0];"
+			+ "var q = w.__seleniumNGQuiescence;"
+			+ "if (!q) {"
+			+ "  q = w.__seleniumNGQuiescence = { requests: 0, timers: 0, inTimer: false, lastActivity: Date.now(), idle: false };"
+			+ "  var touch = function() { q.lastActivity = Date.now(); };"
+			+ "  if (w.fetch) {"
+			+ "    var originalFetch = w.fetch;"
+			+ "    w.fetch = function() {"
+			+ "      q.requests++; touch();"
+			+ "      var settled = false, settle = function() { if (!settled) { settled = true; q.requests--; touch(); } };"
+			+ "      try { var p = originalFetch.apply(w, arguments); p.then(settle, settle); return p; }"
+			+ "      catch (e) { settle(); throw e; }"
+			+ "    };"
+			+ "  }"
+			+ "  if (w.XMLHttpRequest) {"
+			+ "    var originalSend = w.XMLHttpRequest.prototype.send;"
+			+ "    w.XMLHttpRequest.prototype.send = function() {"
+			+ "      q.requests++; touch();"
+			+ "      var settled = false, settle = function() { if (!settled) { settled = true; q.requests--; touch(); } };"
+			+ "      this.addEventListener('loadend', settle);"
+			+ "      try { return originalSend.apply(this, arguments); }"
+			+ "      catch (e) { settle(); throw e; }"
+			+ "    };"
+			+ "  }"
+			+ "  var originalSetTimeout = w.setTimeout, originalClearTimeout = w.clearTimeout, pendingTimers = {};"
+			+ "  w.setTimeout = function(callback, delay) {"
+			+ "    var args = Array.prototype.slice.call(arguments);"
+			+ "    if (typeof callback !== 'function' || (delay || 0) > " + SHORT_TIMER_MILLISECONDS + " || q.inTimer) { return originalSetTimeout.apply(w, args); }"
+			+ "    var id, settled = false, settle = function() { if (!settled) { settled = true; q.timers--; delete pendingTimers[id]; touch(); } };"
+			+ "    args[0] = function() { q.inTimer = true; try { return callback.apply(this, arguments); } finally { q.inTimer = false; settle(); } };"
+			+ "    q.timers++; touch();"
+			+ "    id = originalSetTimeout.apply(w, args); pendingTimers[id] = settle; return id;"
+			+ "  };"
+			+ "  w.clearTimeout = function(id) { if (pendingTimers[id]) { pendingTimers[id](); } return originalClearTimeout.apply(w, arguments); };"
+			+ "}"
+			+ "var frameworksStable = true;"
+			+ "try {"
+			+ "  if (w.getAllAngularTestabilities) {"
+			+ "    frameworksStable = w.getAllAngularTestabilities().every(function(t) { return t.isStable(); });"
+			+ "  } else if (w.angular && w.angular.element) {"
+			+ "    var injector = w.angular.element(document.body).injector();"
+			+ "    if (injector) { frameworksStable = injector.get('$http').pendingRequests.length === 0; }"
+			+ "  }"
+			+ "} catch (e) {}"
+			+ "var idle = q.idle; q.idle = false;"
+			+ "var markIdle = function() { q.idle = true; };"
+			+ "if (w.requestIdleCallback) { w.requestIdleCallback(markIdle); } else { idle = true; }"
+			+ "var quietFor = Date.now() - q.lastActivity;"
+			+ "return {"
+			+ "  quiescent: document.readyState === 'complete' && q.requests <= 0 && q.timers <= 0 && frameworksStable && idle && quietFor >= quietMillis,"
+			+ "  readyState: document.readyState, requests: q.requests, timers: q.timers,"
+			+ "  frameworksStable: frameworksStable, idle: idle, quietMilliSeconds: quietFor"
+			+ "};";
+
+	/***
+	 * Whether the state returned by the script is quiescent. A page that
+	 * could not report its state is treated as quiescent, so that it is not
+	 * waited on for nothing.
+	 * @param state
+	 * @return
+	 */
+	static boolean isQuiescent(Object state) {
+		if(!(state instanceof Map)) {
+			return true;
+		}
+		return Boolean.TRUE.equals(((Map<?,?>) state).get("quiescent"));
+	}
+
+	/***
+	 * The state returned by the script, for verbose messages
+	 * @param state
+	 * @return
+	 */
+	static String describe(Object state) {
+		if(!(state instanceof Map)) {
+			return "unreported";
+		}
+		Map<?,?> stateMap = (Map<?,?>) state;
+		return "readyState="+stateMap.get("readyState")
+				+", requests="+stateMap.get("requests")
+				+", timers="+stateMap.get("timers")
+				+", frameworksStable="+stateMap.get("frameworksStable")
+				+", idle="+stateMap.get("idle")
+				+", quietMilliSeconds="+stateMap.get("quietMilliSeconds");
+	}
+
+	static final NiceScript INSTRUMENT_AND_CHECK = NiceScript.define("seleniumNG.pageQuiescence",INSTRUMENT_AND_CHECK_SCRIPT);
+
+}
@@ -0,0 +1,312 @@
+package com.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/***
+ * Probes the status endpoint of every monitored remote node in the
+ * background, and feeds the results, along with the outcome of every attempt
+ * to start a session on the node, into a circuit breaker per node. While a
+ * node's breaker is open the NiceWebDriverFactory refuses to start sessions
+ * on it at once, instead of each attempt blocking until the HTTP timeout.
+ */
+public class RemoteNodeHealthMonitor {
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Monitor state
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * The circuit breaker of every monitored node, keyed on the external form
+	 * of the node URL (URL.equals resolves hosts, so it is not used as a key)
+	 */
+	private final ConcurrentHashMap<String,CircuitBreaker> breakers = new ConcurrentHashMap<String,CircuitBreaker>();
+
+	/***
+	 * Runs the probes. Threads are daemons so probing never holds the JVM open.
+	 */
+	private final ScheduledExecutorService prober = Executors.newScheduledThreadPool(2,new ThreadFactory() {
+		private final AtomicInteger threadCount = new AtomicInteger();
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r,"RemoteNodeHealthMonitor-probe-"+threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	/***
+	 * Milliseconds between the end of one probe of a node and the next
+	 */
+	private final int probeIntervalMilliSeconds;
+	/***
+	 * Milliseconds to wait to connect to, and then read from, a status endpoint
+	 */
+	private final int probeTimeoutMilliSeconds;
+	/***
+	 * Consecutive failures that open a node's breaker
+	 */
+	private final int failureThreshold;
+	/***
+	 * Milliseconds a breaker stays open before allowing a trial session
+	 */
+	private final int openMilliSeconds;
+
+	/***
+	 * Construct a monitor. Nothing is probed until a node is monitored.
+	 * @param probeIntervalMilliSeconds
+	 * @param probeTimeoutMilliSeconds
+	 * @param failureThreshold
+	 * @param openMilliSeconds
+	 */
+	public RemoteNodeHealthMonitor(int probeIntervalMilliSeconds, int probeTimeoutMilliSeconds, int failureThreshold, int openMilliSeconds) {
+		this.probeIntervalMilliSeconds = probeIntervalMilliSeconds;
+		this.probeTimeoutMilliSeconds = probeTimeoutMilliSeconds;
+		this.failureThreshold = failureThreshold;
+		this.openMilliSeconds = openMilliSeconds;
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Monitoring nodes
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * Begin probing a node at its default status endpoint, the node URL
+	 * followed by "/status" (such as http://hub:4444/wd/hub/status). Nodes
+	 * that are already monitored keep their current endpoint.
+	 * @param nodeUrl
+	 */
+	public void monitor(URL nodeUrl) {
+		monitor(nodeUrl,null);
+	}
+
+	/***
+	 * Begin probing a node at a status endpoint, or its default status
+	 * endpoint if statusUrl is null. Nodes that are already monitored keep
+	 * their current endpoint.
+	 * @param nodeUrl
+	 * @param statusUrl
+	 */
+	public void monitor(URL nodeUrl, URL statusUrl) {
+		String key = nodeUrl.toExternalForm();
+		if(breakers.containsKey(key)) {
+			return;
+		}
+		CircuitBreaker breaker = new CircuitBreaker(failureThreshold,openMilliSeconds);
+		if(breakers.putIfAbsent(key,breaker) == null) {
+			URL probedUrl = (statusUrl == null ? getDefaultStatusUrl(nodeUrl) : statusUrl);
+			prober.scheduleWithFixedDelay(() -> probe(probedUrl,breaker),0,probeIntervalMilliSeconds,TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/***
+	 * Stop probing every node
+	 */
+	public void shutdown() {
+		prober.shutdownNow();
+	}
+
+	/***
+	 * The node URL followed by "/status"
+	 * @param nodeUrl
+	 * @return
+	 */
+	private static URL getDefaultStatusUrl(URL nodeUrl) {
+		String nodeUrlString = nodeUrl.toExternalForm();
+		if(nodeUrlString.endsWith("/")) {
+			nodeUrlString = nodeUrlString.substring(0,nodeUrlString.length()-1);
+		}
+		try {
+			return new URL(nodeUrlString+"/status");
+		} catch (MalformedURLException e) {
+			throw new IllegalArgumentException("Can not derive a status URL from the node URL "+nodeUrl,e);
+		}
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Admission and outcomes
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * May a new session be started on the node? Nodes that are not monitored
+	 * are always admitted.
+	 * @param nodeUrl
+	 * @return
+	 */
+	public boolean allowSession(URL nodeUrl) {
+		CircuitBreaker breaker = breakers.get(nodeUrl.toExternalForm());
+		return (breaker == null || breaker.allowRequest());
+	}
+
+	/***
+	 * Is the node's breaker closed? Unlike allowSession, this never lets a
+	 * trial session through an open breaker, so it is suitable for choosing
+	 * between nodes. Nodes that are not monitored are healthy.
+	 * @param nodeUrl
+	 * @return
+	 */
+	public boolean isHealthy(URL nodeUrl) {
+		CircuitBreaker breaker = breakers.get(nodeUrl.toExternalForm());
+		return (breaker == null || breaker.getState() == CircuitBreaker.State.CLOSED);
+	}
+
+	/***
+	 * Record that a session was started on the node
+	 * @param nodeUrl
+	 */
+	public void recordSuccess(URL nodeUrl) {
+		CircuitBreaker breaker = breakers.get(nodeUrl.toExternalForm());
+		if(breaker != null) {
+			breaker.recordSuccess();
+		}
+	}
+
+	/***
+	 * Record that the node could not be reached to start a session
+	 * @param nodeUrl
+	 */
+	public void recordFailure(URL nodeUrl) {
+		CircuitBreaker breaker = breakers.get(nodeUrl.toExternalForm());
+		if(breaker != null) {
+			breaker.recordFailure();
+		}
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Probing
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * Request the status endpoint once and record the outcome on the breaker.
+	 * A node is healthy if it answers with a 2xx status that does not report
+	 * {@code "ready": false}.
+	 * @param statusUrl
+	 * @param breaker
+	 */
+	private void probe(URL statusUrl, CircuitBreaker breaker) {
+		HttpURLConnection connection = null;
+		try {
+			connection = (HttpURLConnection) statusUrl.openConnection();
+			connection.setConnectTimeout(probeTimeoutMilliSeconds);
+			connection.setReadTimeout(probeTimeoutMilliSeconds);
+			connection.setUseCaches(false);
+			int status = connection.getResponseCode();
+			if(status >= 200 && status < 300 && !reportsNotReady(connection.getInputStream())) {
+				breaker.recordSuccess();
+			} else {
+				breaker.recordFailure();
+			}
+		} catch (IOException e) {
+			breaker.recordFailure();
+		} catch (RuntimeException e) {
+			// Never let a probe failure cancel the schedule
+			breaker.recordFailure();
+		} finally {
+			if(connection != null) {
+				connection.disconnect();
+			}
+		}
+	}
+
+	/***
+	 * Does a status body contain {@code "ready":false}, ignoring whitespace?
+	 * @param body
+	 * @return
+	 * @throws IOException
+	 */
+	private static boolean reportsNotReady(InputStream body) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try {
+			byte[] buffer = new byte[1024];
+			int read;
+			while((read = body.read(buffer)) > 0 && bytes.size() < 65536) {
+				bytes.write(buffer,0,read);
+			}
+		} finally {
+			body.close();
+		}
+		return bytes.toString("UTF-8").replaceAll("\\s","").contains("\"ready\":false");
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Circuit breaker
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * A per node circuit breaker. Closed until failureThreshold consecutive
+	 * failures, then open until openMilliSeconds pass without a failure,
+	 * after which a single trial is let through (half open). A success in any
+	 * state closes it; a failure while open or half open (re)opens it.
+	 */
+	static class CircuitBreaker {
+
+		enum State { CLOSED, OPEN, HALF_OPEN }
+
+		private final int failureThreshold;
+		private final long openNanos;
+		private State state = State.CLOSED;
+		private int consecutiveFailures = 0;
+		private long openedAtNanos = 0;
+
+		CircuitBreaker(int failureThreshold, int openMilliSeconds) {
+			this.failureThreshold = failureThreshold;
+			this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMilliSeconds);
+		}
+
+		synchronized State getState() {
+			return state;
+		}
+
+		synchronized boolean allowRequest() {
+			switch(state) {
+				case CLOSED:
+					return true;
+				case OPEN:
+					if(System.nanoTime() - openedAtNanos >= openNanos) {
+						state = State.HALF_OPEN;
+						return true;
+					}
+					return false;
+				case HALF_OPEN:
+				default:
+					// A trial is already in flight
+					return false;
+			}
+		}
+
+		synchronized void recordSuccess() {
+			consecutiveFailures = 0;
+			state = State.CLOSED;
+		}
+
+		synchronized void recordFailure() {
+			consecutiveFailures++;
+			if(state != State.CLOSED || consecutiveFailures >= failureThreshold) {
+				state = State.OPEN;
+				openedAtNanos = System.nanoTime();
+			}
+		}
+
+	}
+
+}
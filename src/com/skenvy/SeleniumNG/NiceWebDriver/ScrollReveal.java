@@ -0,0 +1,66 @@
+package com.skenvy.SeleniumNG.NiceWebDriver;
+
+/***
+ * The asynchronous script a NiceWebDriver runs to scroll inside of a web
+ * element until another web element is displayed, in one round trip. If the
+ * element to reveal is already in the document, the scroll offset that
+ * brings it into the containing element's view is computed and set at once.
+ * If it is not, as in a virtualised or infinitely scrolling list that only
+ * renders the rows in view, the containing element is scrolled down in the
+ * page a step at a time, giving the page a moment to render between steps,
+ * and at the bottom it waits for the list to grow, until the element is
+ * displayed or the timeout has passed.
+ */
+final class ScrollReveal {
+
+	private ScrollReveal() {}
+
+	/***
+	 * How many milliseconds the page is given to render between steps
+	 */
+	static final int STEP_MILLISECONDS = 16;
+
+	/***
+	 * How many milliseconds apart the bottom of the list is checked for
+	 * having grown
+	 */
+	static final int BOTTOM_CHECK_MILLISECONDS = 50;
+
+	/***
+	 * arguments[0] is the containing element, arguments[1] the XPath of the
+	 * element to reveal, arguments[2] how many pixels to scroll in each step
+	 * and arguments[3] how many milliseconds to keep scrolling for. Answers a
+	 * map of "element", the element to reveal or null if it was never in the
+	 * document, "revealed", whether it was displayed, "scrollTop" and "steps".
+	 */
+	static final String SCROLL_UNTIL_REVEALED_SCRIPT = ""
+			+ "var container = arguments[0], xpath = arguments[1], step = Math.max(arguments[2], 1), timeoutMillis = arguments[3];"
+			+ "var callback = arguments[arguments.length - 1], start = Date.now(), steps = 0;"
+			+ "var find = function() {"
+			+ "  var node = document.evaluate(xpath, document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;"
+			+ "  return (node && node.nodeType === 1 ? node : null);"
+			+ "};"
+			+ "var isDisplayed = function(element) {"
+			+ "  if (element.getClientRects().length === 0) { return false; }"
+			+ "  var style = window.getComputedStyle(element);"
+			+ "  return style.visibility !== 'hidden' && style.display !== 'none';"
+			+ "};"
+			+ "var reveal = function(element) {"
+			+ "  if (!container.contains(element)) { return; }"
+			+ "  var offset = element.getBoundingClientRect().top - container.getBoundingClientRect().top;"
+			+ "  if (offset < 0 || offset + element.offsetHeight > container.clientHeight) { container.scrollTop = container.scrollTop + offset; }"
+			+ "};"
+			+ "var done = function(element, revealed) { callback({ element: element, revealed: revealed, scrollTop: container.scrollTop, steps: steps }); };"
+			+ "var tick = function() {"
+			+ "  var element = find();"
+			+ "  if (element && isDisplayed(element)) { reveal(element); done(element, true); return; }"
+			+ "  if (Date.now() - start >= timeoutMillis) { done(element, false); return; }"
+			+ "  var atBottom = container.scrollTop + container.clientHeight >= container.scrollHeight - 1;"
+			+ "  if (!atBottom) { container.scrollTop = container.scrollTop + step; steps++; }"
+			+ "  setTimeout(tick, (atBottom ? " + BOTTOM_CHECK_MILLISECONDS + " : " + STEP_MILLISECONDS + "));"
+			+ "};"
+			+ "tick();";
+
+	static final NiceScript SCROLL_UNTIL_REVEALED = NiceScript.defineAsync("seleniumNG.scrollReveal",SCROLL_UNTIL_REVEALED_SCRIPT);
+
+}
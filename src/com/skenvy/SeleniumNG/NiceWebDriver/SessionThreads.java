@@ -0,0 +1,92 @@
+package com.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/***
+ * Makes the executors that remote sessions are driven on. A remote session
+ * spends nearly all of its time blocked on HTTP round trips to the grid, and
+ * on the sleeps and waits between them, so on a JVM with virtual threads
+ * each session can be given its own virtual thread, which gives up its
+ * carrier while blocked, instead of holding a platform thread. Virtual
+ * threads are looked up reflectively, so this still compiles and runs on
+ * Java 8, where the Virtual ExecutionMode falls back to platform threads.
+ */
+public final class SessionThreads {
+
+	private SessionThreads() {
+	}
+
+	/***
+	 * Has the "virtual threads are unavailable" warning been printed yet?
+	 */
+	private static volatile boolean fallbackWarned = false;
+
+	/***
+	 * Can this JVM make virtual threads?
+	 * @return
+	 */
+	public static boolean areVirtualThreadsAvailable() {
+		try {
+			Thread.class.getMethod("ofVirtual");
+			return true;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	/***
+	 * Make an executor for the ExecutionMode. Virtual starts a new virtual
+	 * thread for every task, named threadNamePrefix followed by a count, or
+	 * falls back to Platform if this JVM has no virtual threads. Platform
+	 * keeps a cached pool of daemon threads, so that an abandoned task never
+	 * holds the JVM open.
+	 * @param executionMode
+	 * @param threadNamePrefix
+	 * @return ExecutorService
+	 */
+	public static ExecutorService newExecutor(ExecutionMode executionMode, String threadNamePrefix) {
+		if(executionMode == ExecutionMode.Virtual) {
+			ExecutorService virtualExecutor = newVirtualThreadPerTaskExecutor(threadNamePrefix);
+			if(virtualExecutor != null) {
+				return virtualExecutor;
+			}
+			if(!fallbackWarned) {
+				fallbackWarned = true;
+				EventLog.forSuite().log(LogLevel.Warn,"The Virtual ExecutionMode needs Java 21 or later; remote sessions will run on platform threads instead");
+			}
+		}
+		return Executors.newCachedThreadPool(new ThreadFactory() {
+			private final AtomicInteger threadCount = new AtomicInteger();
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r,threadNamePrefix+threadCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/***
+	 * {@code Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(prefix,1).factory())}
+	 * or null if this JVM has no virtual threads
+	 * @param threadNamePrefix
+	 * @return
+	 */
+	private static ExecutorService newVirtualThreadPerTaskExecutor(String threadNamePrefix) {
+		try {
+			Class<?> ofVirtual = Class.forName("java.lang.Thread$Builder$OfVirtual");
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			builder = ofVirtual.getMethod("name",String.class,long.class).invoke(builder,threadNamePrefix,1L);
+			ThreadFactory factory = (ThreadFactory) ofVirtual.getMethod("factory").invoke(builder);
+			Method newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor",ThreadFactory.class);
+			return (ExecutorService) newThreadPerTaskExecutor.invoke(null,factory);
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+}
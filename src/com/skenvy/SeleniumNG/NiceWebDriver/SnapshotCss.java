@@ -0,0 +1,598 @@
+package com.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.DomSnapshot.Element;
+
+/***
+ * Matches CSS selectors against a DomSnapshot. A selector list is parsed
+ * into compound selectors joined by combinators, and each element that the
+ * rightmost compound's id, class or tag name picks out of the snapshot's
+ * indexes is matched from right to left. Only what depends on the captured
+ * markup alone is understood: type, universal, id, class and attribute
+ * selectors, the four combinators, and the structural, :not(), :empty and
+ * :root pseudo-classes. Anything else, such as pseudo-elements, namespaces,
+ * or pseudo-classes like :checked or :hover that depend on the state of the
+ * page rather than its markup, throws an UnsupportedOperationException, so
+ * that it can be asked of the page instead.
+ */
+final class SnapshotCss {
+
+	private SnapshotCss() {}
+
+	/***
+	 * Parsed selectors, so that a selector asked of every snapshot is only
+	 * parsed once, cleared if it grows past MAX_PARSED
+	 */
+	private static final ConcurrentHashMap<String,List<Complex>> parsedSelectors = new ConcurrentHashMap<String,List<Complex>>();
+
+	private static final int MAX_PARSED = 1000;
+
+	/***
+	 * The attributes whose values an HTML element matches whatever their case
+	 */
+	private static final Set<String> CASE_INSENSITIVE_ATTRIBUTES = new HashSet<String>(Arrays.asList(
+			"accept","accept-charset","align","alink","axis","bgcolor","charset","checked","clear","codetype","color","compact",
+			"declare","defer","dir","direction","disabled","enctype","face","frame","hreflang","http-equiv","lang","language",
+			"link","media","method","multiple","nohref","noresize","noshade","nowrap","readonly","rel","rev","rules","scope",
+			"scrolling","selected","shape","target","text","type","valign","valuetype","vlink"));
+
+	/***
+	 * The elements the selector list matches, in document order
+	 * @param snapshot
+	 * @param selector
+	 * @return
+	 */
+	static List<Element> select(DomSnapshot snapshot, String selector) {
+		List<Complex> complexes = parsedSelectors.get(selector);
+		if(complexes == null) {
+			complexes = new Parser(selector).parseSelectorList();
+			if(parsedSelectors.size() >= MAX_PARSED) {
+				parsedSelectors.clear();
+			}
+			parsedSelectors.put(selector,complexes);
+		}
+		BitSet matched = new BitSet();
+		for(Complex complex : complexes) {
+			for(Element candidate : complex.getCandidates(snapshot)) {
+				if(!matched.get(candidate.getPosition()) && complex.matches(candidate,complex.compounds.size()-1)) {
+					matched.set(candidate.getPosition());
+				}
+			}
+		}
+		List<Element> elements = snapshot.getElements();
+		List<Element> found = new ArrayList<Element>(matched.cardinality());
+		for(int position = matched.nextSetBit(0); position >= 0; position = matched.nextSetBit(position+1)) {
+			found.add(elements.get(position));
+		}
+		return Collections.unmodifiableList(found);
+	}
+
+	/***
+	 * The identifier escaped so that it can be written in a selector, as
+	 * CSS.escape does
+	 * @param identifier
+	 * @return
+	 */
+	static String escapeIdentifier(String identifier) {
+		StringBuilder escaped = new StringBuilder();
+		for(int i = 0; i < identifier.length(); i++) {
+			char c = identifier.charAt(i);
+			if(Character.isLetter(c) || c == '_' || c >= 0x80 || (c == '-' && !(i == 0 && identifier.length() == 1)) || (Character.isDigit(c) && i > 0 && !(i == 1 && identifier.charAt(0) == '-'))) {
+				escaped.append(c);
+			} else if(Character.isDigit(c)) {
+				escaped.append('\\').append(Integer.toHexString(c)).append(' ');
+			} else {
+				escaped.append('\\').append(c);
+			}
+		}
+		return escaped.toString();
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Selectors
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * A type or universal selector and the conditions that follow it
+	 */
+	private static final class Compound {
+
+		/***
+		 * The lower case tag name, or null for any
+		 */
+		private String tagName = null;
+
+		/***
+		 * The first id and class asked for, to find candidates by
+		 */
+		private String id = null;
+		private String className = null;
+
+		private final List<Predicate<Element>> conditions = new ArrayList<Predicate<Element>>();
+
+		private boolean matches(Element element) {
+			if(element.isDocument() || (tagName != null && !tagName.equals(element.getTagName()))) {
+				return false;
+			}
+			for(Predicate<Element> condition : conditions) {
+				if(!condition.test(element)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+	}
+
+	/***
+	 * Compound selectors joined by the combinators between them
+	 */
+	private static final class Complex {
+
+		private final List<Compound> compounds = new ArrayList<Compound>();
+
+		/***
+		 * ' ', '>', '+' or '~', the combinator before each compound but the
+		 * first
+		 */
+		private final List<Character> combinators = new ArrayList<Character>();
+
+		/***
+		 * The elements the rightmost compound could match, by the most
+		 * specific of its id, class and tag name
+		 * @param snapshot
+		 * @return
+		 */
+		private List<Element> getCandidates(DomSnapshot snapshot) {
+			Compound rightmost = compounds.get(compounds.size()-1);
+			if(rightmost.id != null) {
+				return snapshot.getElementsWithId(rightmost.id);
+			}
+			if(rightmost.className != null) {
+				return snapshot.getElementsWithClass(rightmost.className);
+			}
+			if(rightmost.tagName != null) {
+				return snapshot.getElementsByTag(rightmost.tagName);
+			}
+			return snapshot.getElements();
+		}
+
+		/***
+		 * Whether the element matches the compound at the index, and the
+		 * elements around it match the compounds to its left
+		 * @param element
+		 * @param index
+		 * @return
+		 */
+		private boolean matches(Element element, int index) {
+			if(!compounds.get(index).matches(element)) {
+				return false;
+			}
+			if(index == 0) {
+				return true;
+			}
+			switch(combinators.get(index-1)) {
+				case '>': {
+					Element parent = element.getParent();
+					return (parent != null && matches(parent,index-1));
+				}
+				case '+': {
+					Element sibling = getPreviousSibling(element);
+					return (sibling != null && matches(sibling,index-1));
+				}
+				case '~': {
+					for(Element sibling = getPreviousSibling(element); sibling != null; sibling = getPreviousSibling(sibling)) {
+						if(matches(sibling,index-1)) {
+							return true;
+						}
+					}
+					return false;
+				}
+				default: {
+					for(Element ancestor = element.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+						if(matches(ancestor,index-1)) {
+							return true;
+						}
+					}
+					return false;
+				}
+			}
+		}
+
+	}
+
+	private static Element getPreviousSibling(Element element) {
+		int childPosition = element.getChildPosition();
+		return (childPosition == 0 ? null : element.getParentNode().getChildren().get(childPosition-1));
+	}
+
+	/***
+	 * The position of the element among its parent's children, from 1,
+	 * counting only those of the same type if ofType, and from the end if
+	 * fromEnd
+	 * @param element
+	 * @param ofType
+	 * @param fromEnd
+	 * @return
+	 */
+	private static int getSiblingIndex(Element element, boolean ofType, boolean fromEnd) {
+		List<Element> siblings = element.getParentNode().getChildren();
+		int index = 1;
+		if(fromEnd) {
+			for(int position = siblings.size()-1; position > element.getChildPosition(); position--) {
+				if(!ofType || siblings.get(position).getTagName().equals(element.getTagName())) {
+					index++;
+				}
+			}
+		} else {
+			for(int position = 0; position < element.getChildPosition(); position++) {
+				if(!ofType || siblings.get(position).getTagName().equals(element.getTagName())) {
+					index++;
+				}
+			}
+		}
+		return index;
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Parse
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	private static final Pattern NTH = Pattern.compile("([+-]?\\d*)n([+-]\\d+)?|([+-]?\\d+)");
+
+	private static final class Parser {
+
+		private final String selector;
+		private int at = 0;
+
+		private Parser(String selector) {
+			this.selector = selector;
+		}
+
+		private UnsupportedOperationException unsupported() {
+			return new UnsupportedOperationException("The snapshot does not understand the CSS selector at "+at+" | "+selector);
+		}
+
+		private boolean atEnd() {
+			return at >= selector.length();
+		}
+
+		private char peek() {
+			return selector.charAt(at);
+		}
+
+		private boolean skipWhitespace() {
+			int start = at;
+			while(!atEnd() && Character.isWhitespace(peek())) {
+				at++;
+			}
+			return at > start;
+		}
+
+		private boolean eat(char c) {
+			if(!atEnd() && peek() == c) {
+				at++;
+				return true;
+			}
+			return false;
+		}
+
+		private void expect(char c) {
+			if(!eat(c)) {
+				throw unsupported();
+			}
+		}
+
+		private List<Complex> parseSelectorList() {
+			List<Complex> complexes = new ArrayList<Complex>();
+			do {
+				skipWhitespace();
+				complexes.add(parseComplex());
+				skipWhitespace();
+			} while(eat(','));
+			if(!atEnd()) {
+				throw unsupported();
+			}
+			return complexes;
+		}
+
+		private Complex parseComplex() {
+			Complex complex = new Complex();
+			complex.compounds.add(parseCompound());
+			while(true) {
+				boolean whitespace = skipWhitespace();
+				if(atEnd() || peek() == ',' || peek() == ')') {
+					return complex;
+				}
+				char combinator = ' ';
+				if(peek() == '>' || peek() == '+' || peek() == '~') {
+					combinator = peek();
+					at++;
+					skipWhitespace();
+				} else if(!whitespace) {
+					throw unsupported();
+				}
+				complex.combinators.add(combinator);
+				complex.compounds.add(parseCompound());
+			}
+		}
+
+		private Compound parseCompound() {
+			Compound compound = new Compound();
+			int start = at;
+			if(eat('*')) {
+				compound.tagName = null;
+			} else if(isIdentifierStart()) {
+				compound.tagName = parseIdentifier().toLowerCase(Locale.ROOT);
+			}
+			while(!atEnd()) {
+				if(eat('#')) {
+					String id = parseIdentifier();
+					if(compound.id == null) {
+						compound.id = id;
+					}
+					compound.conditions.add(element -> id.equals(element.getRawAttribute("id")));
+				} else if(eat('.')) {
+					String className = parseIdentifier();
+					if(compound.className == null) {
+						compound.className = className;
+					}
+					compound.conditions.add(element -> hasWord(element.getRawAttribute("class"),className));
+				} else if(eat('[')) {
+					compound.conditions.add(parseAttributeCondition());
+				} else if(peek() == ':') {
+					at++;
+					compound.conditions.add(parsePseudoClass());
+				} else {
+					break;
+				}
+			}
+			if(at == start) {
+				throw unsupported();
+			}
+			return compound;
+		}
+
+		private Predicate<Element> parseAttributeCondition() {
+			skipWhitespace();
+			String name = parseIdentifier().toLowerCase(Locale.ROOT);
+			skipWhitespace();
+			if(eat(']')) {
+				return element -> element.getRawAttribute(name) != null;
+			}
+			String operator;
+			if(eat('=')) {
+				operator = "=";
+			} else if(!atEnd() && "~|^$*".indexOf(peek()) >= 0) {
+				operator = peek()+"=";
+				at++;
+				expect('=');
+			} else {
+				throw unsupported();
+			}
+			skipWhitespace();
+			String value = (!atEnd() && (peek() == '"' || peek() == '\'') ? parseString() : parseIdentifier());
+			skipWhitespace();
+			boolean ignoreCase = false;
+			if(!atEnd() && (peek() == 'i' || peek() == 'I')) {
+				at++;
+				ignoreCase = true;
+				skipWhitespace();
+			}
+			expect(']');
+			boolean htmlIgnoresCase = CASE_INSENSITIVE_ATTRIBUTES.contains(name);
+			boolean selectorIgnoresCase = ignoreCase;
+			return element -> {
+				String attribute = element.getRawAttribute(name);
+				if(attribute == null) {
+					return false;
+				}
+				boolean lowerCase = selectorIgnoresCase || (htmlIgnoresCase && element.getNamespace() == null);
+				String expected = (lowerCase ? value.toLowerCase(Locale.ROOT) : value);
+				String actual = (lowerCase ? attribute.toLowerCase(Locale.ROOT) : attribute);
+				switch(operator) {
+					case "=": return actual.equals(expected);
+					case "~=": return hasWord(actual,expected);
+					case "|=": return actual.equals(expected) || actual.startsWith(expected+"-");
+					case "^=": return !expected.isEmpty() && actual.startsWith(expected);
+					case "$=": return !expected.isEmpty() && actual.endsWith(expected);
+					default: return !expected.isEmpty() && actual.contains(expected);
+				}
+			};
+		}
+
+		private Predicate<Element> parsePseudoClass() {
+			if(!atEnd() && peek() == ':') {
+				throw unsupported();
+			}
+			String name = parseIdentifier().toLowerCase(Locale.ROOT);
+			switch(name) {
+				case "first-child": return element -> getSiblingIndex(element,false,false) == 1;
+				case "last-child": return element -> getSiblingIndex(element,false,true) == 1;
+				case "only-child": return element -> element.getParentNode().getChildren().size() == 1;
+				case "first-of-type": return element -> getSiblingIndex(element,true,false) == 1;
+				case "last-of-type": return element -> getSiblingIndex(element,true,true) == 1;
+				case "only-of-type": return element -> getSiblingIndex(element,true,false) == 1 && getSiblingIndex(element,true,true) == 1;
+				case "root": return element -> element.getParentNode().isDocument();
+				case "empty": return element -> element.getContent().isEmpty();
+				case "nth-child": return parseNth(false,false);
+				case "nth-last-child": return parseNth(false,true);
+				case "nth-of-type": return parseNth(true,false);
+				case "nth-last-of-type": return parseNth(true,true);
+				case "not": {
+					expect('(');
+					List<Complex> negated = new ArrayList<Complex>();
+					do {
+						skipWhitespace();
+						Complex complex = parseComplex();
+						if(complex.compounds.size() != 1) {
+							throw unsupported();
+						}
+						negated.add(complex);
+						skipWhitespace();
+					} while(eat(','));
+					expect(')');
+					return element -> {
+						for(Complex complex : negated) {
+							if(complex.matches(element,0)) {
+								return false;
+							}
+						}
+						return true;
+					};
+				}
+				default: throw unsupported();
+			}
+		}
+
+		/***
+		 * The an+b argument of an nth pseudo-class, matching the elements
+		 * whose index is a*n+b for some n of 0 or more
+		 * @param ofType
+		 * @param fromEnd
+		 * @return
+		 */
+		private Predicate<Element> parseNth(boolean ofType, boolean fromEnd) {
+			expect('(');
+			int close = selector.indexOf(')',at);
+			if(close < 0) {
+				throw unsupported();
+			}
+			String argument = selector.substring(at,close).replaceAll("\\s+","").toLowerCase(Locale.ROOT);
+			at = close+1;
+			int a;
+			int b;
+			if(argument.equals("odd")) {
+				a = 2;
+				b = 1;
+			} else if(argument.equals("even")) {
+				a = 2;
+				b = 0;
+			} else {
+				Matcher nth = NTH.matcher(argument);
+				if(!nth.matches()) {
+					throw unsupported();
+				}
+				if(nth.group(3) != null) {
+					a = 0;
+					b = Integer.parseInt(nth.group(3).replace("+",""));
+				} else {
+					String coefficient = nth.group(1).replace("+","");
+					a = (coefficient.isEmpty() ? 1 : coefficient.equals("-") ? -1 : Integer.parseInt(coefficient));
+					b = (nth.group(2) == null ? 0 : Integer.parseInt(nth.group(2).replace("+","")));
+				}
+			}
+			return element -> {
+				int index = getSiblingIndex(element,ofType,fromEnd);
+				if(a == 0) {
+					return index == b;
+				}
+				return ((index-b)/a >= 0 && (index-b)%a == 0);
+			};
+		}
+
+		private boolean isIdentifierStart() {
+			if(atEnd()) {
+				return false;
+			}
+			char c = peek();
+			return (Character.isLetter(c) || c == '_' || c == '-' || c == '\\' || c >= 0x80);
+		}
+
+		private String parseIdentifier() {
+			StringBuilder identifier = new StringBuilder();
+			while(!atEnd()) {
+				char c = peek();
+				if(c == '\\') {
+					at++;
+					identifier.append(parseEscape());
+				} else if(Character.isLetterOrDigit(c) || c == '_' || c == '-' || c >= 0x80) {
+					identifier.append(c);
+					at++;
+				} else {
+					break;
+				}
+			}
+			if(identifier.length() == 0) {
+				throw unsupported();
+			}
+			return identifier.toString();
+		}
+
+		private String parseString() {
+			char quote = peek();
+			at++;
+			StringBuilder string = new StringBuilder();
+			while(!atEnd() && peek() != quote) {
+				if(peek() == '\\') {
+					at++;
+					string.append(parseEscape());
+				} else {
+					string.append(peek());
+					at++;
+				}
+			}
+			expect(quote);
+			return string.toString();
+		}
+
+		/***
+		 * The character escaped after a backslash, either up to six hex
+		 * digits, and the whitespace that ends them, or the character itself
+		 * @return
+		 */
+		private String parseEscape() {
+			if(atEnd()) {
+				throw unsupported();
+			}
+			int start = at;
+			while(!atEnd() && at-start < 6 && Character.digit(peek(),16) >= 0) {
+				at++;
+			}
+			if(at == start) {
+				return String.valueOf(selector.charAt(at++));
+			}
+			int codePoint = Integer.parseInt(selector.substring(start,at),16);
+			if(!atEnd() && Character.isWhitespace(peek())) {
+				at++;
+			}
+			return new String(Character.toChars(codePoint == 0 || codePoint > Character.MAX_CODE_POINT ? 0xFFFD : codePoint));
+		}
+
+	}
+
+	/***
+	 * Whether the whitespace separated list contains the word
+	 * @param list
+	 * @param word
+	 * @return
+	 */
+	private static boolean hasWord(String list, String word) {
+		if(list == null || word.isEmpty()) {
+			return false;
+		}
+		for(String listed : list.split("[ \\t\\n\\f\\r]+")) {
+			if(listed.equals(word)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,164 @@
+package com.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+
+import org.w3c.dom.DOMException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.DomSnapshot.Element;
+
+/***
+ * Evaluates XPath 1.0 expressions against a DomSnapshot with the JDK's own
+ * XPath engine, over an org.w3c.dom copy of the capture, made the first
+ * time the snapshot is asked for one. The copy holds only what was
+ * captured: elements, their attributes, and text. So an expression that
+ * names a node the capture does not hold (a comment or a processing
+ * instruction), that asks after namespaces or languages, that uses a
+ * prefixed name, or that names an element or attribute in upper case
+ * (which an HTML page matches whatever its case) throws an
+ * UnsupportedOperationException, as does one that the engine can not
+ * evaluate, or that selects anything other than elements, so that it can
+ * be asked of the page instead.
+ */
+final class SnapshotXPath {
+
+	private SnapshotXPath() {}
+
+	/***
+	 * An XPath per thread, as one is not safe to share
+	 */
+	private static final ThreadLocal<XPath> xpaths = ThreadLocal.withInitial(() -> XPathFactory.newInstance().newXPath());
+
+	/***
+	 * The node tests, functions and prefixed names whose answer depends on
+	 * what the capture does not hold
+	 */
+	private static final Pattern NOT_CAPTURED = Pattern.compile("comment\\s*\\(|processing-instruction\\s*\\(|namespace\\s*::|namespace-uri\\s*\\(|lang\\s*\\(|[\\w.-]:(?!:)");
+
+	/***
+	 * Every function and axis of XPath 1.0 is lower case, so an upper case
+	 * letter outside a literal is in a name
+	 */
+	private static final Pattern UPPER_CASE = Pattern.compile("[A-Z]");
+
+	private static final Pattern LITERAL = Pattern.compile("\"[^\"]*\"|'[^']*'");
+
+	/***
+	 * The elements the XPath selects, in document order
+	 * @param snapshot
+	 * @param xpath
+	 * @return
+	 */
+	static List<Element> select(DomSnapshot snapshot, String xpath) {
+		String outsideLiterals = LITERAL.matcher(xpath).replaceAll("''");
+		if(NOT_CAPTURED.matcher(outsideLiterals).find() || UPPER_CASE.matcher(outsideLiterals).find()) {
+			throw new UnsupportedOperationException("The snapshot would not answer the XPath as the page does | "+xpath);
+		}
+		Copy copy = snapshot.getXPathCopy();
+		if(copy == null) {
+			throw new UnsupportedOperationException("The snapshot's capture can not be copied for XPath | "+xpath);
+		}
+		List<Element> found = new ArrayList<Element>();
+		synchronized(copy) {
+			NodeList nodes;
+			try {
+				nodes = (NodeList) xpaths.get().evaluate(xpath,copy.document,XPathConstants.NODESET);
+			} catch (XPathExpressionException e) {
+				throw new UnsupportedOperationException("The snapshot can not evaluate the XPath | "+xpath,e);
+			}
+			for(int i = 0; i < nodes.getLength(); i++) {
+				Element element = copy.elements.get(nodes.item(i));
+				if(element == null) {
+					throw new UnsupportedOperationException("The XPath selects nodes that are not elements | "+xpath);
+				}
+				found.add(element);
+			}
+		}
+		return Collections.unmodifiableList(found);
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * The copy
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * A snapshot's capture as an org.w3c.dom Document, and the element each
+	 * of its elements was copied from. A DOM is not safe to read from two
+	 * threads at once, so it is only evaluated against while holding the copy.
+	 */
+	static final class Copy {
+
+		private final Document document;
+
+		private final Map<Node,Element> elements = new IdentityHashMap<Node,Element>();
+
+		private Copy(Document document) {
+			this.document = document;
+		}
+
+	}
+
+	/***
+	 * Copy a snapshot's capture. Elements of HTML are copied without a
+	 * namespace, so that an unprefixed name matches them as it does in the
+	 * page, and any other element, such as one of SVG, with its namespace,
+	 * so that it is not. Ids are marked, for the id() function.
+	 * @param snapshot
+	 * @return the copy, or null if the capture holds a name that is not
+	 * allowed in XML
+	 */
+	static Copy copy(DomSnapshot snapshot) {
+		Document document;
+		try {
+			document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+		} catch (ParserConfigurationException e) {
+			return null;
+		}
+		Copy copy = new Copy(document);
+		try {
+			for(Element element : snapshot.getDocument().getChildren()) {
+				document.appendChild(copyElement(copy,element));
+			}
+		} catch (DOMException e) {
+			return null;
+		}
+		return copy;
+	}
+
+	private static org.w3c.dom.Element copyElement(Copy copy, Element element) {
+		String namespace = element.getNamespace();
+		org.w3c.dom.Element copied = (namespace == null ? copy.document.createElement(element.getTagName()) : copy.document.createElementNS(namespace,element.getTagName()));
+		for(Map.Entry<String,String> attribute : element.getAttributes().entrySet()) {
+			copied.setAttribute(attribute.getKey(),attribute.getValue());
+		}
+		if(copied.hasAttribute("id")) {
+			copied.setIdAttribute("id",true);
+		}
+		for(Object content : element.getContent()) {
+			if(content instanceof Element) {
+				copied.appendChild(copyElement(copy,(Element) content));
+			} else {
+				copied.appendChild(copy.document.createTextNode((String) content));
+			}
+		}
+		copy.elements.put(copied,element);
+		return copied;
+	}
+
+}
@@ -0,0 +1,162 @@
+package com.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/***
+ * How much of a session's time has gone on each kind of Activity: sending
+ * commands, navigating, waiting, and sleeping. Every nanosecond is given to
+ * only one activity, the innermost, so the time a wait spends sending its
+ * condition's commands is counted as commands, and only the rest of it, the
+ * polling interval, as waiting. The totals only grow; the time spent on a
+ * test method is the difference between the Totals read before and after it.
+ */
+public final class TimeAttribution {
+
+	/***
+	 * The kinds of activity time is attributed to
+	 */
+	public enum Activity {
+		/***
+		 * Commands sent to the browser, other than navigations and
+		 * asynchronous scripts
+		 */
+		Command,
+		/***
+		 * Loading a page, going back or forward, or refreshing
+		 */
+		Navigation,
+		/***
+		 * Waiting for a condition, in a NiceWait or in an asynchronous script
+		 * that waits in the page, other than the commands the wait sends
+		 */
+		Wait,
+		/***
+		 * Sleeping for a fixed time, such as to slow a demonstrated test down
+		 */
+		Sleep
+	}
+
+	private final AtomicLongArray nanoSeconds = new AtomicLongArray(Activity.values().length);
+
+	/***
+	 * Attribute time to an activity
+	 * @param activity
+	 * @param elapsedNanoSeconds
+	 */
+	public void add(Activity activity, long elapsedNanoSeconds) {
+		nanoSeconds.addAndGet(activity.ordinal(),Math.max(elapsedNanoSeconds,0));
+	}
+
+	/***
+	 * Attribute to an activity the time it took, less whatever was
+	 * attributed to other activities inside it
+	 * @param activity
+	 * @param elapsedNanoSeconds
+	 * @param attributedBefore what getAttributedNanoSeconds() was as the
+	 * activity began
+	 */
+	public void addExclusively(Activity activity, long elapsedNanoSeconds, long attributedBefore) {
+		add(activity,elapsedNanoSeconds - (getAttributedNanoSeconds() - attributedBefore));
+	}
+
+	/***
+	 * The time attributed to every activity together
+	 * @return
+	 */
+	public long getAttributedNanoSeconds() {
+		long attributed = 0;
+		for(int k = 0; k < nanoSeconds.length(); k++) {
+			attributed += nanoSeconds.get(k);
+		}
+		return attributed;
+	}
+
+	/***
+	 * The time attributed to each activity so far
+	 * @return
+	 */
+	public Totals getTotals() {
+		long[] copied = new long[nanoSeconds.length()];
+		for(int k = 0; k < copied.length; k++) {
+			copied[k] = nanoSeconds.get(k);
+		}
+		return new Totals(copied);
+	}
+
+	/***
+	 * The time attributed to each activity at one moment, or between two
+	 */
+	public static final class Totals {
+
+		private final long[] nanoSeconds;
+
+		private Totals(long[] nanoSeconds) {
+			this.nanoSeconds = nanoSeconds;
+		}
+
+		/***
+		 * No time attributed to any activity
+		 * @return
+		 */
+		public static Totals none() {
+			return new Totals(new long[Activity.values().length]);
+		}
+
+		/***
+		 * The time attributed to an activity
+		 * @param activity
+		 * @return
+		 */
+		public long getNanoSeconds(Activity activity) {
+			return nanoSeconds[activity.ordinal()];
+		}
+
+		/***
+		 * The time attributed to every activity together
+		 * @return
+		 */
+		public long getAttributedNanoSeconds() {
+			long attributed = 0;
+			for(long activityNanoSeconds : nanoSeconds) {
+				attributed += activityNanoSeconds;
+			}
+			return attributed;
+		}
+
+		/***
+		 * The time spent idle, waiting or sleeping
+		 * @return
+		 */
+		public long getIdleNanoSeconds() {
+			return getNanoSeconds(Activity.Wait) + getNanoSeconds(Activity.Sleep);
+		}
+
+		/***
+		 * The time attributed since the earlier totals were read
+		 * @param earlier
+		 * @return
+		 */
+		public Totals since(Totals earlier) {
+			long[] difference = new long[nanoSeconds.length];
+			for(int k = 0; k < difference.length; k++) {
+				difference[k] = nanoSeconds[k] - earlier.nanoSeconds[k];
+			}
+			return new Totals(difference);
+		}
+
+		/***
+		 * The time attributed in these totals and the other together
+		 * @param other
+		 * @return
+		 */
+		public Totals plus(Totals other) {
+			long[] summed = new long[nanoSeconds.length];
+			for(int k = 0; k < summed.length; k++) {
+				summed[k] = nanoSeconds[k] + other.nanoSeconds[k];
+			}
+			return new Totals(summed);
+		}
+
+	}
+
+}
@@ -0,0 +1,330 @@
+package com.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.skenvy.SeleniumNG.DomainConstants;
+
+/***
+ * A timeline of every session of the run, as spans: each test method, and
+ * the navigations, lookups, waits, clicks, keystroke batches, sleeps and
+ * commands inside it, written to "Trace.Path" in the Chrome Trace Event
+ * format, so that the whole run can be opened in a trace viewer, such as
+ * chrome://tracing or Perfetto, with one track per session. Sessions side by
+ * side show which were idle in waits, and which took turns on something
+ * they shared. Spans are put in a bounded buffer as they end, and streamed
+ * to the file by one background thread, so a long run is never held in
+ * memory; if the buffer is full, the span is dropped and counted. A span
+ * whose argument can not be written is warned of in the EventLog, and the
+ * spans after it are still written. Nothing is made of a span while
+ * "Trace.Path" is "".
+ */
+public final class TraceTimeline {
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Tracks
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * Whether spans are written, which is while "Trace.Path" is not ""
+	 * @return
+	 */
+	public static boolean isEnabled() {
+		DomainConstants.Trace trace = DomainConstants.current().trace;
+		return (trace != null && !trace.path.isEmpty());
+	}
+
+	/***
+	 * Numbers the tracks, from 1, in the order their sessions started
+	 */
+	private static final AtomicInteger tracks = new AtomicInteger();
+
+	/***
+	 * The track of one session, named after its DriverType, node and id
+	 */
+	public static final class Track {
+
+		private final int id = tracks.incrementAndGet();
+		private final CommandMetrics session;
+
+		Track(CommandMetrics session) {
+			this.session = session;
+		}
+
+		/***
+		 * The name the track is shown under
+		 * @return
+		 */
+		public String getName() {
+			DriverType driverType = session.getDriverType();
+			return (driverType == null ? "Unknown" : driverType.toString())+" @ "+session.getNodeUrl()+" | "+session.getSessionId();
+		}
+
+		/***
+		 * Add a span to the track that started at startNanoSeconds, from
+		 * System.nanoTime(), and ends now
+		 * @param category such as "lookup" or "click"
+		 * @param name
+		 * @param startNanoSeconds
+		 */
+		public void span(String category, String name, long startNanoSeconds) {
+			span(category,name,startNanoSeconds,System.nanoTime()-startNanoSeconds,null,null);
+		}
+
+		/***
+		 * Add a span to the track that started at startNanoSeconds, from
+		 * System.nanoTime(), and ends now, with an argument that is only
+		 * written as a string, or a number, once the span is
+		 * @param category
+		 * @param name
+		 * @param startNanoSeconds
+		 * @param argName
+		 * @param argValue
+		 */
+		public void span(String category, String name, long startNanoSeconds, String argName, Object argValue) {
+			span(category,name,startNanoSeconds,System.nanoTime()-startNanoSeconds,argName,argValue);
+		}
+
+		/***
+		 * Add a span to the track that started at startNanoSeconds, from
+		 * System.nanoTime(), and lasted elapsedNanoSeconds
+		 * @param category
+		 * @param name
+		 * @param startNanoSeconds
+		 * @param elapsedNanoSeconds
+		 * @param argName the name of the span's argument, or null for none
+		 * @param argValue
+		 */
+		public void span(String category, String name, long startNanoSeconds, long elapsedNanoSeconds, String argName, Object argValue) {
+			if(isEnabled()) {
+				publish(new Span(this,category,name,startNanoSeconds,elapsedNanoSeconds,argName,argValue));
+			}
+		}
+
+	}
+
+	/***
+	 * Wait until every span that has ended so far has been written, or until
+	 * the timeout
+	 * @param timeoutMilliSeconds
+	 * @return whether every span was written in time
+	 */
+	public static boolean flush(long timeoutMilliSeconds) {
+		Streamer running = streamer;
+		return (running == null || running.awaitWritten(timeoutMilliSeconds));
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Spans
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * The System.nanoTime() every span's timestamp is measured from
+	 */
+	private static final long originNanoSeconds = System.nanoTime();
+
+	/***
+	 * A span as it ended, formatted only as it is written
+	 */
+	private static final class Span {
+
+		private final Track track;
+		private final String category;
+		private final String name;
+		private final long startNanoSeconds;
+		private final long elapsedNanoSeconds;
+		private final String argName;
+		private final Object argValue;
+
+		private Span(Track track, String category, String name, long startNanoSeconds, long elapsedNanoSeconds, String argName, Object argValue) {
+			this.track = track;
+			this.category = category;
+			this.name = name;
+			this.startNanoSeconds = startNanoSeconds;
+			this.elapsedNanoSeconds = elapsedNanoSeconds;
+			this.argName = argName;
+			this.argValue = argValue;
+		}
+
+		/***
+		 * The span as a complete ("X") event, timed in microseconds
+		 * @param json
+		 */
+		private void appendTo(StringBuilder json) {
+			json.append("{\"name\":");
+			appendString(json,name);
+			json.append(",\"cat\":");
+			appendString(json,category);
+			json.append(",\"ph\":\"X\",\"ts\":");
+			appendMicroSeconds(json,startNanoSeconds-originNanoSeconds);
+			json.append(",\"dur\":");
+			appendMicroSeconds(json,Math.max(elapsedNanoSeconds,0));
+			json.append(",\"pid\":1,\"tid\":").append(track.id);
+			if(argName != null) {
+				json.append(",\"args\":{");
+				appendString(json,argName);
+				json.append(':');
+				if(argValue instanceof Number) {
+					json.append(argValue);
+				} else {
+					appendString(json,String.valueOf(argValue));
+				}
+				json.append('}');
+			}
+			json.append('}');
+		}
+
+	}
+
+	private static void appendMicroSeconds(StringBuilder json, long nanoSeconds) {
+		long fraction = Math.abs(nanoSeconds%1000);
+		json.append(nanoSeconds/1000).append('.').append(fraction < 100 ? (fraction < 10 ? "00" : "0") : "").append(fraction);
+	}
+
+	private static void appendString(StringBuilder json, String value) {
+		json.append('"');
+		for(int k = 0; k < value.length(); k++) {
+			char c = value.charAt(k);
+			if(c == '"' || c == '\\') {
+				json.append('\\').append(c);
+			} else if(c < 0x20) {
+				json.append(String.format("\\u%04x",(int) c));
+			} else {
+				json.append(c);
+			}
+		}
+		json.append('"');
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * The buffer and its streamer
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * The streamer, started by the first span to end
+	 */
+	private static volatile Streamer streamer = null;
+
+	private static final Object streamerLock = new Object();
+
+	private static void publish(Span span) {
+		Streamer running = streamer;
+		if(running == null) {
+			synchronized(streamerLock) {
+				running = streamer;
+				if(running == null) {
+					DomainConstants.Trace trace = DomainConstants.current().trace;
+					running = new Streamer(trace == null ? 65536 : trace.bufferSize);
+					streamer = running;
+				}
+			}
+		}
+		running.offer(span);
+	}
+
+	/***
+	 * The bounded buffer of spans, and the one thread that streams them to
+	 * "Trace.Path"
+	 */
+	private static final class Streamer extends AsyncFileDrain<Span> {
+
+		/***
+		 * The tracks already named in the file
+		 */
+		private final Set<Integer> namedTracks = new HashSet<Integer>();
+
+		private Streamer(int capacity) {
+			super("TraceTimeline",capacity,false);
+		}
+
+		private void offer(Span span) {
+			offer(span,false);
+		}
+
+		/***
+		 * Write a batch of spans, naming each track the first time the file
+		 * has one of its spans
+		 * @param batch
+		 */
+		@Override
+		protected void write(List<Span> batch) {
+			DomainConstants.Trace trace = DomainConstants.current().trace;
+			String path = (trace == null ? "" : trace.path);
+			if(path.isEmpty()) {
+				return;
+			}
+			StringBuilder json = new StringBuilder(256*batch.size());
+			try {
+				Writer out = openFile(path);
+				for(Span span : batch) {
+					appendOrReport(json,span);
+				}
+				long droppedSpans = takeDropped();
+				if(droppedSpans > 0) {
+					json.append(",\n{\"name\":\"dropped spans\",\"ph\":\"i\",\"s\":\"g\",\"pid\":1,\"tid\":0,\"ts\":");
+					appendMicroSeconds(json,System.nanoTime()-originNanoSeconds);
+					json.append(",\"args\":{\"count\":").append(droppedSpans).append("}}");
+				}
+				out.write(json.toString());
+				out.flush();
+			} catch (IOException e) {
+				EventLog.forSuite().log(LogLevel.Warn,"Failed to write the trace timeline to | {} | {}",path,e.getMessage());
+				closeFile();
+			}
+		}
+
+		/***
+		 * Append the span, after its track's name if the file does not have
+		 * it yet, or nothing, after warning of it, if its argument's
+		 * toString() throws
+		 * @param json
+		 * @param span
+		 */
+		private void appendOrReport(StringBuilder json, Span span) {
+			int length = json.length();
+			try {
+				if(!namedTracks.contains(span.track.id)) {
+					json.append(",\n{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":").append(span.track.id).append(",\"args\":{\"name\":");
+					appendString(json,span.track.getName());
+					json.append("}}");
+				}
+				json.append(",\n");
+				span.appendTo(json);
+				namedTracks.add(span.track.id);
+			} catch (RuntimeException e) {
+				json.setLength(length);
+				EventLog.forSuite().log(LogLevel.Warn,"Failed to write a span of the trace timeline | {} | {}",span.name,e);
+			}
+		}
+
+		/***
+		 * Begin the file as a JSON array of events with the run's name
+		 */
+		@Override
+		protected void begin(Writer opened) throws IOException {
+			namedTracks.clear();
+			opened.write("[{\"name\":\"process_name\",\"ph\":\"M\",\"pid\":1,\"args\":{\"name\":\"SeleniumNG\"}}");
+		}
+
+		/***
+		 * End the array of events. A trace viewer reads the events without
+		 * the array's end, if it can not be written.
+		 */
+		@Override
+		protected void end(Writer closing) throws IOException {
+			closing.write("\n]\n");
+		}
+
+	}
+
+}
@@ -0,0 +1,54 @@
+package com.skenvy.SeleniumNG.NiceWebDriver;
+
+/***
+ * The script a NiceWebDriver runs to enter text into a text field by
+ * setting its value, rather than typing it one key event at a time. The
+ * text is appended to the field's value through the native value setter,
+ * so that frameworks such as React that track the value notice the change,
+ * cut to the field's maxlength as typing it would be, and followed by the
+ * input and change events typing would fire. No key events are fired.
+ */
+final class ValueEntry {
+
+	private ValueEntry() {}
+
+	/***
+	 * Whether text can be entered by value: it has none of the special keys
+	 * of org.openqa.selenium.Keys, which are in the Unicode private use area
+	 * @param text
+	 * @return
+	 */
+	static boolean isPlainText(CharSequence text) {
+		for(int charIndex = 0, numChars = text.length(); charIndex < numChars; charIndex++) {
+			char c = text.charAt(charIndex);
+			if(c >= '\uE000' && c <= '\uF8FF') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/***
+	 * arguments[0] is the field and arguments[1] the text. Answers true if
+	 * the text was entered, or false if the element is not an enabled and
+	 * writable textarea or text input, or the text has a line break that an
+	 * input would have treated as Enter.
+	 */
+	static final String APPEND_VALUE_SCRIPT = ""
+			+ "var element = arguments[0], text = arguments[1], tag = element.tagName;"
+			+ "var isTextArea = (tag === 'TEXTAREA');"
+			+ "var isTextInput = (tag === 'INPUT' && /^(text|search|email|url|tel|password)?$/i.test(element.getAttribute('type') || ''));"
+			+ "if (!(isTextArea || isTextInput) || element.disabled || element.readOnly) { return false; }"
+			+ "if (isTextInput && /[\\r\\n]/.test(text)) { return false; }"
+			+ "var value = element.value + text;"
+			+ "if (element.maxLength >= 0) { value = value.substring(0, Math.max(element.maxLength, element.value.length)); }"
+			+ "var setter = Object.getOwnPropertyDescriptor((isTextArea ? HTMLTextAreaElement : HTMLInputElement).prototype, 'value').set;"
+			+ "element.focus();"
+			+ "setter.call(element, value);"
+			+ "element.dispatchEvent(new Event('input', { bubbles: true }));"
+			+ "element.dispatchEvent(new Event('change', { bubbles: true }));"
+			+ "return true;";
+
+	static final NiceScript APPEND_VALUE = NiceScript.define("seleniumNG.valueEntry",APPEND_VALUE_SCRIPT);
+
+}
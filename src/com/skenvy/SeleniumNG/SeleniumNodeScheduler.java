@@ -0,0 +1,200 @@
+package com.skenvy.SeleniumNG;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+import com.skenvy.SeleniumNG.DomainConstants.SeleniumNode;
+import com.skenvy.SeleniumNG.NiceWebDriver.DriverType;
+
+/***
+ * Treats the configured SeleniumNodes as a pool of capacity. Instead of a
+ * test class instance being bound to the node it was created for, it asks
+ * the scheduler for a node of its DriverType when it starts running, and is
+ * given whichever such node is least loaded relative to its
+ * SeleniumNodeMaxSessions_{@code <k>}. If every such node is full, the
+ * instance waits until one is released.
+ */
+public final class SeleniumNodeScheduler {
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Scheduler state
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * The configured nodes, in configuration order
+	 */
+	private final SeleniumNode[] seleniumNodes;
+
+	/***
+	 * How many sessions are currently leased on each node, by index
+	 */
+	private final int[] activeSessions;
+
+	/***
+	 * Guards activeSessions. Fair, so that waiting instances are woken in
+	 * roughly the order they started waiting.
+	 */
+	private final ReentrantLock lock = new ReentrantLock(true);
+
+	/***
+	 * Signalled every time a lease is released
+	 */
+	private final Condition released = lock.newCondition();
+	
+	/***
+	 * How long acquire waits for a release before re-checking which nodes are
+	 * admissible, as a node can become admissible without a release
+	 */
+	private static final long admissibilityRecheckMilliSeconds = 500;
+
+	/***
+	 * Construct a scheduler over the configured nodes
+	 * @param seleniumNodes
+	 */
+	public SeleniumNodeScheduler(SeleniumNode[] seleniumNodes) {
+		this.seleniumNodes = seleniumNodes.clone();
+		this.activeSessions = new int[seleniumNodes.length];
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Acquire and release
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * Lease the least loaded node of the DriverType, waiting for one to be
+	 * released if they are all at their maximum sessions. Returns null if no
+	 * node of the DriverType is configured, in which case the caller should
+	 * run unscheduled.
+	 * @param driverType
+	 * @return SeleniumNode
+	 * @throws InterruptedException
+	 */
+	public SeleniumNode acquire(DriverType driverType) throws InterruptedException {
+		return acquire(driverType,seleniumNode -> true);
+	}
+	
+	/***
+	 * Lease the least loaded admissible node of the DriverType, such as one
+	 * whose remote host is healthy, waiting for one to be released (or to
+	 * become admissible) if they are all at their maximum sessions. If no
+	 * node of the DriverType is admissible, the least loaded of all of them
+	 * is leased, so that the caller fails fast on it rather than waiting.
+	 * Returns null if no node of the DriverType is configured, in which case
+	 * the caller should run unscheduled.
+	 * @param driverType
+	 * @param admissible
+	 * @return SeleniumNode
+	 * @throws InterruptedException
+	 */
+	public SeleniumNode acquire(DriverType driverType, Predicate<SeleniumNode> admissible) throws InterruptedException {
+		lock.lockInterruptibly();
+		try {
+			if(!hasNodeFor(driverType)) {
+				return null;
+			}
+			int index;
+			while((index = leastLoadedAvailableNode(driverType,admissible)) < 0) {
+				released.await(admissibilityRecheckMilliSeconds,TimeUnit.MILLISECONDS);
+			}
+			activeSessions[index]++;
+			return seleniumNodes[index];
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/***
+	 * Return a node leased by acquire. Nodes that were not leased from this
+	 * scheduler (including null) are ignored.
+	 * @param seleniumNode
+	 */
+	public void release(SeleniumNode seleniumNode) {
+		lock.lock();
+		try {
+			for(int k = 0; k < seleniumNodes.length; k++) {
+				if(seleniumNodes[k] == seleniumNode && activeSessions[k] > 0) {
+					activeSessions[k]--;
+					released.signalAll();
+					return;
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/***
+	 * How many sessions are currently leased on a node
+	 * @param seleniumNode
+	 * @return
+	 */
+	public int getActiveSessions(SeleniumNode seleniumNode) {
+		lock.lock();
+		try {
+			for(int k = 0; k < seleniumNodes.length; k++) {
+				if(seleniumNodes[k] == seleniumNode) {
+					return activeSessions[k];
+				}
+			}
+			return 0;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Load comparison
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	/***
+	 * Is any node configured for the DriverType?
+	 * @param driverType
+	 * @return
+	 */
+	private boolean hasNodeFor(DriverType driverType) {
+		for(SeleniumNode seleniumNode : seleniumNodes) {
+			if(seleniumNode.dt == driverType) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/***
+	 * The index of the admissible node of the DriverType with the lowest
+	 * ratio of active to maximum sessions that still has room, or -1 if they
+	 * are all full. If no node of the DriverType is admissible, every node of
+	 * the DriverType is considered. Ties go to the node configured first.
+	 * @param driverType
+	 * @param admissible
+	 * @return
+	 */
+	private int leastLoadedAvailableNode(DriverType driverType, Predicate<SeleniumNode> admissible) {
+		boolean[] considered = new boolean[seleniumNodes.length];
+		boolean anyAdmissible = false;
+		for(int k = 0; k < seleniumNodes.length; k++) {
+			considered[k] = (seleniumNodes[k].dt == driverType && admissible.test(seleniumNodes[k]));
+			anyAdmissible |= considered[k];
+		}
+		int best = -1;
+		for(int k = 0; k < seleniumNodes.length; k++) {
+			if(seleniumNodes[k].dt != driverType || (anyAdmissible && !considered[k]) || activeSessions[k] >= seleniumNodes[k].maxSessions) {
+				continue;
+			}
+			// Compare active/max ratios without dividing: a/b < c/d <=> a*d < c*b
+			if(best < 0 || ((long) activeSessions[k])*seleniumNodes[best].maxSessions < ((long) activeSessions[best])*seleniumNodes[k].maxSessions) {
+				best = k;
+			}
+		}
+		return best;
+	}
+
+}
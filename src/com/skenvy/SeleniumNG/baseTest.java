@@ -4,24 +4,39 @@ import java.io.FileNotFoundException;
 import java.lang.reflect.InvocationTargetException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.openqa.selenium.WebElement;
 import org.testng.Assert;
+import org.testng.ITestResult;
 import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
 //import org.testng.annotations.AfterTest;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeMethod;
 //import org.testng.annotations.BeforeTest;
 //import org.testng.annotations.DataProvider;
 import org.testng.annotations.Factory;
+import org.testng.annotations.Listeners;
 
 import com.skenvy.SeleniumNG.DomainConstants.SeleniumNode;
 import com.skenvy.SeleniumNG.NiceWebDriver.DriverType;
+import com.skenvy.SeleniumNG.NiceWebDriver.EventLog;
+import com.skenvy.SeleniumNG.NiceWebDriver.LinkValidator;
+import com.skenvy.SeleniumNG.NiceWebDriver.LogLevel;
 import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriver;
 import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriverFactory;
+import com.skenvy.SeleniumNG.NiceWebDriver.TimeAttribution;
+import com.skenvy.SeleniumNG.NiceWebDriver.TimeAttribution.Activity;
 
 /***
  * An abstract base class that must be extended and have the method
@@ -32,6 +47,7 @@ import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriverFactory;
  * Make a local abstract extension of this class which overrides the
  * {@code getPathToDomainConstantsConfig()}, and then sub class that class!
  */
+@Listeners({MethodShardInterceptor.class, MethodDurationRecorder.class, LocatorLatencyRecorder.class, CommandMetricsReporter.class, MethodTimeAttributionReporter.class})
 public abstract class baseTest {
 	
 ///////////////////////////////////////////////////////////////////////////////
@@ -53,6 +69,51 @@ public abstract class baseTest {
 	 */
 	private SeleniumNode seleniumNode = null;
 	
+	/***
+	 * The warm up of the factory's session pool for each SeleniumNode, keyed
+	 * by getWarmupKey, begun as soon as the {@code @Factory} creates the
+	 * instance so that the browsers for every node start concurrently. In
+	 * {@code @BeforeClass}, only the warm up of the node the instance runs on
+	 * is joined.
+	 */
+	private Map<String,CompletableFuture<Void>> sessionPoolWarmups = null;
+	
+	/***
+	 * The node leased from the DomainConstants' SeleniumNodeScheduler for the
+	 * duration of the class, if it was scheduled
+	 */
+	private SeleniumNode leasedSeleniumNode = null;
+	
+	/***
+	 * The scheduler the node was leased from, to return it to even if the
+	 * DomainConstants are reloaded while the class runs
+	 */
+	private SeleniumNodeScheduler leasingScheduler = null;
+	
+	/***
+	 * Which of the class's shards this instance is, from 0 to shardCount-1.
+	 * Only the test methods assigned to this shard run on this instance.
+	 */
+	private int shardIndex = 0;
+	
+	/***
+	 * How many instances the class's test methods are split between, for
+	 * this instance's DriverType. 1 if the class is not sharded.
+	 */
+	private int shardCount = 1;
+	
+	/***
+	 * When the running test method started, by System.nanoTime(), or 0 if
+	 * no method is running
+	 */
+	private long methodStartNanoSeconds = 0;
+	
+	/***
+	 * What the session had attributed to each activity when the running test
+	 * method started
+	 */
+	private TimeAttribution.Totals attributionAtMethodStart = null;
+	
 	/***
 	 * Set this to true by invoking 
 	 * {@code declareThisTestAsCurrentlyBeingUnderDevelopment()},
@@ -73,6 +134,20 @@ public abstract class baseTest {
 	 */
 	private boolean testIsBeingDemonstrated = false;
 	
+	/***
+	 * Set this to true by invoking
+	 * {@code declareThisTestAsEnteringLongTextByValue()}, which will have
+	 * text of at least LONG_TEXT_LENGTH characters entered into text fields
+	 * by setting their value, rather than by typing it, unless the test is
+	 * being demonstrated.
+	 */
+	private boolean testEntersLongTextByValue = false;
+	
+	/***
+	 * How many characters a CharSequence must have to be entered by value
+	 */
+	private static final int LONG_TEXT_LENGTH = 256;
+	
 	/***
 	 * Set this to true by invoking 
 	 * {@code declaseThisTestAsHavingVerboseOutput()}, to have verbose output
@@ -121,29 +196,168 @@ public abstract class baseTest {
 	 * test class that extends the baseTest. The purpose is that any test class
 	 * which extends the baseTest class, when it begins test execution, will
 	 * spin up several isolated instances of the test with either the webdriver
-	 * or the grid-node configuration.
+	 * or the grid-node configuration. The instances are made per configured
+	 * SeleniumNode, but each runs on whichever node of its DriverType is least
+	 * loaded when it starts, and the session pool of every node is warmed in
+	 * the background as soon as the instances are created. If
+	 * "Sharding.ShardsPerDriverType" is greater than 1, the instances are
+	 * instead made per DriverType, that many per DriverType, and each only
+	 * runs its share of the test methods (see MethodShardInterceptor).
 	 * @throws InterruptedException
 	 */
 	@Factory
 	public Object[] createInstances() throws ClassNotFoundException, NoSuchMethodException, InstantiationException, IllegalAccessException, InvocationTargetException {
+		DomainConstants constants = DomainConstants.current();
+		if(constants.sharding != null && constants.sharding.shardsPerDriverType > 1) {
+			Object[] result = this.newShardsForEveryDriverType(constants.seleniumNodes,constants.sharding.shardsPerDriverType);
+			assignSessionPoolWarmup(result,constants);
+			return result;
+		}
 		// Create an array the size of the Selenium node configuration constant
-		Object[] result = new Object[DomainConstants.seleniumNodes.length];
+		Object[] result = new Object[constants.seleniumNodes.length];
 		// We need to translate the iteration of a forall into an array
 		// So we use an incrementer ++ and for(any:all)
 		int incr = 0;
-		for(SeleniumNode seleniumNode : DomainConstants.seleniumNodes) {
-			if(seleniumNode.local) {
-				// If the node maps to a null DesiredCapabilites then it must be a local instance
-				result[incr] = this.newLocal(seleniumNode.dt);
-			} else {
-				// Otherwise we can procure a new remote instance using the de
-				result[incr] = this.newRemote(seleniumNode.nodeUrl,seleniumNode.dt);
-			}
+		for(SeleniumNode seleniumNode : constants.seleniumNodes) {
+			result[incr] = this.newForSeleniumNode(seleniumNode);
 			incr++;
 		}
+		assignSessionPoolWarmup(result,constants);
         return result;
     }
 	
+	/***
+	 * Create shardCount instances of the invoking subclass for each DriverType
+	 * among the configured SeleniumNodes, each a different shard of the class.
+	 * Each starts out on the first node of its DriverType, but like every
+	 * instance, runs on whichever node of its DriverType is least loaded.
+	 * @param seleniumNodes
+	 * @param shardCount
+	 * @return
+	 * @throws ClassNotFoundException
+	 * @throws NoSuchMethodException
+	 * @throws InstantiationException
+	 * @throws IllegalAccessException
+	 * @throws InvocationTargetException
+	 */
+	private Object[] newShardsForEveryDriverType(SeleniumNode[] seleniumNodes, int shardCount) throws ClassNotFoundException, NoSuchMethodException, InstantiationException, IllegalAccessException, InvocationTargetException {
+		LinkedHashMap<DriverType,SeleniumNode> firstNodeOfEveryDriverType = new LinkedHashMap<DriverType,SeleniumNode>();
+		for(SeleniumNode seleniumNode : seleniumNodes) {
+			if(!firstNodeOfEveryDriverType.containsKey(seleniumNode.dt)) {
+				firstNodeOfEveryDriverType.put(seleniumNode.dt,seleniumNode);
+			}
+		}
+		Object[] result = new Object[firstNodeOfEveryDriverType.size()*shardCount];
+		int incr = 0;
+		for(SeleniumNode seleniumNode : firstNodeOfEveryDriverType.values()) {
+			for(int shard = 0; shard < shardCount; shard++) {
+				baseTest newObj = this.newForSeleniumNode(seleniumNode);
+				newObj.shardIndex = shard;
+				newObj.shardCount = shardCount;
+				result[incr] = newObj;
+				incr++;
+			}
+		}
+		return result;
+	}
+	
+	/***
+	 * Create a new local or remote instance of the invoking subclass, as the
+	 * SeleniumNode is configured
+	 * @param seleniumNode
+	 * @return
+	 * @throws ClassNotFoundException
+	 * @throws NoSuchMethodException
+	 * @throws InstantiationException
+	 * @throws IllegalAccessException
+	 * @throws InvocationTargetException
+	 */
+	private baseTest newForSeleniumNode(SeleniumNode seleniumNode) throws ClassNotFoundException, NoSuchMethodException, InstantiationException, IllegalAccessException, InvocationTargetException {
+		if(seleniumNode.local) {
+			// If the node maps to a null DesiredCapabilites then it must be a local instance
+			return this.newLocal(seleniumNode.dt);
+		} else {
+			// Otherwise we can procure a new remote instance using the de
+			return this.newRemote(seleniumNode.nodeUrl,seleniumNode.dt);
+		}
+	}
+	
+	/***
+	 * Begin warming the session pool, and have every instance join the warm
+	 * up of the node it runs on in its {@code @BeforeClass}
+	 * @param instances
+	 * @param constants the DomainConstants the instances were made from
+	 */
+	private void assignSessionPoolWarmup(Object[] instances, DomainConstants constants) {
+		// Start every node's browsers now, so they start concurrently
+		// instead of one at a time as each instance reaches its @BeforeClass
+		Map<String,CompletableFuture<Void>> warmups = warmSessionPoolForEverySeleniumNode(constants);
+		for(Object instance : instances) {
+			((baseTest) instance).sessionPoolWarmups = warmups;
+		}
+	}
+	
+	/***
+	 * Start as many warm sessions in the factory's session pool as each
+	 * configured SeleniumNode can run at once (bounded by the pool's maximum
+	 * idle sessions), without waiting for them to start. Remote nodes begin
+	 * having their health probed at their configured status URL.
+	 * @param constants
+	 * @return the CompletableFuture of each node's warm up, by getWarmupKey,
+	 * that completes when it has finished, exceptionally if it failed
+	 */
+	private Map<String,CompletableFuture<Void>> warmSessionPoolForEverySeleniumNode(DomainConstants constants) {
+		Map<String,CompletableFuture<Void>> warmups = new HashMap<String,CompletableFuture<Void>>();
+		for(SeleniumNode seleniumNode : constants.seleniumNodes) {
+			CompletableFuture<Void> warmup;
+			try {
+				if(seleniumNode.local) {
+					//TODO incorporate "arguments" passed in through the config, and remove these Chrome specific options
+					warmup = nwdf.warmNiceWebDriverPool(seleniumNode.dt,"--incognito --start-maximized",constants.test.waitSeconds,seleniumNode.maxSessions);
+				} else {
+					nwdf.monitorRemoteNode(seleniumNode.nodeUrl,seleniumNode.statusUrl);
+					warmup = nwdf.warmNiceWebDriverPoolRemote(seleniumNode.dt,seleniumNode.nodeUrl,constants.test.waitSeconds,seleniumNode.maxSessions);
+				}
+			} catch (FileNotFoundException e) {
+				// Leave the instances to rethrow this from their @BeforeClass
+				warmup = CompletableFuture.completedFuture(null);
+			}
+			warmups.merge(getWarmupKey(seleniumNode),warmup,(previous,next) -> CompletableFuture.allOf(previous,next));
+		}
+		return Collections.unmodifiableMap(warmups);
+	}
+	
+	/***
+	 * What a node's sessions are pooled under: its DriverType, and its URL if
+	 * it is remote, so that the instance's own copy of a node and the one
+	 * leased from the scheduler find the same warm up
+	 * @param seleniumNode
+	 * @return
+	 */
+	private static String getWarmupKey(SeleniumNode seleniumNode) {
+		return seleniumNode.dt+(seleniumNode.local ? " local" : " "+seleniumNode.nodeUrl.toExternalForm());
+	}
+	
+	/***
+	 * Wait for the warm up of the session pool of the node this instance runs
+	 * on, if the {@code @Factory} began one, but not for any other node's. A
+	 * warm up that failed is warned of, and the instance starts its own
+	 * session as it would have without one.
+	 */
+	private void joinSessionPoolWarmupOfTheSeleniumNode() {
+		if(sessionPoolWarmups != null) {
+			CompletableFuture<Void> warmup = sessionPoolWarmups.get(getWarmupKey(seleniumNode));
+			if(warmup != null) {
+				try {
+					warmup.join();
+				} catch (CompletionException e) {
+					EventLog.forSuite().log(LogLevel.Warn,"Failed to warm the session pool of | {} | {}",getWarmupKey(seleniumNode),e.getCause());
+				}
+			}
+			sessionPoolWarmups = null;
+		}
+	}
+	
 	/***
 	 * Finds the class object for the instantiating subclass, gets the subclass
 	 * constructor, invokes the parameterless subclass constructor, and returns
@@ -206,46 +420,134 @@ public abstract class baseTest {
 	
 	/***
 	 * Before a class starts executing its test methods, use the 
-	 * NiceWebDriverFactory to instantiate a new NiceWebDriver of the type
-	 * requested in the configuration file.
+	 * NiceWebDriverFactory to check out a warm NiceWebDriver of the type
+	 * requested in the configuration file, which is only started from cold
+	 * if the factory's session pool has none idle. The node it runs on is
+	 * leased from the SeleniumNodeScheduler, which waits while every node of
+	 * the DriverType is at its maximum sessions, and passes over remote nodes
+	 * that are failing their health checks. If the {@code @Factory}
+	 * already began warming the session pool, this then waits for the warm
+	 * up of the leased node only.
 	 * @throws MalformedURLException
 	 * @throws FileNotFoundException
+	 * @throws InterruptedException
 	 */
 	@BeforeClass
-	public void beforeClass() throws MalformedURLException, FileNotFoundException {
-		if(seleniumNode.local) {
-			//TODO incorporate "arguments" passed in through the config, and remove these Chrome specific options
-			nwd = nwdf.getNiceWebDriver(seleniumNode.dt,"--incognito --start-maximized",DomainConstants.test.waitSeconds);
-		} else {
-			nwd = nwdf.getNiceWebDriverRemote(seleniumNode.dt, seleniumNode.nodeUrl ,DomainConstants.test.waitSeconds);
+	public void beforeClass() throws MalformedURLException, FileNotFoundException, InterruptedException {
+		DomainConstants constants = DomainConstants.current();
+		SeleniumNodeScheduler scheduler = constants.seleniumNodeScheduler;
+		if(scheduler != null) {
+			leasingScheduler = scheduler;
+			leasedSeleniumNode = scheduler.acquire(seleniumNode.dt,node -> node.local || nwdf.isRemoteNodeHealthy(node.nodeUrl));
+			if(leasedSeleniumNode != null) {
+				seleniumNode = leasedSeleniumNode;
+			}
+		}
+		try {
+			joinSessionPoolWarmupOfTheSeleniumNode();
+			if(seleniumNode.local) {
+				//TODO incorporate "arguments" passed in through the config, and remove these Chrome specific options
+				nwd = nwdf.checkoutNiceWebDriver(seleniumNode.dt,"--incognito --start-maximized",constants.test.waitSeconds);
+			} else {
+				nwd = nwdf.checkoutNiceWebDriverRemote(seleniumNode.dt, seleniumNode.nodeUrl ,constants.test.waitSeconds);
+			}
+		} catch (RuntimeException | FileNotFoundException e) {
+			releaseLeasedSeleniumNode();
+			throw e;
 		}
 	}
+	
+	/***
+	 * Return the node leased in {@code @BeforeClass} to the scheduler
+	 */
+	private void releaseLeasedSeleniumNode() {
+		if(leasingScheduler != null && leasedSeleniumNode != null) {
+			leasingScheduler.release(leasedSeleniumNode);
+		}
+		leasingScheduler = null;
+		leasedSeleniumNode = null;
+	}
 
 	/***
-	 * After a class has finished executing its test methods, close the driver
-	 * and break the link to the NiceWebdriver object
+	 * After a class has finished executing its test methods, check the driver
+	 * back in to the factory's session pool, which clears its cookies, storage
+	 * and extra windows before it is reused, break the link to the
+	 * NiceWebdriver object, and release the node to the next waiting instance
 	 */
 	@AfterClass
 	public void afterClass() {
 		if(this.testInDevelopment) {
 			//This does nothing to block the closing of the window
 		} else {
-			nwd.closeWebDriver();
+			nwdf.checkinNiceWebDriver(nwd);
 			nwd = null;
 		}
+		releaseLeasedSeleniumNode();
 	}
 
 	/***
 	 * Before each test method, have the browser load the page specified by the
 	 * "Test.*" entries in the config file, specifically the IP, port and
-	 * Context Root.
+	 * Context Root, and tag the session's events with the test method.
+	 * @param result
 	 */
 	@BeforeMethod
-	public void beforeMethod() {
+	public void beforeMethod(ITestResult result) {
+		markTheStartOfTheMethod();
+		if(nwd != null) {
+			nwd.getEventLog().setTestId(MethodShardInterceptor.getQualifiedName(result.getMethod()));
+		}
 		//TODO Make the protocol a configurable argument
 		nwd.openTestDefaultWithHTTPSAtBase();
 	}
 	
+	/***
+	 * After each test method, stop tagging the session's events with it,
+	 * record where its time went, from the start of its
+	 * {@code @BeforeMethod}, on commands, navigation, waits and sleeps, and
+	 * add it to the session's track of the trace timeline
+	 * @param result
+	 */
+	@AfterMethod(alwaysRun = true)
+	public void afterMethod(ITestResult result) {
+		if(nwd != null) {
+			nwd.getEventLog().setTestId("");
+		}
+		if(methodStartNanoSeconds == 0 || nwd == null || nwd.getCommandMetrics() == null) {
+			return;
+		}
+		long elapsed = System.nanoTime()-methodStartNanoSeconds;
+		String method = MethodShardInterceptor.getQualifiedName(result.getMethod());
+		TimeAttribution.Totals totals = nwd.getCommandMetrics().getTimeAttribution().getTotals().since(attributionAtMethodStart);
+		MethodTimeAttribution.record(new MethodTimeAttribution(method,getStatusName(result.getStatus()),nwd.getCommandMetrics(),elapsed,totals));
+		nwd.getCommandMetrics().getTrack().span("test",method,methodStartNanoSeconds,elapsed,"status",getStatusName(result.getStatus()));
+		methodStartNanoSeconds = 0;
+	}
+	
+	/***
+	 * Note the time, and what the session has attributed so far, as a test
+	 * method starts
+	 */
+	private void markTheStartOfTheMethod() {
+		if(nwd != null && nwd.getCommandMetrics() != null) {
+			attributionAtMethodStart = nwd.getCommandMetrics().getTimeAttribution().getTotals();
+			methodStartNanoSeconds = System.nanoTime();
+		}
+	}
+	
+	private static String getStatusName(int status) {
+		switch(status) {
+			case ITestResult.SUCCESS:
+				return "SUCCESS";
+			case ITestResult.FAILURE:
+				return "FAILURE";
+			case ITestResult.SKIP:
+				return "SKIP";
+			default:
+				return Integer.toString(status);
+		}
+	}
+	
 	/***
 	 * Subclasses of the base test can utilise this to have their
 	 * {@code @DataProvider} return an {@code Object[collection.size()][1]}
@@ -311,6 +613,24 @@ public abstract class baseTest {
 		return seleniumNode;
 	}
 	
+	/***
+	 * Get which of the class's shards this instance is, from 0 to
+	 * {@code getShardCount()-1}
+	 * @return
+	 */
+	public int getShardIndex() {
+		return shardIndex;
+	}
+	
+	/***
+	 * Get how many instances the class's test methods are split between for
+	 * this instance's DriverType, which is 1 if the class is not sharded
+	 * @return
+	 */
+	public int getShardCount() {
+		return shardCount;
+	}
+	
 ///////////////////////////////////////////////////////////////////////////////
 /*
  * Functionality that allows for a test to self declare that it is "under
@@ -338,6 +658,16 @@ public abstract class baseTest {
 		this.testIsBeingDemonstrated = true;
 	}
 	
+	/***
+	 * Call this at the start of an {@code @Test} annotated method to have
+	 * long text entered into text fields by setting their value, with input
+	 * and change events, rather than typed key by key. Only for fields whose
+	 * page does not listen for key events.
+	 */
+	public void declareThisTestAsEnteringLongTextByValue() {
+		this.testEntersLongTextByValue = true;
+	}
+	
 	/***
 	 * Call this at the start of an {@code @Test} annotated method to have
 	 * verbose output!
@@ -388,10 +718,13 @@ public abstract class baseTest {
 	 * @throws InterruptedException
 	 */
 	public void promptPauseHard() throws InterruptedException{
+		EventLog.flush(1000);
 		System.out.println("Press \"ENTER\" to continue...");
+		long start = System.nanoTime();
 		Scanner scanner = new Scanner(System.in);
 		scanner.nextLine();
 		scanner.close();
+		attributeSleepToTheSession("promptPauseHard",start);
 	}
 	
 ///////////////////////////////////////////////////////////////////////////////
@@ -406,7 +739,7 @@ public abstract class baseTest {
 	 */
 	private void sleepBeforeClicking() throws InterruptedException {
 		if(this.testIsBeingDemonstrated) {
-			Thread.sleep(DomainConstants.testSleeps.MilliSecondsBeforeClick);
+			sleepAndAttribute(DomainConstants.current().testSleeps.MilliSecondsBeforeClick);
 		}
 	}
 
@@ -416,7 +749,7 @@ public abstract class baseTest {
 	 */
 	private void sleepAfterClicking() throws InterruptedException {
 		if(this.testIsBeingDemonstrated) {
-			Thread.sleep(DomainConstants.testSleeps.MilliSecondsAfterClick);
+			sleepAndAttribute(DomainConstants.current().testSleeps.MilliSecondsAfterClick);
 		}
 	}
 
@@ -426,7 +759,7 @@ public abstract class baseTest {
 	 */
 	private void sleepBetweenKeyStrokes() throws InterruptedException {
 		if(this.testIsBeingDemonstrated) {
-			Thread.sleep(DomainConstants.testSleeps.MilliSecondsBetweenKeyStrokes);
+			sleepAndAttribute(DomainConstants.current().testSleeps.MilliSecondsBetweenKeyStrokes);
 		}
 	}
 
@@ -435,9 +768,38 @@ public abstract class baseTest {
 	 * @throws InterruptedException
 	 */
 	private void sleepForTheDurationOfAPrompt() throws InterruptedException {
-		Thread.sleep(DomainConstants.testSleeps.MilliSecondSimulateInteractivePause);
+		sleepAndAttribute(DomainConstants.current().testSleeps.MilliSecondSimulateInteractivePause);
 	}
 
+	/***
+	 * Sleep, attributing the time to sleeping in the session's TimeAttribution
+	 * and trace timeline
+	 * @param milliSeconds
+	 * @throws InterruptedException
+	 */
+	private void sleepAndAttribute(long milliSeconds) throws InterruptedException {
+		long start = System.nanoTime();
+		try {
+			Thread.sleep(milliSeconds);
+		} finally {
+			attributeSleepToTheSession("sleep",start);
+		}
+	}
+	
+	/***
+	 * Attribute the time since startNanoSeconds to sleeping, and add it to
+	 * the session's track of the trace timeline, if the session has metrics
+	 * @param name
+	 * @param startNanoSeconds
+	 */
+	private void attributeSleepToTheSession(String name, long startNanoSeconds) {
+		long elapsedNanoSeconds = System.nanoTime()-startNanoSeconds;
+		if(nwd != null && nwd.getCommandMetrics() != null) {
+			nwd.getCommandMetrics().getTimeAttribution().add(Activity.Sleep,elapsedNanoSeconds);
+			nwd.getCommandMetrics().getTrack().span("sleep",name,startNanoSeconds,elapsedNanoSeconds,null,null);
+		}
+	}
+	
 	/***
 	 * Call this in {@code @Test} annotated methods to sleep for the duration a
 	 * success message will be displayed for by the page, as this may block the
@@ -446,7 +808,7 @@ public abstract class baseTest {
 	 */
 	public void sleepForTheDurationOfASuccessMessagePrompt() throws InterruptedException {
 		nwdf.getDomainConstants();
-		Thread.sleep(DomainConstants.testSleeps.MilliSecondDurationOfSuccessMessage);
+		sleepAndAttribute(DomainConstants.current().testSleeps.MilliSecondDurationOfSuccessMessage);
 	}
 	
 ///////////////////////////////////////////////////////////////////////////////
@@ -532,16 +894,54 @@ public abstract class baseTest {
  */
 ///////////////////////////////////////////////////////////////////////////////
 	
+	/***
+	 * Types the keys into the WebElement. Only while the test is being
+	 * demonstrated is each character sent on its own, with a sleep between
+	 * keystrokes; otherwise every CharSequence is sent in one command, and if
+	 * the test enters long text by value, long CharSequences are entered by
+	 * value in one script call each.
+	 * @param we
+	 * @param keyStrokes
+	 * @return
+	 * @throws InterruptedException
+	 */
 	private WebElement sendKeysToElementNestedIterationOnCharSequences(WebElement we, CharSequence... keyStrokes) throws InterruptedException {
-		for(CharSequence keyStroker : keyStrokes) {
-			for(int charIndex = 0, numChars = keyStroker.length() ; charIndex < numChars ; charIndex++) { 
-				nwd.sendKeysToANonNullWebElement(we,keyStroker.charAt(charIndex)+"");
-				sleepBetweenKeyStrokes();
+		if(this.testIsBeingDemonstrated) {
+			for(CharSequence keyStroker : keyStrokes) {
+				for(int charIndex = 0, numChars = keyStroker.length() ; charIndex < numChars ; charIndex++) { 
+					nwd.sendKeysToANonNullWebElement(we,keyStroker.charAt(charIndex)+"");
+					sleepBetweenKeyStrokes();
+				}
+			}
+		} else if(this.testEntersLongTextByValue) {
+			List<CharSequence> pendingKeyStrokes = new ArrayList<CharSequence>();
+			for(CharSequence keyStroker : keyStrokes) {
+				if(keyStroker.length() >= LONG_TEXT_LENGTH) {
+					sendPendingKeyStrokes(we,pendingKeyStrokes);
+					nwd.setValueOfANonNullWebElement(we,keyStroker);
+				} else {
+					pendingKeyStrokes.add(keyStroker);
+				}
 			}
+			sendPendingKeyStrokes(we,pendingKeyStrokes);
+		} else if(keyStrokes.length > 0) {
+			nwd.sendKeysToANonNullWebElement(we,keyStrokes);
 		}
 		return we;
 	}
 	
+	/***
+	 * Send the keystrokes gathered so far in one command, and forget them
+	 * @param we
+	 * @param pendingKeyStrokes
+	 */
+	private void sendPendingKeyStrokes(WebElement we, List<CharSequence> pendingKeyStrokes) {
+		if(!pendingKeyStrokes.isEmpty()) {
+			nwd.sendKeysToANonNullWebElement(we,pendingKeyStrokes.toArray(new CharSequence[pendingKeyStrokes.size()]));
+			pendingKeyStrokes.clear();
+		}
+	}
+	
 	/***
 	 * Sends keys to a WebElement found using a CSS Selector, wrapped with 
 	 * demonstration sleeps.
@@ -738,6 +1138,32 @@ public abstract class baseTest {
 		Assert.assertFalse(nwd.isWebPage404());
 	}
 	
+	/***
+	 * Assert that loading the default web page under test with some subroot
+	 * does not result in any 4xx or 5xx HTTP status
+	 * @param subroot
+	 */
+	public void AssertSubrootDoesNotLeadToAnHttpError(String subroot) {
+		nwd.openTestDefaultWithHTTPSAndSubroot(subroot);
+		Assert.assertFalse(nwd.isWebPageAnHttpError());
+	}
+	
+	/***
+	 * Assert that none of the http links on the current page are broken,
+	 * checking them all at once over HTTP rather than clicking each one,
+	 * and printing any that are
+	 * @param methodName
+	 */
+	public void AssertLinksOnThePageAreNotBroken(String methodName) {
+		Map<String,LinkValidator.LinkStatus> statuses = nwd.validateLinksOnThePage();
+		Assert.assertNotNull(statuses);
+		List<LinkValidator.LinkStatus> brokenLinks = LinkValidator.getBrokenLinks(statuses);
+		for(LinkValidator.LinkStatus brokenLink : brokenLinks) {
+			nwd.getEventLog().log(LogLevel.Info,"{}: broken link | {}",methodName,brokenLink);
+		}
+		Assert.assertTrue(brokenLinks.isEmpty());
+	}
+	
 	/*
 	 * Assert for Href : does it exist or is it visible?
 	 */
@@ -748,18 +1174,32 @@ public abstract class baseTest {
 	 * @param href
 	 */
 	public void AssertHrefExists(String methodName, String href) {
-		System.out.println(methodName+": expect next web element locator to pass");
+		nwd.getEventLog().log(LogLevel.Info,"{}: expect next web element locator to pass",methodName);
 		Assert.assertTrue(nwd.AnchorExistsWithHREF(href, false));
 	}
 
 	/***
-	 * Assert that the href is not visible, whether or not it exists
+	 * Assert that the href is not visible, whether or not it exists, once
+	 * the page has gone quiet, without waiting for it to turn up, unless the
+	 * page stays busy
 	 * @param methodName
 	 * @param href
 	 */
 	public void AssertHrefNotVisible(String methodName, String href) {
-		System.out.println(methodName+": expect next web element locator to fail");
-		Assert.assertFalse(nwd.AnchorExistsWithHREF(href, true));
+		AssertHrefNotVisible(methodName,href,0);
+	}
+
+	/***
+	 * Assert that the href is not visible, whether or not it exists, once
+	 * the page has gone quiet, and does not become visible for
+	 * stayAbsentMilliSeconds, or longer if the page stays busy
+	 * @param methodName
+	 * @param href
+	 * @param stayAbsentMilliSeconds
+	 */
+	public void AssertHrefNotVisible(String methodName, String href, long stayAbsentMilliSeconds) {
+		nwd.getEventLog().log(LogLevel.Info,"{}: expect next web element to be absent",methodName);
+		Assert.assertTrue(nwd.AnchorIsAbsentWithHREF(href, true, stayAbsentMilliSeconds));
 	}
 
 	/***
@@ -768,7 +1208,7 @@ public abstract class baseTest {
 	 * @param href
 	 */
 	public void AssertHrefExistsAndIsVisible(String methodName, String href) {
-		System.out.println(methodName+": expect next web element locator to pass");
+		nwd.getEventLog().log(LogLevel.Info,"{}: expect next web element locator to pass",methodName);
 		Assert.assertTrue(nwd.AnchorExistsWithHREF(href, true));
 	}
 
@@ -783,13 +1223,26 @@ public abstract class baseTest {
 	}
 
 	/***
-	 * Asserts that a href does not exist
+	 * Asserts that a href does not exist once the page has gone quiet,
+	 * without waiting for it to turn up, unless the page stays busy
 	 * @param methodName
 	 * @param href
 	 */
 	public void AssertHrefDoesNotExist(String methodName, String href) {
-		System.out.println(methodName+": expect next web element locator to fail");
-		Assert.assertFalse(nwd.AnchorExistsWithHREF(href, false));
+		AssertHrefDoesNotExist(methodName,href,0);
+	}
+
+	/***
+	 * Asserts that a href does not exist once the page has gone quiet, and
+	 * does not turn up for stayAbsentMilliSeconds, or longer if the page
+	 * stays busy
+	 * @param methodName
+	 * @param href
+	 * @param stayAbsentMilliSeconds
+	 */
+	public void AssertHrefDoesNotExist(String methodName, String href, long stayAbsentMilliSeconds) {
+		nwd.getEventLog().log(LogLevel.Info,"{}: expect next web element to be absent",methodName);
+		Assert.assertTrue(nwd.AnchorIsAbsentWithHREF(href, false, stayAbsentMilliSeconds));
 	}
 	
 	/*
@@ -814,4 +1267,88 @@ public abstract class baseTest {
 		Assert.assertFalse(nwd.isWebPage404());
 	}
 
+	/***
+	 * Asserts that a hyperlink can be clicked and does not result in any 4xx
+	 * or 5xx HTTP status
+	 * @param href
+	 */
+	public void AssertHyperlinkExistsAndIsClickableAndDoesNotLeadToAnHttpError(String href) {
+		AssertHyperlinkExistsAndIsClickable(href);
+		Assert.assertFalse(nwd.isWebPageAnHttpError());
+	}
+	
+	/*
+	 * Assert on the page's elements : read from one snapshot of its DOM
+	 */
+	
+	/***
+	 * Asserts how many elements the CSS Selector matches on the page
+	 * @param methodName
+	 * @param cssSelector
+	 * @param expectedCount
+	 */
+	public void AssertCSSElementCount(String methodName, String cssSelector, int expectedCount) {
+		nwd.getEventLog().log(LogLevel.Info,"{}: expect {} elements matching | {}",methodName,expectedCount,cssSelector);
+		Assert.assertEquals(nwd.countCSSElements(cssSelector),expectedCount);
+	}
+	
+	/***
+	 * Asserts how many elements the XPath selects on the page
+	 * @param methodName
+	 * @param xpath
+	 * @param expectedCount
+	 */
+	public void AssertXPathElementCount(String methodName, String xpath, int expectedCount) {
+		nwd.getEventLog().log(LogLevel.Info,"{}: expect {} elements selected by | {}",methodName,expectedCount,xpath);
+		Assert.assertEquals(nwd.countXPathElements(xpath),expectedCount);
+	}
+	
+	/***
+	 * Asserts the displayed text of a web element, each run of whitespace
+	 * in it read as one space
+	 * @param methodName
+	 * @param cssSelector
+	 * @param expectedText
+	 */
+	public void AssertCSSElementText(String methodName, String cssSelector, String expectedText) {
+		nwd.getEventLog().log(LogLevel.Info,"{}: expect the text \"{}\" of | {}",methodName,expectedText,cssSelector);
+		Assert.assertEquals(nwd.getTextOfCSSElementIfExists(cssSelector),expectedText);
+	}
+	
+	/***
+	 * Asserts the displayed text of a web element, each run of whitespace
+	 * in it read as one space
+	 * @param methodName
+	 * @param xpath
+	 * @param expectedText
+	 */
+	public void AssertXPathElementText(String methodName, String xpath, String expectedText) {
+		nwd.getEventLog().log(LogLevel.Info,"{}: expect the text \"{}\" of | {}",methodName,expectedText,xpath);
+		Assert.assertEquals(nwd.getTextOfXPathElementIfExists(xpath),expectedText);
+	}
+	
+	/***
+	 * Asserts the value of an attribute of a web element
+	 * @param methodName
+	 * @param cssSelector
+	 * @param attribute
+	 * @param expectedValue
+	 */
+	public void AssertCSSElementAttribute(String methodName, String cssSelector, String attribute, String expectedValue) {
+		nwd.getEventLog().log(LogLevel.Info,"{}: expect {} on | {}",methodName,attribute+"=\""+expectedValue+"\"",cssSelector);
+		Assert.assertEquals(nwd.getAttributeOfCSSElementIfExists(cssSelector,attribute),expectedValue);
+	}
+	
+	/***
+	 * Asserts the value of an attribute of a web element
+	 * @param methodName
+	 * @param xpath
+	 * @param attribute
+	 * @param expectedValue
+	 */
+	public void AssertXPathElementAttribute(String methodName, String xpath, String attribute, String expectedValue) {
+		nwd.getEventLog().log(LogLevel.Info,"{}: expect {} on | {}",methodName,attribute+"=\""+expectedValue+"\"",xpath);
+		Assert.assertEquals(nwd.getAttributeOfXPathElementIfExists(xpath,attribute),expectedValue);
+	}
+
 }
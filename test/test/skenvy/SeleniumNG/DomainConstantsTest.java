@@ -0,0 +1,48 @@
+package test.skenvy.SeleniumNG;
+
+import java.io.IOException;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import com.skenvy.SeleniumNG.DomainConstants;
+
+import test.skenvy.SeleniumNG.NiceWebDriver.StubConfig;
+
+/***
+ * Checks that each configuration file is published as one snapshot: that a
+ * snapshot already taken keeps every value of its own file across a
+ * reload, and that a file which fails to load publishes nothing.
+ */
+public class DomainConstantsTest {
+
+	@AfterClass
+	public void restoreStubConfig() throws IOException {
+		new DomainConstants(StubConfig.write());
+	}
+
+	@Test
+	public void ASnapshotKeepsTheValuesOfItsOwnFile() throws IOException {
+		DomainConstants first = new DomainConstants(StubConfig.write("SessionPool.MaxIdleSessionsPerKey","3","Logging.Level","Warn"));
+		DomainConstants snapshot = DomainConstants.current();
+		Assert.assertSame(snapshot,first);
+		DomainConstants second = new DomainConstants(StubConfig.write("SessionPool.MaxIdleSessionsPerKey","7","Logging.Level","Verbose"));
+		Assert.assertSame(DomainConstants.current(),second);
+		Assert.assertEquals(snapshot.sessionPool.maxIdleSessionsPerKey,3);
+		Assert.assertEquals(snapshot.logging.level.toString(),"Warn");
+		Assert.assertEquals(DomainConstants.current().sessionPool.maxIdleSessionsPerKey,7);
+	}
+
+	@Test
+	public void AFileThatFailsToLoadPublishesNothing() throws IOException {
+		DomainConstants loaded = new DomainConstants(StubConfig.write());
+		try {
+			new DomainConstants(StubConfig.write("SessionPool.MaxIdleSessionsPerKey","-1"));
+			Assert.fail("A negative maximum of idle sessions must not load");
+		} catch (RuntimeException e) {
+			Assert.assertSame(DomainConstants.current(),loaded);
+		}
+	}
+
+}
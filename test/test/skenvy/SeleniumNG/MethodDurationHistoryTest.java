@@ -0,0 +1,69 @@
+package test.skenvy.SeleniumNG;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.UUID;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.skenvy.SeleniumNG.MethodDurationHistory;
+
+/***
+ * Checks that the MethodDurationHistory estimates, records and persists
+ * method durations.
+ */
+public class MethodDurationHistoryTest {
+
+	@Test
+	public void UnrecordedMethodsUseTheDefaultEstimate() throws IOException {
+		MethodDurationHistory history = MethodDurationHistory.forPath(newHistoryPath());
+		Assert.assertEquals(history.getEstimateMilliSeconds("pkg.Class.method",1234),1234L);
+	}
+
+	@Test
+	public void EveryInvocationOfAnInstanceInARunIsSummedAndSaved() throws IOException {
+		String path = newHistoryPath();
+		MethodDurationHistory history = MethodDurationHistory.forPath(path);
+		Object instance = new Object();
+		history.record("pkg.Class.dataDriven",instance,100);
+		history.record("pkg.Class.dataDriven",instance,150);
+		history.save();
+		Assert.assertEquals(history.getEstimateMilliSeconds("pkg.Class.dataDriven",0),250L);
+		Assert.assertTrue(new File(path).exists());
+	}
+
+	@Test
+	public void InstancesInARunAreAveraged() throws IOException {
+		MethodDurationHistory history = MethodDurationHistory.forPath(newHistoryPath());
+		// One instance per node or DriverType, each sharded on its own
+		history.record("pkg.Class.method",new Object(),1000);
+		history.record("pkg.Class.method",new Object(),3000);
+		history.save();
+		Assert.assertEquals(history.getEstimateMilliSeconds("pkg.Class.method",0),2000L);
+	}
+
+	@Test
+	public void LaterRunsAreWeightedEquallyWithTheEstimate() throws IOException {
+		MethodDurationHistory history = MethodDurationHistory.forPath(newHistoryPath());
+		history.record("pkg.Class.method",this,1000);
+		history.save();
+		history.record("pkg.Class.method",this,3000);
+		history.save();
+		Assert.assertEquals(history.getEstimateMilliSeconds("pkg.Class.method",0),2000L);
+		// A save without the method being run leaves its estimate alone
+		history.save();
+		Assert.assertEquals(history.getEstimateMilliSeconds("pkg.Class.method",0),2000L);
+	}
+
+	/***
+	 * A path in the temporary directory that no history has used yet
+	 * @return
+	 */
+	private static String newHistoryPath() {
+		File historyFile = new File(System.getProperty("java.io.tmpdir"),"SeleniumNG-durations-"+UUID.randomUUID()+".xml");
+		historyFile.deleteOnExit();
+		return historyFile.getAbsolutePath();
+	}
+
+}
@@ -0,0 +1,117 @@
+package test.skenvy.SeleniumNG;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.ITestNGMethod;
+import org.testng.annotations.Test;
+
+import com.skenvy.SeleniumNG.MethodShardInterceptor;
+
+/***
+ * Checks how the MethodShardInterceptor partitions a class's methods
+ * between its shards.
+ */
+public class MethodShardInterceptorTest {
+
+	@Test
+	public void EveryMethodIsAssignedToExactlyOneShardEvenly() {
+		List<ITestNGMethod> methods = new ArrayList<ITestNGMethod>();
+		for(int k = 0; k < 10; k++) {
+			methods.add(method("test"+k));
+		}
+		Map<String,Integer> shards = MethodShardInterceptor.assignMethodsToShards(methods,3);
+		Assert.assertEquals(shards.size(),10);
+		int[] shardSizes = new int[3];
+		for(int shard : shards.values()) {
+			shardSizes[shard]++;
+		}
+		Assert.assertEquals(shardSizes[0],4);
+		Assert.assertEquals(shardSizes[1],3);
+		Assert.assertEquals(shardSizes[2],3);
+	}
+
+	@Test
+	public void DependentMethodsAreKeptTogetherOnTheFirstShard() {
+		String login = MethodShardInterceptorTest.class.getName()+".login";
+		List<ITestNGMethod> methods = new ArrayList<ITestNGMethod>();
+		methods.add(method("login"));
+		methods.add(method("checkout",login));
+		methods.add(method("a"));
+		methods.add(method("b"));
+		Map<String,Integer> shards = MethodShardInterceptor.assignMethodsToShards(methods,2);
+		Assert.assertEquals((int) shards.get(login),0);
+		Assert.assertEquals((int) shards.get(MethodShardInterceptorTest.class.getName()+".checkout"),0);
+		Assert.assertEquals((int) shards.get(MethodShardInterceptorTest.class.getName()+".a"),1);
+		Assert.assertEquals((int) shards.get(MethodShardInterceptorTest.class.getName()+".b"),1);
+	}
+
+	@Test
+	public void LongestMethodsArePackedFirstByEstimatedDuration() {
+		String prefix = MethodShardInterceptorTest.class.getName()+".";
+		Map<String,Long> estimates = new HashMap<String,Long>();
+		estimates.put(prefix+"a",300L);
+		estimates.put(prefix+"b",200L);
+		estimates.put(prefix+"c",200L);
+		estimates.put(prefix+"d",100L);
+		estimates.put(prefix+"e",100L);
+		estimates.put(prefix+"f",100L);
+		List<ITestNGMethod> methods = new ArrayList<ITestNGMethod>();
+		for(String methodName : new String[] {"a","b","c","d","e","f"}) {
+			methods.add(method(methodName));
+		}
+		Map<String,Integer> shards = MethodShardInterceptor.assignMethodsToShards(methods,2,estimates::get);
+		long[] shardLoads = new long[2];
+		for(Map.Entry<String,Integer> entry : shards.entrySet()) {
+			shardLoads[entry.getValue()] += estimates.get(entry.getKey());
+		}
+		// a+d+e (500) and b+c+f (500), where a count based split could be 700 and 300
+		Assert.assertEquals(shardLoads[0],500L);
+		Assert.assertEquals(shardLoads[1],500L);
+	}
+
+	@Test
+	public void AssignmentDoesNotDependOnTheOrderMethodsAreListed() {
+		List<ITestNGMethod> methods = new ArrayList<ITestNGMethod>();
+		List<ITestNGMethod> reversed = new ArrayList<ITestNGMethod>();
+		for(int k = 0; k < 7; k++) {
+			methods.add(method("test"+k));
+			reversed.add(0,method("test"+k));
+		}
+		Assert.assertEquals(MethodShardInterceptor.assignMethodsToShards(reversed,4),MethodShardInterceptor.assignMethodsToShards(methods,4));
+	}
+
+	/***
+	 * A method of this class, depending on the qualified method names
+	 * @param methodName
+	 * @param methodsDependedUpon
+	 * @return
+	 */
+	private static ITestNGMethod method(String methodName, String... methodsDependedUpon) {
+		return (ITestNGMethod) Proxy.newProxyInstance(ITestNGMethod.class.getClassLoader(),new Class<?>[] {ITestNGMethod.class},(proxy,method,args) -> {
+			switch(method.getName()) {
+				case "getRealClass":
+					return MethodShardInterceptorTest.class;
+				case "getMethodName":
+					return methodName;
+				case "getMethodsDependedUpon":
+					return methodsDependedUpon;
+				case "getGroupsDependedUpon":
+					return new String[0];
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "equals":
+					return proxy == args[0];
+				case "toString":
+					return methodName;
+				default:
+					throw new UnsupportedOperationException(method.getName());
+			}
+		});
+	}
+
+}
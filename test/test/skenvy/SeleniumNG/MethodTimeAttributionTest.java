@@ -0,0 +1,85 @@
+package test.skenvy.SeleniumNG;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.skenvy.SeleniumNG.MethodTimeAttribution;
+import com.skenvy.SeleniumNG.NiceWebDriver.CommandMetrics;
+import com.skenvy.SeleniumNG.NiceWebDriver.DriverType;
+import com.skenvy.SeleniumNG.NiceWebDriver.TimeAttribution;
+import com.skenvy.SeleniumNG.NiceWebDriver.TimeAttribution.Activity;
+
+/***
+ * Checks that where each method's time went is reported as JSON, that the
+ * methods that spent the longest idle are listed first, and that every
+ * method recorded is reported once.
+ */
+public class MethodTimeAttributionTest {
+
+	private static final long MS = 1000000L;
+
+	private static MethodTimeAttribution method(String name, CommandMetrics metrics, long elapsedMilliSeconds, long waitMilliSeconds, long sleepMilliSeconds, long commandMilliSeconds) {
+		TimeAttribution attribution = new TimeAttribution();
+		attribution.add(Activity.Wait,waitMilliSeconds*MS);
+		attribution.add(Activity.Sleep,sleepMilliSeconds*MS);
+		attribution.add(Activity.Command,commandMilliSeconds*MS);
+		return new MethodTimeAttribution(name,"SUCCESS",metrics,elapsedMilliSeconds*MS,attribution.getTotals());
+	}
+
+	@Test
+	public void EachMethodsActivitiesAreReportedAsJson() {
+		CommandMetrics metrics = new CommandMetrics("session-\"1\"","http://node:4444/wd/hub",DriverType.Chrome);
+		List<MethodTimeAttribution> methods = Arrays.asList(method("pkg.Class.first",metrics,1000,300,0,500),method("pkg.Class.second",null,400,0,100,250));
+		Assert.assertEquals(methods.get(0).getOtherNanoSeconds(),200*MS);
+		String json = MethodTimeAttribution.getJsonReport(methods);
+		Assert.assertTrue(json.contains("\"suite\": {\"totalMilliSeconds\": 1400, \"commandMilliSeconds\": 750, \"navigationMilliSeconds\": 0, \"waitMilliSeconds\": 300, \"sleepMilliSeconds\": 100, \"idleMilliSeconds\": 400, \"otherMilliSeconds\": 250}"),json);
+		Assert.assertTrue(json.contains("\"method\": \"pkg.Class.first\", \"status\": \"SUCCESS\", \"sessionId\": \"session-\\\"1\\\"\", \"driverType\": \"Chrome\""),json);
+		Assert.assertTrue(json.contains("\"method\": \"pkg.Class.second\", \"status\": \"SUCCESS\", \"sessionId\": \"\""),json);
+	}
+
+	@Test
+	public void MethodsRecordedWhileDrainingAreReportedExactlyOnce() throws Exception {
+		MethodTimeAttribution.drainEveryMethod();
+		int methodsPerThread = 5000;
+		ExecutorService recorders = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> recorded = new ArrayList<Future<?>>();
+			for(int t = 0; t < 4; t++) {
+				recorded.add(recorders.submit(() -> {
+					for(int k = 0; k < methodsPerThread; k++) {
+						MethodTimeAttribution.record(method("pkg.Class.m",null,1,0,0,0));
+					}
+				}));
+			}
+			int drained = 0;
+			for(Future<?> future : recorded) {
+				while(!future.isDone()) {
+					drained += MethodTimeAttribution.drainEveryMethod().size();
+				}
+				future.get();
+			}
+			drained += MethodTimeAttribution.drainEveryMethod().size();
+			Assert.assertEquals(drained,4*methodsPerThread);
+			Assert.assertTrue(MethodTimeAttribution.getEveryMethod().isEmpty());
+		} finally {
+			recorders.shutdownNow();
+		}
+	}
+
+	@Test
+	public void TheLongestIdleMethodsAreListedFirst() {
+		List<MethodTimeAttribution> methods = Arrays.asList(method("pkg.Class.busy",null,1000,10,0,900),method("pkg.Class.idle",null,1000,600,200,100),method("pkg.Class.sleepy",null,1000,0,500,100));
+		String summary = MethodTimeAttribution.getTopIdleSummary(methods,2);
+		Assert.assertTrue(summary.indexOf("pkg.Class.idle") < summary.indexOf("pkg.Class.sleepy"),summary);
+		Assert.assertTrue(summary.indexOf("pkg.Class.idle") > 0,summary);
+		Assert.assertFalse(summary.contains("pkg.Class.busy"),summary);
+	}
+
+}
@@ -0,0 +1,76 @@
+package test.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.gargoylesoftware.htmlunit.ScriptException;
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriver;
+
+/***
+ * Runs the AnchorAbsence script in a real DOM: that a match answers present
+ * at once, that no match answers absent at once unless it must stay absent,
+ * and that a match which turns up while it must stay absent is caught.
+ * HtmlUnit's MutationObserver does not report the changes under a document,
+ * so one that turns up is only caught by the last look when the time is up
+ * here; that it is answered the moment it turns up is checked only by hand
+ * in a browser.
+ */
+public class AnchorAbsenceScriptTest extends StubbedSessionFixture {
+
+	private String script;
+
+	@BeforeClass
+	public void sendScript() throws IOException {
+		NiceWebDriver nwd = startSession(5,(sent,args) -> Collections.singletonMap((args.length == 2 ? "present" : "quiescent"),(Object) (args.length != 2)));
+		nwd.AnchorIsAbsentWithHREF("/gone",true,250);
+		script = ScriptPage.installingScript(stubOf(nwd).getScriptsExecuted(),"seleniumNG.anchorAbsence");
+	}
+
+	@Test
+	public void AMatchIsPresentAtOnce() throws IOException {
+		try(ScriptPage page = new ScriptPage("<div class='show'><a href='/here'>here</a></div>")) {
+			Assert.assertTrue(page.executeAsync(script,1000,".show > a[href*=\"/here\"]",5000));
+			Assert.assertEquals(page.evaluate("result.present"),"true");
+			Assert.assertEquals(page.evaluate("result.path"),"/page");
+		}
+	}
+
+	@Test
+	public void NoMatchIsAbsentAtOnceUnlessItMustStayAbsent() throws IOException {
+		try(ScriptPage page = new ScriptPage("<div class='show'><a href='/here'>here</a></div>")) {
+			long start = System.currentTimeMillis();
+			Assert.assertTrue(page.executeAsync(script,1000,"a[href*=\"/gone\"]",0));
+			Assert.assertEquals(page.evaluate("result.present"),"false");
+			Assert.assertTrue(System.currentTimeMillis() - start < 300);
+			start = System.currentTimeMillis();
+			Assert.assertTrue(page.executeAsync(script,5000,"a[href*=\"/gone\"]",300));
+			Assert.assertEquals(page.evaluate("result.present"),"false");
+			Assert.assertTrue(System.currentTimeMillis() - start >= 300);
+		}
+	}
+
+	@Test
+	public void AMatchThatTurnsUpWhileItMustStayAbsentIsPresent() throws IOException {
+		try(ScriptPage page = new ScriptPage("<div id='menu'></div><script>setTimeout(function() { var a = document.createElement('a'); a.href = '/late'; document.getElementById('menu').appendChild(a); }, 100);</script>")) {
+			Assert.assertTrue(page.executeAsync(script,5000,"a[href*=\"/late\"]",500));
+			Assert.assertEquals(page.evaluate("result.present"),"true");
+		}
+	}
+
+	@Test
+	public void AnInvalidSelectorThrows() throws IOException {
+		try(ScriptPage page = new ScriptPage("<div></div>")) {
+			try {
+				page.executeAsync(script,1000,"a[href",0);
+				Assert.fail("An invalid selector must throw");
+			} catch (ScriptException e) {
+				Assert.assertEquals(page.evaluate("window.answered"),"false");
+			}
+		}
+	}
+
+}
@@ -0,0 +1,106 @@
+package test.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.JavascriptException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriver;
+
+/***
+ * Answers the anchor absence script from a StubWebDriver, and checks that
+ * an absent href is confirmed without waiting out the NiceWebDriver's wait,
+ * and that the driver's own locator is used when the script can not run.
+ */
+public class AnchorAbsenceTest extends StubbedSessionFixture {
+
+	@Test
+	public void AnAbsentHrefIsConfirmedWithoutWaiting() throws Exception {
+		NiceWebDriver nwd = startSession(5);
+		AtomicInteger absenceChecks = new AtomicInteger();
+		stubOf(nwd).setScriptResponder((script,args) -> {
+			if(args.length == 2) {
+				absenceChecks.incrementAndGet();
+				Assert.assertEquals(args[0],".show > a[href*=\"/gone\"]");
+				Assert.assertEquals(args[1],250L);
+				return answer(false);
+			}
+			return quiescent();
+		});
+		long start = System.nanoTime();
+		Assert.assertTrue(nwd.AnchorIsAbsentWithHREF("/gone",true,250));
+		Assert.assertEquals(absenceChecks.get(),1);
+		Assert.assertTrue(System.nanoTime() - start < 2_000_000_000L);
+	}
+
+	@Test
+	public void APresentHrefIsNotAbsent() throws Exception {
+		NiceWebDriver nwd = startSession(5,(script,args) -> (args.length == 2 ? answer(true) : quiescent()));
+		Assert.assertFalse(nwd.AnchorIsAbsentWithHREF("/here",false));
+	}
+
+	@Test
+	public void ABusyPageIsWatchedForTheHrefRatherThanCheckedOnce() throws Exception {
+		NiceWebDriver nwd = startSession(5);
+		AtomicInteger harvests = new AtomicInteger();
+		List<Object> stayAbsentMilliSeconds = new ArrayList<Object>();
+		stubOf(nwd).setScriptResponder((script,args) -> {
+			if(args.length == 2) {
+				stayAbsentMilliSeconds.add(args[1]);
+				return answer(false);
+			}
+			if(args[0] instanceof Long) {
+				return busy();
+			}
+			harvests.incrementAndGet();
+			return null;
+		});
+		long start = System.nanoTime();
+		Assert.assertTrue(nwd.AnchorIsAbsentWithHREF("/gone",false));
+		// Given only half a second to go quiet, rather than the whole wait
+		Assert.assertTrue(System.nanoTime() - start < 2_000_000_000L);
+		Assert.assertEquals(harvests.get(),0,"The anchors of a busy page must not be trusted");
+		Assert.assertTrue(nwd.AnchorIsAbsentWithHREF("/gone",false,3000));
+		Assert.assertEquals(stayAbsentMilliSeconds,Arrays.<Object>asList(1500L,3000L));
+	}
+
+	@Test
+	public void AFailedScriptFallsBackToTheDriversLocator() throws Exception {
+		NiceWebDriver nwd = startSession(5);
+		stubOf(nwd).setScriptResponder((script,args) -> {
+			if(args.length == 2) {
+				throw new JavascriptException("document unloaded while waiting for result");
+			}
+			return quiescent();
+		});
+		// The stub finds every element but those whose locator says "missing"
+		Assert.assertTrue(nwd.AnchorIsAbsentWithHREF("/missing",false,100));
+		Assert.assertFalse(nwd.AnchorIsAbsentWithHREF("/here",false));
+	}
+
+	private static Map<String,Object> answer(boolean present) {
+		Map<String,Object> answer = new HashMap<String,Object>();
+		answer.put("present",present);
+		answer.put("path","/stub");
+		return answer;
+	}
+
+	private static Map<String,Object> busy() {
+		Map<String,Object> state = new HashMap<String,Object>();
+		state.put("quiescent",false);
+		return state;
+	}
+
+	private static Map<String,Object> quiescent() {
+		Map<String,Object> state = new HashMap<String,Object>();
+		state.put("quiescent",true);
+		return state;
+	}
+
+}
@@ -0,0 +1,85 @@
+package test.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.AnchorIndex;
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriver;
+
+/***
+ * Checks the href queries of an AnchorIndex, and that a NiceWebDriver
+ * answers href assertions from the anchors it harvested from a
+ * StubWebDriver for as long as the page reports it has not changed.
+ */
+public class AnchorIndexTest extends StubbedSessionFixture {
+
+	@Test
+	public void HrefsAreFoundBySubstringAndPrefix() {
+		AnchorIndex index = new AnchorIndex("page:0",Arrays.asList(
+				new AnchorIndex.Anchor("/account/settings","Settings",true,0,0,80,20),
+				new AnchorIndex.Anchor("/account/logout","Log out",false,0,20,80,20),
+				new AnchorIndex.Anchor("https://help.example/account","Help",true,0,40,80,20)));
+		Assert.assertEquals(index.getAnchorsWithHrefContaining("account",false).size(),3);
+		Assert.assertEquals(index.getAnchorsWithHrefContaining("account",true).size(),2);
+		Assert.assertEquals(index.getAnchorsWithHrefContaining("logout",false).get(0).getText(),"Log out");
+		Assert.assertFalse(index.hasAnchorWithHrefContaining("logout",true));
+		Assert.assertFalse(index.hasAnchorWithHrefContaining("/admin",false));
+		// Fragments shorter than the index's substrings are checked against every href
+		Assert.assertEquals(index.getAnchorsWithHrefContaining("t/",false).size(),2);
+		Assert.assertEquals(index.getAnchorsWithHrefStartingWith("/account/",false).size(),2);
+		Assert.assertEquals(index.getAnchorsWithHrefStartingWith("/account/",true).size(),1);
+		Assert.assertEquals(index.getAnchorsWithHrefStartingWith("",false).size(),3);
+	}
+
+	@Test
+	public void AssertionsAreAnsweredFromTheHarvestUntilThePageChanges() throws Exception {
+		NiceWebDriver nwd = startSession(1);
+		AtomicInteger harvests = new AtomicInteger();
+		List<Object> tokensAsked = new ArrayList<Object>();
+		stubOf(nwd).setScriptResponder((script,args) -> {
+			if(args.length == 1 && !(args[0] instanceof Long)) {
+				tokensAsked.add(args[0]);
+				Map<String,Object> answer = new HashMap<String,Object>();
+				String token = "page:"+(tokensAsked.size() < 3 ? 0 : 1);
+				answer.put("token",token);
+				if(!token.equals(args[0])) {
+					harvests.incrementAndGet();
+					answer.put("anchors",Arrays.asList(anchor("/orders/42",true),anchor("/orders/archive",false)));
+				}
+				return answer;
+			}
+			// Anything else is the page quiescence check
+			Map<String,Object> state = new HashMap<String,Object>();
+			state.put("quiescent",true);
+			return state;
+		});
+		int commandsBefore = StubWebDriver.commandCount.get();
+		Assert.assertTrue(nwd.AnchorExistsWithHREF("/orders/42",true));
+		Assert.assertTrue(nwd.AnchorExistsWithHREF("archive",false));
+		Assert.assertEquals(StubWebDriver.commandCount.get()-commandsBefore,2);
+		// The page reports a change, and is harvested again
+		Assert.assertTrue(nwd.AnchorIsAbsentWithHREF("archive",true));
+		Assert.assertEquals(tokensAsked,Arrays.asList(null,"page:0","page:0"));
+		Assert.assertEquals(harvests.get(),2);
+	}
+
+	private static Map<String,Object> anchor(String href, boolean visible) {
+		Map<String,Object> anchor = new HashMap<String,Object>();
+		anchor.put("href",href);
+		anchor.put("text",href);
+		anchor.put("visible",visible);
+		anchor.put("x",0L);
+		anchor.put("y",0L);
+		anchor.put("width",100.5);
+		anchor.put("height",20L);
+		return anchor;
+	}
+
+}
@@ -0,0 +1,103 @@
+package test.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.CommandMetrics;
+import com.skenvy.SeleniumNG.NiceWebDriver.DriverType;
+import com.skenvy.SeleniumNG.NiceWebDriver.LatencyHistogram;
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriver;
+import com.skenvy.SeleniumNG.NiceWebDriver.TimeAttribution;
+import com.skenvy.SeleniumNG.NiceWebDriver.TimeAttribution.Activity;
+
+/***
+ * Checks that the latency histograms are accurate to within their bucket
+ * width, and that the commands and waits of a NiceWebDriver driving a
+ * StubWebDriver are timed under their own names and tagged with the session,
+ * and that the session's time is attributed to one activity at a time.
+ */
+public class CommandMetricsTest extends StubbedSessionFixture {
+
+	@Test
+	public void PercentilesAreWithinTheBucketWidth() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for(long microSeconds = 1; microSeconds <= 100000; microSeconds++) {
+			histogram.record(microSeconds);
+		}
+		LatencyHistogram.Snapshot snapshot = histogram.getSnapshot();
+		Assert.assertEquals(snapshot.getCount(),100000);
+		Assert.assertEquals(snapshot.getMaxMicroSeconds(),100000);
+		for(double percent : new double[] {50,90,99,99.9}) {
+			long exact = (long) (percent*1000);
+			long estimate = snapshot.getPercentileMicroSeconds(percent);
+			Assert.assertTrue(estimate >= exact && estimate <= exact*1.035,"p"+percent+" was "+estimate);
+		}
+		Assert.assertEquals(snapshot.plus(snapshot).getPercentileMicroSeconds(50),snapshot.getPercentileMicroSeconds(50));
+		Assert.assertEquals(LatencyHistogram.Snapshot.empty().getPercentileMicroSeconds(99),0);
+	}
+
+	@Test
+	public void CommandsAreTimedUnderTheirOwnNames() throws Exception {
+		NiceWebDriver nwd = startSession(1);
+		WebElement element = nwd.unwrapNiceWait().until(d -> d.findElement(By.cssSelector("#here")));
+		element.click();
+		Assert.assertTrue(((WrapsElement) element).getWrappedElement().getClass().getName().startsWith(StubWebDriver.class.getName()));
+		nwd.unwrapNiceWait().until(d -> d.manage().getCookies());
+		CommandMetrics metrics = nwd.getCommandMetrics();
+		Map<String,LatencyHistogram.Snapshot> snapshot = metrics.getSnapshot();
+		Assert.assertEquals(snapshot.get("WebDriver.findElement").getCount(),1);
+		Assert.assertEquals(snapshot.get("WebElement.click").getCount(),1);
+		Assert.assertEquals(snapshot.get("Options.getCookies").getCount(),1);
+		Assert.assertEquals(snapshot.get("NiceWait.until").getCount(),2);
+		Assert.assertFalse(snapshot.containsKey("WebDriver.manage"));
+		Assert.assertEquals(metrics.getDriverType(),DriverType.Chrome);
+		Assert.assertEquals(metrics.getNodeUrl(),"local");
+		Assert.assertTrue(CommandMetrics.getEverySession().contains(metrics));
+		Assert.assertTrue(CommandMetrics.getReport().contains("Chrome @ local"));
+	}
+
+	@Test
+	public void AWaitThatTimesOutIsTimedApart() throws Exception {
+		NiceWebDriver nwd = startSession(1);
+		nwd.unwrapNiceWait().setTimeoutMilliSeconds(50);
+		try {
+			nwd.unwrapNiceWait().until(d -> false);
+			Assert.fail("The wait should have timed out");
+		} catch (TimeoutException e) {
+		}
+		Map<String,LatencyHistogram.Snapshot> snapshot = nwd.getCommandMetrics().getSnapshot();
+		Assert.assertEquals(snapshot.get("NiceWait.until (timed out)").getCount(),1);
+		Assert.assertTrue(snapshot.get("NiceWait.until (timed out)").getMaxMicroSeconds() >= 40000);
+		Assert.assertFalse(snapshot.containsKey("NiceWait.until"));
+	}
+
+	@Test
+	public void AWaitIsAttributedOnlyTheTimeItIsNotSendingCommands() throws Exception {
+		NiceWebDriver nwd = startSession(1);
+		TimeAttribution attribution = nwd.getCommandMetrics().getTimeAttribution();
+		TimeAttribution.Totals before = attribution.getTotals();
+		AtomicInteger polls = new AtomicInteger();
+		long start = System.nanoTime();
+		nwd.unwrapNiceWait().until(d -> {
+			d.getTitle();
+			return polls.incrementAndGet() >= 3;
+		});
+		long elapsed = System.nanoTime()-start;
+		TimeAttribution.Totals during = attribution.getTotals().since(before);
+		Assert.assertTrue(during.getNanoSeconds(Activity.Command) > 0);
+		Assert.assertTrue(during.getNanoSeconds(Activity.Wait) > 0);
+		Assert.assertEquals(during.getNanoSeconds(Activity.Navigation),0);
+		Assert.assertTrue(during.getAttributedNanoSeconds() <= elapsed);
+		Assert.assertEquals(nwd.getCommandMetrics().getSnapshot().get("WebDriver.getTitle").getCount(),3);
+		nwd.openWebPage("http://stub/page");
+		Assert.assertTrue(attribution.getTotals().since(before).getNanoSeconds(Activity.Navigation) > 0);
+	}
+
+}
@@ -0,0 +1,77 @@
+package test.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriver;
+
+/***
+ * Runs the DomCapture script in a real DOM: that asking with the token of
+ * the last capture answers with only the token, that a form field's value
+ * set by a script changes the token though the document does not change,
+ * and that an element that is not HTML is captured with its namespace.
+ */
+public class DomCaptureScriptTest extends StubbedSessionFixture {
+
+	private String script;
+
+	private static final String FORM = "<form><input id='name' type='text' value='Jo'><input id='box' type='checkbox'></form>"
+			+ "<svg xmlns='http://www.w3.org/2000/svg'><circle r='1'></circle></svg>";
+
+	@BeforeClass
+	public void sendScript() throws IOException {
+		NiceWebDriver nwd = startSession(1,(sent,args) -> {
+			Map<String,Object> answer = new HashMap<String,Object>();
+			answer.put("token","page:1");
+			answer.put("root",new HashMap<String,Object>());
+			return answer;
+		});
+		nwd.getDomSnapshot();
+		script = ScriptPage.installingScript(stubOf(nwd).getScriptsExecuted(),"seleniumNG.domCapture");
+	}
+
+	@Test
+	public void AnUnchangedPageAnswersWithOnlyItsToken() throws IOException {
+		try(ScriptPage page = new ScriptPage(FORM)) {
+			page.execute(script,(Object) null);
+			Assert.assertEquals(page.evaluate("result.root.t"),"html");
+			Assert.assertEquals(page.evaluate("result.quirks"),"false");
+			String token = page.evaluate("result.token");
+			page.execute(script,token);
+			Assert.assertEquals(page.evaluate("result.token"),token);
+			Assert.assertEquals(page.evaluate("result.root"),"undefined");
+		}
+	}
+
+	@Test
+	public void AFieldSetByAScriptChangesTheToken() throws IOException {
+		try(ScriptPage page = new ScriptPage(FORM)) {
+			page.execute(script,(Object) null);
+			String token = page.evaluate("result.token");
+			page.evaluate("document.getElementById('name').value = 'John'");
+			page.execute(script,token);
+			Assert.assertNotEquals(page.evaluate("result.token"),token);
+			token = page.evaluate("result.token");
+			page.evaluate("document.getElementById('box').checked = true");
+			page.execute(script,token);
+			Assert.assertNotEquals(page.evaluate("result.token"),token);
+		}
+	}
+
+	@Test
+	public void AnElementThatIsNotHtmlIsCapturedWithItsNamespace() throws IOException {
+		try(ScriptPage page = new ScriptPage(FORM)) {
+			page.execute(script,(Object) null);
+			String body = "result.root.c[1]";
+			Assert.assertEquals(page.evaluate(body+".n"),"undefined");
+			Assert.assertEquals(page.evaluate(body+".c[1].t"),"svg");
+			Assert.assertEquals(page.evaluate(body+".c[1].n"),"http://www.w3.org/2000/svg");
+		}
+	}
+
+}
@@ -0,0 +1,249 @@
+package test.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openqa.selenium.By;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.DomSnapshot;
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriver;
+
+/***
+ * Captures a page from a StubWebDriver, answering the capture script with a
+ * DOM as the page would serialise it, and checks the CSS selectors and
+ * XPaths evaluated against it, and that a NiceWebDriver reads the page from
+ * one capture for as long as the page reports it has not changed.
+ */
+public class DomSnapshotTest extends StubbedSessionFixture {
+
+	private static Map<String,Object> element(String tag, Object... parts) {
+		Map<String,Object> element = new HashMap<String,Object>();
+		element.put("t",tag);
+		element.put("v",Boolean.TRUE);
+		List<Object> children = new ArrayList<Object>();
+		for(int i = 0; i < parts.length; i++) {
+			if(parts[i] instanceof String && ((String) parts[i]).startsWith("@")) {
+				Map<String,Object> attributes = getOrCreate(element,"a");
+				attributes.put(((String) parts[i]).substring(1),parts[++i]);
+			} else if(parts[i] instanceof String && ((String) parts[i]).startsWith("!")) {
+				Map<String,Object> properties = getOrCreate(element,"p");
+				properties.put(((String) parts[i]).substring(1),parts[++i]);
+			} else {
+				children.add(parts[i]);
+			}
+		}
+		if(!children.isEmpty()) {
+			element.put("c",children);
+		}
+		return element;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String,Object> getOrCreate(Map<String,Object> element, String key) {
+		return (Map<String,Object>) element.computeIfAbsent(key,k -> new LinkedHashMap<String,Object>());
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String,Object> hidden(Map<String,Object> element) {
+		element.put("v",Boolean.FALSE);
+		if(element.get("c") != null) {
+			for(Object child : (List<Object>) element.get("c")) {
+				if(child instanceof Map) {
+					hidden((Map<String,Object>) child);
+				}
+			}
+		}
+		return element;
+	}
+
+	private static Map<String,Object> page() {
+		return element("html",
+				hidden(element("head",element("title","Orders"),element("script","var x = 1;"))),
+				element("body",
+						element("div","@id","nav","@class","menu top",
+								element("a","@href","/home","Home"),
+								element("a","@href","/orders","@class","current","Orders"),
+								hidden(element("a","@href","/admin","Admin"))),
+						element("table","@id","orders",
+								element("tr","@class","row","@data-id","1",element("td","42"),element("td","Shipped")),
+								element("tr","@class","row","@data-id","2",element("td","43"),element("td","Pending")),
+								element("tr","@class","row flagged","@data-id","3",element("td","44"),element("td"," Back\n  ordered "))),
+						element("form",
+								element("input","@id","q","@name","q","@type","text","@value","initial","!value","typed","!checked",false),
+								element("input","@id","agree","@type","checkbox","@checked","","!value","on","!checked",true),
+								element("input","@id","off","@type","checkbox","@disabled","","!value","on","!checked",false),
+								element("select",
+										element("option","!value","A","!selected",false,"A"),
+										element("option","!value","B","!selected",true,"B"))),
+						element("p","Total: ",element("span","3")," orders"),
+						element("div","@id","blocks",element("div","one"),element("div","two"))));
+	}
+
+	private static DomSnapshot capture(NiceWebDriver nwd) {
+		Map<String,Object> answer = new HashMap<String,Object>();
+		answer.put("token","page:1");
+		answer.put("root",page());
+		stubOf(nwd).setScriptResponder((script,args) -> answer);
+		return nwd.getDomSnapshot();
+	}
+
+	private static String textOf(List<DomSnapshot.Element> elements) {
+		Assert.assertFalse(elements.isEmpty());
+		return elements.get(0).getText();
+	}
+
+	@Test
+	public void CssSelectorsAreMatchedAgainstTheSnapshot() throws Exception {
+		NiceWebDriver nwd = startSession(1);
+		DomSnapshot snapshot = capture(nwd);
+		Assert.assertEquals(snapshot.findByCss("a").size(),3);
+		Assert.assertEquals(snapshot.findByCss(".menu a").size(),3);
+		Assert.assertEquals(textOf(snapshot.findByCss("#nav > a.current")),"Orders");
+		Assert.assertEquals(snapshot.findByCss("a[href^='/a']").size(),1);
+		Assert.assertEquals(snapshot.findByCss("A[HREF$=ORDERS i]").size(),1);
+		Assert.assertEquals(textOf(snapshot.findByCss("tr:nth-child(2) td:last-child")),"Pending");
+		Assert.assertEquals(snapshot.findByCss("tr:nth-child(odd)").size(),2);
+		Assert.assertEquals(snapshot.findByCss("tr.row:not(.flagged)").size(),2);
+		Assert.assertEquals(snapshot.findByCss("tr + tr").size(),2);
+		Assert.assertEquals(snapshot.findByCss("tr ~ tr.flagged").size(),1);
+		Assert.assertEquals(snapshot.findByCss("[data-id=\"2\"] td").size(),2);
+		// HTML matches the value of an attribute such as type whatever its case
+		Assert.assertEquals(snapshot.findByCss("input[type=CHECKBOX]").size(),2);
+		Assert.assertEquals(snapshot.findByCss("[id=Q]").size(),0);
+		List<DomSnapshot.Element> both = snapshot.findByCss("#orders tr, #nav a");
+		Assert.assertEquals(both.size(),6);
+		Assert.assertEquals(both.get(0).getText(),"Home");
+		// Text is the displayed text, each run of whitespace, and each break between blocks, one space
+		Assert.assertEquals(textOf(snapshot.findByCss("p")),"Total: 3 orders");
+		Assert.assertEquals(textOf(snapshot.findByCss("#blocks")),"one two");
+		Assert.assertEquals(textOf(snapshot.findByCss(".flagged td:last-child")),"Back ordered");
+		DomSnapshot.Element admin = snapshot.findByCss("a[href='/admin']").get(0);
+		Assert.assertFalse(admin.isDisplayed());
+		Assert.assertEquals(admin.getText(),"");
+		Assert.assertEquals(admin.getTextContent(),"Admin");
+		// Form fields answer with their current value, as WebElement.getAttribute(...) does
+		DomSnapshot.Element q = snapshot.findByCss("#q").get(0);
+		Assert.assertEquals(q.getAttribute("value"),"typed");
+		Assert.assertEquals(q.getAttributes().get("value"),"initial");
+		Assert.assertNull(q.getAttribute("checked"));
+		Assert.assertEquals(snapshot.findByCss("#agree").get(0).getAttribute("checked"),"true");
+		Assert.assertEquals(snapshot.find(By.className("flagged")).size(),1);
+		Assert.assertEquals(snapshot.find(By.name("q")).size(),1);
+		Assert.assertEquals(snapshot.find(By.linkText("Orders")).size(),1);
+		Assert.assertEquals(snapshot.find(By.partialLinkText("Ho")).size(),1);
+		Assert.assertEquals(snapshot.find(By.tagName("TD")).size(),6);
+		Assert.assertEquals(snapshot.find(By.id("orders")).size(),1);
+		// The state of a form field is asked of the page, which knows it
+		for(String unsupported : new String[] {"a::before","a:hover","svg|a","a >","input:checked","option:checked","input:disabled","input:enabled"}) {
+			try {
+				snapshot.findByCss(unsupported);
+				Assert.fail("expected the snapshot not to understand | "+unsupported);
+			} catch (UnsupportedOperationException e) {
+				// Asked of the page instead
+			}
+		}
+	}
+
+	@Test
+	public void XPathsAreEvaluatedAgainstTheSnapshot() throws Exception {
+		NiceWebDriver nwd = startSession(1);
+		DomSnapshot snapshot = capture(nwd);
+		Assert.assertEquals(snapshot.findByXPath("//a").size(),3);
+		Assert.assertEquals(textOf(snapshot.findByXPath("//a[@href='/orders']")),"Orders");
+		Assert.assertEquals(textOf(snapshot.findByXPath("/html/body/div[1]/a[1]")),"Home");
+		// A positional predicate counts from each parent, not from the document
+		Assert.assertEquals(snapshot.findByXPath("//a[1]").size(),1);
+		Assert.assertEquals(snapshot.findByXPath("//td[1]").size(),3);
+		Assert.assertEquals(textOf(snapshot.findByXPath("(//td)[last()]")),"Back ordered");
+		Assert.assertEquals(textOf(snapshot.findByXPath("//tr[2]/td[2]")),"Pending");
+		Assert.assertEquals(snapshot.findByXPath("//tr[td='43']").get(0).getAttribute("data-id"),"2");
+		Assert.assertEquals(snapshot.findByXPath("//td[normalize-space()='Back ordered']").size(),1);
+		Assert.assertEquals(snapshot.findByXPath("//a[contains(@href,'o')]").size(),2);
+		Assert.assertEquals(snapshot.findByXPath("//a[starts-with(.,'Ho')]").size(),1);
+		Assert.assertEquals(snapshot.findByXPath("//a[translate(.,'HOME','home')='home']").size(),1);
+		Assert.assertEquals(snapshot.findByXPath("//tr[position()>1]").size(),2);
+		Assert.assertEquals(snapshot.findByXPath("//tr[last()]").get(0).getAttribute("data-id"),"3");
+		Assert.assertEquals(snapshot.findByXPath("//tr[@data-id > 1]").size(),2);
+		Assert.assertEquals(snapshot.findByXPath("//tr[count(td)=2]").size(),3);
+		Assert.assertEquals(textOf(snapshot.findByXPath("//td[.='42']/following-sibling::td")),"Shipped");
+		Assert.assertEquals(textOf(snapshot.findByXPath("//td[.='Shipped']/preceding-sibling::td")),"42");
+		Assert.assertEquals(snapshot.findByXPath("//span/ancestor::p").size(),1);
+		Assert.assertEquals(snapshot.findByXPath("//span/..").get(0).getTagName(),"p");
+		Assert.assertEquals(snapshot.findByXPath("//input[@type='checkbox' and not(@disabled)]").get(0).getAttribute("id"),"agree");
+		Assert.assertEquals(snapshot.findByXPath("//p[text()='Total: ']").size(),1);
+		Assert.assertEquals(snapshot.findByXPath("//*[@id='q']").size(),1);
+		Assert.assertEquals(snapshot.findByXPath("//table//td[3]").size(),0);
+		List<DomSnapshot.Element> union = snapshot.findByXPath("//table | //a");
+		Assert.assertEquals(union.size(),4);
+		Assert.assertEquals(union.get(3).getTagName(),"table");
+		Assert.assertEquals(snapshot.findByXPath("//a/following::td").size(),6);
+		Assert.assertEquals(snapshot.findByXPath("id('orders')//tr").size(),3);
+		// An upper case name matches an HTML page whatever its case, so is asked of the page
+		for(String unsupported : new String[] {"//p/text()","//tr/@data-id","//x:a","//a[$n]","count(//a)","//A","//a[@HREF]","//comment()"}) {
+			try {
+				snapshot.findByXPath(unsupported);
+				Assert.fail("expected the snapshot not to understand | "+unsupported);
+			} catch (UnsupportedOperationException e) {
+				// Asked of the page instead
+			}
+		}
+	}
+
+	@Test
+	public void ReadsAreAnsweredFromOneCaptureUntilThePageChanges() throws Exception {
+		NiceWebDriver nwd = startSession(1);
+		List<Object> tokensAsked = new ArrayList<Object>();
+		stubOf(nwd).setScriptResponder((script,args) -> {
+			tokensAsked.add(args[0]);
+			Map<String,Object> answer = new HashMap<String,Object>();
+			answer.put("token","page:1");
+			if(!"page:1".equals(args[0])) {
+				answer.put("root",page());
+			}
+			return answer;
+		});
+		Assert.assertEquals(nwd.countCSSElements("tr"),3);
+		Assert.assertEquals(nwd.countXPathElements("//td"),6);
+		Assert.assertEquals(nwd.getTextOfCSSElementIfExists("#nav a.current"),"Orders");
+		Assert.assertEquals(nwd.getTextOfXPathElementIfExists("//tr[3]/td[2]"),"Back ordered");
+		Assert.assertEquals(nwd.getAttributeOfXPathElementIfExists("//input[@name='q']","value"),"typed");
+		Assert.assertEquals(nwd.getAttributeOfCSSElementIfExists("tr.flagged","data-id"),"3");
+		// Each read after the first only asks whether the page has changed
+		Assert.assertEquals(tokensAsked.size(),6);
+		Assert.assertNull(tokensAsked.get(0));
+		for(Object token : tokensAsked.subList(1,6)) {
+			Assert.assertEquals(token,"page:1");
+		}
+		// A selector the snapshot does not understand is asked of the page, which the stub answers with one element
+		Assert.assertEquals(nwd.countCSSElements("a::before"),1);
+		nwd.openWebPage("http://127.0.0.1/other");
+		nwd.getDomSnapshot();
+		Assert.assertNull(tokensAsked.get(tokensAsked.size()-1));
+	}
+
+	@Test
+	public void APageInQuirksModeIsAskedForIdsAndClasses() throws Exception {
+		NiceWebDriver nwd = startSession(1);
+		Map<String,Object> answer = new HashMap<String,Object>();
+		answer.put("token","page:1");
+		answer.put("root",page());
+		answer.put("quirks",true);
+		stubOf(nwd).setScriptResponder((script,args) -> answer);
+		DomSnapshot snapshot = nwd.getDomSnapshot();
+		for(By query : new By[] {By.cssSelector("tr"),By.id("orders"),By.className("flagged")}) {
+			try {
+				snapshot.find(query);
+				Assert.fail("expected the snapshot to leave a page in quirks mode to the page | "+query);
+			} catch (UnsupportedOperationException e) {
+				// Asked of the page instead
+			}
+		}
+		Assert.assertEquals(snapshot.findByXPath("//tr").size(),3);
+	}
+
+}
@@ -0,0 +1,81 @@
+package test.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.gargoylesoftware.htmlunit.ScriptException;
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriver;
+
+/***
+ * Runs the ElementArrival script in a real DOM: that an element already on
+ * the page is answered at once by each strategy, that one which arrives
+ * while the script watches is answered, and that null is answered at the
+ * timeout when none does. HtmlUnit's MutationObserver does not report the
+ * changes under a document, so an arrival is only found by the last look
+ * at the timeout here; that it is answered the moment it arrives is checked
+ * only by hand in a browser.
+ */
+public class ElementArrivalScriptTest extends StubbedSessionFixture {
+
+	private String script;
+
+	@BeforeClass
+	public void sendScript() throws IOException {
+		NiceWebDriver nwd = startSession(1);
+		StubWebDriver driver = stubOf(nwd);
+		driver.setScriptResponder((sent,args) -> Collections.singletonMap("element",new StubWebDriver.StubWebElement(driver)));
+		nwd.getWebElementByCSSIfExists("#here");
+		script = ScriptPage.installingScript(driver.getScriptsExecuted(),"seleniumNG.elementArrival");
+	}
+
+	@Test
+	public void AnElementOnThePageIsAnsweredAtOnceByEachStrategy() throws IOException {
+		try(ScriptPage page = new ScriptPage("<div id='here' class='box'><p class='x'>text</p><a id='next' href='/next'>  Next </a></div>")) {
+			Assert.assertTrue(page.executeAsync(script,1000,"id","here",5000));
+			Assert.assertEquals(page.evaluate("result.element.id"),"here");
+			Assert.assertEquals(page.evaluate("result.path"),"/page");
+			Assert.assertTrue(Long.parseLong(page.evaluate("result.waitedMilliSeconds")) < 1000);
+			Assert.assertTrue(page.executeAsync(script,1000,"css","div.box",5000));
+			Assert.assertEquals(page.evaluate("result.element.id"),"here");
+			Assert.assertTrue(page.executeAsync(script,1000,"xpath","//p[@class='x']",5000));
+			Assert.assertEquals(page.evaluate("result.element.className"),"x");
+			Assert.assertTrue(page.executeAsync(script,1000,"linkText","Next",5000));
+			Assert.assertEquals(page.evaluate("result.element.id"),"next");
+		}
+	}
+
+	@Test
+	public void AnElementThatArrivesWhileWatchedIsAnswered() throws IOException {
+		try(ScriptPage page = new ScriptPage("<div id='here'></div><script>setTimeout(function() { var late = document.createElement('div'); late.id = 'late'; document.body.appendChild(late); }, 100);</script>")) {
+			Assert.assertTrue(page.executeAsync(script,5000,"id","late",500));
+			Assert.assertEquals(page.evaluate("result.element.id"),"late");
+			Assert.assertTrue(Long.parseLong(page.evaluate("result.waitedMilliSeconds")) >= 100);
+		}
+	}
+
+	@Test
+	public void NullIsAnsweredAtTheTimeoutWhenNoElementMatches() throws IOException {
+		try(ScriptPage page = new ScriptPage("<div id='here'></div>")) {
+			Assert.assertTrue(page.executeAsync(script,5000,"css","#never",300));
+			Assert.assertEquals(page.evaluate("result.element"),"null");
+			Assert.assertTrue(Long.parseLong(page.evaluate("result.waitedMilliSeconds")) >= 300);
+		}
+	}
+
+	@Test
+	public void AnInvalidSelectorThrowsBeforeAnythingIsWatched() throws IOException {
+		try(ScriptPage page = new ScriptPage("<div id='here'></div>")) {
+			try {
+				page.executeAsync(script,1000,"css","div[",5000);
+				Assert.fail("An invalid selector must throw");
+			} catch (ScriptException e) {
+				Assert.assertEquals(page.evaluate("window.answered"),"false");
+			}
+		}
+	}
+
+}
@@ -0,0 +1,86 @@
+package test.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.LocatorLatencyHistory;
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriver;
+
+/***
+ * Answers the element arrival script from a StubWebDriver, and checks that
+ * an element that arrives is returned from that one call, and that the
+ * NiceWebDriver falls back to the driver's own locators when it must.
+ */
+public class ElementArrivalTest extends StubbedSessionFixture {
+
+	@Test
+	public void AnArrivingElementIsReturnedFromTheOneScriptCall() throws Exception {
+		NiceWebDriver nwd = startSession(1);
+		StubWebDriver driver = stubOf(nwd);
+		WebElement arriving = new StubWebDriver.StubWebElement(driver);
+		AtomicInteger scripts = new AtomicInteger();
+		driver.setScriptResponder((script,args) -> {
+			scripts.incrementAndGet();
+			Assert.assertEquals(args[0],"css");
+			Assert.assertEquals(args[1],"#arriving");
+			Assert.assertEquals(args[2],1000L);
+			Map<String,Object> arrival = new HashMap<String,Object>();
+			arrival.put("element",arriving);
+			arrival.put("path","/stub");
+			arrival.put("waitedMilliSeconds",20L);
+			return arrival;
+		});
+		Assert.assertSame(((WrapsElement) nwd.getWebElementByCSSIfExists("#arriving")).getWrappedElement(),arriving);
+		int commandsBefore = StubWebDriver.commandCount.get();
+		Assert.assertSame(((WrapsElement) nwd.getWebElementByCSSIfExists("#arriving")).getWrappedElement(),arriving);
+		// Once the script timeout is set, a lookup is a single round trip
+		Assert.assertEquals(StubWebDriver.commandCount.get()-commandsBefore,1);
+		Assert.assertEquals(scripts.get(),2);
+	}
+
+	@Test
+	public void AnElementThatNeverArrivesIsNotFound() throws Exception {
+		NiceWebDriver nwd = startSession(1);
+		Assert.assertNull(nwd.getWebElementByIdIfExists("missing"));
+	}
+
+	@Test
+	public void AMissIsRecordedAtItsTimeoutUnderThePageItWasLookedUpFrom() throws Exception {
+		NiceWebDriver nwd = startSession(1);
+		nwd.openWebPage("http://stub.invalid/before");
+		stubOf(nwd).setScriptResponder((script,args) -> {
+			if(args.length < 3) {
+				return null;
+			}
+			// The page has navigated by the time it answers
+			Map<String,Object> arrival = new HashMap<String,Object>();
+			arrival.put("element",null);
+			arrival.put("path","/after");
+			arrival.put("waitedMilliSeconds",args[2]);
+			return arrival;
+		});
+		LocatorLatencyHistory history = LocatorLatencyHistory.forDomainConstants();
+		long before = history.getSampleCount("/before By.cssSelector: #late");
+		nwd.getWebElementByCSSIfExists("#late");
+		Assert.assertEquals(history.getSampleCount("/before By.cssSelector: #late"),before+1);
+		Assert.assertEquals(history.getSampleCount("/after By.cssSelector: #late"),0L);
+		Assert.assertTrue(history.getPercentileMilliSeconds("/before By.cssSelector: #late",100) >= 1000);
+	}
+
+	@Test
+	public void AFailedScriptFallsBackToPolling() throws Exception {
+		NiceWebDriver nwd = startSession(1);
+		stubOf(nwd).setScriptResponder((script,args) -> {
+			throw new JavascriptException("document unloaded while waiting for result");
+		});
+		Assert.assertNotNull(nwd.getWebElementByXPathIfExists("//div"));
+	}
+
+}
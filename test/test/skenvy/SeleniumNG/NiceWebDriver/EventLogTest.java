@@ -0,0 +1,141 @@
+package test.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openqa.selenium.By;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.skenvy.SeleniumNG.DomainConstants;
+import com.skenvy.SeleniumNG.NiceWebDriver.EventLog;
+import com.skenvy.SeleniumNG.NiceWebDriver.LogLevel;
+
+/***
+ * Checks that the EventLog writes only the events its level enables, each
+ * tagged with its session and test and formatted from its template, that
+ * an event that can not be formatted does not stop the others, that reports
+ * are written whatever the level, and that the events it does not write
+ * allocate nothing.
+ */
+public class EventLogTest {
+
+	private File logFile;
+
+	@BeforeClass
+	public void logToAFile() throws IOException {
+		logFile = File.createTempFile("SeleniumNG-events",".log");
+		logFile.deleteOnExit();
+		new DomainConstants(StubConfig.write("Logging.Path",logFile.getAbsolutePath(),"Logging.Level","Info"));
+	}
+
+	@AfterClass
+	public void logToTheConsole() throws IOException {
+		new DomainConstants(StubConfig.write());
+	}
+
+	@Test
+	public void EventsAreTaggedWithTheirSessionAndTest() throws IOException {
+		EventLog log = EventLog.forSession("tagged-session");
+		log.setTestId("com.example.Checks.theHeader");
+		log.log(LogLevel.Info,"Found {} of {}","the \"header\"",3L);
+		log.log(LogLevel.Verbose,"Not written at Info");
+		log.setTestId("");
+		log.log(LogLevel.Warn,"Between tests");
+		Assert.assertTrue(EventLog.flush(5000));
+		List<String> lines = linesOfSession("tagged-session");
+		Assert.assertEquals(lines.size(),2,lines.toString());
+		Assert.assertTrue(lines.get(0).contains(" level=Info session=tagged-session test=com.example.Checks.theHeader thread="),lines.get(0));
+		Assert.assertTrue(lines.get(0).endsWith(" message=\"Found the \\\"header\\\" of 3\""),lines.get(0));
+		Assert.assertTrue(lines.get(1).contains(" level=Warn session=tagged-session test=\"\" "),lines.get(1));
+	}
+
+	@Test
+	public void ASessionWithVerboseOutputWritesItsVerboseEvents() throws IOException {
+		EventLog log = EventLog.forSession("verbose-session");
+		Assert.assertFalse(log.isEnabled(LogLevel.Verbose));
+		log.setVerbose(true);
+		Assert.assertTrue(log.isEnabled(LogLevel.Verbose));
+		Assert.assertFalse(log.isEnabled(LogLevel.Off));
+		log.log(LogLevel.Verbose,"Looked up by {} String: {}","CSS Selector",By.cssSelector("#here"));
+		Assert.assertTrue(EventLog.flush(5000));
+		List<String> lines = linesOfSession("verbose-session");
+		Assert.assertEquals(lines.size(),1,lines.toString());
+		Assert.assertTrue(lines.get(0).endsWith(" message=\"Looked up by CSS Selector String: By.cssSelector: #here\""),lines.get(0));
+	}
+
+	@Test
+	public void AnEventThatFailsToFormatDoesNotStopTheOthers() throws IOException {
+		EventLog log = EventLog.forSession("failing-session");
+		Object unprintable = new Object() {
+			@Override
+			public String toString() {
+				throw new IllegalStateException("Can not be printed");
+			}
+		};
+		log.log(LogLevel.Warn,"Before {}",1L);
+		log.log(LogLevel.Warn,"Unprintable {}",unprintable);
+		log.log(LogLevel.Warn,"After {}",2L);
+		Assert.assertTrue(EventLog.flush(5000));
+		List<String> lines = linesOfSession("failing-session");
+		Assert.assertEquals(lines.size(),2,lines.toString());
+		Assert.assertTrue(lines.get(1).endsWith(" message=\"After 2\""),lines.get(1));
+	}
+
+	@Test
+	public void AReportIsWrittenALineAnEventWhateverTheLevel() throws IOException {
+		new DomainConstants(StubConfig.write("Logging.Path",logFile.getAbsolutePath(),"Logging.Level","Off"));
+		try {
+			EventLog log = EventLog.forSession("reporting-session");
+			log.log(LogLevel.Error,"Not written when Off");
+			log.report("The report\n  first row\n  second row\n");
+			Assert.assertTrue(EventLog.flush(5000));
+		} finally {
+			new DomainConstants(StubConfig.write("Logging.Path",logFile.getAbsolutePath(),"Logging.Level","Info"));
+		}
+		List<String> lines = linesOfSession("reporting-session");
+		Assert.assertEquals(lines.size(),3,lines.toString());
+		Assert.assertTrue(lines.get(0).contains(" level=Info ") && lines.get(0).endsWith(" message=\"The report\""),lines.get(0));
+		Assert.assertTrue(lines.get(2).endsWith(" message=\"  second row\""),lines.get(2));
+	}
+
+	@Test
+	public void EventsThatAreNotWrittenAllocateNothing() {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		EventLog log = EventLog.forSession("quiet-session");
+		By by = By.cssSelector("#here");
+		long threadId = Thread.currentThread().getId();
+		// Warm up, so that the loop measured is compiled
+		logDisabledEvents(log,by,200000);
+		long before = threads.getThreadAllocatedBytes(threadId);
+		logDisabledEvents(log,by,200000);
+		long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+		// The bean itself may allocate a little on its first reads
+		Assert.assertTrue(allocated < 1024,allocated+" bytes allocated by 200000 events that were not written");
+	}
+
+	private static void logDisabledEvents(EventLog log, By by, int events) {
+		for(int k = 0; k < events; k++) {
+			log.log(LogLevel.Verbose,"Succeeded in locating WebElement (on arrival) by {} String: {}","CSS Selector",by);
+			log.log(LogLevel.Verbose,"Entered {} characters by value",k);
+		}
+	}
+
+	private List<String> linesOfSession(String sessionId) throws IOException {
+		List<String> lines = new ArrayList<String>();
+		for(String line : Files.readAllLines(logFile.toPath(),StandardCharsets.UTF_8)) {
+			if(line.contains(" session="+sessionId+" ")) {
+				lines.add(line);
+			}
+		}
+		return lines;
+	}
+
+}
@@ -0,0 +1,190 @@
+package test.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.Cookie;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.LinkValidator;
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriver;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/***
+ * Checks links against a local HTTP server whose paths answer as a real
+ * site's might: some refusing HEAD, some redirecting, some missing, and one
+ * slow enough to show how many requests are in flight at once.
+ */
+public class LinkValidatorTest extends StubbedSessionFixture {
+
+	private HttpServer server;
+	private String base;
+
+	private final AtomicInteger requests = new AtomicInteger();
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicInteger maxInFlight = new AtomicInteger();
+	private volatile String lastCookieHeader = null;
+
+	@BeforeClass
+	public void startServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1",0),0);
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.createContext("/",this::answer);
+		server.start();
+		base = "http://127.0.0.1:"+server.getAddress().getPort();
+	}
+
+	@AfterClass
+	public void stopServer() {
+		server.stop(0);
+	}
+
+	private void answer(HttpExchange exchange) throws IOException {
+		requests.incrementAndGet();
+		try {
+			String path = exchange.getRequestURI().getPath();
+			lastCookieHeader = exchange.getRequestHeaders().getFirst("Cookie");
+			if(path.startsWith("/slow")) {
+				// Counted out before answering, as the client may send its next request as soon as it is answered
+				maxInFlight.accumulateAndGet(inFlight.incrementAndGet(),Math::max);
+				try {
+					Thread.sleep(100);
+				} finally {
+					inFlight.decrementAndGet();
+				}
+			}
+			if(path.equals("/no-head") && exchange.getRequestMethod().equals("HEAD")) {
+				respond(exchange,405);
+			} else if(path.equals("/moved")) {
+				exchange.getResponseHeaders().add("Location","/ok");
+				respond(exchange,302);
+			} else if(path.equals("/loop")) {
+				exchange.getResponseHeaders().add("Location","/loop");
+				respond(exchange,301);
+			} else if(path.equals("/missing")) {
+				respond(exchange,404);
+			} else {
+				respond(exchange,200);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private static void respond(HttpExchange exchange, int status) throws IOException {
+		boolean head = exchange.getRequestMethod().equals("HEAD");
+		byte[] body = ("status "+status).getBytes("UTF-8");
+		exchange.sendResponseHeaders(status,(head ? -1 : body.length));
+		if(!head) {
+			try(OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		}
+	}
+
+	@Test
+	public void StatusesAreFoundWithHeadOrGetAfterRedirects() {
+		try(LinkValidator validator = new LinkValidator(4,5000,3)) {
+			Map<String,LinkValidator.LinkStatus> statuses = validator.validateAll(Arrays.asList(
+					base+"/ok",base+"/no-head",base+"/moved#top",base+"/missing",base+"/loop"),null);
+			Assert.assertEquals(statuses.get(base+"/ok").getStatus(),200);
+			Assert.assertEquals(statuses.get(base+"/ok").getMethod(),"HEAD");
+			Assert.assertEquals(statuses.get(base+"/no-head").getStatus(),200);
+			Assert.assertEquals(statuses.get(base+"/no-head").getMethod(),"GET");
+			LinkValidator.LinkStatus moved = statuses.get(base+"/moved#top");
+			Assert.assertEquals(moved.getStatus(),200);
+			Assert.assertEquals(moved.getRedirects(),1);
+			Assert.assertEquals(moved.getFinalUrl(),base+"/ok");
+			Assert.assertTrue(statuses.get(base+"/missing").isBroken());
+			Assert.assertTrue(statuses.get(base+"/loop").isBroken());
+			Assert.assertEquals(statuses.get(base+"/loop").getRedirects(),3);
+			Assert.assertEquals(LinkValidator.getBrokenLinks(statuses).size(),2);
+		}
+	}
+
+	@Test
+	public void EachLinkIsRequestedOnceAndEachHostIsLimited() {
+		List<String> urls = new ArrayList<String>();
+		for(int i = 0; i < 12; i++) {
+			urls.add(base+"/slow/"+i);
+			urls.add(base+"/slow/"+i+"#again");
+		}
+		try(LinkValidator validator = new LinkValidator(3,5000,3)) {
+			synchronized(this) {
+				requests.set(0);
+				maxInFlight.set(0);
+				Assert.assertTrue(LinkValidator.getBrokenLinks(validator.validateAll(urls,null)).isEmpty());
+				Assert.assertEquals(requests.get(),12);
+				Assert.assertTrue(maxInFlight.get() <= 3,"at most 3 requests in flight, saw "+maxInFlight.get());
+				Assert.assertTrue(maxInFlight.get() > 1,"requests were made at once");
+				validator.validateAll(urls,null);
+				Assert.assertEquals(requests.get(),12);
+			}
+		}
+	}
+
+	@Test
+	public void OnlyTheCookiesTheBrowserWouldSendAreSent() {
+		List<Cookie> cookies = Arrays.asList(
+				new Cookie("session","abc","127.0.0.1","/",null,false,true),
+				new Cookie("admin","1","127.0.0.1","/admin",null,false,false),
+				new Cookie("secure","1","127.0.0.1","/",null,true,false),
+				new Cookie("other","1","other.example","/",null,false,false));
+		try(LinkValidator validator = new LinkValidator(4,5000,3)) {
+			synchronized(this) {
+				validator.validate(base+"/cookies",cookies).join();
+				Assert.assertEquals(lastCookieHeader,"session=abc");
+				validator.validate(base+"/admin/cookies",cookies).join();
+				Assert.assertEquals(lastCookieHeader,"session=abc; admin=1");
+			}
+		}
+	}
+
+	@Test
+	public void ThePagesHttpLinksAreValidatedWithTheSessionsCookies() throws Exception {
+		NiceWebDriver nwd = startSession(1);
+		StubWebDriver driver = stubOf(nwd);
+		nwd.unwrapWebDriver().manage().addCookie(new Cookie("session","xyz","127.0.0.1","/",null,false,false));
+		Map<String,Object> answer = new HashMap<String,Object>();
+		answer.put("token","page:1");
+		answer.put("anchors",Arrays.asList(
+				anchor("/ok",base+"/ok"),
+				anchor("/missing",base+"/missing"),
+				anchor("mailto:someone@example.com","mailto:someone@example.com"),
+				anchor("javascript:void(0)","javascript:void(0)")));
+		driver.setScriptResponder((script,args) -> answer);
+		synchronized(this) {
+			Map<String,LinkValidator.LinkStatus> statuses = nwd.validateLinksOnThePage();
+			Assert.assertEquals(statuses.keySet(),new LinkedHashSet<String>(Arrays.asList(base+"/ok",base+"/missing")));
+			Assert.assertTrue(statuses.get(base+"/missing").isBroken());
+			Assert.assertFalse(statuses.get(base+"/ok").isBroken());
+			Assert.assertEquals(lastCookieHeader,"session=xyz");
+		}
+	}
+
+	private static Map<String,Object> anchor(String href, String url) {
+		Map<String,Object> anchor = new HashMap<String,Object>();
+		anchor.put("href",href);
+		anchor.put("url",url);
+		anchor.put("text",href);
+		anchor.put("visible",Boolean.TRUE);
+		return Collections.unmodifiableMap(anchor);
+	}
+
+}
@@ -0,0 +1,111 @@
+package test.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+import java.util.UUID;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.LocatorLatencyHistory;
+
+/***
+ * Checks that the LocatorLatencyHistory derives each locator's timeout from
+ * the percentiles of its recorded latencies, and persists them.
+ */
+public class LocatorLatencyHistoryTest {
+
+	private static final String LOCATOR = "/checkout By.id: pay";
+
+	@Test
+	public void LocatorsWithTooFewSamplesUseTheDefaultTimeout() {
+		LocatorLatencyHistory history = LocatorLatencyHistory.forPath(newHistoryPath());
+		for(int k = 0; k < 19; k++) {
+			history.record(LOCATOR,20);
+		}
+		Assert.assertEquals(history.getTimeoutMilliSeconds(LOCATOR,5000,20,300,250,30000),5000L);
+	}
+
+	@Test
+	public void FastLocatorsFailFastAndSlowLocatorsGetLonger() {
+		LocatorLatencyHistory history = LocatorLatencyHistory.forPath(newHistoryPath());
+		for(int k = 0; k < 100; k++) {
+			history.record("/fast By.id: a",(k < 99 ? 20 : 80));
+			history.record("/slow By.id: b",4000);
+		}
+		// p99 of 20 ms is within 20%, tripled, then raised to the minimum
+		Assert.assertEquals(history.getTimeoutMilliSeconds("/fast By.id: a",5000,20,300,250,30000),250L);
+		long slowP99 = history.getPercentileMilliSeconds("/slow By.id: b",99);
+		Assert.assertTrue(slowP99 >= 4000 && slowP99 < 4800,"p99 "+slowP99);
+		Assert.assertEquals(history.getTimeoutMilliSeconds("/slow By.id: b",5000,20,300,250,30000),slowP99*3);
+		// And clamped to the maximum
+		Assert.assertEquals(history.getTimeoutMilliSeconds("/slow By.id: b",5000,20,300,250,10000),10000L);
+	}
+
+	@Test
+	public void TimeoutsRaiseTheTimeoutOfALocatorThatIsMissed() {
+		LocatorLatencyHistory history = LocatorLatencyHistory.forPath(newHistoryPath());
+		for(int k = 0; k < 20; k++) {
+			history.record(LOCATOR,20);
+		}
+		Assert.assertEquals(history.getTimeoutMilliSeconds(LOCATOR,5000,20,300,250,30000),250L);
+		// Missed at the 250 ms it was given, so it took at least that long
+		history.recordTimeout(LOCATOR,250);
+		Assert.assertEquals(history.getSampleCount(LOCATOR),21L);
+		Assert.assertTrue(history.getTimeoutMilliSeconds(LOCATOR,5000,20,300,250,30000) >= 750);
+	}
+
+	@Test
+	public void TimeoutsCountTowardsTheSamplesNeeded() {
+		LocatorLatencyHistory history = LocatorLatencyHistory.forPath(newHistoryPath());
+		for(int k = 0; k < 19; k++) {
+			history.recordTimeout(LOCATOR,5000);
+		}
+		Assert.assertEquals(history.getTimeoutMilliSeconds(LOCATOR,5000,20,300,250,30000),5000L);
+		history.recordTimeout(LOCATOR,5000);
+		Assert.assertTrue(history.getTimeoutMilliSeconds(LOCATOR,5000,20,300,250,30000) >= 15000);
+	}
+
+	@Test
+	public void PercentilesFollowTheDistribution() {
+		LocatorLatencyHistory history = LocatorLatencyHistory.forPath(newHistoryPath());
+		for(int k = 1; k <= 1000; k++) {
+			history.record(LOCATOR,k);
+		}
+		long p50 = history.getPercentileMilliSeconds(LOCATOR,50);
+		long p99 = history.getPercentileMilliSeconds(LOCATOR,99);
+		Assert.assertTrue(p50 >= 500 && p50 <= 600,"p50 "+p50);
+		Assert.assertTrue(p99 >= 990 && p99 <= 1188,"p99 "+p99);
+		Assert.assertEquals(history.getPercentileMilliSeconds("/never By.id: recorded",99),-1L);
+	}
+
+	@Test
+	public void SavedHistogramsAreHalvedOncePastTheirMaximum() throws IOException {
+		String path = newHistoryPath();
+		LocatorLatencyHistory history = LocatorLatencyHistory.forPath(path);
+		for(int k = 0; k < 1500; k++) {
+			history.record(LOCATOR,1);
+		}
+		history.save();
+		Assert.assertEquals(history.getSampleCount(LOCATOR),750L);
+		Properties saved = new Properties();
+		try(InputStream in = new FileInputStream(path)) {
+			saved.loadFromXML(in);
+		}
+		Assert.assertEquals(saved.getProperty(LOCATOR),"0:750");
+	}
+
+	/***
+	 * A path in the temporary directory that no history has used yet
+	 * @return
+	 */
+	private static String newHistoryPath() {
+		File file = new File(System.getProperty("java.io.tmpdir"),"SeleniumNG-locators-"+UUID.randomUUID()+".xml");
+		file.deleteOnExit();
+		return file.getAbsolutePath();
+	}
+
+}
@@ -0,0 +1,63 @@
+package test.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.openqa.selenium.JavascriptException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriver;
+
+/***
+ * Answers the navigation status script from a StubWebDriver, and checks
+ * that the page's HTTP status is read from it, without reading back the
+ * page's source unless the script can not run.
+ */
+public class NavigationStatusTest extends StubbedSessionFixture {
+
+	@Test
+	public void TheNavigationsStatusIsUsedWhenKnown() throws Exception {
+		NiceWebDriver nwd = startSession(1);
+		StubWebDriver driver = stubOf(nwd);
+		driver.setPageSource("<h1>HTTP Status 404 - Not Found</h1>");
+		driver.setScriptResponder((script,args) -> status(503,0));
+		Assert.assertEquals(nwd.getWebPageHttpStatus(),503);
+		Assert.assertTrue(nwd.isWebPageAnHttpError());
+		Assert.assertFalse(nwd.isWebPage404());
+		driver.setScriptResponder((script,args) -> status(200,0));
+		Assert.assertFalse(nwd.isWebPageAnHttpError());
+	}
+
+	@Test
+	public void AnErrorPagesHeadingIsUsedWhenTheStatusIsUnknown() throws Exception {
+		NiceWebDriver nwd = startSession(1);
+		StubWebDriver driver = stubOf(nwd);
+		driver.setScriptResponder((script,args) -> status(0,404));
+		Assert.assertTrue(nwd.isWebPage404());
+		driver.setScriptResponder((script,args) -> status(0,0));
+		Assert.assertEquals(nwd.getWebPageHttpStatus(),0);
+		Assert.assertFalse(nwd.isWebPageAnHttpError());
+	}
+
+	@Test
+	public void AFailedScriptFallsBackToThePageSource() throws Exception {
+		NiceWebDriver nwd = startSession(1);
+		StubWebDriver driver = stubOf(nwd);
+		driver.setScriptResponder((script,args) -> {
+			throw new JavascriptException("javascript error: performance is not defined");
+		});
+		driver.setPageSource("<html><body><h1>HTTP Status 404 - Not Found</h1></body></html>");
+		Assert.assertTrue(nwd.isWebPage404());
+		driver.setPageSource("<html><body><h1>Welcome</h1></body></html>");
+		Assert.assertFalse(nwd.isWebPageAnHttpError());
+	}
+
+	private static Map<String,Object> status(long status, long textStatus) {
+		Map<String,Object> answer = new HashMap<String,Object>();
+		answer.put("status",status);
+		answer.put("textStatus",textStatus);
+		return answer;
+	}
+
+}
@@ -0,0 +1,88 @@
+package test.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceScript;
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriver;
+
+/***
+ * Runs the scripts a NiceScript is sent as in a real DOM: that the
+ * installing script installs the body in the page's window and calls it,
+ * that the short installed call then calls the same function with new
+ * arguments, and that it answers that the function is not installed once
+ * the page has navigated away, for both a script that returns its result
+ * and one that answers a callback.
+ */
+public class NiceScriptPageTest extends StubbedSessionFixture {
+
+	private static final NiceScript SUM = NiceScript.define("test.page.sum","return arguments[0] + arguments[1];");
+
+	private static final NiceScript LATER = NiceScript.defineAsync("test.page.later",""
+			+ "var text = arguments[0], callback = arguments[arguments.length - 1];"
+			+ "setTimeout(function() { callback(text + ' later'); }, 10);");
+
+	private static final String NOT_INSTALLED_KEY = "__seleniumNGScriptNotInstalled";
+
+	private String sumInstalling, sumInstalled, laterInstalling, laterInstalled;
+
+	@BeforeClass
+	public void sendScripts() throws IOException {
+		NiceWebDriver nwd = startSession(1);
+		for(int k = 0; k < 2; k++) {
+			nwd.executeNiceScript(SUM,1,1);
+			nwd.executeNiceScript(LATER,"sent");
+		}
+		List<String> executed = stubOf(nwd).getScriptsExecuted();
+		sumInstalling = ScriptPage.installingScript(executed,SUM.getName());
+		sumInstalled = ScriptPage.installedScript(executed,SUM.getName());
+		laterInstalling = ScriptPage.installingScript(executed,LATER.getName());
+		laterInstalled = ScriptPage.installedScript(executed,LATER.getName());
+	}
+
+	@Test
+	public void AScriptIsInstalledOnceAndCalledUntilThePageNavigates() throws IOException {
+		try(ScriptPage page = new ScriptPage("<div></div>")) {
+			page.execute(sumInstalling,2,3);
+			Assert.assertEquals(page.evaluate("result"),"5");
+			Assert.assertEquals(page.evaluate("typeof window.__seleniumNGScripts['test.page.sum']"),"function");
+			page.execute(sumInstalled,"a","b");
+			Assert.assertEquals(page.evaluate("result"),"ab");
+			page.open("<div></div>");
+			page.execute(sumInstalled,2,3);
+			Assert.assertEquals(page.evaluate("result."+NOT_INSTALLED_KEY),"true");
+			page.execute(sumInstalling,2,3);
+			Assert.assertEquals(page.evaluate("result"),"5");
+		}
+	}
+
+	@Test
+	public void AnAsynchronousScriptAnswersItsCallbackWhetherOrNotItIsInstalled() throws IOException {
+		try(ScriptPage page = new ScriptPage("<div></div>")) {
+			Assert.assertTrue(page.executeAsync(laterInstalling,1000,"sooner"));
+			Assert.assertEquals(page.evaluate("result"),"sooner later");
+			Assert.assertTrue(page.executeAsync(laterInstalled,1000,"now"));
+			Assert.assertEquals(page.evaluate("result"),"now later");
+			page.open("<div></div>");
+			Assert.assertTrue(page.executeAsync(laterInstalled,1000,"now"));
+			Assert.assertEquals(page.evaluate("result."+NOT_INSTALLED_KEY),"true");
+		}
+	}
+
+	@Test
+	public void ScriptsOfDifferentNamesAreInstalledSideBySide() throws IOException {
+		try(ScriptPage page = new ScriptPage("<div></div>")) {
+			page.execute(sumInstalling,1,1);
+			Assert.assertTrue(page.executeAsync(laterInstalling,1000,"both"));
+			page.execute(sumInstalled,20,22);
+			Assert.assertEquals(page.evaluate("result"),"42");
+			Assert.assertTrue(page.executeAsync(laterInstalled,1000,"still"));
+			Assert.assertEquals(page.evaluate("result"),"still later");
+		}
+	}
+
+}
@@ -0,0 +1,81 @@
+package test.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceScript;
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriver;
+
+/***
+ * Records the script text a StubWebDriver is sent, and checks that a
+ * NiceScript's body is sent once per page, with only a call to it after
+ * that, and that it is sent again when the page has lost it.
+ */
+public class NiceScriptTest extends StubbedSessionFixture {
+
+	private static final NiceScript MULTIPLY = NiceScript.define("test.multiply","return arguments[0] * arguments[1];");
+
+	@Test
+	public void TheBodyIsSentOncePerPage() throws Exception {
+		NiceWebDriver nwd = startSession(1);
+		List<String> sent = new ArrayList<String>();
+		stubOf(nwd).setScriptResponder((script,args) -> {
+			if(!script.contains(MULTIPLY.getName())) {
+				// The page quiescence script, run when a page is opened
+				return null;
+			}
+			sent.add(script);
+			Assert.assertEquals(args[0],6);
+			Assert.assertEquals(args[1],7);
+			return 42L;
+		});
+		for(int k = 0; k < 3; k++) {
+			Assert.assertEquals(nwd.executeNiceScript(MULTIPLY,6,7),42L);
+		}
+		nwd.openWebPage("http://stub.invalid/next");
+		nwd.executeNiceScript(MULTIPLY,6,7);
+		Assert.assertEquals(sent.size(),4);
+		Assert.assertTrue(sent.get(0).contains(MULTIPLY.getBody()));
+		Assert.assertFalse(sent.get(1).contains(MULTIPLY.getBody()));
+		Assert.assertFalse(sent.get(2).contains(MULTIPLY.getBody()));
+		Assert.assertTrue(sent.get(3).contains(MULTIPLY.getBody()));
+	}
+
+	@Test
+	public void APageThatLostTheScriptIsSentItAgain() throws Exception {
+		NiceWebDriver nwd = startSession(1);
+		List<String> sent = new ArrayList<String>();
+		stubOf(nwd).setScriptResponder((script,args) -> {
+			sent.add(script);
+			if(sent.size() == 2) {
+				// The page navigated on its own since the script was installed
+				Map<String,Object> notInstalled = new HashMap<String,Object>();
+				notInstalled.put("__seleniumNGScriptNotInstalled",true);
+				return notInstalled;
+			}
+			return 42L;
+		});
+		nwd.executeNiceScript(MULTIPLY,6,7);
+		Assert.assertEquals(nwd.executeNiceScript(MULTIPLY,6,7),42L);
+		Assert.assertEquals(sent.size(),3);
+		Assert.assertTrue(sent.get(2).contains(MULTIPLY.getBody()));
+	}
+
+	@Test
+	public void ANameMeansOneScript() {
+		Assert.assertSame(NiceScript.define("test.multiply","return arguments[0] * arguments[1];"),MULTIPLY);
+		Assert.assertSame(NiceScript.named("test.multiply"),MULTIPLY);
+		try {
+			NiceScript.define("test.multiply","return arguments[0] + arguments[1];");
+			Assert.fail("A second script should not be defined with the same name");
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(e.getMessage().contains("test.multiply"));
+		}
+	}
+
+}
@@ -0,0 +1,123 @@
+package test.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.net.URL;
+
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.WebDriver;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriver;
+
+/***
+ * A NiceWebDriver over a StubWebDriver, to be registered with the
+ * NiceWebDriverFactory as the prototype for a DriverType. Only local
+ * instances are stubbed; the remote constructors still make a
+ * RemoteWebDriver.
+ */
+public class NiceStub extends NiceWebDriver {
+
+///////////////////////////////////////////////////////////////////////////////
+/* 
+ * Sub every constructor and simply invoke the super
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	public NiceStub() {
+		super();
+	}
+	
+	protected NiceStub(boolean localInstance) {
+		super(localInstance);
+	}
+	
+	protected NiceStub(boolean localInstance, int waitSeconds) {
+		super(localInstance,waitSeconds);
+	}
+	
+	protected NiceStub(String optionArgs) {
+		super(optionArgs);
+	}
+	
+	protected NiceStub(String optionArgs, int waitSeconds) {
+		super(optionArgs, waitSeconds);
+	}
+	
+	protected NiceStub(URL remoteAddress) {
+		super(remoteAddress);
+	}
+	
+	protected NiceStub(URL remoteAddress, int waitSeconds) {
+		super(remoteAddress, waitSeconds);
+	}
+	
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Overrides - InvokeContsructorWithArguments
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	@Override
+	protected NiceWebDriver InvokeContsructorWithArguments(boolean localInstance) {
+		return new NiceStub(localInstance);
+	}
+
+	@Override
+	protected NiceWebDriver InvokeContsructorWithArguments(boolean localInstance, int waitSeconds) {
+		return new NiceStub(localInstance,waitSeconds);
+	}
+
+	@Override
+	protected NiceWebDriver InvokeContsructorWithArguments(String optionArgs) {
+		return new NiceStub(optionArgs);
+	}
+
+	@Override
+	protected NiceWebDriver InvokeContsructorWithArguments(String optionArgs, int waitSeconds) {
+		return new NiceStub(optionArgs,waitSeconds);
+	}
+
+	@Override
+	protected NiceWebDriver InvokeContsructorWithArguments(URL remoteAddress) {
+		return new NiceStub(remoteAddress);
+	}
+
+	@Override
+	protected NiceWebDriver InvokeContsructorWithArguments(URL remoteAddress, int waitSeconds) {
+		return new NiceStub(remoteAddress,waitSeconds);
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Overrides - Stub Specific
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	@Override
+	protected MutableCapabilities makeBrowserOptions(String optionArgs) {
+		return new MutableCapabilities();
+	}
+	
+	@Override
+	protected WebDriver getDriver(MutableCapabilities mutableCapabilities) {
+		return new StubWebDriver();
+	}
+
+	@Override
+	protected Capabilities getRemoteCapability() {
+		return new MutableCapabilities();
+	}
+
+	@Override
+	protected WebDriver getDriver() {
+		return new StubWebDriver();
+	}
+
+	/***
+	 * Public, so that a stub session can be made without the factory
+	 */
+	@Override
+	public NiceWebDriver UnderloadedNiceWebDriverConstructor(Object[] oArgs) {
+		return super.UnderloadedNiceWebDriverConstructor(oArgs);
+	}
+
+}
@@ -0,0 +1,198 @@
+package test.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.ElementNotVisibleException;
+import org.openqa.selenium.InvalidArgumentException;
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriverException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.CommandMetrics;
+import com.skenvy.SeleniumNG.NiceWebDriver.LatencyHistogram;
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWait;
+
+/***
+ * Drives a NiceWait on a clock that only moves when the wait sleeps, and
+ * checks the intervals it polls at, and how it times out.
+ */
+public class NiceWaitTest {
+
+	@Test
+	public void PollsBackOffFromTheInitialIntervalToTheMaximum() {
+		ManualClock clock = new ManualClock();
+		NiceWait wait = new NiceWait(new StubWebDriver(),10000,20,200,200,0,clock,clock::sleep);
+		AtomicInteger attempts = new AtomicInteger();
+		String found = wait.until(driver -> (attempts.incrementAndGet() < 7 ? null : "found"));
+		Assert.assertEquals(found,"found");
+		Assert.assertEquals(clock.sleeps.toString(),"[20, 40, 80, 160, 200, 200]");
+	}
+
+	@Test
+	public void TimesOutToTheMilliSecondWithTheLastIgnoredException() {
+		ManualClock clock = new ManualClock();
+		NiceWait wait = new NiceWait(new StubWebDriver(),250,100,100,100,0,clock,clock::sleep);
+		try {
+			wait.until(driver -> {
+				throw new NoSuchElementException("not yet");
+			});
+			Assert.fail("The wait should have timed out");
+		} catch (TimeoutException e) {
+			Assert.assertTrue(e.getCause() instanceof NoSuchElementException);
+		}
+		// The last sleep is cut short to end at the timeout
+		Assert.assertEquals(clock.sleeps.toString(),"[100, 100, 50]");
+	}
+
+	@Test
+	public void JitterKeepsEveryIntervalWithinItsPercentage() {
+		ManualClock clock = new ManualClock();
+		NiceWait wait = new NiceWait(new StubWebDriver(),100000,100,100,100,20,clock,clock::sleep);
+		AtomicInteger attempts = new AtomicInteger();
+		wait.until(driver -> attempts.incrementAndGet() > 200);
+		for(long sleep : clock.sleeps) {
+			Assert.assertTrue(sleep >= 80 && sleep <= 120,"Slept "+sleep);
+		}
+	}
+
+	@Test
+	public void RetriesAnActionUntilItSucceeds() {
+		ManualClock clock = new ManualClock();
+		NiceWait wait = new NiceWait(new StubWebDriver(),1000,10,10,100,0,clock,clock::sleep);
+		AtomicInteger attempts = new AtomicInteger();
+		int attempt = wait.retryUntilSucceeds(driver -> {
+			if(attempts.incrementAndGet() < 3) {
+				throw new ElementNotVisibleException("not yet");
+			}
+			return attempts.get();
+		});
+		Assert.assertEquals(attempt,3);
+		Assert.assertEquals(clock.sleeps.size(),2);
+	}
+
+	@Test
+	public void RetryingRethrowsTheLastFailureAndNeverRetriesAnEndedSession() {
+		ManualClock clock = new ManualClock();
+		NiceWait wait = new NiceWait(new StubWebDriver(),100,10,10,100,0,clock,clock::sleep);
+		try {
+			wait.retryUntilSucceeds(driver -> {
+				throw new ElementNotVisibleException("never");
+			});
+			Assert.fail("The retries should have run out");
+		} catch (WebDriverException e) {
+			Assert.assertTrue(e instanceof ElementNotVisibleException);
+		}
+		clock.sleeps.clear();
+		try {
+			wait.retryUntilSucceeds(driver -> {
+				throw new NoSuchSessionException("ended");
+			});
+			Assert.fail("An ended session should not be retried");
+		} catch (NoSuchSessionException e) {
+			Assert.assertEquals(clock.sleeps.size(),0);
+		}
+	}
+
+	@Test
+	public void RetryingFailsFastOnWhatAnotherAttemptCanNotFix() {
+		ManualClock clock = new ManualClock();
+		NiceWait wait = new NiceWait(new StubWebDriver(),1000,10,10,100,0,clock,clock::sleep);
+		for(WebDriverException unfixable : new WebDriverException[] {
+				new StaleElementReferenceException("detached"),
+				new InvalidArgumentException("bad keys"),
+				new JavascriptException("threw")}) {
+			AtomicInteger attempts = new AtomicInteger();
+			try {
+				wait.retryUntilSucceeds(driver -> {
+					attempts.incrementAndGet();
+					throw unfixable;
+				});
+				Assert.fail("The retry should have failed fast");
+			} catch (WebDriverException e) {
+				Assert.assertSame(e,unfixable);
+				Assert.assertEquals(attempts.get(),1);
+			}
+		}
+		Assert.assertEquals(clock.sleeps.size(),0);
+	}
+
+	@Test
+	public void AFailureIsTimedUnderItsOwnName() {
+		ManualClock clock = new ManualClock();
+		CommandMetrics metrics = new CommandMetrics("NiceWaitTest",null,null);
+		NiceWait wait = new NiceWait(new StubWebDriver(),100,10,10,100,0,clock,clock::sleep).measuredBy(metrics);
+		try {
+			wait.retryUntilSucceeds(driver -> {
+				throw new StaleElementReferenceException("detached");
+			});
+			Assert.fail("The retry should have failed fast");
+		} catch (StaleElementReferenceException e) {
+		}
+		try {
+			wait.retryUntilSucceeds(driver -> {
+				throw new ElementNotVisibleException("never");
+			});
+			Assert.fail("The retries should have run out");
+		} catch (ElementNotVisibleException e) {
+		}
+		try {
+			wait.until(driver -> {
+				throw new IllegalStateException("broken condition");
+			});
+			Assert.fail("The wait should not ignore the exception");
+		} catch (IllegalStateException e) {
+		}
+		Map<String,LatencyHistogram.Snapshot> snapshot = metrics.getSnapshot();
+		Assert.assertEquals(snapshot.get("NiceWait.retryUntilSucceeds (StaleElementReferenceException)").getCount(),1);
+		Assert.assertEquals(snapshot.get("NiceWait.retryUntilSucceeds (timed out)").getCount(),1);
+		Assert.assertEquals(snapshot.get("NiceWait.until (IllegalStateException)").getCount(),1);
+		Assert.assertEquals(snapshot.size(),3);
+	}
+
+	/***
+	 * A clock that only moves forward when a wait sleeps on it
+	 */
+	private static class ManualClock extends Clock {
+
+		private long millis = 0;
+		private final List<Long> sleeps = new ArrayList<Long>();
+
+		private void sleep(java.time.Duration duration) {
+			sleeps.add(duration.toMillis());
+			millis += duration.toMillis();
+		}
+
+		@Override
+		public long millis() {
+			return millis;
+		}
+
+		@Override
+		public Instant instant() {
+			return Instant.ofEpochMilli(millis);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneId.of("UTC");
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+	}
+
+}
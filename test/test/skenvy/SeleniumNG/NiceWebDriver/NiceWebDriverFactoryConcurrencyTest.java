@@ -0,0 +1,118 @@
+package test.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.skenvy.SeleniumNG.DomainConstants;
+import com.skenvy.SeleniumNG.NiceWebDriver.DriverType;
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriver;
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriverFactory;
+
+/***
+ * Hammers the NiceWebDriverFactory singleton from many threads at once,
+ * against a NiceStub, as TestNG does when running with parallel="classes"
+ * or parallel="instances".
+ */
+public class NiceWebDriverFactoryConcurrencyTest {
+
+	private static final int THREADS = 48;
+	private static final int ITERATIONS_PER_THREAD = 50;
+
+	private String configFilePath;
+
+	@BeforeClass
+	public void writeStubConfig() throws IOException {
+		configFilePath = StubConfig.write();
+	}
+
+	@Test
+	public void EveryThreadGetsTheSameFactory() throws Exception {
+		List<NiceWebDriverFactory> factories = runConcurrently(() -> NiceWebDriverFactory.getFactory(configFilePath));
+		for(NiceWebDriverFactory factory : factories) {
+			Assert.assertSame(factory,factories.get(0));
+		}
+		DomainConstants constants = DomainConstants.current();
+		Assert.assertNotNull(constants.local);
+		Assert.assertNotNull(constants.webDriverSystemPaths.get(DriverType.Chrome));
+	}
+
+	@Test(dependsOnMethods = "EveryThreadGetsTheSameFactory")
+	public void EveryThreadCanGetAndQuitNiceWebDrivers() throws Exception {
+		NiceWebDriverFactory factory = NiceWebDriverFactory.getFactory(configFilePath);
+		factory.registerNiceWebDriverPrototype(DriverType.Chrome,new NiceStub());
+		List<Integer> created = runConcurrently(() -> {
+			int count = 0;
+			for(int k = 0; k < ITERATIONS_PER_THREAD; k++) {
+				NiceWebDriver nwd = factory.getNiceWebDriver(DriverType.Chrome,"--stub",1);
+				Assert.assertNotNull(nwd);
+				nwd.quitWebDriver();
+				count++;
+			}
+			return count;
+		});
+		for(int count : created) {
+			Assert.assertEquals(count,ITERATIONS_PER_THREAD);
+		}
+	}
+
+	@Test(dependsOnMethods = "EveryThreadGetsTheSameFactory")
+	public void EveryThreadCanCheckoutAndCheckinNiceWebDrivers() throws Exception {
+		NiceWebDriverFactory factory = NiceWebDriverFactory.getFactory(configFilePath);
+		factory.registerNiceWebDriverPrototype(DriverType.Chrome,new NiceStub());
+		List<Integer> checkouts = runConcurrently(() -> {
+			int count = 0;
+			for(int k = 0; k < ITERATIONS_PER_THREAD; k++) {
+				NiceWebDriver nwd = factory.checkoutNiceWebDriver(DriverType.Chrome,"--stub",1);
+				Assert.assertNotNull(nwd);
+				Assert.assertTrue(nwd.isSessionAlive());
+				factory.checkinNiceWebDriver(nwd);
+				count++;
+			}
+			return count;
+		});
+		for(int count : checkouts) {
+			Assert.assertEquals(count,ITERATIONS_PER_THREAD);
+		}
+	}
+
+	/***
+	 * Run the task on THREADS threads, all released at the same instant,
+	 * and return every thread's result, rethrowing the first failure
+	 * @param task
+	 * @return
+	 * @throws Exception
+	 */
+	private static <T> List<T> runConcurrently(Callable<T> task) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch startingGate = new CountDownLatch(1);
+		List<Future<T>> futures = new ArrayList<Future<T>>();
+		try {
+			for(int k = 0; k < THREADS; k++) {
+				futures.add(executor.submit(() -> {
+					startingGate.await();
+					return task.call();
+				}));
+			}
+			startingGate.countDown();
+			List<T> results = new ArrayList<T>();
+			for(Future<T> future : futures) {
+				results.add(future.get(60,TimeUnit.SECONDS));
+			}
+			return results;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+}
@@ -0,0 +1,185 @@
+package test.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.WebDriverException;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.skenvy.SeleniumNG.DomainConstants;
+import com.skenvy.SeleniumNG.NiceWebDriver.DriverType;
+import com.skenvy.SeleniumNG.NiceWebDriver.LinkValidator;
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriver;
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriverPool;
+
+/***
+ * Checks the NiceWebDriverPool on its own, with NiceStub sessions: that it
+ * warms no more sessions than it may keep idle, that the warm ups of a key
+ * are merged while they run, but a failed or rejected one holds back no
+ * later one, that a session checked back in is sanitised before it is
+ * reused, and that one that fails to sanitise is quit rather than pooled.
+ */
+public class NiceWebDriverPoolTest {
+
+	private static final NiceWebDriverPool.SessionKey KEY = NiceWebDriverPool.SessionKey.forLocal(DriverType.Chrome,"--stub",1);
+
+	@BeforeClass
+	public void readStubConfig() throws IOException {
+		new DomainConstants(StubConfig.write());
+	}
+
+	@AfterClass
+	public void restoreStubConfig() throws IOException {
+		new DomainConstants(StubConfig.write());
+	}
+
+	@Test
+	public void WarmingStartsNoMoreThanTheMaximumIdleSessions() {
+		NiceWebDriverPool pool = new NiceWebDriverPool(2);
+		CountingConstructor constructor = new CountingConstructor();
+		pool.warm(KEY,5,constructor,Runnable::run).join();
+		Assert.assertEquals(constructor.made.get(),2);
+		// Warming again to the same target starts nothing, as the pool is full
+		pool.warm(KEY,5,constructor,Runnable::run).join();
+		Assert.assertEquals(constructor.made.get(),2);
+		NiceWebDriver first = pool.checkout(KEY,constructor);
+		NiceWebDriver second = pool.checkout(KEY,constructor);
+		Assert.assertNotSame(first,second);
+		Assert.assertEquals(constructor.made.get(),2);
+		pool.checkout(KEY,constructor);
+		Assert.assertEquals(constructor.made.get(),3);
+	}
+
+	@Test
+	public void TheWarmUpsOfAKeyAreMerged() {
+		NiceWebDriverPool pool = new NiceWebDriverPool(3);
+		CountingConstructor constructor = new CountingConstructor();
+		HeldExecutor executor = new HeldExecutor();
+		CompletableFuture<Void> first = pool.warm(KEY,1,constructor,executor);
+		CompletableFuture<Void> both = pool.warm(KEY,2,constructor,executor);
+		Assert.assertEquals(executor.held.size(),2);
+		executor.run(1);
+		Assert.assertFalse(first.isDone());
+		Assert.assertFalse(both.isDone(),"The second warm up must also wait for the first");
+		executor.run(0);
+		Assert.assertTrue(first.isDone());
+		Assert.assertTrue(both.isDone());
+		Assert.assertEquals(constructor.made.get(),2);
+	}
+
+	@Test
+	public void AFailedWarmUpFailsNoLaterWarmUpOfItsKey() {
+		NiceWebDriverPool pool = new NiceWebDriverPool(2);
+		CountingConstructor constructor = new CountingConstructor();
+		CompletableFuture<Void> failed = pool.warm(KEY,1,() -> {
+			throw new WebDriverException("The browser did not start");
+		},Runnable::run);
+		Assert.assertTrue(failed.isCompletedExceptionally());
+		CompletableFuture<Void> next = pool.warm(KEY,1,constructor,Runnable::run);
+		Assert.assertTrue(next.isDone());
+		Assert.assertFalse(next.isCompletedExceptionally());
+		Assert.assertEquals(constructor.made.get(),1);
+	}
+
+	@Test
+	public void ARejectedWarmUpGivesBackItsPlace() {
+		NiceWebDriverPool pool = new NiceWebDriverPool(2);
+		CountingConstructor constructor = new CountingConstructor();
+		try {
+			pool.warm(KEY,2,constructor,command -> {
+				throw new RejectedExecutionException("The executor was shut down");
+			});
+			Assert.fail("expected the warm up to be rejected");
+		} catch (RejectedExecutionException e) {
+			// As the executor refused it
+		}
+		pool.warm(KEY,2,constructor,Runnable::run).join();
+		Assert.assertEquals(constructor.made.get(),2);
+	}
+
+	@Test
+	public void ASessionIsSanitisedWhenCheckedIn() {
+		NiceWebDriverPool pool = new NiceWebDriverPool(1);
+		CountingConstructor constructor = new CountingConstructor();
+		NiceWebDriver nwd = pool.checkout(KEY,constructor);
+		nwd.openWebPage("http://stub.invalid/page");
+		LinkValidator linkValidator = nwd.getLinkValidator();
+		pool.checkin(nwd);
+		NiceWebDriver reused = pool.checkout(KEY,constructor);
+		Assert.assertSame(reused,nwd);
+		Assert.assertEquals(constructor.made.get(),1);
+		Assert.assertEquals(reused.unwrapWebDriver().getCurrentUrl(),"about:blank");
+		// The links checked with the last test class's cookies are not reused
+		Assert.assertNotSame(reused.getLinkValidator(),linkValidator);
+		reused.quitWebDriver();
+	}
+
+	@Test
+	public void ASessionThatFailsToSanitiseIsQuit() {
+		NiceWebDriverPool pool = new NiceWebDriverPool(1);
+		CountingConstructor constructor = new CountingConstructor();
+		NiceWebDriver nwd = pool.checkout(KEY,constructor);
+		StubWebDriver driver = (StubWebDriver) nwd.unwrapWebDriver();
+		driver.setScriptResponder((script,args) -> {
+			throw new JavascriptException("The storage of this page can not be cleared");
+		});
+		pool.checkin(nwd);
+		Assert.assertTrue(driver.hasQuit());
+		NiceWebDriver next = pool.checkout(KEY,constructor);
+		Assert.assertNotSame(next,nwd);
+		Assert.assertEquals(constructor.made.get(),2);
+		next.quitWebDriver();
+	}
+
+	@Test
+	public void ASessionThatDidNotComeFromThePoolIsQuit() {
+		NiceWebDriverPool pool = new NiceWebDriverPool(1);
+		NiceWebDriver stranger = new CountingConstructor().get();
+		pool.checkin(stranger);
+		Assert.assertTrue(((StubWebDriver) stranger.unwrapWebDriver()).hasQuit());
+	}
+
+	/***
+	 * Makes NiceStub sessions, as the factory would, and counts them
+	 */
+	private static class CountingConstructor implements Supplier<NiceWebDriver> {
+
+		private final AtomicInteger made = new AtomicInteger();
+
+		@Override
+		public NiceWebDriver get() {
+			made.incrementAndGet();
+			return new NiceStub().UnderloadedNiceWebDriverConstructor(new Object[] {"--stub",1});
+		}
+
+	}
+
+	/***
+	 * Holds the tasks it is given until they are run one at a time
+	 */
+	private static class HeldExecutor implements Executor {
+
+		private final List<Runnable> held = new ArrayList<Runnable>();
+
+		@Override
+		public void execute(Runnable command) {
+			held.add(command);
+		}
+
+		private void run(int index) {
+			held.get(index).run();
+		}
+
+	}
+
+}
@@ -0,0 +1,106 @@
+package test.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.ElementNotInteractableException;
+import org.openqa.selenium.WebElement;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriver;
+
+/***
+ * Answers the page quiescence script from a StubWebDriver, and checks that
+ * waitForPageQuiescent ends as soon as the page reports it is quiet, and
+ * gives up, within its own budget, when it never does.
+ */
+public class PageQuiescenceTest extends StubbedSessionFixture {
+
+	@Test
+	public void WaitEndsOnTheFirstQuiescentReport() throws Exception {
+		NiceWebDriver nwd = startSession(5);
+		AtomicInteger checks = new AtomicInteger();
+		stubOf(nwd).setScriptResponder((script,args) -> state(checks.incrementAndGet() >= 3));
+		long start = System.nanoTime();
+		Assert.assertTrue(nwd.waitForPageQuiescent());
+		Assert.assertEquals(checks.get(),3);
+		Assert.assertTrue(System.nanoTime() - start < 1_000_000_000L);
+	}
+
+	@Test
+	public void WaitGivesUpWhenThePageNeverGoesQuiet() throws Exception {
+		NiceWebDriver nwd = startSession(5).getThisWithWaitTimeoutSetTo(200);
+		stubOf(nwd).setScriptResponder((script,args) -> state(false));
+		long start = System.nanoTime();
+		Assert.assertFalse(nwd.waitForPageQuiescent());
+		Assert.assertTrue(System.nanoTime() - start < 2_000_000_000L);
+	}
+
+	@Test
+	public void PagesThatCanNotReportAreNotWaitedOn() throws Exception {
+		NiceWebDriver nwd = startSession(5);
+		Assert.assertTrue(nwd.waitForPageQuiescent());
+	}
+
+	@Test
+	public void APageIsInstrumentedAsSoonAsItIsOpened() throws Exception {
+		List<String> sent = new ArrayList<String>();
+		NiceWebDriver nwd = startSession(5,(script,args) -> {
+			sent.add(script);
+			return state(true);
+		});
+		nwd.openWebPage("http://stub.invalid/page");
+		Assert.assertEquals(sent.size(),1);
+		Assert.assertTrue(sent.get(0).contains("__seleniumNGQuiescence"));
+		Assert.assertTrue(nwd.waitForPageQuiescent());
+		// Only the call to the script installed when the page was opened
+		Assert.assertEquals(sent.size(),2);
+		Assert.assertFalse(sent.get(1).contains("XMLHttpRequest"));
+	}
+
+	@Test
+	public void TheWaitForQuiescenceHasItsOwnShortBudget() throws Exception {
+		NiceWebDriver nwd = startSession(5,(script,args) -> state(false));
+		long start = System.nanoTime();
+		Assert.assertFalse(nwd.waitForPageQuiescent());
+		long elapsed = System.nanoTime() - start;
+		Assert.assertTrue(elapsed >= 1_900_000_000L && elapsed < 3_500_000_000L,"Waited "+elapsed+" ns");
+	}
+
+	@Test
+	public void ARetryIsGivenOnlyWhatTheWaitForQuiescenceLeftOfTheTimeout() throws Exception {
+		AtomicInteger scrolls = new AtomicInteger();
+		NiceWebDriver nwd = startSession(1,(script,args) -> {
+			if(args.length == 1 && args[0] instanceof WebElement) {
+				scrolls.incrementAndGet();
+				throw new ElementNotInteractableException("not yet");
+			}
+			return state(false);
+		});
+		WebElement element = stubOf(nwd).findElement(By.id("here"));
+		long start = System.nanoTime();
+		try {
+			nwd.scrollThePageIntoViewOfANonNullWebElement(element);
+			Assert.fail("The scroll should have kept failing");
+		} catch (ElementNotInteractableException e) {
+		}
+		long elapsed = System.nanoTime() - start;
+		// The page never goes quiet, using the whole second, so the scroll is retried just once
+		Assert.assertEquals(scrolls.get(),2);
+		Assert.assertTrue(elapsed < 1_800_000_000L,"Took "+elapsed+" ns");
+	}
+
+	private static Map<String,Object> state(boolean quiescent) {
+		Map<String,Object> state = new HashMap<String,Object>();
+		state.put("quiescent",quiescent);
+		state.put("readyState","complete");
+		state.put("requests",(quiescent ? 0L : 1L));
+		return state;
+	}
+
+}
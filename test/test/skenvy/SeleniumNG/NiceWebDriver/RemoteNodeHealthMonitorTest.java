@@ -0,0 +1,138 @@
+package test.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.RemoteNodeHealthMonitor;
+import com.sun.net.httpserver.HttpServer;
+
+/***
+ * Probes a stub status endpoint whose readiness is toggled by the test, and
+ * checks that the node's breaker opens while it is not ready, and closes
+ * again once it is.
+ */
+public class RemoteNodeHealthMonitorTest {
+
+	private HttpServer server;
+	private ExecutorService serverExecutor;
+	private final CountDownLatch releaseHungProbes = new CountDownLatch(1);
+	private volatile boolean ready = true;
+	private URL nodeUrl;
+
+	@BeforeClass
+	public void startStubNode() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1",0),0);
+		server.createContext("/wd/hub/status",exchange -> {
+			byte[] body = ("{\"value\":{\"ready\":"+ready+"}}").getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(ready ? 200 : 503,body.length);
+			try(OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		// A status endpoint that never answers until the test class is over
+		server.createContext("/hung/status",exchange -> {
+			try {
+				releaseHungProbes.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			exchange.sendResponseHeaders(503,-1);
+			exchange.close();
+		});
+		serverExecutor = Executors.newCachedThreadPool();
+		server.setExecutor(serverExecutor);
+		server.start();
+		nodeUrl = new URL("http://127.0.0.1:"+server.getAddress().getPort()+"/wd/hub");
+	}
+
+	@AfterClass
+	public void stopStubNode() {
+		releaseHungProbes.countDown();
+		server.stop(0);
+		serverExecutor.shutdownNow();
+	}
+
+	@Test
+	public void BreakerOpensWhileTheNodeIsDownAndClosesWhenItRecovers() throws InterruptedException {
+		// Open for a minute, so only a successful probe can close it again
+		RemoteNodeHealthMonitor monitor = new RemoteNodeHealthMonitor(25,500,2,60000);
+		try {
+			ready = true;
+			monitor.monitor(nodeUrl);
+			Assert.assertTrue(monitor.allowSession(nodeUrl));
+			ready = false;
+			Assert.assertTrue(eventually(() -> !monitor.isHealthy(nodeUrl)));
+			Assert.assertFalse(monitor.allowSession(nodeUrl));
+			ready = true;
+			Assert.assertTrue(eventually(() -> monitor.isHealthy(nodeUrl)));
+			Assert.assertTrue(monitor.allowSession(nodeUrl));
+		} finally {
+			monitor.shutdown();
+		}
+	}
+
+	@Test
+	public void OpenBreakerLetsOneTrialThroughAfterTheOpenPeriod() throws Exception {
+		// The probe hangs, so that only recorded session outcomes move the breaker
+		RemoteNodeHealthMonitor monitor = new RemoteNodeHealthMonitor(60000,60000,2,50);
+		URL unprobedNode = new URL(nodeUrl.toExternalForm()+"/unprobed");
+		URL hungStatusUrl = new URL("http://127.0.0.1:"+server.getAddress().getPort()+"/hung/status");
+		try {
+			monitor.monitor(unprobedNode,hungStatusUrl);
+			monitor.recordFailure(unprobedNode);
+			Assert.assertTrue(monitor.allowSession(unprobedNode));
+			monitor.recordFailure(unprobedNode);
+			Assert.assertFalse(monitor.allowSession(unprobedNode));
+			Thread.sleep(100);
+			Assert.assertTrue(monitor.allowSession(unprobedNode));
+			Assert.assertFalse(monitor.allowSession(unprobedNode));
+			monitor.recordSuccess(unprobedNode);
+			Assert.assertTrue(monitor.isHealthy(unprobedNode));
+		} finally {
+			monitor.shutdown();
+		}
+	}
+
+	@Test
+	public void UnmonitoredNodesAreAlwaysAdmitted() throws Exception {
+		RemoteNodeHealthMonitor monitor = new RemoteNodeHealthMonitor(60000,500,1,60000);
+		URL unmonitored = new URL("http://127.0.0.1:1/wd/hub");
+		try {
+			monitor.recordFailure(unmonitored);
+			Assert.assertTrue(monitor.allowSession(unmonitored));
+			Assert.assertTrue(monitor.isHealthy(unmonitored));
+		} finally {
+			monitor.shutdown();
+		}
+	}
+
+	/***
+	 * Poll the condition for up to five seconds
+	 * @param condition
+	 * @return whether the condition became true
+	 * @throws InterruptedException
+	 */
+	private static boolean eventually(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + 5_000_000_000L;
+		while(System.nanoTime() < deadline) {
+			if(condition.getAsBoolean()) {
+				return true;
+			}
+			Thread.sleep(10);
+		}
+		return condition.getAsBoolean();
+	}
+
+}
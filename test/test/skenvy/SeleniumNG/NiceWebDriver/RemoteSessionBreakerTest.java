@@ -0,0 +1,61 @@
+package test.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.io.IOException;
+import java.net.URL;
+
+import org.openqa.selenium.WebDriverException;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.DriverType;
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriverFactory;
+
+/***
+ * Starts remote sessions on a StubWebDriverEndpoint whose status is ready,
+ * but which refuses every new session, and checks that the failures still
+ * trip the node's breaker, so later sessions are refused without contacting
+ * it.
+ */
+public class RemoteSessionBreakerTest {
+
+	private StubWebDriverEndpoint endpoint;
+
+	@BeforeClass
+	public void startEndpoint() throws IOException {
+		endpoint = new StubWebDriverEndpoint(0);
+		endpoint.refusesSessions = true;
+	}
+
+	@AfterClass
+	public void stopEndpoint() {
+		endpoint.stop();
+	}
+
+	@Test
+	public void SessionsThatFailToStartTripTheBreaker() throws Exception {
+		NiceWebDriverFactory factory = NiceWebDriverFactory.getFactory(StubConfig.write());
+		URL nodeUrl = endpoint.getRemoteAddress();
+		factory.monitorRemoteNode(nodeUrl,null);
+		// Let the first probe, which finds the node ready, finish
+		Thread.sleep(250);
+		Assert.assertTrue(factory.isRemoteNodeHealthy(nodeUrl));
+		for(int k = 0; k < 2; k++) {
+			startRefusedSession(factory,nodeUrl);
+		}
+		Assert.assertFalse(factory.isRemoteNodeHealthy(nodeUrl));
+		int commands = endpoint.commandCount.get();
+		startRefusedSession(factory,nodeUrl);
+		Assert.assertEquals(endpoint.commandCount.get(),commands,"The open breaker must refuse the session itself");
+	}
+
+	private static void startRefusedSession(NiceWebDriverFactory factory, URL nodeUrl) throws IOException {
+		try {
+			Assert.assertNull(factory.getNiceWebDriverRemote(DriverType.Chrome,nodeUrl,1));
+		} catch (WebDriverException e) {
+			// Refused, by the endpoint or by the breaker
+		}
+	}
+
+}
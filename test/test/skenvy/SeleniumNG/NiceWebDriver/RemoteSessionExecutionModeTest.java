@@ -0,0 +1,70 @@
+package test.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.DriverType;
+import com.skenvy.SeleniumNG.NiceWebDriver.ExecutionMode;
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriverFactory;
+
+/***
+ * Runs remote session flows on a StubWebDriverEndpoint while the remote
+ * session ExecutionMode is switched back and forth, and checks that every
+ * flow runs, rather than being rejected by the executor being replaced.
+ */
+public class RemoteSessionExecutionModeTest {
+
+	private static final int FLOWS = 200;
+
+	private StubWebDriverEndpoint endpoint;
+
+	@BeforeClass
+	public void startEndpoint() throws IOException {
+		endpoint = new StubWebDriverEndpoint(0);
+	}
+
+	@AfterClass
+	public void stopEndpoint() {
+		endpoint.stop();
+	}
+
+	@Test
+	public void FlowsStartedWhileTheModeChangesAllRun() throws Exception {
+		NiceWebDriverFactory factory = NiceWebDriverFactory.getFactory(StubConfig.write());
+		URL nodeUrl = endpoint.getRemoteAddress();
+		AtomicBoolean switching = new AtomicBoolean(true);
+		Thread switcher = new Thread(() -> {
+			while(switching.get()) {
+				factory.setRemoteSessionExecutionMode(ExecutionMode.Virtual);
+				factory.setRemoteSessionExecutionMode(ExecutionMode.Platform);
+			}
+		});
+		switcher.start();
+		List<CompletableFuture<Integer>> flows = new ArrayList<CompletableFuture<Integer>>(FLOWS);
+		try {
+			for(int k = 0; k < FLOWS; k++) {
+				int flow = k;
+				flows.add(factory.runRemoteSessionFlow(DriverType.Chrome,nodeUrl,1,nwd -> flow));
+				// Interleave the flows with the switches
+				Thread.yield();
+			}
+		} finally {
+			switching.set(false);
+			switcher.join();
+			factory.setRemoteSessionExecutionMode(ExecutionMode.Platform);
+		}
+		for(int k = 0; k < FLOWS; k++) {
+			Assert.assertEquals(flows.get(k).join().intValue(),k);
+		}
+	}
+
+}
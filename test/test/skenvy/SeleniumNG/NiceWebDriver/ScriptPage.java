@@ -0,0 +1,180 @@
+package test.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.List;
+
+import com.gargoylesoftware.htmlunit.BrowserVersion;
+import com.gargoylesoftware.htmlunit.MockWebConnection;
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+import com.gargoylesoftware.htmlunit.javascript.SilentJavaScriptErrorListener;
+
+/***
+ * A page in HtmlUnit's headless browser, to run the JavaScript of a
+ * NiceScript against a real DOM the way a WebDriver would: as the body of a
+ * function given the arguments, with the callback as the last of them for
+ * an asynchronous script. HtmlUnit lays nothing out, so there is no
+ * geometry to scroll or measure, and its MutationObserver reports nothing
+ * when it observes the document itself, rather than an element in it. The
+ * scripts are taken from those a NiceWebDriver executed on a StubWebDriver,
+ * so they are run as the browser would be sent them.
+ */
+final class ScriptPage implements AutoCloseable {
+
+	/***
+	 * The URL every page is opened at, so location.pathname is "/page"
+	 */
+	static final String PAGE_URL = "http://stub.invalid/page";
+
+	private final WebClient webClient = new WebClient(BrowserVersion.CHROME);
+	private final MockWebConnection connection = new MockWebConnection();
+	private HtmlPage page;
+
+	/***
+	 * Open a page with the body
+	 * @param bodyHtml
+	 * @throws IOException
+	 */
+	ScriptPage(String bodyHtml) throws IOException {
+		webClient.setWebConnection(connection);
+		webClient.getOptions().setCssEnabled(false);
+		// A script that throws is reported by the ScriptException, not logged
+		webClient.setJavaScriptErrorListener(new SilentJavaScriptErrorListener());
+		open(bodyHtml);
+	}
+
+	/***
+	 * Navigate to a new page with the body, discarding everything the last
+	 * page's scripts left in its window
+	 * @param bodyHtml
+	 * @throws IOException
+	 */
+	void open(String bodyHtml) throws IOException {
+		connection.setResponse(new URL(PAGE_URL),"<!DOCTYPE html><html><head><title>page</title></head><body>"+bodyHtml+"</body></html>");
+		page = webClient.getPage(PAGE_URL);
+	}
+
+	/***
+	 * Execute a script, as executeScript, keeping what it returns as the
+	 * page's "result"
+	 * @param script
+	 * @param args strings, numbers, booleans, or elements
+	 */
+	void execute(String script, Object... args) {
+		page.executeJavaScript("window.result = (function() {\n"+script+"\n}).apply(window, ["+argumentsOf(args)+"]);");
+	}
+
+	/***
+	 * Execute an asynchronous script, as executeAsyncScript, keeping what it
+	 * answers the callback with as the page's "result"
+	 * @param script
+	 * @param timeoutMilliSeconds how long to run the page's timers for,
+	 * waiting for the answer
+	 * @param args strings, numbers, booleans, or elements
+	 * @return whether the script answered in time
+	 */
+	boolean executeAsync(String script, long timeoutMilliSeconds, Object... args) {
+		String callback = "function(answer) { window.result = answer; window.answered = true; }";
+		page.executeJavaScript("window.answered = false; (function() {\n"+script+"\n}).apply(window, ["+argumentsOf(args)+(args.length > 0 ? ", " : "")+callback+"]);");
+		long deadline = System.currentTimeMillis()+timeoutMilliSeconds;
+		while(!answered() && System.currentTimeMillis() < deadline) {
+			if(webClient.waitForBackgroundJavaScript(20) == 0 && !answered()) {
+				return false;
+			}
+		}
+		return answered();
+	}
+
+	private boolean answered() {
+		return "true".equals(evaluate("window.answered"));
+	}
+
+	/***
+	 * Evaluate an expression in the page, such as one of its "result"
+	 * @param expression
+	 * @return the value as a JavaScript String
+	 */
+	String evaluate(String expression) {
+		return (String) page.executeJavaScript("String("+expression+")").getJavaScriptResult();
+	}
+
+	@Override
+	public void close() {
+		webClient.close();
+	}
+
+	/***
+	 * Of the scripts executed on a StubWebDriver, the first that installs the
+	 * NiceScript named in the page and calls it
+	 * @param executed
+	 * @param scriptName
+	 * @return
+	 */
+	static String installingScript(List<String> executed, String scriptName) {
+		return firstContaining(executed,"window.__seleniumNGScripts['"+scriptName+"'] = function");
+	}
+
+	/***
+	 * Of the scripts executed on a StubWebDriver, the first that calls the
+	 * NiceScript named, already installed in the page
+	 * @param executed
+	 * @param scriptName
+	 * @return
+	 */
+	static String installedScript(List<String> executed, String scriptName) {
+		return firstContaining(executed,"if (!window.__seleniumNGScripts || !window.__seleniumNGScripts['"+scriptName+"'])");
+	}
+
+	private static String firstContaining(List<String> executed, String part) {
+		for(String script : executed) {
+			if(script.contains(part)) {
+				return script;
+			}
+		}
+		throw new AssertionError("No script executed contains | "+part);
+	}
+
+	/***
+	 * An element of the page, as an argument to a script
+	 * @param cssSelector
+	 * @return
+	 */
+	static Object element(String cssSelector) {
+		return new Element(cssSelector);
+	}
+
+	private static final class Element {
+
+		private final String cssSelector;
+
+		private Element(String cssSelector) {
+			this.cssSelector = cssSelector;
+		}
+
+	}
+
+	private static String argumentsOf(Object[] args) {
+		StringBuilder js = new StringBuilder();
+		for(int i = 0; i < args.length; i++) {
+			if(i > 0) {
+				js.append(", ");
+			}
+			if(args[i] == null) {
+				js.append("null");
+			} else if(args[i] instanceof String) {
+				js.append(quote((String) args[i]));
+			} else if(args[i] instanceof Element) {
+				js.append("document.querySelector(").append(quote(((Element) args[i]).cssSelector)).append(")");
+			} else {
+				js.append(args[i]);
+			}
+		}
+		return js.toString();
+	}
+
+	private static String quote(String text) {
+		return "'"+text.replace("\\","\\\\").replace("'","\\'").replace("\n","\\n")+"'";
+	}
+
+}
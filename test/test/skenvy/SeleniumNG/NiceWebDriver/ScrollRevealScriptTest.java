@@ -0,0 +1,66 @@
+package test.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriver;
+
+/***
+ * Runs the ScrollReveal script in a real DOM: that a displayed element is
+ * answered at once, that one rendered while the script waits is answered
+ * when it is, and that one hidden, or never rendered, is answered as not
+ * revealed at the timeout. HtmlUnit lays nothing out, so the scroll offsets
+ * the script sets, and the stepping down a list taller than its container,
+ * are checked only by hand in a browser.
+ */
+public class ScrollRevealScriptTest extends StubbedSessionFixture {
+
+	private String script;
+
+	private static final String LIST = "<div id='list' style='height:100px;overflow:auto'><p id='row1'>1</p><p id='row2' style='display:none'>2</p></div>";
+
+	@BeforeClass
+	public void sendScript() throws IOException {
+		NiceWebDriver nwd = startSession(1);
+		StubWebDriver driver = stubOf(nwd);
+		driver.setScriptResponder((sent,args) -> Collections.singletonMap("element",new StubWebDriver.StubWebElement(driver)));
+		nwd.scrollInsideOfAnXPathWebElementFromTopToBottomUntilAnotherXPathBecomesVisible("//div","//p",40);
+		script = ScriptPage.installingScript(driver.getScriptsExecuted(),"seleniumNG.scrollReveal");
+	}
+
+	@Test
+	public void ADisplayedElementIsRevealedAtOnce() throws IOException {
+		try(ScriptPage page = new ScriptPage(LIST)) {
+			Assert.assertTrue(page.executeAsync(script,1000,ScriptPage.element("#list"),"//p[@id='row1']",40,5000));
+			Assert.assertEquals(page.evaluate("result.revealed"),"true");
+			Assert.assertEquals(page.evaluate("result.element.id"),"row1");
+			Assert.assertEquals(page.evaluate("result.steps"),"0");
+		}
+	}
+
+	@Test
+	public void AnElementRenderedWhileWaitingIsRevealed() throws IOException {
+		try(ScriptPage page = new ScriptPage(LIST+"<script>setTimeout(function() { var row = document.createElement('p'); row.id = 'row3'; document.getElementById('list').appendChild(row); }, 150);</script>")) {
+			Assert.assertTrue(page.executeAsync(script,5000,ScriptPage.element("#list"),"//p[@id='row3']",40,3000));
+			Assert.assertEquals(page.evaluate("result.revealed"),"true");
+			Assert.assertEquals(page.evaluate("result.element.id"),"row3");
+		}
+	}
+
+	@Test
+	public void AHiddenOrMissingElementIsNotRevealedAtTheTimeout() throws IOException {
+		try(ScriptPage page = new ScriptPage(LIST)) {
+			Assert.assertTrue(page.executeAsync(script,5000,ScriptPage.element("#list"),"//p[@id='row2']",40,200));
+			Assert.assertEquals(page.evaluate("result.revealed"),"false");
+			Assert.assertEquals(page.evaluate("result.element.id"),"row2");
+			Assert.assertTrue(page.executeAsync(script,5000,ScriptPage.element("#list"),"//p[@id='row9']",40,200));
+			Assert.assertEquals(page.evaluate("result.revealed"),"false");
+			Assert.assertEquals(page.evaluate("result.element"),"null");
+		}
+	}
+
+}
@@ -0,0 +1,70 @@
+package test.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriver;
+
+/***
+ * Answers the scroll reveal script from a StubWebDriver, and checks that
+ * the revealed element is returned from that one call, and that the scroll
+ * is done stepwise when the script can not run.
+ */
+public class ScrollRevealTest extends StubbedSessionFixture {
+
+	@Test
+	public void TheRevealedElementIsReturnedFromTheOneScriptCall() throws Exception {
+		NiceWebDriver nwd = startSession(1);
+		StubWebDriver driver = stubOf(nwd);
+		WebElement container = new StubWebDriver.StubWebElement(driver);
+		WebElement revealed = new StubWebDriver.StubWebElement(driver);
+		AtomicInteger scrolls = new AtomicInteger();
+		driver.setScriptResponder((script,args) -> {
+			if(args.length == 4) {
+				scrolls.incrementAndGet();
+				Assert.assertSame(args[0],container);
+				Assert.assertEquals(args[1],"//li[@id='row-400']");
+				Assert.assertEquals(args[2],40);
+				Assert.assertEquals(args[3],1000L);
+				Map<String,Object> answer = new HashMap<String,Object>();
+				answer.put("element",revealed);
+				answer.put("revealed",true);
+				answer.put("scrollTop",16000L);
+				answer.put("steps",400L);
+				return answer;
+			}
+			return (args.length == 3 ? arrival(container) : null);
+		});
+		Assert.assertSame(((WrapsElement) nwd.scrollInsideOfAnXPathWebElementFromTopToBottomUntilAnotherXPathBecomesVisible("//ul","//li[@id='row-400']",40)).getWrappedElement(),revealed);
+		Assert.assertEquals(scrolls.get(),1);
+	}
+
+	@Test
+	public void AFailedScriptScrollsStepwise() throws Exception {
+		NiceWebDriver nwd = startSession(1);
+		StubWebDriver driver = stubOf(nwd);
+		driver.setScriptResponder((script,args) -> {
+			if(args.length == 4) {
+				throw new JavascriptException("javascript error: container.contains is not a function");
+			}
+			return (args.length == 3 ? arrival(new StubWebDriver.StubWebElement(driver)) : null);
+		});
+		Assert.assertNotNull(nwd.scrollInsideOfAnXPathWebElementFromTopToBottomUntilAnotherXPathBecomesVisible("//ul","//li[@id='row-400']",40));
+	}
+
+	private static Map<String,Object> arrival(WebElement element) {
+		Map<String,Object> arrival = new HashMap<String,Object>();
+		arrival.put("element",element);
+		arrival.put("path","/stub");
+		arrival.put("waitedMilliSeconds",0L);
+		return arrival;
+	}
+
+}
@@ -0,0 +1,43 @@
+package test.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Properties;
+
+/***
+ * Writes a throwaway configuration file for tests that drive the
+ * NiceWebDriverFactory with a NiceStub. The Chrome driver path points at
+ * the configuration file itself, so the factory's check that the driver
+ * file exists is satisfied without a chromedriver.
+ */
+public class StubConfig {
+
+	/***
+	 * Write the configuration, with any extra entries, and return its path
+	 * @param extraEntries alternating keys and values
+	 * @return
+	 * @throws IOException
+	 */
+	public static String write(String... extraEntries) throws IOException {
+		File configFile = File.createTempFile("SeleniumNG-stub-config",".xml");
+		configFile.deleteOnExit();
+		Properties properties = new Properties();
+		properties.setProperty("WebDriverSystemPaths.Chrome",configFile.getAbsolutePath());
+		properties.setProperty("Local.WaitSeconds","1");
+		properties.setProperty("Test.WaitSeconds","1");
+		properties.setProperty("SeleniumNodeCount","0");
+		for(int k = 0; k+1 < extraEntries.length; k+=2) {
+			properties.setProperty(extraEntries[k],extraEntries[k+1]);
+		}
+		OutputStream out = new FileOutputStream(configFile);
+		try {
+			properties.storeToXML(out,"SeleniumNG stub configuration");
+		} finally {
+			out.close();
+		}
+		return configFile.getAbsolutePath();
+	}
+
+}
@@ -0,0 +1,324 @@
+package test.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.logging.Logs;
+
+/***
+ * An in-JVM WebDriver that answers every command itself, after an optional
+ * simulated round trip latency, so that the NiceWebDriverFactory and
+ * NiceWebDriver can be driven without a browser. Any locator whose string
+ * contains "missing" is never found; every other locator is found at once.
+ */
+public class StubWebDriver implements WebDriver, JavascriptExecutor {
+
+	/***
+	 * How many milliseconds every new StubWebDriver's commands take
+	 */
+	public static volatile long defaultCommandLatencyMillis = 0;
+
+	/***
+	 * How many commands have been answered by every StubWebDriver
+	 */
+	public static final AtomicInteger commandCount = new AtomicInteger();
+
+	private final long commandLatencyMillis;
+	private final Set<String> windowHandles = new LinkedHashSet<String>(Collections.singleton("stub-window-1"));
+	private final Map<String,Cookie> cookies = new LinkedHashMap<String,Cookie>();
+	private String currentWindowHandle = "stub-window-1";
+	private String currentUrl = "about:blank";
+	private volatile boolean quit = false;
+	private volatile BiFunction<String,Object[],Object> scriptResponder = null;
+	private volatile String pageSource = "<html><head></head><body></body></html>";
+	private final List<String> scriptsExecuted = new CopyOnWriteArrayList<String>();
+
+	public StubWebDriver() {
+		this(defaultCommandLatencyMillis);
+	}
+
+	public StubWebDriver(long commandLatencyMillis) {
+		this.commandLatencyMillis = commandLatencyMillis;
+	}
+
+	/***
+	 * Simulate the round trip of a command, failing if the session was quit
+	 */
+	private void roundTrip() {
+		if(quit) {
+			throw new NoSuchSessionException("The stub session has been quit");
+		}
+		commandCount.incrementAndGet();
+		if(commandLatencyMillis > 0) {
+			try {
+				Thread.sleep(commandLatencyMillis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	public boolean hasQuit() {
+		return quit;
+	}
+
+	/***
+	 * Answer executeScript and executeAsyncScript with the responder, given
+	 * the script and its arguments, instead of with null
+	 * @param scriptResponder
+	 */
+	public void setScriptResponder(BiFunction<String,Object[],Object> scriptResponder) {
+		this.scriptResponder = scriptResponder;
+	}
+
+	/***
+	 * Every script executed on this driver, in the order it was executed
+	 * @return
+	 */
+	public List<String> getScriptsExecuted() {
+		return scriptsExecuted;
+	}
+
+	/***
+	 * Answer getPageSource with the page source
+	 * @param pageSource
+	 */
+	public void setPageSource(String pageSource) {
+		this.pageSource = pageSource;
+	}
+
+	@Override
+	public void get(String url) {
+		roundTrip();
+		currentUrl = url;
+	}
+
+	@Override
+	public String getCurrentUrl() {
+		roundTrip();
+		return currentUrl;
+	}
+
+	@Override
+	public String getTitle() {
+		roundTrip();
+		return "stub";
+	}
+
+	@Override
+	public List<WebElement> findElements(By by) {
+		roundTrip();
+		List<WebElement> found = new ArrayList<WebElement>();
+		if(!String.valueOf(by).contains("missing")) {
+			found.add(new StubWebElement(this));
+		}
+		return found;
+	}
+
+	@Override
+	public WebElement findElement(By by) {
+		roundTrip();
+		if(String.valueOf(by).contains("missing")) {
+			throw new NoSuchElementException("Stub can not find "+by);
+		}
+		return new StubWebElement(this);
+	}
+
+	@Override
+	public String getPageSource() {
+		roundTrip();
+		return pageSource;
+	}
+
+	@Override
+	public void close() {
+		roundTrip();
+		windowHandles.remove(currentWindowHandle);
+		if(windowHandles.isEmpty()) {
+			quit = true;
+		}
+	}
+
+	@Override
+	public void quit() {
+		quit = true;
+	}
+
+	@Override
+	public Set<String> getWindowHandles() {
+		roundTrip();
+		return new LinkedHashSet<String>(windowHandles);
+	}
+
+	@Override
+	public String getWindowHandle() {
+		roundTrip();
+		return currentWindowHandle;
+	}
+
+	@Override
+	public TargetLocator switchTo() {
+		return new StubTargetLocator();
+	}
+
+	@Override
+	public Navigation navigate() {
+		return new StubNavigation();
+	}
+
+	@Override
+	public Options manage() {
+		return new StubOptions();
+	}
+
+	@Override
+	public Object executeScript(String script, Object... args) {
+		roundTrip();
+		scriptsExecuted.add(script);
+		BiFunction<String,Object[],Object> responder = scriptResponder;
+		return (responder == null ? null : responder.apply(script,args));
+	}
+
+	@Override
+	public Object executeAsyncScript(String script, Object... args) {
+		roundTrip();
+		scriptsExecuted.add(script);
+		BiFunction<String,Object[],Object> responder = scriptResponder;
+		return (responder == null ? null : responder.apply(script,args));
+	}
+
+	/***
+	 * Commands issued on a StubWebElement round trip through its driver
+	 * @return
+	 */
+	void elementRoundTrip() {
+		roundTrip();
+	}
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * The nested WebDriver interfaces
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+	private class StubTargetLocator implements TargetLocator {
+		@Override public WebDriver frame(int index) { roundTrip(); return StubWebDriver.this; }
+		@Override public WebDriver frame(String nameOrId) { roundTrip(); return StubWebDriver.this; }
+		@Override public WebDriver frame(WebElement frameElement) { roundTrip(); return StubWebDriver.this; }
+		@Override public WebDriver parentFrame() { roundTrip(); return StubWebDriver.this; }
+		@Override public WebDriver window(String nameOrHandle) {
+			roundTrip();
+			if(!windowHandles.contains(nameOrHandle)) {
+				throw new org.openqa.selenium.NoSuchWindowException("No stub window "+nameOrHandle);
+			}
+			currentWindowHandle = nameOrHandle;
+			return StubWebDriver.this;
+		}
+		@Override public WebDriver defaultContent() { roundTrip(); return StubWebDriver.this; }
+		@Override public WebElement activeElement() { roundTrip(); return new StubWebElement(StubWebDriver.this); }
+		@Override public org.openqa.selenium.Alert alert() { throw new org.openqa.selenium.NoAlertPresentException("The stub never has alerts"); }
+	}
+
+	private class StubNavigation implements Navigation {
+		@Override public void back() { roundTrip(); }
+		@Override public void forward() { roundTrip(); }
+		@Override public void to(String url) { get(url); }
+		@Override public void to(URL url) { get(url.toExternalForm()); }
+		@Override public void refresh() { roundTrip(); }
+	}
+
+	private class StubOptions implements Options {
+		@Override public void addCookie(Cookie cookie) { roundTrip(); cookies.put(cookie.getName(),cookie); }
+		@Override public void deleteCookieNamed(String name) { roundTrip(); cookies.remove(name); }
+		@Override public void deleteCookie(Cookie cookie) { roundTrip(); cookies.remove(cookie.getName()); }
+		@Override public void deleteAllCookies() { roundTrip(); cookies.clear(); }
+		@Override public Set<Cookie> getCookies() { roundTrip(); return new LinkedHashSet<Cookie>(cookies.values()); }
+		@Override public Cookie getCookieNamed(String name) { roundTrip(); return cookies.get(name); }
+		@Override public Timeouts timeouts() { return new StubTimeouts(); }
+		@Override public ImeHandler ime() { throw new UnsupportedOperationException("The stub has no IME"); }
+		@Override public Window window() { return new StubWindow(); }
+		@Override public Logs logs() { throw new UnsupportedOperationException("The stub has no logs"); }
+	}
+
+	private class StubTimeouts implements Timeouts {
+		@Override public Timeouts implicitlyWait(long time, TimeUnit unit) { roundTrip(); return this; }
+		@Override public Timeouts setScriptTimeout(long time, TimeUnit unit) { roundTrip(); return this; }
+		@Override public Timeouts pageLoadTimeout(long time, TimeUnit unit) { roundTrip(); return this; }
+	}
+
+	private class StubWindow implements Window {
+		@Override public void setSize(Dimension targetSize) { roundTrip(); }
+		@Override public void setPosition(Point targetPosition) { roundTrip(); }
+		@Override public Dimension getSize() { roundTrip(); return new Dimension(1280,1024); }
+		@Override public Point getPosition() { roundTrip(); return new Point(0,0); }
+		@Override public void maximize() { roundTrip(); }
+		@Override public void fullscreen() { roundTrip(); }
+	}
+
+	/***
+	 * A WebElement that is always displayed, enabled and interactable
+	 */
+	static class StubWebElement implements WebElement {
+
+		private final StubWebDriver driver;
+		private final StringBuilder value = new StringBuilder();
+
+		StubWebElement(StubWebDriver driver) {
+			this.driver = driver;
+		}
+
+		@Override public void click() { driver.elementRoundTrip(); }
+		@Override public void submit() { driver.elementRoundTrip(); }
+		@Override public void sendKeys(CharSequence... keysToSend) {
+			driver.elementRoundTrip();
+			for(CharSequence keys : keysToSend) {
+				value.append(keys);
+			}
+		}
+		@Override public void clear() { driver.elementRoundTrip(); value.setLength(0); }
+		@Override public String getTagName() { driver.elementRoundTrip(); return "div"; }
+		@Override public String getAttribute(String name) { driver.elementRoundTrip(); return ("value".equals(name) ? value.toString() : null); }
+		@Override public boolean isSelected() { driver.elementRoundTrip(); return false; }
+		@Override public boolean isEnabled() { driver.elementRoundTrip(); return true; }
+		@Override public String getText() { driver.elementRoundTrip(); return value.toString(); }
+		@Override public List<WebElement> findElements(By by) { return driver.findElements(by); }
+		@Override public WebElement findElement(By by) { return driver.findElement(by); }
+		@Override public boolean isDisplayed() { driver.elementRoundTrip(); return true; }
+		@Override public Point getLocation() { driver.elementRoundTrip(); return new Point(0,0); }
+		@Override public Dimension getSize() { driver.elementRoundTrip(); return new Dimension(100,20); }
+		@Override public Rectangle getRect() { driver.elementRoundTrip(); return new Rectangle(0,0,20,100); }
+		@Override public String getCssValue(String propertyName) { driver.elementRoundTrip(); return ""; }
+		@Override public <X> X getScreenshotAs(OutputType<X> target) { throw new UnsupportedOperationException("The stub has no screen"); }
+
+		/***
+		 * Everything typed into this element since it was last cleared
+		 * @return
+		 */
+		public String getTypedValue() {
+			return value.toString();
+		}
+
+	}
+
+}
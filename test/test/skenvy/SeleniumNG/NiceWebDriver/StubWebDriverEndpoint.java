@@ -0,0 +1,181 @@
+package test.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/***
+ * A local HTTP server that answers the W3C WebDriver protocol well enough
+ * for a RemoteWebDriver to start a session, navigate, find and click
+ * elements, and quit, after a simulated round trip latency. Responses are
+ * delayed on a small scheduler rather than by blocking a server thread, so
+ * the server itself never limits how many sessions can be driven at once.
+ */
+public class StubWebDriverEndpoint {
+
+	private static final String ELEMENT_KEY = "element-6066-11e4-a52e-4f735466cecf";
+	private static final Pattern SESSION_COMMAND = Pattern.compile("^/wd/hub/session/([^/]+)(/.*)?$");
+	private static final Pattern URL_PARAMETER = Pattern.compile("\"url\"\\s*:\\s*\"([^\"]*)\"");
+
+	private final HttpServer server;
+	private final ExecutorService serverExecutor = Executors.newFixedThreadPool(4);
+	private final ScheduledExecutorService responder = Executors.newScheduledThreadPool(4);
+	private final long latencyMillis;
+	private final ConcurrentHashMap<String,String> sessionUrls = new ConcurrentHashMap<String,String>();
+	private final AtomicInteger sessionCount = new AtomicInteger();
+
+	/***
+	 * How many commands the endpoint has answered
+	 */
+	public final AtomicInteger commandCount = new AtomicInteger();
+
+	/***
+	 * How many bytes of request bodies the endpoint has been sent
+	 */
+	public final AtomicLong requestBytes = new AtomicLong();
+
+	/***
+	 * Whether new sessions are refused, as by a node whose status is ready
+	 * but whose browsers fail to start
+	 */
+	public volatile boolean refusesSessions = false;
+
+	/***
+	 * Start an endpoint on a free local port, answering every command after
+	 * latencyMillis
+	 * @param latencyMillis
+	 * @throws IOException
+	 */
+	public StubWebDriverEndpoint(long latencyMillis) throws IOException {
+		this.latencyMillis = latencyMillis;
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1",0),1024);
+		server.createContext("/wd/hub",this::handle);
+		server.setExecutor(serverExecutor);
+		server.start();
+	}
+
+	/***
+	 * The remote address to give a RemoteWebDriver
+	 * @return
+	 */
+	public URL getRemoteAddress() {
+		try {
+			return new URL("http://127.0.0.1:"+server.getAddress().getPort()+"/wd/hub");
+		} catch (MalformedURLException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/***
+	 * How many sessions are open
+	 * @return
+	 */
+	public int getOpenSessions() {
+		return sessionUrls.size();
+	}
+
+	public void stop() {
+		server.stop(0);
+		responder.shutdownNow();
+		serverExecutor.shutdownNow();
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		String body = readBody(exchange.getRequestBody());
+		commandCount.incrementAndGet();
+		requestBytes.addAndGet(body.getBytes(StandardCharsets.UTF_8).length);
+		String method = exchange.getRequestMethod();
+		String path = exchange.getRequestURI().getPath();
+		int status = 200;
+		String value;
+		Matcher command = SESSION_COMMAND.matcher(path);
+		if(method.equals("POST") && (path.equals("/wd/hub/session") || path.equals("/wd/hub/session/")) && refusesSessions) {
+			status = 500;
+			value = "{\"error\":\"session not created\",\"message\":\"The stub refuses new sessions\",\"stacktrace\":\"\"}";
+		} else if(method.equals("POST") && (path.equals("/wd/hub/session") || path.equals("/wd/hub/session/"))) {
+			String sessionId = "stub-session-"+sessionCount.incrementAndGet();
+			sessionUrls.put(sessionId,"about:blank");
+			value = "{\"sessionId\":\""+sessionId+"\",\"capabilities\":{\"browserName\":\"chrome\",\"platformName\":\"any\"}}";
+		} else if(path.equals("/wd/hub/status")) {
+			value = "{\"ready\":true,\"message\":\"stub\"}";
+		} else if(command.matches() && sessionUrls.containsKey(command.group(1))) {
+			value = answer(method,command.group(1),(command.group(2) == null ? "" : command.group(2)),body);
+		} else {
+			status = 404;
+			value = "{\"error\":\"invalid session id\",\"message\":\"No such stub session\",\"stacktrace\":\"\"}";
+		}
+		byte[] response = ("{\"value\":"+value+"}").getBytes(StandardCharsets.UTF_8);
+		int responseStatus = status;
+		responder.schedule(() -> respond(exchange,responseStatus,response),latencyMillis,TimeUnit.MILLISECONDS);
+	}
+
+	private String answer(String method, String sessionId, String command, String body) {
+		if(method.equals("DELETE") && command.equals("")) {
+			sessionUrls.remove(sessionId);
+			return "null";
+		} else if(command.equals("/url")) {
+			if(method.equals("POST")) {
+				Matcher url = URL_PARAMETER.matcher(body);
+				if(url.find()) {
+					sessionUrls.put(sessionId,url.group(1));
+				}
+				return "null";
+			}
+			return "\""+sessionUrls.get(sessionId)+"\"";
+		} else if(command.equals("/element")) {
+			return "{\""+ELEMENT_KEY+"\":\"stub-element-1\"}";
+		} else if(command.equals("/elements")) {
+			return "[{\""+ELEMENT_KEY+"\":\"stub-element-1\"}]";
+		} else if(command.equals("/window")) {
+			return "\"stub-window-1\"";
+		} else if(command.equals("/window/handles")) {
+			return "[\"stub-window-1\"]";
+		} else if(command.equals("/source")) {
+			return "\"<html><body><a id=\\\"go\\\" href=\\\"/next\\\">go</a></body></html>\"";
+		} else if(command.endsWith("/displayed") || command.endsWith("/enabled")) {
+			return "true";
+		}
+		return "null";
+	}
+
+	private static void respond(HttpExchange exchange, int status, byte[] response) {
+		try {
+			exchange.getResponseHeaders().set("Content-Type","application/json; charset=utf-8");
+			exchange.sendResponseHeaders(status,response.length);
+			try(OutputStream out = exchange.getResponseBody()) {
+				out.write(response);
+			}
+		} catch (IOException e) {
+			exchange.close();
+		}
+	}
+
+	private static String readBody(InputStream in) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] buffer = new byte[4096];
+		int read;
+		while((read = in.read(buffer)) > 0) {
+			bytes.write(buffer,0,read);
+		}
+		in.close();
+		return bytes.toString("UTF-8");
+	}
+
+}
@@ -0,0 +1,75 @@
+package test.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.DriverType;
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriver;
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriverFactory;
+
+/***
+ * The fixture shared by the tests that drive a NiceWebDriver over a
+ * StubWebDriver: the factory, with a NiceStub in place of NiceChrome, and
+ * the sessions each test starts, which are quit after it, pass or fail.
+ */
+public abstract class StubbedSessionFixture {
+
+	protected NiceWebDriverFactory factory;
+
+	private final List<NiceWebDriver> sessions = new ArrayList<NiceWebDriver>();
+
+	@BeforeClass
+	public void injectStub() throws IOException {
+		factory = NiceWebDriverFactory.getFactory(StubConfig.write());
+		factory.registerNiceWebDriverPrototype(DriverType.Chrome,new NiceStub());
+	}
+
+	@AfterMethod(alwaysRun = true)
+	public void quitSessions() {
+		for(NiceWebDriver nwd : sessions) {
+			nwd.quitWebDriver();
+		}
+		sessions.clear();
+	}
+
+	/***
+	 * Start a stub session, which is quit after the test
+	 * @param waitSeconds
+	 * @return NiceWebDriver
+	 * @throws FileNotFoundException
+	 */
+	protected NiceWebDriver startSession(int waitSeconds) throws FileNotFoundException {
+		NiceWebDriver nwd = factory.getNiceWebDriver(DriverType.Chrome,"--stub",waitSeconds);
+		sessions.add(nwd);
+		return nwd;
+	}
+
+	/***
+	 * Start a stub session whose page answers every script with the responder
+	 * @param waitSeconds
+	 * @param scriptResponder
+	 * @return NiceWebDriver
+	 * @throws FileNotFoundException
+	 */
+	protected NiceWebDriver startSession(int waitSeconds, BiFunction<String,Object[],Object> scriptResponder) throws FileNotFoundException {
+		NiceWebDriver nwd = startSession(waitSeconds);
+		stubOf(nwd).setScriptResponder(scriptResponder);
+		return nwd;
+	}
+
+	/***
+	 * The StubWebDriver under a stub session
+	 * @param nwd
+	 * @return StubWebDriver
+	 */
+	protected static StubWebDriver stubOf(NiceWebDriver nwd) {
+		return (StubWebDriver) nwd.unwrapWebDriver();
+	}
+
+}
@@ -0,0 +1,127 @@
+package test.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.skenvy.SeleniumNG.DomainConstants;
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriver;
+import com.skenvy.SeleniumNG.NiceWebDriver.TraceTimeline;
+
+/***
+ * Drives two NiceWebDriver sessions on a StubWebDriver with "Trace.Path"
+ * set, and checks that their navigations, lookups, clicks, keystrokes,
+ * waits and commands are streamed as Chrome Trace Event spans, each session
+ * on its own named track.
+ */
+public class TraceTimelineTest extends StubbedSessionFixture {
+
+	private File traceFile;
+
+	@BeforeClass
+	public void traceToAFile() throws IOException {
+		traceFile = File.createTempFile("SeleniumNG-trace",".json");
+		traceFile.deleteOnExit();
+		new DomainConstants(StubConfig.write("Trace.Path",traceFile.getAbsolutePath()));
+	}
+
+	@AfterClass
+	public void stopTracing() throws IOException {
+		new DomainConstants(StubConfig.write());
+	}
+
+	@Test
+	public void EachSessionsSpansAreStreamedToItsOwnTrack() throws Exception {
+		NiceWebDriver first = startSession(1);
+		NiceWebDriver second = startSession(1);
+		first.openWebPage("http://stub/page");
+		first.clickOnCSSElementIfExists("#here");
+		first.sendKeysToCSSElementIfExists("#here","abc","de");
+		first.unwrapNiceWait().until(d -> true);
+		second.openWebPage("http://stub/other");
+		Assert.assertTrue(TraceTimeline.flush(5000));
+		List<String> events = Files.readAllLines(traceFile.toPath(),StandardCharsets.UTF_8);
+		Assert.assertTrue(events.get(0).startsWith("[{\"name\":\"process_name\",\"ph\":\"M\""),events.get(0));
+		String firstTrack = trackOf(events,first);
+		String secondTrack = trackOf(events,second);
+		Assert.assertNotEquals(firstTrack,secondTrack);
+		List<String> firstSpans = spansOn(events,firstTrack);
+		assertHasSpan(firstSpans,"\"name\":\"openWebPage\",\"cat\":\"navigation\"","\"args\":{\"url\":\"http://stub/page\"}");
+		assertHasSpan(firstSpans,"\"name\":\"WebDriver.get\",\"cat\":\"navigation\"","");
+		assertHasSpan(firstSpans,"\"name\":\"lookup\",\"cat\":\"lookup\"","\"args\":{\"by\":\"By.cssSelector: #here\"}");
+		assertHasSpan(firstSpans,"\"name\":\"click\",\"cat\":\"click\"","");
+		assertHasSpan(firstSpans,"\"name\":\"WebElement.click\",\"cat\":\"command\"","");
+		assertHasSpan(firstSpans,"\"name\":\"sendKeys\",\"cat\":\"keys\"","\"args\":{\"characters\":5}");
+		assertHasSpan(firstSpans,"\"name\":\"NiceWait.until\",\"cat\":\"wait\"","");
+		List<String> secondSpans = spansOn(events,secondTrack);
+		assertHasSpan(secondSpans,"\"name\":\"openWebPage\",\"cat\":\"navigation\"","\"args\":{\"url\":\"http://stub/other\"}");
+		// With the get, and the script that instruments the page for quiescence
+		assertHasSpan(secondSpans,"\"name\":\"WebDriver.executeScript\",\"cat\":\"command\"","");
+		Assert.assertEquals(secondSpans.size(),3,secondSpans.toString());
+	}
+
+	@Test
+	public void ASpanThatCanNotBeWrittenDoesNotStopTheSpansAfterIt() throws Exception {
+		NiceWebDriver nwd = startSession(1);
+		Object unwritable = new Object() {
+			@Override
+			public String toString() {
+				throw new IllegalStateException("unwritable");
+			}
+		};
+		nwd.getCommandMetrics().getTrack().span("test","unwritable",System.nanoTime(),"status",unwritable);
+		nwd.getCommandMetrics().getTrack().span("test","written",System.nanoTime());
+		Assert.assertTrue(TraceTimeline.flush(5000));
+		List<String> events = Files.readAllLines(traceFile.toPath(),StandardCharsets.UTF_8);
+		List<String> spans = spansOn(events,trackOf(events,nwd));
+		assertHasSpan(spans,"\"name\":\"written\",\"cat\":\"test\"","");
+		for(String span : spans) {
+			Assert.assertFalse(span.contains("\"name\":\"unwritable\""),span);
+		}
+	}
+
+	/***
+	 * The "tid" of the track named after the session
+	 * @param events
+	 * @param nwd
+	 * @return
+	 */
+	private static String trackOf(List<String> events, NiceWebDriver nwd) {
+		String name = "\"args\":{\"name\":\"Chrome @ local | "+nwd.getCommandMetrics().getSessionId()+"\"}";
+		for(String event : events) {
+			if(event.contains("\"name\":\"thread_name\"") && event.contains(name)) {
+				return event.substring(event.indexOf("\"tid\":"),event.indexOf(",\"args\""));
+			}
+		}
+		Assert.fail("No track is named after "+nwd.getCommandMetrics().getSessionId());
+		return null;
+	}
+
+	private static List<String> spansOn(List<String> events, String track) {
+		List<String> spans = new ArrayList<String>();
+		for(String event : events) {
+			if(event.contains("\"ph\":\"X\"") && (event.contains(","+track+",") || event.contains(","+track+"}"))) {
+				spans.add(event);
+			}
+		}
+		return spans;
+	}
+
+	private static void assertHasSpan(List<String> spans, String nameAndCategory, String args) {
+		for(String span : spans) {
+			if(span.contains(nameAndCategory) && span.contains(args) && span.contains("\"ph\":\"X\",\"ts\":") && span.contains(",\"dur\":")) {
+				return;
+			}
+		}
+		Assert.fail("No span "+nameAndCategory+" "+args+" in "+spans);
+	}
+
+}
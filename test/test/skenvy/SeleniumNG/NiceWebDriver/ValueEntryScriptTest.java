@@ -0,0 +1,92 @@
+package test.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.io.IOException;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriver;
+
+/***
+ * Runs the ValueEntry script in a real DOM: that text is appended to a text
+ * field through the native value setter, cut to its maxlength, and followed
+ * by bubbling input and change events, and that fields it can not enter
+ * text into are refused.
+ */
+public class ValueEntryScriptTest extends StubbedSessionFixture {
+
+	private String script;
+
+	private static final String FORM = "<form id='form'>"
+			+ "<input id='name' type='text' value='Jo'>"
+			+ "<input id='code' maxlength='4' value='ab'>"
+			+ "<textarea id='notes'>one</textarea>"
+			+ "<input id='locked' type='text' readonly>"
+			+ "<input id='off' type='text' disabled>"
+			+ "<input id='box' type='checkbox'>"
+			+ "</form>"
+			+ "<script>window.events = []; var form = document.getElementById('form');"
+			+ "form.addEventListener('input', function(e) { events.push('input:' + e.target.id); });"
+			+ "form.addEventListener('change', function(e) { events.push('change:' + e.target.id); });</script>";
+
+	@BeforeClass
+	public void sendScript() throws IOException {
+		NiceWebDriver nwd = startSession(1,(sent,args) -> true);
+		StubWebDriver driver = stubOf(nwd);
+		nwd.setValueOfANonNullWebElement(new StubWebDriver.StubWebElement(driver),"x");
+		script = ScriptPage.installingScript(driver.getScriptsExecuted(),"seleniumNG.valueEntry");
+	}
+
+	@Test
+	public void TextIsAppendedAndTheEventsOfTypingAreFired() throws IOException {
+		try(ScriptPage page = new ScriptPage(FORM)) {
+			page.execute(script,ScriptPage.element("#name"),"hn");
+			Assert.assertEquals(page.evaluate("result"),"true");
+			Assert.assertEquals(page.evaluate("document.getElementById('name').value"),"John");
+			Assert.assertEquals(page.evaluate("events"),"input:name,change:name");
+			Assert.assertEquals(page.evaluate("document.activeElement.id"),"name");
+			page.execute(script,ScriptPage.element("#notes"),"\ntwo");
+			Assert.assertEquals(page.evaluate("result"),"true");
+			Assert.assertEquals(page.evaluate("document.getElementById('notes').value"),"one\ntwo");
+		}
+	}
+
+	@Test
+	public void TheNativeSetterIsUsedPastAFrameworksOwnValueProperty() throws IOException {
+		try(ScriptPage page = new ScriptPage(FORM+"<script>var tracked = []; var field = document.getElementById('name');"
+				+ "var descriptor = Object.getOwnPropertyDescriptor(HTMLInputElement.prototype, 'value');"
+				+ "Object.defineProperty(field, 'value', { get: function() { return descriptor.get.call(this); }, set: function(v) { tracked.push(v); descriptor.set.call(this, v); } });</script>")) {
+			page.execute(script,ScriptPage.element("#name"),"hn");
+			Assert.assertEquals(page.evaluate("result"),"true");
+			Assert.assertEquals(page.evaluate("document.getElementById('name').value"),"John");
+			// The framework's tracker did not see the value set, so it sees the input event as a change
+			Assert.assertEquals(page.evaluate("tracked.length"),"0");
+		}
+	}
+
+	@Test
+	public void TextIsCutToTheMaxLength() throws IOException {
+		try(ScriptPage page = new ScriptPage(FORM)) {
+			page.execute(script,ScriptPage.element("#code"),"cdef");
+			Assert.assertEquals(page.evaluate("result"),"true");
+			Assert.assertEquals(page.evaluate("document.getElementById('code').value"),"abcd");
+		}
+	}
+
+	@Test
+	public void FieldsTextCanNotBeEnteredIntoAreRefused() throws IOException {
+		try(ScriptPage page = new ScriptPage(FORM)) {
+			for(String field : new String[] {"#locked","#off","#box"}) {
+				page.execute(script,ScriptPage.element(field),"x");
+				Assert.assertEquals(page.evaluate("result"),"false",field);
+			}
+			// A line break in an input would have been Enter
+			page.execute(script,ScriptPage.element("#name"),"a\nb");
+			Assert.assertEquals(page.evaluate("result"),"false");
+			Assert.assertEquals(page.evaluate("document.getElementById('name').value"),"Jo");
+			Assert.assertEquals(page.evaluate("events.length"),"0");
+		}
+	}
+
+}
@@ -0,0 +1,58 @@
+package test.skenvy.SeleniumNG.NiceWebDriver;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.Keys;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.skenvy.SeleniumNG.NiceWebDriver.NiceWebDriver;
+
+/***
+ * Answers the value entry script from a StubWebDriver, and checks that
+ * long text is entered in that one call when the page accepts it, and is
+ * typed as keys when it does not, or has special keys.
+ */
+public class ValueEntryTest extends StubbedSessionFixture {
+
+	private static final String PAYLOAD = new String(new char[2048]).replace('\0','x');
+
+	@Test
+	public void TextIsEnteredInOneScriptCall() throws Exception {
+		NiceWebDriver nwd = startSession(1);
+		StubWebDriver driver = stubOf(nwd);
+		StubWebDriver.StubWebElement field = new StubWebDriver.StubWebElement(driver);
+		driver.setScriptResponder((script,args) -> {
+			Assert.assertSame(args[0],field);
+			Assert.assertEquals(args[1],PAYLOAD);
+			return true;
+		});
+		int commandsBefore = StubWebDriver.commandCount.get();
+		nwd.setValueOfANonNullWebElement(field,PAYLOAD);
+		Assert.assertEquals(StubWebDriver.commandCount.get()-commandsBefore,1);
+		Assert.assertEquals(field.getTypedValue(),"");
+	}
+
+	@Test
+	public void TextThePageRefusesIsSentAsKeys() throws Exception {
+		NiceWebDriver nwd = startSession(1);
+		StubWebDriver driver = stubOf(nwd);
+		StubWebDriver.StubWebElement field = new StubWebDriver.StubWebElement(driver);
+		driver.setScriptResponder((script,args) -> false);
+		nwd.setValueOfANonNullWebElement(field,PAYLOAD);
+		Assert.assertEquals(field.getTypedValue(),PAYLOAD);
+	}
+
+	@Test
+	public void TextWithSpecialKeysIsSentAsKeys() throws Exception {
+		NiceWebDriver nwd = startSession(1);
+		StubWebDriver driver = stubOf(nwd);
+		StubWebDriver.StubWebElement field = new StubWebDriver.StubWebElement(driver);
+		AtomicInteger scripts = new AtomicInteger();
+		driver.setScriptResponder((script,args) -> scripts.incrementAndGet() > 0);
+		nwd.setValueOfANonNullWebElement(field,PAYLOAD+Keys.ENTER);
+		Assert.assertEquals(scripts.get(),0);
+		Assert.assertEquals(field.getTypedValue(),PAYLOAD+Keys.ENTER);
+	}
+
+}
@@ -0,0 +1,110 @@
+package test.skenvy.SeleniumNG;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.skenvy.SeleniumNG.DomainConstants.SeleniumNode;
+import com.skenvy.SeleniumNG.SeleniumNodeScheduler;
+import com.skenvy.SeleniumNG.NiceWebDriver.DriverType;
+
+/***
+ * Checks the SeleniumNodeScheduler on its own, over nodes that are never
+ * contacted: that leases are counted and returned, that the least loaded
+ * node is leased relative to its maximum sessions, that an instance waits
+ * while every node is full, and that an inadmissible node is passed over.
+ */
+public class SeleniumNodeSchedulerTest {
+
+	private static SeleniumNode node(String host, DriverType driverType, int maxSessions) throws MalformedURLException {
+		return new SeleniumNode(false,new URL("http://"+host+":4444/wd/hub"),driverType,maxSessions);
+	}
+
+	@Test
+	public void LeasesAreCountedAndReturned() throws Exception {
+		SeleniumNode node = node("a",DriverType.Chrome,3);
+		SeleniumNodeScheduler scheduler = new SeleniumNodeScheduler(new SeleniumNode[] {node});
+		Assert.assertSame(scheduler.acquire(DriverType.Chrome),node);
+		Assert.assertSame(scheduler.acquire(DriverType.Chrome),node);
+		Assert.assertEquals(scheduler.getActiveSessions(node),2);
+		scheduler.release(node);
+		Assert.assertEquals(scheduler.getActiveSessions(node),1);
+		// Nodes that were not leased, and null, are ignored
+		scheduler.release(node("a",DriverType.Chrome,3));
+		scheduler.release(null);
+		Assert.assertEquals(scheduler.getActiveSessions(node),1);
+		scheduler.release(node);
+		scheduler.release(node);
+		Assert.assertEquals(scheduler.getActiveSessions(node),0);
+	}
+
+	@Test
+	public void NoNodeOfTheDriverTypeMeansUnscheduled() throws Exception {
+		SeleniumNodeScheduler scheduler = new SeleniumNodeScheduler(new SeleniumNode[] {node("a",DriverType.Chrome,1)});
+		Assert.assertNull(scheduler.acquire(DriverType.Firefox));
+	}
+
+	@Test
+	public void TheLeastLoadedNodeIsLeasedRelativeToItsMaximumSessions() throws Exception {
+		SeleniumNode small = node("small",DriverType.Chrome,2);
+		SeleniumNode large = node("large",DriverType.Chrome,4);
+		SeleniumNode other = node("other",DriverType.Firefox,8);
+		SeleniumNodeScheduler scheduler = new SeleniumNodeScheduler(new SeleniumNode[] {small,other,large});
+		// Ties go to the node configured first
+		Assert.assertSame(scheduler.acquire(DriverType.Chrome),small);
+		Assert.assertSame(scheduler.acquire(DriverType.Chrome),large);
+		Assert.assertSame(scheduler.acquire(DriverType.Chrome),large);
+		Assert.assertSame(scheduler.acquire(DriverType.Chrome),small);
+		Assert.assertSame(scheduler.acquire(DriverType.Chrome),large);
+		Assert.assertSame(scheduler.acquire(DriverType.Chrome),large);
+		Assert.assertEquals(scheduler.getActiveSessions(small),2);
+		Assert.assertEquals(scheduler.getActiveSessions(large),4);
+		Assert.assertEquals(scheduler.getActiveSessions(other),0);
+	}
+
+	@Test
+	public void AnInstanceWaitsWhileEveryNodeIsFull() throws Exception {
+		SeleniumNode node = node("a",DriverType.Chrome,1);
+		SeleniumNodeScheduler scheduler = new SeleniumNodeScheduler(new SeleniumNode[] {node});
+		Assert.assertSame(scheduler.acquire(DriverType.Chrome),node);
+		CompletableFuture<SeleniumNode> waiting = CompletableFuture.supplyAsync(() -> {
+			try {
+				return scheduler.acquire(DriverType.Chrome);
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		Thread.sleep(200);
+		Assert.assertFalse(waiting.isDone());
+		scheduler.release(node);
+		Assert.assertSame(waiting.get(5,TimeUnit.SECONDS),node);
+		Assert.assertEquals(scheduler.getActiveSessions(node),1);
+	}
+
+	@Test
+	public void AnInadmissibleNodeIsPassedOver() throws Exception {
+		SeleniumNode unhealthy = node("unhealthy",DriverType.Chrome,4);
+		SeleniumNode healthy = node("healthy",DriverType.Chrome,1);
+		SeleniumNodeScheduler scheduler = new SeleniumNodeScheduler(new SeleniumNode[] {unhealthy,healthy});
+		Assert.assertSame(scheduler.acquire(DriverType.Chrome,n -> n != unhealthy),healthy);
+		// The admissible node is full, so the instance waits for it rather than leasing the inadmissible one
+		CompletableFuture<SeleniumNode> waiting = CompletableFuture.supplyAsync(() -> {
+			try {
+				return scheduler.acquire(DriverType.Chrome,n -> n != unhealthy);
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		Thread.sleep(200);
+		Assert.assertFalse(waiting.isDone());
+		scheduler.release(healthy);
+		Assert.assertSame(waiting.get(5,TimeUnit.SECONDS),healthy);
+		// With no node admissible, the least loaded is leased so that the instance fails fast on it
+		Assert.assertSame(scheduler.acquire(DriverType.Chrome,n -> false),unhealthy);
+	}
+
+}